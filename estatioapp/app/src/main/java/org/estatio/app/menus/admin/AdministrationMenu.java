@@ -38,6 +38,9 @@ import org.isisaddons.module.settings.dom.ApplicationSetting;
 
 import org.estatio.dom.UdoDomainService;
 import org.estatio.dom.appsettings.LeaseInvoicingSettingsService;
+import org.estatio.dom.invoice.Invoice;
+import org.estatio.dom.invoice.InvoiceTotalsService;
+import org.estatio.dom.lease.invoicing.summary.InvoiceSummaryStore;
 import org.estatio.domsettings.ApplicationSettingForEstatio;
 import org.estatio.domsettings.ApplicationSettingsServiceForEstatio;
 
@@ -84,6 +87,42 @@ public class AdministrationMenu extends UdoDomainService<AdministrationMenu> {
     //endregion
 
 
+    //region > backfillInvoiceTotals (action)
+
+    @Action(
+            semantics = SemanticsOf.IDEMPOTENT
+    )
+    @MemberOrder(sequence = "3")
+    public String backfillInvoiceTotals() {
+        return String.format("%d invoice(s) backfilled", invoiceTotalsService.backfill());
+    }
+    //endregion
+
+
+    //region > findInvoicesWithInconsistentTotals (action)
+
+    @Action(
+            semantics = SemanticsOf.SAFE
+    )
+    @MemberOrder(sequence = "4")
+    public List<Invoice> findInvoicesWithInconsistentTotals() {
+        return invoiceTotalsService.findInconsistent();
+    }
+    //endregion
+
+
+    //region > rebuildInvoiceSummaries (action)
+
+    @Action(
+            semantics = SemanticsOf.IDEMPOTENT
+    )
+    @MemberOrder(sequence = "5")
+    public String rebuildInvoiceSummaries() {
+        return String.format("%d invoice summary total(s) rebuilt", invoiceSummaryStore.rebuild());
+    }
+    //endregion
+
+
 
     //region > injected dependencies
 
@@ -93,6 +132,12 @@ public class AdministrationMenu extends UdoDomainService<AdministrationMenu> {
     @Inject
     ApplicationSettingsServiceForEstatio applicationSettingsService;
 
+    @Inject
+    InvoiceTotalsService invoiceTotalsService;
+
+    @Inject
+    InvoiceSummaryStore invoiceSummaryStore;
+
     //endregion
 
         }
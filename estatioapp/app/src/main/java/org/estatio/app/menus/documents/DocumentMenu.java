@@ -37,6 +37,8 @@ import org.apache.isis.applib.services.clock.ClockService;
 import org.incode.module.document.dom.impl.docs.Document;
 import org.incode.module.document.dom.impl.docs.DocumentRepository;
 
+import org.estatio.app.services.documents.DocumentRenderScheduler;
+import org.estatio.app.services.documents.ScheduledRenderQueueStatus;
 import org.estatio.dom.UdoDomainService;
 
 @DomainService(nature = NatureOfService.VIEW_MENU_ONLY)
@@ -67,11 +69,21 @@ public class DocumentMenu extends UdoDomainService<DocumentMenu> {
     }
 
 
+    @Action(semantics = SemanticsOf.SAFE)
+    @MemberOrder(sequence = "2")
+    public ScheduledRenderQueueStatus renderQueue() {
+        return documentRenderScheduler.status();
+    }
+
+
     @Inject
     private ClockService clockService;
 
     @Inject
     private DocumentRepository documentRepository;
 
+    @Inject
+    private DocumentRenderScheduler documentRenderScheduler;
+
 
 }
@@ -37,6 +37,7 @@ import org.apache.isis.applib.annotation.RestrictTo;
 import org.apache.isis.applib.annotation.SemanticsOf;
 import org.apache.isis.applib.services.clock.ClockService;
 
+import org.isisaddons.module.security.app.user.MeService;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
@@ -126,9 +127,16 @@ public class InvoiceMenu extends UdoDomainRepositoryAndFactory<Invoice> {
     @Action(semantics = SemanticsOf.SAFE)
     @MemberOrder(sequence = "2")
     public List<InvoiceForLease> findInvoices(
-            final FixedAsset fixedAsset,
+            final @Parameter(optionality = Optionality.OPTIONAL) FixedAsset fixedAsset,
             final @Parameter(optionality = Optionality.OPTIONAL) LocalDate dueDate,
             final InvoiceStatus status) {
+        if (fixedAsset == null) {
+            // all properties the user has access to
+            final String atPath = meService.me().getAtPath();
+            return dueDate == null
+                    ? invoiceForLeaseRepository.findByAtPathAndStatus(atPath, status)
+                    : invoiceForLeaseRepository.findByAtPathAndDueDateAndStatus(atPath, dueDate, status);
+        }
         if (status == null) {
             return invoiceForLeaseRepository.findByFixedAssetAndDueDate(fixedAsset, dueDate);
         } else if (dueDate == null) {
@@ -138,6 +146,13 @@ public class InvoiceMenu extends UdoDomainRepositoryAndFactory<Invoice> {
         }
     }
 
+    public String validateFindInvoices(
+            final FixedAsset fixedAsset,
+            final LocalDate dueDate,
+            final InvoiceStatus status) {
+        return fixedAsset == null && status == null ? "Select a status when not selecting a property" : null;
+    }
+
     @Action(semantics = SemanticsOf.SAFE)
     @MemberOrder(sequence = "3")
     public List<Invoice> findInvoicesByInvoiceNumber(
@@ -190,6 +205,9 @@ public class InvoiceMenu extends UdoDomainRepositoryAndFactory<Invoice> {
     @Inject
     ClockService clockService;
 
+    @Inject
+    MeService meService;
+
     @Inject
     EstatioApplicationTenancyRepositoryForLease estatioApplicationTenancyRepositoryForLease;
 
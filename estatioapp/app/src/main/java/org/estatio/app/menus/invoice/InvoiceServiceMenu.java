@@ -17,6 +17,7 @@ import org.apache.isis.applib.annotation.SemanticsOf;
 
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 
+import org.estatio.app.services.invoicing.ParallelInvoiceCalculationService;
 import org.estatio.dom.UdoDomainService;
 import org.estatio.dom.asset.Property;
 import org.estatio.dom.invoice.InvoiceRunType;
@@ -26,7 +27,7 @@ import org.estatio.dom.lease.LeaseRepository;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationParameters;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationSelection;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationService;
-import org.estatio.dom.lease.invoicing.viewmodel.InvoiceSummaryForInvoiceRun;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationReport;
 import org.estatio.dom.lease.invoicing.viewmodel.InvoiceSummaryForInvoiceRunRepository;
 import org.estatio.dom.togglz.EstatioTogglzFeature;
 
@@ -161,6 +162,137 @@ public class InvoiceServiceMenu extends UdoDomainService<InvoiceServiceMenu> {
     }
 
 
+    // //////////////////
+
+    /**
+     * As {@link #calculateInvoicesForProperty(Property, InvoiceRunType, List, LocalDate, LocalDate, LocalDate)}, but
+     * calculating the leases in parallel, each chunk of leases in its own transaction; returns an
+     * {@link InvoiceCalculationReport report} listing any leases that failed.
+     */
+    @Action(semantics = SemanticsOf.NON_IDEMPOTENT)
+    @MemberOrder(name = "Invoices", sequence = "2")
+    public InvoiceCalculationReport calculateInvoicesForPropertyInParallel(
+            final Property property,
+            final InvoiceRunType runType,
+            final List<LeaseItemType> leaseItemTypes,
+            final LocalDate invoiceDueDate,
+            final LocalDate startDueDate,
+            final LocalDate nextDueDate) {
+        return parallelInvoiceCalculationService.calculateAndInvoice(
+                InvoiceCalculationParameters.builder()
+                        .property(property)
+                        .leaseItemTypes(leaseItemTypes)
+                        .invoiceRunType(runType)
+                        .invoiceDueDate(invoiceDueDate)
+                        .startDueDate(startDueDate)
+                        .nextDueDate(nextDueDate).build());
+    }
+
+    public List<LeaseItemType> choices2CalculateInvoicesForPropertyInParallel() {
+        return Arrays.asList(LeaseItemType.values());
+    }
+
+    public InvoiceRunType default1CalculateInvoicesForPropertyInParallel() {
+        return doDefault1CalculateInvoicesForProperty();
+    }
+
+    public List<LeaseItemType> default2CalculateInvoicesForPropertyInParallel() {
+        return doDefault2CalculateInvoicesForProperty().selectedTypes();
+    }
+
+    public LocalDate default3CalculateInvoicesForPropertyInParallel() {
+        return doDefault3CalculateInvoicesForProperty();
+    }
+
+    public LocalDate default4CalculateInvoicesForPropertyInParallel() {
+        return doDefault4CalculateInvoicesForProperty();
+    }
+
+    public LocalDate default5CalculateInvoicesForPropertyInParallel() {
+        return doDefault5CalculateInvoicesForProperty();
+    }
+
+    public String validateCalculateInvoicesForPropertyInParallel(
+            final Property property,
+            final InvoiceRunType runType,
+            final List<LeaseItemType> leaseItemTypes,
+            final LocalDate dueDate,
+            final LocalDate startDate,
+            final LocalDate endDate) {
+        return doValidateCalculateInvoicesForProperty(startDate, endDate);
+    }
+
+    public boolean hideCalculateInvoicesForPropertyInParallel() {
+        return isMultiSelectInactive();
+    }
+
+    // //////////////////
+
+    /**
+     * Returns the
+     * {@link InvoiceSummaryForInvoiceRunRepository
+     * invoice summary} of the last run for the provided <tt>property</tt> and
+     * other parameters, recalculating only the lease items that changed since
+     * (see {@link InvoiceCalculationService#recalculateAndInvoice(InvoiceCalculationParameters)}).
+     */
+    @Action(semantics = SemanticsOf.NON_IDEMPOTENT)
+    @MemberOrder(name = "Invoices", sequence = "3")
+    public Object recalculateInvoicesForProperty(
+            final Property property,
+            final InvoiceRunType runType,
+            final List<LeaseItemType> leaseItemTypes,
+            final LocalDate invoiceDueDate,
+            final LocalDate startDueDate,
+            final LocalDate nextDueDate) {
+        final String runId = invoiceCalculationService.recalculateAndInvoice(
+                InvoiceCalculationParameters.builder()
+                        .property(property)
+                        .leaseItemTypes(leaseItemTypes)
+                        .invoiceRunType(runType)
+                        .invoiceDueDate(invoiceDueDate)
+                        .startDueDate(startDueDate)
+                        .nextDueDate(nextDueDate).build());
+        return invoiceSummaries.findByRunId(runId);
+    }
+
+    public List<LeaseItemType> choices2RecalculateInvoicesForProperty() {
+        return Arrays.asList(LeaseItemType.values());
+    }
+
+    public InvoiceRunType default1RecalculateInvoicesForProperty() {
+        return doDefault1CalculateInvoicesForProperty();
+    }
+
+    public List<LeaseItemType> default2RecalculateInvoicesForProperty() {
+        return doDefault2CalculateInvoicesForProperty().selectedTypes();
+    }
+
+    public LocalDate default3RecalculateInvoicesForProperty() {
+        return doDefault3CalculateInvoicesForProperty();
+    }
+
+    public LocalDate default4RecalculateInvoicesForProperty() {
+        return doDefault4CalculateInvoicesForProperty();
+    }
+
+    public LocalDate default5RecalculateInvoicesForProperty() {
+        return doDefault5CalculateInvoicesForProperty();
+    }
+
+    public String validateRecalculateInvoicesForProperty(
+            final Property property,
+            final InvoiceRunType runType,
+            final List<LeaseItemType> leaseItemTypes,
+            final LocalDate dueDate,
+            final LocalDate startDate,
+            final LocalDate endDate) {
+        return doValidateCalculateInvoicesForProperty(startDate, endDate);
+    }
+
+    public boolean hideRecalculateInvoicesForProperty() {
+        return isMultiSelectInactive();
+    }
+
     // //////////////////
 
     private Object doCalculateInvoicesForProperty(
@@ -253,30 +385,13 @@ public class InvoiceServiceMenu extends UdoDomainService<InvoiceServiceMenu> {
     private Object doCalculateRetroInvoices(
             final ApplicationTenancy applicationTenancy,
             final List<LeaseItemType> leaseItemTypes, final LocalDate startDueDate, final LocalDate nextDueDate) {
-        for (Lease lease : leaseRepository.allLeases()){
-            if (lease.getApplicationTenancy().getPath().matches(applicationTenancy.getPath()+".*")){
-                for (LocalDate dueDate : lease.dueDatesInRange(startDueDate, nextDueDate)) {
-                    InvoiceCalculationParameters parameters =
-                            InvoiceCalculationParameters.builder()
-                                    .lease(lease)
-                                    .leaseItemTypes(leaseItemTypes)
-                                    .invoiceRunType(InvoiceRunType.NORMAL_RUN)
-                                    .invoiceDueDate(dueDate)
-                                    .startDueDate(startDueDate)
-                                    .nextDueDate(dueDate.plusDays(1)).build();
-                    String runId = invoiceCalculationService.calculateAndInvoice(parameters);
-                    if (runId != null) {
-                        final InvoiceSummaryForInvoiceRun summaryForInvoiceRun = invoiceSummaries.findByRunId(runId);
-                        if (summaryForInvoiceRun != null) {
-                            summaryForInvoiceRun.saveAllAsHistoric();
-                        } else {
-                            getContainer().warnUser(String.format("Run Id [%s] not found", runId));
-                        }
-                    }
-                }
-            }
+        final List<Lease> leases = leaseRepository.findByAtPath(applicationTenancy.getPath());
+        final InvoiceCalculationReport report =
+                parallelInvoiceCalculationService.calculateRetroInvoices(leases, leaseItemTypes, startDueDate, nextDueDate);
+        if (report.getLeasesFailed() > 0) {
+            getContainer().warnUser(report.title());
         }
-        return "Done";
+        return report;
     }
 
 
@@ -461,6 +576,9 @@ public class InvoiceServiceMenu extends UdoDomainService<InvoiceServiceMenu> {
     @javax.inject.Inject
     private InvoiceSummaryForInvoiceRunRepository invoiceSummaries;
 
+    @javax.inject.Inject
+    private ParallelInvoiceCalculationService parallelInvoiceCalculationService;
+
 
 
 }
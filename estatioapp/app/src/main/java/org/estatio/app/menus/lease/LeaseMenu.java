@@ -42,12 +42,13 @@ import org.apache.isis.applib.annotation.RestrictTo;
 import org.apache.isis.applib.annotation.SemanticsOf;
 import org.apache.isis.applib.services.clock.ClockService;
 
+import org.isisaddons.module.security.app.user.MeService;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 
 import org.incode.module.base.dom.utils.JodaPeriodUtils;
-import org.incode.module.base.dom.utils.StringUtils;
 import org.incode.module.base.dom.valuetypes.LocalDateInterval;
 
+import org.estatio.dom.BatchTransactionService;
 import org.estatio.dom.apptenancy.ApplicationTenancyLevel;
 import org.estatio.dom.asset.EstatioApplicationTenancyRepositoryForProperty;
 import org.estatio.dom.asset.FixedAsset;
@@ -59,6 +60,7 @@ import org.estatio.dom.lease.LeaseItemType;
 import org.estatio.dom.lease.LeaseRepository;
 import org.estatio.dom.lease.LeaseType;
 import org.estatio.dom.lease.LeaseTypeRepository;
+import org.estatio.dom.lease.LeaseVerificationService;
 import org.estatio.dom.lease.tags.Brand;
 import org.estatio.dom.party.Party;
 
@@ -170,8 +172,7 @@ public class LeaseMenu {
     public List<Lease> findLeases(
             final @ParameterLayout(describedAs = "May include wildcards '*' and '?'") String referenceOrName,
             final boolean includeTerminated) {
-        String pattern = StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName);
-        return leaseRepository.matchByReferenceOrName(referenceOrName, includeTerminated);
+        return leaseRepository.matchByReferenceOrNameAndAtPath(referenceOrName, includeTerminated, meService.me().getAtPath());
     }
 
     @ActionLayout(contributed = Contributed.AS_NEITHER)
@@ -205,42 +206,60 @@ public class LeaseMenu {
             final LeaseItemType leaseItemType,
             final LocalDate untilDate) {
         DateTime start = DateTime.now();
-        List<Lease> leases = allLeases();
-        for (Lease lease : leases) {
-            for (LeaseItem leaseItem : lease.getItems()) {
-                if (leaseItem.getType().equals(leaseItemType)) {
-                    leaseItem.verifyUntil(untilDate);
+        final int numberOfLeases = leaseRepository.forEachBatchAtPath(meService.me().getAtPath(), VERIFY_BATCH_SIZE, leases -> {
+            for (Lease lease : leases) {
+                for (LeaseItem leaseItem : lease.getItems()) {
+                    if (leaseItem.getType().equals(leaseItemType)) {
+                        leaseItem.verifyUntil(untilDate);
+                    }
                 }
             }
-        }
+            batchTransactionService.commitAndEvictAll();
+        });
         Period p = new Period(start, DateTime.now());
-        return String.format("Verified %d leases in %s", leases.size(), JodaPeriodUtils.asString(p));
+        return String.format("Verified %d leases in %s", numberOfLeases, JodaPeriodUtils.asString(p));
     }
 
     @Action(semantics = SemanticsOf.SAFE, restrictTo = RestrictTo.PROTOTYPING)
     @MemberOrder(sequence = "99")
     public List<Lease> allLeases() {
-        return leaseRepository.allLeases();
+        return leaseRepository.findByAtPath(meService.me().getAtPath());
     }
 
     @Action(semantics = SemanticsOf.IDEMPOTENT, restrictTo = RestrictTo.PROTOTYPING)
     @MemberOrder(sequence = "98")
     public String verifyAllLeases() {
         DateTime dt = DateTime.now();
-        List<Lease> leases = allLeases();
-        for (Lease lease : leases) {
-            lease.verifyUntil(clockService.now());
-        }
+        final LocalDate now = clockService.now();
+        final int numberOfLeases = leaseRepository.forEachBatchAtPath(meService.me().getAtPath(), VERIFY_BATCH_SIZE,
+                leases -> {
+                    leaseVerificationService.verifyUntil(leases, now);
+                    batchTransactionService.commitAndEvictAll();
+                });
         Period p = new Period(dt, DateTime.now());
-        return String.format("Verified %d leases in %s", leases.size(), JodaPeriodUtils.asString(p));
+        return String.format("Verified %d leases in %s", numberOfLeases, JodaPeriodUtils.asString(p));
     }
 
+    /**
+     * The number of leases verified, and then committed and evicted, at a time.
+     */
+    private static final int VERIFY_BATCH_SIZE = 100;
+
     @Inject
     private FixedAssetRepository fixedAssetRepository;
 
+    @Inject
+    private LeaseVerificationService leaseVerificationService;
+
+    @Inject
+    private BatchTransactionService batchTransactionService;
+
     @Inject
     ClockService clockService;
 
+    @Inject
+    MeService meService;
+
     @Inject
     private EstatioApplicationTenancyRepositoryForProperty estatioApplicationTenancyRepository;
 
@@ -1,14 +1,20 @@
 package org.estatio.app.mixins.budgetassignment;
 
+import java.util.Map;
+
 import javax.inject.Inject;
 
+import com.google.common.base.Joiner;
+
 import org.apache.isis.applib.annotation.Action;
 import org.apache.isis.applib.annotation.ActionLayout;
 import org.apache.isis.applib.annotation.Contributed;
 import org.apache.isis.applib.annotation.Mixin;
 import org.apache.isis.applib.annotation.ParameterLayout;
 import org.apache.isis.applib.annotation.SemanticsOf;
+import org.apache.isis.applib.services.message.MessageService;
 
+import org.estatio.app.services.budgetassignment.ParallelBudgetAssignmentService;
 import org.estatio.dom.budgetassignment.BudgetAssignmentService;
 import org.estatio.dom.budgeting.budget.Budget;
 import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculationService;
@@ -29,7 +35,14 @@ public class Budget_Calculate {
             final boolean finalCalculation
     ) {
         budgetCalculationService.calculatePersistedCalculations(budget);
-        budgetAssignmentService.calculateResultsForLeases(budget, BudgetCalculationType.BUDGETED);
+        final Map<String, String> failures =
+                parallelBudgetAssignmentService.calculateResultsForLeases(budget, BudgetCalculationType.BUDGETED);
+        if (!failures.isEmpty()) {
+            // the results of the other leases are committed, but must not be made permanent without these
+            messageService.warnUser("Results not calculated for leases " + Joiner.on(", ").join(failures.keySet())
+                    + (finalCalculation ? "; final calculation not done" : ""));
+            return budget;
+        }
         if (finalCalculation){
             budgetAssignmentService.assign(budget);
         }
@@ -42,4 +55,10 @@ public class Budget_Calculate {
     @Inject
     private BudgetAssignmentService budgetAssignmentService;
 
+    @Inject
+    private ParallelBudgetAssignmentService parallelBudgetAssignmentService;
+
+    @Inject
+    private MessageService messageService;
+
 }
@@ -0,0 +1,208 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.budgetassignment;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import com.google.common.collect.Lists;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.applib.services.bookmark.BookmarkService;
+import org.apache.isis.applib.services.user.UserService;
+import org.apache.isis.applib.services.xactn.TransactionService;
+
+import org.estatio.app.services.worker.WorkerPool;
+import org.estatio.dom.budgetassignment.BudgetAssignmentService;
+import org.estatio.dom.budgetassignment.calculationresult.BudgetCalculationSnapshot;
+import org.estatio.dom.budgeting.budget.Budget;
+import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculationType;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseGraphFetchPlan;
+
+import static org.estatio.dom.utils.PropertiesUtils.positiveIntProperty;
+
+/**
+ * Runs {@link BudgetAssignmentService#calculateResultsForLeases(Budget, BudgetCalculationType)} lease by lease on a
+ * pool of worker threads.
+ *
+ * <p>
+ * The leases are selected with a single query and the budget's calculations read once, into a
+ * {@link BudgetCalculationSnapshot snapshot} that all workers share. The leases are split into chunks of
+ * <tt>estatio.budgetassignment.calculation.chunkSize</tt> leases. Each chunk is executed by one of
+ * <tt>estatio.budgetassignment.calculation.workers</tt> workers of a {@link WorkerPool}, its calculation runs and
+ * results being persisted in a single transaction, redoing the chunk one transaction per lease should any lease of it
+ * fail. The failures are returned, by lease reference.
+ * </p>
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class ParallelBudgetAssignmentService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelBudgetAssignmentService.class);
+
+    static final String KEY_WORKERS = "estatio.budgetassignment.calculation.workers";
+    static final String KEY_CHUNK_SIZE = "estatio.budgetassignment.calculation.chunkSize";
+
+    static final int WORKERS_DEFAULT = 4;
+    static final int CHUNK_SIZE_DEFAULT = 25;
+
+    private int chunkSize;
+    private WorkerPool workerPool;
+
+    @PostConstruct
+    @Programmatic
+    public void init(final Map<String, String> properties) {
+        chunkSize = positiveIntProperty(properties, KEY_CHUNK_SIZE, CHUNK_SIZE_DEFAULT);
+        workerPool = new WorkerPool(
+                "budget-assignment", positiveIntProperty(properties, KEY_WORKERS, WORKERS_DEFAULT));
+    }
+
+    @PreDestroy
+    @Programmatic
+    public void shutdown() {
+        if (workerPool != null) {
+            workerPool.shutdown();
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Parallel equivalent of {@link BudgetAssignmentService#calculateResultsForLeases(Budget, BudgetCalculationType)}.
+     *
+     * @return the message of the failure of each lease that could not be calculated, by lease reference
+     */
+    @Programmatic
+    public Map<String, String> calculateResultsForLeases(final Budget budget, final BudgetCalculationType type) {
+        final BudgetCalculationSnapshot snapshot = budgetAssignmentService.snapshotOf(budget);
+        final List<LeaseJob> jobs = Lists.newArrayList();
+        for (Lease lease : budgetAssignmentService.leasesWithActiveOccupations(budget)) {
+            jobs.add(new LeaseJob(bookmarkService.bookmarkFor(lease), lease.getReference()));
+        }
+        final Assignment assignment = new Assignment(bookmarkService.bookmarkFor(budget), type, snapshot);
+
+        // the workers run in their own sessions, so must see the budget's calculations
+        transactionService.nextTransaction();
+
+        final Map<String, String> failures = Collections.synchronizedMap(new TreeMap<>());
+        workerPool.execute(
+                WorkerPool.authenticationSessionFor(userService.getUser()),
+                Lists.partition(jobs, chunkSize),
+                WorkerPool.Transactions.PER_CHUNK,
+                new ChunkWork(assignment, failures));
+        return failures;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The budget, type and snapshot of budget calculations shared by all leases.
+     */
+    static class Assignment {
+        private final Bookmark budget;
+        private final BudgetCalculationType type;
+        private final BudgetCalculationSnapshot snapshot;
+
+        Assignment(final Bookmark budget, final BudgetCalculationType type, final BudgetCalculationSnapshot snapshot) {
+            this.budget = budget;
+            this.type = type;
+            this.snapshot = snapshot;
+        }
+    }
+
+    static class LeaseJob {
+        private final Bookmark lease;
+        private final String leaseReference;
+
+        LeaseJob(final Bookmark lease, final String leaseReference) {
+            this.lease = lease;
+            this.leaseReference = leaseReference;
+        }
+    }
+
+    /**
+     * Calculates the results of a chunk of leases, within a worker's session.
+     */
+    class ChunkWork implements WorkerPool.Work<LeaseJob> {
+
+        private final Assignment assignment;
+        private final Map<String, String> failures;
+
+        ChunkWork(final Assignment assignment, final Map<String, String> failures) {
+            this.assignment = assignment;
+            this.failures = failures;
+        }
+
+        @Override
+        public void execute(final List<LeaseJob> jobs) {
+            // items, terms etc of the leases are loaded along with them, rather than as navigated to
+            leaseGraphFetchPlan.fetching(() -> {
+                final Budget budget = (Budget) bookmarkService.lookup(assignment.budget);
+                for (LeaseJob job : jobs) {
+                    final Lease lease = (Lease) bookmarkService.lookup(job.lease);
+                    budgetAssignmentService.calculateResultsForLease(lease, budget, assignment.type, assignment.snapshot);
+                }
+                return null;
+            });
+        }
+
+        @Override
+        public void failed(final LeaseJob job, final RuntimeException failure) {
+            LOG.warn("Failed to calculate budget results for lease {}", job.leaseReference, failure);
+            failures.put(job.leaseReference, String.valueOf(failure.getMessage()));
+        }
+
+        @Override
+        public void notExecuted(final List<LeaseJob> jobs, final Throwable cause) {
+            for (LeaseJob job : jobs) {
+                failures.put(job.leaseReference, String.valueOf(cause.getMessage()));
+            }
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    BudgetAssignmentService budgetAssignmentService;
+
+    @Inject
+    LeaseGraphFetchPlan leaseGraphFetchPlan;
+
+    @Inject
+    BookmarkService bookmarkService;
+
+    @Inject
+    TransactionService transactionService;
+
+    @Inject
+    UserService userService;
+
+}
@@ -0,0 +1,280 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.documents;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.applib.services.bookmark.BookmarkService;
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+
+import org.estatio.app.services.worker.WorkerPool;
+import org.estatio.dom.lease.invoicing.dnc.Invoice_backgroundPrepare;
+import org.estatio.dom.lease.invoicing.dnc.ScheduledRender;
+import org.estatio.dom.lease.invoicing.dnc.ScheduledRenderRepository;
+import org.estatio.dom.lease.invoicing.dnc.ScheduledRenderState;
+
+import static org.estatio.dom.utils.PropertiesUtils.nonNegativeIntProperty;
+import static org.estatio.dom.utils.PropertiesUtils.positiveIntProperty;
+
+/**
+ * Renders the documents {@link Invoice_backgroundPrepare prepared in the background}, as a batch rather than as one
+ * background command per document.
+ *
+ * <p>
+ * Every <tt>estatio.documents.renderScheduler.pollSeconds</tt> seconds (if set), the pending renders are grouped by
+ * template and split into chunks of <tt>estatio.documents.renderScheduler.chunkSize</tt> documents, which are rendered
+ * by <tt>estatio.documents.renderScheduler.workers</tt> workers of a {@link WorkerPool}, bounding the number of
+ * concurrent requests to the report server. Each chunk is rendered in an Isis session of its own, and each document of
+ * the chunk in a transaction of its own, checkpointing the progress of the run. A render that fails is retried by later
+ * runs, until it has been attempted <tt>estatio.documents.renderScheduler.maxAttempts</tt> times.
+ * </p>
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class DocumentRenderScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DocumentRenderScheduler.class);
+
+    static final String KEY_WORKERS = "estatio.documents.renderScheduler.workers";
+    static final String KEY_CHUNK_SIZE = "estatio.documents.renderScheduler.chunkSize";
+    static final String KEY_BATCH_SIZE = "estatio.documents.renderScheduler.batchSize";
+    static final String KEY_MAX_ATTEMPTS = "estatio.documents.renderScheduler.maxAttempts";
+    static final String KEY_POLL_SECONDS = "estatio.documents.renderScheduler.pollSeconds";
+
+    static final int WORKERS_DEFAULT = 4;
+    static final int CHUNK_SIZE_DEFAULT = 25;
+    static final int BATCH_SIZE_DEFAULT = 500;
+    static final int MAX_ATTEMPTS_DEFAULT = 3;
+
+    static final String SCHEDULER_USER = "estatio-render-scheduler";
+
+    private int chunkSize;
+    private int batchSize;
+    private int maxAttempts;
+    private WorkerPool workerPool;
+    private ScheduledExecutorService pollingService;
+
+    private final AtomicBoolean rendering = new AtomicBoolean();
+    private final AtomicLong rendered = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private volatile long lastRunRendered;
+    private volatile long lastRunMillis;
+
+    @PostConstruct
+    @Programmatic
+    public void init(final Map<String, String> properties) {
+        chunkSize = positiveIntProperty(properties, KEY_CHUNK_SIZE, CHUNK_SIZE_DEFAULT);
+        batchSize = positiveIntProperty(properties, KEY_BATCH_SIZE, BATCH_SIZE_DEFAULT);
+        maxAttempts = positiveIntProperty(properties, KEY_MAX_ATTEMPTS, MAX_ATTEMPTS_DEFAULT);
+        workerPool = new WorkerPool("document-render", positiveIntProperty(properties, KEY_WORKERS, WORKERS_DEFAULT));
+
+        // not polling unless configured to, eg when running integration tests
+        final int pollSeconds = nonNegativeIntProperty(properties, KEY_POLL_SECONDS, 0);
+        if (pollSeconds > 0) {
+            pollingService = Executors.newSingleThreadScheduledExecutor(
+                    WorkerPool.daemonThreadFactory("document-render-poller"));
+            pollingService.scheduleWithFixedDelay(this::pollQuietly, pollSeconds, pollSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    @Programmatic
+    public void shutdown() {
+        if (pollingService != null) {
+            pollingService.shutdownNow();
+        }
+        if (workerPool != null) {
+            workerPool.shutdown();
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Renders all pending documents, returning once they have all been attempted; the renders scheduled by the
+     * calling transaction are only seen once it has been committed.
+     *
+     * @return the number of documents rendered, or 0 if a run was already in progress.
+     */
+    @Programmatic
+    public int renderPending() {
+        if (!rendering.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            final long renderedBefore = rendered.get();
+            final long started = System.currentTimeMillis();
+            final AuthenticationSession authenticationSession = WorkerPool.authenticationSessionFor(SCHEDULER_USER);
+
+            // a render that failed is still pending, but is left to the next run
+            final Set<Bookmark> attempted = Sets.newHashSet();
+            List<Pending> pending;
+            do {
+                pending = findPending(authenticationSession);
+                final Map<Bookmark, List<Bookmark>> byTemplate = new LinkedHashMap<>();
+                for (Pending render : pending) {
+                    if (attempted.add(render.scheduledRender)) {
+                        byTemplate.computeIfAbsent(render.template, template -> Lists.newArrayList()).add(render.scheduledRender);
+                    }
+                }
+                if (byTemplate.isEmpty()) {
+                    break;
+                }
+                render(byTemplate, authenticationSession);
+            } while (pending.size() == batchSize);
+
+            lastRunRendered = rendered.get() - renderedBefore;
+            lastRunMillis = System.currentTimeMillis() - started;
+            return (int) lastRunRendered;
+        } finally {
+            rendering.set(false);
+        }
+    }
+
+    private List<Pending> findPending(final AuthenticationSession authenticationSession) {
+        final List<Pending> pending = Lists.newArrayList();
+        WorkerPool.executeInTransaction(authenticationSession, () -> {
+            for (ScheduledRender scheduledRender : scheduledRenderRepository.findPending(batchSize)) {
+                pending.add(new Pending(
+                        bookmarkService.bookmarkFor(scheduledRender),
+                        bookmarkService.bookmarkFor(scheduledRender.getTemplate())));
+            }
+        });
+        return pending;
+    }
+
+    private void render(final Map<Bookmark, List<Bookmark>> byTemplate, final AuthenticationSession authenticationSession) {
+        final List<List<Bookmark>> chunks = Lists.newArrayList();
+        for (List<Bookmark> renders : byTemplate.values()) {
+            chunks.addAll(Lists.partition(renders, chunkSize));
+        }
+        // the renders of a chunk that a worker fails to even open a session for stay pending, for the next run
+        workerPool.execute(authenticationSession, chunks, WorkerPool.Transactions.PER_ITEM, new RenderWork());
+    }
+
+    private void pollQuietly() {
+        try {
+            final int renderedInRun = renderPending();
+            if (renderedInRun > 0) {
+                LOG.info("Rendered {} document(s) in {} ms", renderedInRun, lastRunMillis);
+            }
+        } catch (RuntimeException ex) {
+            // keep polling regardless
+            LOG.error("Failed to render pending documents", ex);
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @Programmatic
+    public ScheduledRenderQueueStatus status() {
+        final ScheduledRenderQueueStatus status = new ScheduledRenderQueueStatus();
+        status.setPending(scheduledRenderRepository.countByState(ScheduledRenderState.PENDING));
+        status.setFailed(scheduledRenderRepository.countByState(ScheduledRenderState.FAILED));
+        status.setRendered(rendered.get());
+        status.setFailedAttempts(failedAttempts.get());
+        status.setLastRunRendered(lastRunRendered);
+        status.setLastRunMillis(lastRunMillis);
+        return status;
+    }
+
+    // //////////////////////////////////////
+
+    static class Pending {
+        private final Bookmark scheduledRender;
+        private final Bookmark template;
+
+        Pending(final Bookmark scheduledRender, final Bookmark template) {
+            this.scheduledRender = scheduledRender;
+            this.template = template;
+        }
+    }
+
+    /**
+     * Renders the documents of a chunk, of the same template, within a worker's session.
+     */
+    class RenderWork implements WorkerPool.Work<Bookmark> {
+
+        @Override
+        public void execute(final List<Bookmark> bookmarks) {
+            for (Bookmark bookmark : bookmarks) {
+                render(bookmark);
+            }
+        }
+
+        private void render(final Bookmark bookmark) {
+            final ScheduledRender scheduledRender = (ScheduledRender) bookmarkService.lookup(bookmark);
+            if (scheduledRender == null || scheduledRender.getState() != ScheduledRenderState.PENDING) {
+                // rendered by another run, or deleted, in the meantime
+                return;
+            }
+            try {
+                scheduledRender.render();
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public void succeeded(final Bookmark bookmark) {
+            rendered.incrementAndGet();
+        }
+
+        @Override
+        public void failed(final Bookmark bookmark, final RuntimeException failure) {
+            LOG.warn("Failed to render document of {}", bookmark, failure);
+            failedAttempts.incrementAndGet();
+            final ScheduledRender scheduledRender = (ScheduledRender) bookmarkService.lookup(bookmark);
+            if (scheduledRender != null) {
+                scheduledRender.failed(failure.toString(), maxAttempts);
+            }
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    ScheduledRenderRepository scheduledRenderRepository;
+
+    @Inject
+    BookmarkService bookmarkService;
+
+}
@@ -0,0 +1,75 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.documents;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.apache.isis.applib.annotation.DomainObject;
+import org.apache.isis.applib.annotation.Nature;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * View model with the depth of the queue of {@link org.estatio.dom.lease.invoicing.dnc.ScheduledRender scheduled
+ * renders}, and the throughput of the {@link DocumentRenderScheduler}.
+ */
+@DomainObject(
+        nature = Nature.VIEW_MODEL,
+        objectType = "org.estatio.app.services.documents.ScheduledRenderQueueStatus"
+)
+@XmlRootElement(name = "scheduledRenderQueueStatus")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ScheduledRenderQueueStatus {
+
+    public String title() {
+        return String.format("%d pending, %d failed", getPending(), getFailed());
+    }
+
+    @Getter @Setter
+    private long pending;
+
+    @Getter @Setter
+    private long failed;
+
+    /**
+     * Since the application was started.
+     */
+    @Getter @Setter
+    private long rendered;
+
+    /**
+     * Since the application was started; a render that is retried counts once per failed attempt.
+     */
+    @Getter @Setter
+    private long failedAttempts;
+
+    @Getter @Setter
+    private long lastRunRendered;
+
+    @Getter @Setter
+    private long lastRunMillis;
+
+    public long getRendersPerMinute() {
+        return lastRunMillis == 0 ? 0 : lastRunRendered * 60000 / lastRunMillis;
+    }
+
+}
@@ -0,0 +1,253 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.email;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.RateLimiter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.applib.services.bookmark.BookmarkService;
+import org.apache.isis.applib.services.clock.ClockService;
+import org.apache.isis.applib.services.factory.FactoryService;
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+
+import org.incode.module.communications.dom.impl.comms.Communication;
+
+import org.estatio.app.services.worker.WorkerPool;
+import org.estatio.dom.lease.invoicing.dnc.Invoice_sendByEmail;
+import org.estatio.dom.lease.invoicing.dnc.OutboundEmail;
+import org.estatio.dom.lease.invoicing.dnc.OutboundEmailRepository;
+import org.estatio.dom.lease.invoicing.dnc.OutboundEmailState;
+
+import static org.estatio.dom.utils.PropertiesUtils.nonNegativeIntProperty;
+import static org.estatio.dom.utils.PropertiesUtils.positiveIntProperty;
+
+/**
+ * Drains the queue of {@link OutboundEmail}s in the background, creating the communication of each email as
+ * {@link Invoice_sendByEmail} does, which in turn schedules the communication to be sent.
+ *
+ * <p>
+ * Every <tt>estatio.email.dispatcher.pollSeconds</tt> seconds (if set), the queued emails that are due are dispatched
+ * by <tt>estatio.email.dispatcher.workers</tt> workers of a {@link WorkerPool}, at no more than
+ * <tt>estatio.email.dispatcher.perMinute</tt> emails per minute. Each email is dispatched in an Isis session and
+ * transaction of its own; should it fail, the failure is recorded against the email in a new transaction, and the
+ * email is retried after <tt>estatio.email.dispatcher.backoffSeconds</tt> seconds, doubling with every attempt, until
+ * it has been attempted <tt>estatio.email.dispatcher.maxAttempts</tt> times.
+ * </p>
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class OutboundEmailDispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboundEmailDispatcher.class);
+
+    static final String KEY_WORKERS = "estatio.email.dispatcher.workers";
+    static final String KEY_PER_MINUTE = "estatio.email.dispatcher.perMinute";
+    static final String KEY_MAX_ATTEMPTS = "estatio.email.dispatcher.maxAttempts";
+    static final String KEY_BACKOFF_SECONDS = "estatio.email.dispatcher.backoffSeconds";
+    static final String KEY_BATCH_SIZE = "estatio.email.dispatcher.batchSize";
+    static final String KEY_POLL_SECONDS = "estatio.email.dispatcher.pollSeconds";
+
+    static final int WORKERS_DEFAULT = 2;
+    static final int PER_MINUTE_DEFAULT = 60;
+    static final int MAX_ATTEMPTS_DEFAULT = 5;
+    static final int BACKOFF_SECONDS_DEFAULT = 60;
+    static final int BATCH_SIZE_DEFAULT = 100;
+
+    static final String DISPATCHER_USER = "estatio-email-dispatcher";
+
+    private int maxAttempts;
+    private int backoffSeconds;
+    private int batchSize;
+    private RateLimiter rateLimiter;
+    private WorkerPool workerPool;
+    private ScheduledExecutorService pollingService;
+
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+
+    @PostConstruct
+    @Programmatic
+    public void init(final Map<String, String> properties) {
+        final int perMinute = positiveIntProperty(properties, KEY_PER_MINUTE, PER_MINUTE_DEFAULT);
+        maxAttempts = positiveIntProperty(properties, KEY_MAX_ATTEMPTS, MAX_ATTEMPTS_DEFAULT);
+        backoffSeconds = positiveIntProperty(properties, KEY_BACKOFF_SECONDS, BACKOFF_SECONDS_DEFAULT);
+        batchSize = positiveIntProperty(properties, KEY_BATCH_SIZE, BATCH_SIZE_DEFAULT);
+        rateLimiter = RateLimiter.create(perMinute / 60.0);
+        workerPool = new WorkerPool("email-dispatcher", positiveIntProperty(properties, KEY_WORKERS, WORKERS_DEFAULT));
+
+        // not polling unless configured to, eg when running integration tests
+        final int pollSeconds = nonNegativeIntProperty(properties, KEY_POLL_SECONDS, 0);
+        if (pollSeconds > 0) {
+            pollingService = Executors.newSingleThreadScheduledExecutor(WorkerPool.daemonThreadFactory("email-poller"));
+            pollingService.scheduleWithFixedDelay(this::pollQuietly, pollSeconds, pollSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    @Programmatic
+    public void shutdown() {
+        if (pollingService != null) {
+            pollingService.shutdownNow();
+        }
+        if (workerPool != null) {
+            workerPool.shutdown();
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Dispatches all queued emails that are due, returning once they have all been attempted; the emails queued by
+     * the calling transaction are only seen once it has been committed.
+     *
+     * @return the number of emails attempted, or 0 if a dispatch was already in progress.
+     */
+    @Programmatic
+    public int dispatchDue() {
+        if (!dispatching.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            final AuthenticationSession authenticationSession = WorkerPool.authenticationSessionFor(DISPATCHER_USER);
+            // an email that could not even be marked as failed is due again straight away, so is not retried here
+            final Set<Bookmark> attempted = Sets.newHashSet();
+            List<Bookmark> due;
+            do {
+                due = findDue(authenticationSession);
+                final List<Bookmark> notYetAttempted = Lists.newArrayList(due);
+                notYetAttempted.removeAll(attempted);
+                if (notYetAttempted.isEmpty()) {
+                    break;
+                }
+                // the emails stay queued if a worker fails to even open a session, so are picked up by the next dispatch
+                workerPool.execute(
+                        authenticationSession,
+                        Lists.partition(notYetAttempted, 1),
+                        WorkerPool.Transactions.PER_ITEM,
+                        new DispatchWork());
+                attempted.addAll(notYetAttempted);
+            } while (due.size() == batchSize);
+            return attempted.size();
+        } finally {
+            dispatching.set(false);
+        }
+    }
+
+    private List<Bookmark> findDue(final AuthenticationSession authenticationSession) {
+        final List<Bookmark> bookmarks = Lists.newArrayList();
+        WorkerPool.executeInTransaction(authenticationSession, () -> {
+            for (OutboundEmail email : outboundEmailRepository.findDue(clockService.nowAsDateTime(), batchSize)) {
+                bookmarks.add(bookmarkService.bookmarkFor(email));
+            }
+        });
+        return bookmarks;
+    }
+
+    private void pollQuietly() {
+        try {
+            final int attempted = dispatchDue();
+            if (attempted > 0) {
+                LOG.info("Dispatched {} queued email(s)", attempted);
+            }
+        } catch (RuntimeException ex) {
+            // keep polling regardless
+            LOG.error("Failed to dispatch queued emails", ex);
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Dispatches a single email, within a worker's session.
+     */
+    class DispatchWork implements WorkerPool.Work<Bookmark> {
+
+        @Override
+        public void inSession(final Runnable execution) {
+            // throttled before any transaction is started
+            rateLimiter.acquire();
+            execution.run();
+        }
+
+        @Override
+        public void execute(final List<Bookmark> bookmarks) {
+            for (Bookmark bookmark : bookmarks) {
+                dispatch(bookmark);
+            }
+        }
+
+        private void dispatch(final Bookmark bookmark) {
+            final OutboundEmail email = (OutboundEmail) bookmarkService.lookup(bookmark);
+            if (email == null || email.getState() != OutboundEmailState.QUEUED) {
+                // dispatched by another poll, or deleted, in the meantime
+                return;
+            }
+            try {
+                final Communication communication = factoryService.mixin(Invoice_sendByEmail.class, email.getInvoice())
+                        .$$(email.getDocument(), email.getToChannel(), email.getCc(), null, null, email.getBcc(), null);
+                email.dispatched(communication, clockService.nowAsDateTime());
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public void failed(final Bookmark bookmark, final RuntimeException failure) {
+            LOG.warn("Failed to dispatch email {}", bookmark, failure);
+            final OutboundEmail email = (OutboundEmail) bookmarkService.lookup(bookmark);
+            if (email != null) {
+                email.failed(failure.toString(), clockService.nowAsDateTime(), maxAttempts, backoffSeconds);
+            }
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    OutboundEmailRepository outboundEmailRepository;
+
+    @Inject
+    FactoryService factoryService;
+
+    @Inject
+    BookmarkService bookmarkService;
+
+    @Inject
+    ClockService clockService;
+
+}
@@ -0,0 +1,395 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.invoicing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.applib.services.bookmark.BookmarkService;
+import org.apache.isis.applib.services.factory.FactoryService;
+import org.apache.isis.applib.services.user.UserService;
+import org.apache.isis.applib.services.xactn.TransactionService;
+
+import org.estatio.app.services.worker.WorkerPool;
+import org.estatio.dom.invoice.InvoiceRunType;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseGraphFetchPlan;
+import org.estatio.dom.lease.LeaseItemType;
+import org.estatio.dom.lease.LeaseTermSubscriptions;
+import org.estatio.dom.lease.LeaseVerificationService;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationMetricsService;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationParameters;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationService;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationService.LeaseCalculationResult;
+import org.estatio.dom.lease.invoicing.InvoiceForLease;
+import org.estatio.dom.lease.invoicing.InvoiceForLeaseRepository;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationMetrics;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationMetrics.Phase;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationReport;
+
+import static org.estatio.dom.utils.PropertiesUtils.positiveIntProperty;
+
+/**
+ * Runs the {@link InvoiceCalculationService invoice calculation} lease by lease on a pool of worker threads.
+ *
+ * <p>
+ * The leases are split into chunks of <tt>estatio.invoicing.calculation.chunkSize</tt> leases. Each chunk is
+ * executed by one of <tt>estatio.invoicing.calculation.workers</tt> workers of a {@link WorkerPool}: first all of
+ * the chunk's leases are {@link LeaseVerificationService verified} in bulk and
+ * {@link InvoiceCalculationService#calculateVerifiedLease(Lease, InvoiceCalculationParameters) calculated}, then
+ * their invoices are {@link InvoiceCalculationService#reconcileLease(LeaseCalculationResult,
+ * InvoiceCalculationParameters, String) reconciled}, all in a single transaction, redoing the chunk one transaction
+ * per lease should any lease of it fail. Failures are reported in the returned {@link InvoiceCalculationReport}.
+ * </p>
+ *
+ * <p>
+ * The NEW invoices of previous runs that will not be reconciled are removed, and committed, before any of the workers
+ * start.
+ * </p>
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class ParallelInvoiceCalculationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelInvoiceCalculationService.class);
+
+    static final String KEY_WORKERS = "estatio.invoicing.calculation.workers";
+    static final String KEY_CHUNK_SIZE = "estatio.invoicing.calculation.chunkSize";
+
+    static final int WORKERS_DEFAULT = 4;
+    static final int CHUNK_SIZE_DEFAULT = 25;
+
+    private int chunkSize;
+    private WorkerPool workerPool;
+
+    @PostConstruct
+    @Programmatic
+    public void init(final Map<String, String> properties) {
+        chunkSize = positiveIntProperty(properties, KEY_CHUNK_SIZE, CHUNK_SIZE_DEFAULT);
+        workerPool = new WorkerPool(
+                "invoice-calculation", positiveIntProperty(properties, KEY_WORKERS, WORKERS_DEFAULT));
+    }
+
+    @PreDestroy
+    @Programmatic
+    public void shutdown() {
+        if (workerPool != null) {
+            workerPool.shutdown();
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Parallel equivalent of {@link InvoiceCalculationService#calculateAndInvoice(InvoiceCalculationParameters)}; all
+     * leases share the same run id.
+     */
+    @Programmatic
+    public InvoiceCalculationReport calculateAndInvoice(final InvoiceCalculationParameters parameters) {
+        final String runId = invoiceCalculationService.newRunId(parameters.toString());
+        final InvoiceCalculationMetrics metrics = invoiceCalculationMetricsService.start(runId);
+        try {
+            final List<Lease> leases = invoiceCalculationService.leasesToCalculate(parameters);
+            final long removeStarted = System.nanoTime();
+            invoiceForLeaseRepository.removeRunsExcept(parameters, leases);
+            metrics.time(Phase.PERSIST, System.nanoTime() - removeStarted);
+            final Calculation calculation = new Calculation(
+                    runId,
+                    parameters.invoiceRunType(),
+                    parameters.leaseItemTypes(),
+                    parameters.invoiceDueDate(),
+                    parameters.dueDateRange().startDate(),
+                    parameters.dueDateRange().endDateExcluding(),
+                    false);
+
+            final List<LeaseJob> jobs = Lists.newArrayList();
+            for (Lease lease : leases) {
+                jobs.add(new LeaseJob(bookmarkService.bookmarkFor(lease), lease.getReference(), Collections.singletonList(calculation)));
+            }
+            return execute(new InvoiceCalculationReport(runId), jobs);
+        } finally {
+            metrics.finished();
+            invoiceCalculationMetricsService.stop();
+        }
+    }
+
+    /**
+     * Parallel equivalent of calculating every due date in the range of every lease as a separate normal run, saving
+     * each run as historic; every lease's due dates are calculated in order, by the same worker.
+     */
+    @Programmatic
+    public InvoiceCalculationReport calculateRetroInvoices(
+            final List<Lease> leases,
+            final List<LeaseItemType> leaseItemTypes,
+            final LocalDate startDueDate,
+            final LocalDate nextDueDate) {
+        final List<LeaseJob> jobs = Lists.newArrayList();
+        for (Lease lease : leases) {
+            final List<Calculation> calculations = Lists.newArrayList();
+            for (LocalDate dueDate : lease.dueDatesInRange(startDueDate, nextDueDate)) {
+                invoiceForLeaseRepository.removeRuns(
+                        InvoiceCalculationParameters.builder()
+                                .lease(lease)
+                                .invoiceDueDate(dueDate)
+                                .build());
+                calculations.add(new Calculation(
+                        null,
+                        InvoiceRunType.NORMAL_RUN,
+                        leaseItemTypes,
+                        dueDate,
+                        startDueDate,
+                        dueDate.plusDays(1),
+                        true));
+            }
+            if (!calculations.isEmpty()) {
+                jobs.add(new LeaseJob(bookmarkService.bookmarkFor(lease), lease.getReference(), calculations));
+            }
+        }
+        return execute(new InvoiceCalculationReport(), jobs);
+    }
+
+    private InvoiceCalculationReport execute(final InvoiceCalculationReport report, final List<LeaseJob> jobs) {
+
+        // the workers run in their own sessions, so must see the removal of the previous runs
+        transactionService.nextTransaction();
+
+        workerPool.execute(
+                WorkerPool.authenticationSessionFor(userService.getUser()),
+                Lists.partition(jobs, chunkSize),
+                WorkerPool.Transactions.PER_CHUNK,
+                new ChunkWork(report));
+        return report;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The (scalar) parameters of a calculation, applied to a lease within a worker's own session.
+     */
+    static class Calculation {
+        private final String runId;
+        private final InvoiceRunType invoiceRunType;
+        private final List<LeaseItemType> leaseItemTypes;
+        private final LocalDate invoiceDueDate;
+        private final LocalDate startDueDate;
+        private final LocalDate nextDueDate;
+        private final boolean saveAsHistoric;
+
+        Calculation(
+                final String runId,
+                final InvoiceRunType invoiceRunType,
+                final List<LeaseItemType> leaseItemTypes,
+                final LocalDate invoiceDueDate,
+                final LocalDate startDueDate,
+                final LocalDate nextDueDate,
+                final boolean saveAsHistoric) {
+            this.runId = runId;
+            this.invoiceRunType = invoiceRunType;
+            this.leaseItemTypes = leaseItemTypes == null ? null : new ArrayList<>(leaseItemTypes);
+            this.invoiceDueDate = invoiceDueDate;
+            this.startDueDate = startDueDate;
+            this.nextDueDate = nextDueDate;
+            this.saveAsHistoric = saveAsHistoric;
+        }
+
+        InvoiceCalculationParameters parametersFor(final Lease lease) {
+            return InvoiceCalculationParameters.builder()
+                    .lease(lease)
+                    .leaseItemTypes(leaseItemTypes == null ? Collections.<LeaseItemType>emptyList() : leaseItemTypes)
+                    .invoiceRunType(invoiceRunType)
+                    .invoiceDueDate(invoiceDueDate)
+                    .startDueDate(startDueDate)
+                    .nextDueDate(nextDueDate)
+                    .build();
+        }
+    }
+
+    static class LeaseJob {
+        private final Bookmark lease;
+        private final String leaseReference;
+        private final List<Calculation> calculations;
+
+        LeaseJob(final Bookmark lease, final String leaseReference, final List<Calculation> calculations) {
+            this.lease = lease;
+            this.leaseReference = leaseReference;
+            this.calculations = calculations;
+        }
+    }
+
+    /**
+     * Calculates and invoices a chunk of leases, within a worker's session.
+     */
+    class ChunkWork implements WorkerPool.Work<LeaseJob> {
+
+        private final InvoiceCalculationReport report;
+
+        ChunkWork(final InvoiceCalculationReport report) {
+            this.report = report;
+        }
+
+        @Override
+        public void inSession(final Runnable execution) {
+            // the workers of a run with a single run id all record into its metrics
+            if (report.getRunId() != null) {
+                invoiceCalculationMetricsService.start(report.getRunId());
+            }
+            try {
+                execution.run();
+            } finally {
+                invoiceCalculationMetricsService.stop();
+            }
+        }
+
+        @Override
+        public void execute(final List<LeaseJob> jobs) {
+            // as the sequential run, neither verifying nor invoicing marks the lease items as changed
+            leaseGraphFetchPlan.fetching(() -> leaseTermSubscriptions.withoutMarkingChanges(() -> {
+                calculateAndInvoice(jobs);
+                return null;
+            }));
+        }
+
+        @Override
+        public void succeeded(final LeaseJob job) {
+            report.succeeded();
+        }
+
+        @Override
+        public void failed(final LeaseJob job, final RuntimeException failure) {
+            LOG.warn("Failed to calculate invoices for lease {}", job.leaseReference, failure);
+            report.failed(job.leaseReference, failure);
+        }
+
+        @Override
+        public void notExecuted(final List<LeaseJob> jobs, final Throwable cause) {
+            for (LeaseJob job : jobs) {
+                report.failed(job.leaseReference, cause);
+            }
+        }
+
+        private void calculateAndInvoice(final List<LeaseJob> jobs) {
+            final int maxCalculations = maxCalculations(jobs);
+            for (int i = 0; i < maxCalculations; i++) {
+                // verify and calculate all leases of the chunk, then persist
+                final List<Lease> leases = Lists.newArrayList();
+                final List<InvoiceCalculationParameters> parameters = Lists.newArrayList();
+                final List<Calculation> calculations = Lists.newArrayList();
+                final Map<LocalDate, List<Lease>> leasesByVerificationDate = new LinkedHashMap<>();
+                for (LeaseJob job : jobs) {
+                    if (i < job.calculations.size()) {
+                        final Lease lease = (Lease) bookmarkService.lookup(job.lease);
+                        final Calculation calculation = job.calculations.get(i);
+                        final InvoiceCalculationParameters leaseParameters = calculation.parametersFor(lease);
+                        leases.add(lease);
+                        parameters.add(leaseParameters);
+                        calculations.add(calculation);
+                        leasesByVerificationDate
+                                .computeIfAbsent(leaseParameters.dueDateRange().endDateExcluding(), date -> Lists.newArrayList())
+                                .add(lease);
+                    }
+                }
+                leaseGraphFetchPlan.load(leases);
+                final long verifyStarted = System.nanoTime();
+                for (Map.Entry<LocalDate, List<Lease>> entry : leasesByVerificationDate.entrySet()) {
+                    leaseVerificationService.verifyUntil(entry.getValue(), entry.getKey());
+                }
+                final InvoiceCalculationMetrics metrics = invoiceCalculationMetricsService.current();
+                if (metrics != null) {
+                    metrics.time(Phase.VERIFY, System.nanoTime() - verifyStarted);
+                }
+                final List<LeaseCalculationResult> results = Lists.newArrayList();
+                for (int j = 0; j < leases.size(); j++) {
+                    results.add(invoiceCalculationService.calculateVerifiedLease(leases.get(j), parameters.get(j)));
+                }
+                for (int j = 0; j < results.size(); j++) {
+                    final Calculation calculation = calculations.get(j);
+                    final InvoiceCalculationParameters leaseParameters = parameters.get(j);
+                    final String runId = calculation.runId != null
+                            ? calculation.runId
+                            : invoiceCalculationService.newRunId(leaseParameters.toString());
+                    invoiceCalculationService.reconcileLease(results.get(j), leaseParameters, runId);
+                    if (calculation.saveAsHistoric) {
+                        // as InvoiceSummaryForInvoiceRun#saveAllAsHistoric, whose totals follow only once committed
+                        transactionService.flushTransaction();
+                        for (InvoiceForLease invoice : invoiceForLeaseRepository.findInvoicesByRunId(runId)) {
+                            factoryService.mixin(InvoiceForLease._saveAsHistoric.class, invoice).$$();
+                        }
+                    }
+                }
+            }
+        }
+
+        private int maxCalculations(final List<LeaseJob> jobs) {
+            int max = 0;
+            for (LeaseJob job : jobs) {
+                max = Math.max(max, job.calculations.size());
+            }
+            return max;
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    InvoiceCalculationService invoiceCalculationService;
+
+    @Inject
+    InvoiceForLeaseRepository invoiceForLeaseRepository;
+
+    @Inject
+    FactoryService factoryService;
+
+    @Inject
+    LeaseVerificationService leaseVerificationService;
+
+    @Inject
+    InvoiceCalculationMetricsService invoiceCalculationMetricsService;
+
+    @Inject
+    LeaseGraphFetchPlan leaseGraphFetchPlan;
+
+    @Inject
+    LeaseTermSubscriptions leaseTermSubscriptions;
+
+    @Inject
+    BookmarkService bookmarkService;
+
+    @Inject
+    TransactionService transactionService;
+
+    @Inject
+    UserService userService;
+
+}
@@ -0,0 +1,277 @@
+/*
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.applib.services.bookmark.BookmarkService;
+import org.apache.isis.applib.services.message.MessageService;
+import org.apache.isis.applib.services.user.UserService;
+import org.apache.isis.applib.services.xactn.TransactionService;
+import org.apache.isis.applib.value.Blob;
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+
+import org.estatio.app.services.worker.WorkerPool;
+import org.estatio.dom.UdoDomainService;
+import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.dom.lease.LeaseVerificationService;
+
+import static org.estatio.dom.utils.PropertiesUtils.positiveIntProperty;
+
+/**
+ * Uploads a spreadsheet of changes to lease terms, such as downloaded and edited from the bulk update managers, in
+ * chunks.
+ *
+ * <p>
+ * The rows are {@link StreamingSheetReader streamed}, and every <tt>estatio.impmgr.leaseterm.upload.chunkSize</tt>
+ * rows are applied in a transaction of their own by a {@link WorkerPool worker}, the terms changed by the chunk being
+ * verified, each chain of terms {@link LeaseVerificationService#verifyTerms(Collection) once}, before it is committed.
+ * Should a chunk fail, it is rolled back and its rows redone each in a transaction of its own, so that only the rows
+ * that fail are lost; the chunks before and after it are committed regardless. A row that cannot be applied is
+ * reported, by row number, and skipped.
+ * </p>
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class LeaseTermUploadService extends UdoDomainService<LeaseTermUploadService> {
+
+    static final String KEY_CHUNK_SIZE = "estatio.impmgr.leaseterm.upload.chunkSize";
+    static final int CHUNK_SIZE_DEFAULT = 250;
+
+    private int chunkSize;
+    private WorkerPool workerPool;
+
+    public LeaseTermUploadService() {
+        super(LeaseTermUploadService.class);
+    }
+
+    @PostConstruct
+    public void init(final Map<String, String> properties) {
+        super.init(properties);
+        chunkSize = positiveIntProperty(properties, KEY_CHUNK_SIZE, CHUNK_SIZE_DEFAULT);
+        // the chunks of an upload are applied one after the other, in order
+        workerPool = new WorkerPool("lease-term-upload", 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workerPool != null) {
+            workerPool.shutdown();
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Applies a row of the spreadsheet.
+     */
+    public interface RowUpdate {
+
+        /**
+         * Changes the term(s) of the row, returning those to verify, if any.
+         *
+         * @throws IllegalArgumentException if the row cannot be applied; no term should have been changed
+         */
+        Collection<? extends LeaseTerm> apply(SheetRow row);
+
+    }
+
+    @Programmatic
+    public UploadResult upload(final Blob spreadsheet, final String sheetName, final RowUpdate rowUpdate) {
+        // the workers see only what has been committed
+        transactionService.nextTransaction();
+
+        final UploadResult result = new UploadResult();
+        final AuthenticationSession authenticationSession = WorkerPool.authenticationSessionFor(userService.getUser());
+        final List<SheetRow> chunk = Lists.newArrayList();
+        StreamingSheetReader.read(spreadsheet, sheetName, row -> {
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                apply(chunk, rowUpdate, authenticationSession, result);
+            }
+        });
+        if (!chunk.isEmpty()) {
+            apply(chunk, rowUpdate, authenticationSession, result);
+        }
+        result.errors.addAll(result.rejected.values());
+        return result;
+    }
+
+    private void apply(
+            final List<SheetRow> chunk,
+            final RowUpdate rowUpdate,
+            final AuthenticationSession authenticationSession,
+            final UploadResult result) {
+        workerPool.execute(
+                authenticationSession,
+                Lists.<List<SheetRow>>newArrayList(Lists.newArrayList(chunk)),
+                WorkerPool.Transactions.PER_CHUNK,
+                new ChunkUpdate(rowUpdate, result));
+        chunk.clear();
+        result.chunksCommitted++;
+    }
+
+    /**
+     * Applies the rows of a chunk within a worker's transaction.
+     */
+    class ChunkUpdate implements WorkerPool.Work<SheetRow> {
+
+        private final RowUpdate rowUpdate;
+        private final UploadResult result;
+
+        ChunkUpdate(final RowUpdate rowUpdate, final UploadResult result) {
+            this.rowUpdate = rowUpdate;
+            this.result = result;
+        }
+
+        @Override
+        public void execute(final List<SheetRow> rows) {
+            final List<LeaseTerm> leaseTerms = Lists.newArrayList();
+            for (SheetRow row : rows) {
+                try {
+                    leaseTerms.addAll(rowUpdate.apply(row));
+                } catch (IllegalArgumentException ex) {
+                    // keyed by row, so reported once even if the chunk is redone row by row
+                    result.rejected.put(row.getRowNumber(), rowError(row, ex));
+                }
+            }
+            leaseVerificationService.verifyTerms(leaseTerms);
+        }
+
+        @Override
+        public void succeeded(final SheetRow row) {
+            if (!result.rejected.containsKey(row.getRowNumber())) {
+                result.rowsUpdated++;
+            }
+        }
+
+        @Override
+        public void failed(final SheetRow row, final RuntimeException failure) {
+            result.rejected.put(row.getRowNumber(), rowError(row, failure));
+        }
+
+        @Override
+        public void notExecuted(final List<SheetRow> rows, final Throwable cause) {
+            for (SheetRow row : rows) {
+                result.rejected.put(row.getRowNumber(), rowError(row, cause));
+            }
+        }
+
+        private String rowError(final SheetRow row, final Throwable failure) {
+            return String.format("row %d: %s", row.getRowNumber(),
+                    failure.getMessage() != null ? failure.getMessage() : failure.toString());
+        }
+    }
+
+    /**
+     * Informs the user of the result, or warns of the rows rejected.
+     */
+    @Programmatic
+    public void report(final UploadResult result) {
+        if (result.getErrors().isEmpty()) {
+            messageService.informUser(result.title());
+        } else {
+            messageService.warnUser(result.title() + ": " + Joiner.on("; ").join(result.getErrors()));
+        }
+    }
+
+    /**
+     * The lease term of the bookmark in the column.
+     *
+     * @throws IllegalArgumentException if there is no such lease term (of the type)
+     */
+    @Programmatic
+    public <T extends LeaseTerm> T leaseTermOf(final SheetRow row, final String column, final Class<T> type) {
+        final String bookmark = row.get(column);
+        if (bookmark == null) {
+            throw new IllegalArgumentException(String.format("No %s", column));
+        }
+        Object leaseTerm;
+        try {
+            leaseTerm = bookmarkService.lookup(new Bookmark(bookmark));
+        } catch (RuntimeException ex) {
+            leaseTerm = null;
+        }
+        if (!type.isInstance(leaseTerm)) {
+            throw new IllegalArgumentException(String.format("No %s '%s'", column, bookmark));
+        }
+        return type.cast(leaseTerm);
+    }
+
+    // //////////////////////////////////////
+
+    public static class UploadResult {
+
+        private int rowsUpdated;
+        private int chunksCommitted;
+        private final List<String> errors = Lists.newArrayList();
+        private final Map<Integer, String> rejected = new TreeMap<>();
+
+        public int getRowsUpdated() {
+            return rowsUpdated;
+        }
+
+        public int getChunksCommitted() {
+            return chunksCommitted;
+        }
+
+        /**
+         * The rows that could not be applied, as <tt>row 12: reason</tt>.
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        public String title() {
+            return String.format(
+                    "%d rows updated in %d chunks, %d rows rejected", rowsUpdated, chunksCommitted, errors.size());
+        }
+
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    LeaseVerificationService leaseVerificationService;
+
+    @Inject
+    BookmarkService bookmarkService;
+
+    @Inject
+    TransactionService transactionService;
+
+    @Inject
+    UserService userService;
+
+    @Inject
+    MessageService messageService;
+
+}
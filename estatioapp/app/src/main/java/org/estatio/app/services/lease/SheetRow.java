@@ -0,0 +1,76 @@
+/*
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A row of a spreadsheet read by the {@link StreamingSheetReader}, its cells keyed by the header of their column.
+ *
+ * <p>
+ * Headers are matched ignoring case, spaces and punctuation, so that a column headed <tt>Lease Term</tt> is also
+ * found as <tt>leaseTerm</tt>. The values are those stored in the sheet, not as formatted for display.
+ * </p>
+ */
+public class SheetRow {
+
+    private final int rowNumber;
+    private final Map<String, String> valuesByColumn;
+
+    SheetRow(final int rowNumber, final Map<String, String> valuesByColumn) {
+        this.rowNumber = rowNumber;
+        this.valuesByColumn = Collections.unmodifiableMap(valuesByColumn);
+    }
+
+    /**
+     * The (1-based) number of the row, as shown by Excel.
+     */
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * The value of the cell in the column, or <tt>null</tt> if blank or there is no such column.
+     */
+    public String get(final String column) {
+        return valuesByColumn.get(normalize(column));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cell is not blank, but not a number either
+     */
+    public BigDecimal getBigDecimal(final String column) {
+        final String value = get(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(String.format("'%s' is not a number (%s)", value, column));
+        }
+    }
+
+    static String normalize(final String header) {
+        return header == null ? "" : header.replaceAll("[^\\p{L}\\p{N}]", "").toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,219 @@
+/*
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import org.apache.isis.applib.value.Blob;
+
+import org.isisaddons.module.excel.dom.ExcelService;
+
+/**
+ * Reads a sheet of an <tt>.xlsx</tt> spreadsheet row by row, with the SAX based event model of POI, handing each row
+ * to a consumer as soon as it is parsed.
+ *
+ * <p>
+ * Unlike {@link ExcelService#fromExcel(Blob, Class, String)}, which builds the whole workbook, and then a view model
+ * for every row, before returning any, only the shared strings of the workbook and the current row are held in
+ * memory. The first row of the sheet holds the headers of the columns; empty rows are skipped.
+ * </p>
+ */
+public final class StreamingSheetReader {
+
+    private StreamingSheetReader() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the spreadsheet cannot be read as <tt>.xlsx</tt>, or has no such sheet
+     */
+    public static void read(final Blob spreadsheet, final String sheetName, final Consumer<SheetRow> consumer) {
+        OPCPackage opcPackage = null;
+        try {
+            opcPackage = OPCPackage.open(new ByteArrayInputStream(spreadsheet.getBytes()));
+            final XSSFReader xssfReader = new XSSFReader(opcPackage);
+            final ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(opcPackage);
+            final XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (sheetName.equals(sheets.getSheetName())) {
+                        final XMLReader xmlReader = newXmlReader();
+                        xmlReader.setContentHandler(new SheetHandler(sharedStrings, consumer));
+                        xmlReader.parse(new InputSource(sheet));
+                        return;
+                    }
+                }
+            }
+            throw new IllegalArgumentException(String.format("No sheet '%s' in %s", sheetName, spreadsheet.getName()));
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException ex) {
+            throw new IllegalArgumentException("Could not read " + spreadsheet.getName(), ex);
+        } finally {
+            if (opcPackage != null) {
+                // opened from a stream, so nothing to save
+                opcPackage.revert();
+            }
+        }
+    }
+
+    private static XMLReader newXmlReader() throws ParserConfigurationException, SAXException {
+        final SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        return factory.newSAXParser().getXMLReader();
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Collects the cells of each <tt>&lt;row&gt;</tt> of the sheet's XML, as stored: the value of a cell with a shared
+     * string is an index into the shared strings, an inline string is held in <tt>&lt;is&gt;&lt;t&gt;</tt>.
+     */
+    static class SheetHandler extends DefaultHandler {
+
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final Consumer<SheetRow> consumer;
+
+        private Map<Integer, String> headers;
+        private final Map<Integer, String> cells = new TreeMap<>();
+        private int rowNumber;
+        private int column;
+        private String cellType;
+        private StringBuilder text;
+
+        SheetHandler(final ReadOnlySharedStringsTable sharedStrings, final Consumer<SheetRow> consumer) {
+            this.sharedStrings = sharedStrings;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
+            switch (localName) {
+            case "row":
+                final String r = attributes.getValue("r");
+                rowNumber = r != null ? Integer.parseInt(r) : rowNumber + 1;
+                cells.clear();
+                column = -1;
+                break;
+            case "c":
+                final String ref = attributes.getValue("r");
+                column = ref != null ? columnOf(ref) : column + 1;
+                cellType = attributes.getValue("t");
+                break;
+            case "v":
+            case "t":
+                if (text == null) {
+                    text = new StringBuilder();
+                }
+                break;
+            default:
+                break;
+            }
+        }
+
+        @Override
+        public void characters(final char[] ch, final int start, final int length) {
+            if (text != null) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(final String uri, final String localName, final String qName) {
+            switch (localName) {
+            case "c":
+                if (text != null) {
+                    final String value = valueOf(text.toString());
+                    if (value != null && !value.trim().isEmpty()) {
+                        cells.put(column, value);
+                    }
+                }
+                text = null;
+                break;
+            case "row":
+                endRow();
+                break;
+            default:
+                break;
+            }
+        }
+
+        private String valueOf(final String raw) {
+            if (cellType == null) {
+                return raw;
+            }
+            switch (cellType) {
+            case "s":
+                return sharedStrings.getEntryAt(Integer.parseInt(raw.trim()));
+            case "b":
+                return "1".equals(raw.trim()) ? "TRUE" : "FALSE";
+            default:
+                // n, str, inlineStr, e
+                return raw;
+            }
+        }
+
+        private void endRow() {
+            if (cells.isEmpty()) {
+                return;
+            }
+            if (headers == null) {
+                headers = new TreeMap<>(cells);
+                return;
+            }
+            final Map<String, String> valuesByColumn = new HashMap<>();
+            for (Map.Entry<Integer, String> cell : cells.entrySet()) {
+                final String header = headers.get(cell.getKey());
+                if (header != null) {
+                    valuesByColumn.put(SheetRow.normalize(header), cell.getValue());
+                }
+            }
+            consumer.accept(new SheetRow(rowNumber, valuesByColumn));
+        }
+
+        /**
+         * The (0-based) column of a cell reference such as <tt>AB12</tt>.
+         */
+        static int columnOf(final String ref) {
+            int column = 0;
+            for (int i = 0; i < ref.length() && Character.isLetter(ref.charAt(i)); i++) {
+                column = column * 26 + (Character.toUpperCase(ref.charAt(i)) - 'A' + 1);
+            }
+            return column - 1;
+        }
+
+    }
+
+}
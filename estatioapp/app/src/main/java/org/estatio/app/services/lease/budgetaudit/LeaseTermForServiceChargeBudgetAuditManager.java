@@ -17,7 +17,9 @@
  */
 package org.estatio.app.services.lease.budgetaudit;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -41,8 +43,10 @@ import org.isisaddons.module.excel.dom.ExcelService;
 
 import org.incode.module.base.dom.utils.TitleBuilder;
 
+import org.estatio.app.services.lease.LeaseTermUploadService;
 import org.estatio.dom.asset.Property;
 import org.estatio.dom.lease.LeaseItemType;
+import org.estatio.dom.lease.LeaseTerm;
 import org.estatio.dom.lease.LeaseTermForServiceCharge;
 import org.estatio.dom.lease.LeaseTermRepository;
 
@@ -120,19 +124,28 @@ public class LeaseTermForServiceChargeBudgetAuditManager  {
             @Parameter(fileAccept = ".xlsx")
             @ParameterLayout(named = "Excel spreadsheet")
             final Blob spreadsheet) {
-        List<LeaseTermForServiceChargeBudgetAuditLineItem> lineItems =
-                excelService.fromExcel(spreadsheet, LeaseTermForServiceChargeBudgetAuditLineItem.class, "lease terms");
-        for (LeaseTermForServiceChargeBudgetAuditLineItem lineItem : lineItems) {
-            final LeaseTermForServiceCharge leaseTerm = lineItem.getLeaseTerm();
-            leaseTerm.setAuditedValue(lineItem.getAuditedValue());
-            leaseTerm.setBudgetedValue(lineItem.getBudgetedValue());
-
-            final LeaseTermForServiceCharge nextLeaseTerm = (LeaseTermForServiceCharge) leaseTerm.getNext();
-            final LeaseTermForServiceCharge nextLeaseTermUploaded = lineItem.getNextLeaseTerm();
-            if (nextLeaseTerm != null && nextLeaseTerm == nextLeaseTermUploaded) {
-                nextLeaseTerm.setBudgetedValue(lineItem.getNextBudgetedValue());
-            }
-        }
+        final LeaseTermUploadService.UploadResult result = leaseTermUploadService.upload(
+                spreadsheet, "lease terms", row -> {
+                    final LeaseTermForServiceCharge leaseTerm =
+                            leaseTermUploadService.leaseTermOf(row, "leaseTerm", LeaseTermForServiceCharge.class);
+                    final BigDecimal auditedValue = row.getBigDecimal("auditedValue");
+                    final BigDecimal budgetedValue = row.getBigDecimal("budgetedValue");
+                    final LeaseTermForServiceCharge nextLeaseTermUploaded = row.get("nextLeaseTerm") == null
+                            ? null
+                            : leaseTermUploadService.leaseTermOf(row, "nextLeaseTerm", LeaseTermForServiceCharge.class);
+                    final BigDecimal nextBudgetedValue = row.getBigDecimal("nextBudgetedValue");
+
+                    leaseTerm.setAuditedValue(auditedValue);
+                    leaseTerm.setBudgetedValue(budgetedValue);
+
+                    final LeaseTermForServiceCharge nextLeaseTerm = (LeaseTermForServiceCharge) leaseTerm.getNext();
+                    if (nextLeaseTerm != null && nextLeaseTerm == nextLeaseTermUploaded) {
+                        nextLeaseTerm.setBudgetedValue(nextBudgetedValue);
+                    }
+                    // not verified, as before
+                    return Collections.<LeaseTerm>emptyList();
+                });
+        leaseTermUploadService.report(result);
         return this;
     }
     //endregion
@@ -158,6 +171,9 @@ public class LeaseTermForServiceChargeBudgetAuditManager  {
 
     @javax.inject.Inject
     private ExcelService excelService;
+
+    @javax.inject.Inject
+    private LeaseTermUploadService leaseTermUploadService;
     //endregion
 
 }
@@ -17,6 +17,8 @@
  */
 package org.estatio.app.services.lease.turnoverrent;
 
+import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.base.Function;
@@ -40,6 +42,7 @@ import org.isisaddons.module.excel.dom.ExcelService;
 
 import org.incode.module.base.dom.utils.TitleBuilder;
 
+import org.estatio.app.services.lease.LeaseTermUploadService;
 import org.estatio.dom.asset.Property;
 import org.estatio.dom.lease.LeaseItemType;
 import org.estatio.dom.lease.LeaseTerm;
@@ -146,14 +149,15 @@ public class LeaseTermForTurnoverRentManager {
             @Parameter(fileAccept = ".xlsx")
             @ParameterLayout(named = "Excel spreadsheet")
             final Blob spreadsheet) {
-        List<LeaseTermForTurnoverRentLineItem> lineItems =
-                excelService.fromExcel(spreadsheet, LeaseTermForTurnoverRentLineItem.class,
-                        LEASE_TERM_FOR_TURNOVER_RENT_SHEET_NAME);
-        for (LeaseTermForTurnoverRentLineItem lineItem : lineItems) {
-            final LeaseTermForTurnoverRent leaseTerm = lineItem.getLeaseTerm();
-            leaseTerm.setAuditedTurnover(lineItem.getAuditedTurnover());
-            leaseTerm.verify();
-        }
+        final LeaseTermUploadService.UploadResult result = leaseTermUploadService.upload(
+                spreadsheet, LEASE_TERM_FOR_TURNOVER_RENT_SHEET_NAME, row -> {
+                    final LeaseTermForTurnoverRent leaseTerm =
+                            leaseTermUploadService.leaseTermOf(row, "leaseTerm", LeaseTermForTurnoverRent.class);
+                    final BigDecimal auditedTurnover = row.getBigDecimal("auditedTurnover");
+                    leaseTerm.setAuditedTurnover(auditedTurnover);
+                    return Collections.singletonList(leaseTerm);
+                });
+        leaseTermUploadService.report(result);
         return this;
     }
 
@@ -170,6 +174,9 @@ public class LeaseTermForTurnoverRentManager {
     @javax.inject.Inject
     private LeaseTermForTurnoverRentService budgetAuditService;
 
+    @javax.inject.Inject
+    private LeaseTermUploadService leaseTermUploadService;
+
     //endregion
 
 }
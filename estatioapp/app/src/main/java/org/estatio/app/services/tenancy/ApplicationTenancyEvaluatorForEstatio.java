@@ -16,15 +16,10 @@
  */
 package org.estatio.app.services.tenancy;
 
-import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
 
-import com.google.common.base.Splitter;
-import com.google.common.collect.FluentIterable;
-
 import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.NatureOfService;
 import org.apache.isis.applib.services.queryresultscache.QueryResultsCache;
@@ -33,12 +28,20 @@ import org.isisaddons.module.security.dom.tenancy.ApplicationTenancyEvaluator;
 import org.isisaddons.module.security.dom.tenancy.HasAtPath;
 import org.isisaddons.module.security.dom.user.ApplicationUser;
 
+import org.estatio.dom.apptenancy.ApplicationTenancyAccessCache;
+
 @DomainService(nature = NatureOfService.DOMAIN, menuOrder = "99")
 public class ApplicationTenancyEvaluatorForEstatio implements ApplicationTenancyEvaluator {
 
     @Inject
     QueryResultsCache queryResultsCache;
 
+    /**
+     * The access of each pair of user and object paths seen so far, rather than splitting and comparing both paths for
+     * every object rendered.
+     */
+    private final ApplicationTenancyAccessCache accessCache = new ApplicationTenancyAccessCache();
+
     public boolean handles(Class<?> cls) {
         return HasAtPath.class.isAssignableFrom(cls);
     }
@@ -76,61 +79,11 @@ public class ApplicationTenancyEvaluatorForEstatio implements ApplicationTenancy
     }
 
     boolean objectVisibleToUser(String objectTenancyPath, String userTenancyPath) {
-        final List<String> objectTenancyPathList = split(objectTenancyPath);
-        final List<String> userTenancyPathList = split(userTenancyPath);
-
-        for (int i = 0; i < objectTenancyPathList.size(); i++) {
-            final String objectTenancyPathPart = objectTenancyPathList.get(i);
-            if(i >= userTenancyPathList.size()) {
-                // run out of parts for the user tenancy, so the user tenancy is higher than object
-                return true;
-            }
-            final String userTenancyPathPart = userTenancyPathList.get(i);
-            if(!partsEqual(objectTenancyPathPart, userTenancyPathPart)) {
-                return false;
-            }
-        }
-        // run out of parts for the object tenancy, so the user tenancy is same or lower than the object
-        return true;
+        return accessCache.accessFor(objectTenancyPath, userTenancyPath).isVisible();
     }
 
     boolean objectEnabledForUser(String objectTenancyPath, String userTenancyPath) {
-        final List<String> objectTenancyPathList = split(objectTenancyPath);
-        final List<String> userTenancyPathList = split(userTenancyPath);
-
-        for (int i = 0; i < objectTenancyPathList.size(); i++) {
-            final String objectTenancyPathPart = objectTenancyPathList.get(i);
-            if(i >= userTenancyPathList.size()) {
-                // run out of parts for the user tenancy, so the user tenancy is higher than object
-                return true;
-            }
-            final String userTenancyPathPart = userTenancyPathList.get(i);
-            if(!partsEqual(objectTenancyPathPart, userTenancyPathPart)) {
-                return false;
-            }
-        }
-        // run out of parts for the object tenancy, so the user tenancy is same or lower than the object
-        final boolean sameSize = objectTenancyPathList.size() == userTenancyPathList.size();
-        return sameSize;
-    }
-
-    protected boolean partsEqual(String objectTenancyPathPart, String userTenancyPathPart) {
-        if (Objects.equals(objectTenancyPathPart, userTenancyPathPart)) {
-            return true;
-        }
-        // eg allow "X-CAR" user to match with "CAR"
-        if (!userTenancyPathPart.startsWith("X-")) {
-            return false;
-        }
-        final String baseUserTenancyPathPart = userTenancyPathPart.substring(2);
-        return Objects.equals(objectTenancyPathPart, baseUserTenancyPathPart);
-    }
-
-    private static List<String> split(String objectTenancyPath) {
-        return FluentIterable.from(Splitter.on('/')
-                            .split(objectTenancyPath))
-                            .filter(s -> !com.google.common.base.Strings.isNullOrEmpty(s))
-                            .toList();
+        return accessCache.accessFor(objectTenancyPath, userTenancyPath).isEnabled();
     }
 
     //region > helpers: applicationTenancyPathForCached, applicationTenancyPathFor, userTenancyPathForCached, userTenancyPathFor
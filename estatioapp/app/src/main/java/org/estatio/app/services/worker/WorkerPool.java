@@ -0,0 +1,256 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.worker;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Lists;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.isis.applib.security.RoleMemento;
+import org.apache.isis.applib.security.UserMemento;
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+import org.apache.isis.core.runtime.authentication.standard.SimpleSession;
+import org.apache.isis.core.runtime.sessiontemplate.AbstractIsisSessionTemplate;
+import org.apache.isis.core.runtime.system.transaction.IsisTransactionManager;
+import org.apache.isis.core.runtime.system.transaction.TransactionalClosure;
+
+/**
+ * A pool of worker threads that execute chunks of items, each chunk in an Isis session of its own.
+ *
+ * <p>
+ * A chunk is executed either {@link Transactions#PER_CHUNK in a single transaction} or
+ * {@link Transactions#PER_ITEM one transaction per item}. Should a chunk executed in a single transaction fail, that
+ * transaction is rolled back and the chunk's items are redone one transaction per item, so that a failure only
+ * affects the item that caused it. Each item that fails is passed to the {@link Work} in a transaction of its own, for
+ * example to record the failure against it.
+ * </p>
+ */
+public class WorkerPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WorkerPool.class);
+
+    public enum Transactions {
+        PER_CHUNK,
+        PER_ITEM
+    }
+
+    /**
+     * The work done by the workers; its methods are called concurrently, by all of the workers.
+     */
+    public interface Work<T> {
+
+        /**
+         * Executes the items within the current transaction of the worker's session.
+         */
+        void execute(List<T> items);
+
+        /**
+         * The item has been executed and committed.
+         */
+        default void succeeded(final T item) {
+        }
+
+        /**
+         * The item has failed, and been rolled back; called within a transaction of its own.
+         */
+        void failed(T item, RuntimeException failure);
+
+        /**
+         * The items could not be executed at all, the worker having failed to even open a session.
+         */
+        default void notExecuted(final List<T> items, final Throwable cause) {
+        }
+
+        /**
+         * Wraps the execution of a chunk within the worker's session, for example to set up state for the thread.
+         */
+        default void inSession(final Runnable execution) {
+            execution.run();
+        }
+
+    }
+
+    private final String name;
+    private final ExecutorService executorService;
+
+    public WorkerPool(final String name, final int workers) {
+        this.name = name;
+        this.executorService = Executors.newFixedThreadPool(workers, daemonThreadFactory(name));
+    }
+
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Executes the chunks concurrently, returning once they have all been executed.
+     */
+    public <T> void execute(
+            final AuthenticationSession authenticationSession,
+            final List<List<T>> chunks,
+            final Transactions transactions,
+            final Work<T> work) {
+        final List<Future<?>> futures = Lists.newArrayList();
+        for (final List<T> chunk : chunks) {
+            futures.add(executorService.submit(
+                    () -> new ChunkExecution<>(chunk, transactions, work).execute(authenticationSession, null)));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + name, ex);
+            } catch (ExecutionException ex) {
+                LOG.error("Failed to execute chunk of {}", name, ex.getCause());
+                work.notExecuted(chunks.get(i), ex.getCause());
+            }
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Runs the action in a transaction of an Isis session of its own, on the calling thread; for threads that have no
+     * session, such as those of a scheduler.
+     */
+    public static void executeInTransaction(final AuthenticationSession authenticationSession, final Runnable action) {
+        new AbstractIsisSessionTemplate() {
+            @Override
+            protected void doExecute(final Object context) {
+                getTransactionManager(getPersistenceSession()).executeWithinTransaction(new TransactionalClosure() {
+                    @Override
+                    public void execute() {
+                        action.run();
+                    }
+                });
+            }
+        }.execute(authenticationSession, null);
+    }
+
+    /**
+     * A session for the user, for the workers to act as.
+     */
+    public static AuthenticationSession authenticationSessionFor(final UserMemento user) {
+        final List<String> roles = Lists.newArrayList();
+        for (RoleMemento role : user.getRoles()) {
+            roles.add(role.getName());
+        }
+        return new SimpleSession(user.getName(), roles);
+    }
+
+    /**
+     * A session for a (system) user without roles.
+     */
+    public static AuthenticationSession authenticationSessionFor(final String userName) {
+        return new SimpleSession(userName, Collections.<String>emptyList());
+    }
+
+    /**
+     * Creates daemon threads named after the pool, numbered from 1.
+     */
+    public static ThreadFactory daemonThreadFactory(final String name) {
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // //////////////////////////////////////
+
+    static class ChunkExecution<T> extends AbstractIsisSessionTemplate {
+
+        private final List<T> chunk;
+        private final Transactions transactions;
+        private final Work<T> work;
+
+        ChunkExecution(final List<T> chunk, final Transactions transactions, final Work<T> work) {
+            this.chunk = chunk;
+            this.transactions = transactions;
+            this.work = work;
+        }
+
+        @Override
+        protected void doExecute(final Object context) {
+            work.inSession(this::executeChunk);
+        }
+
+        private void executeChunk() {
+            final IsisTransactionManager transactionManager = getTransactionManager(getPersistenceSession());
+            if (transactions == Transactions.PER_CHUNK) {
+                try {
+                    executeWithinTransaction(transactionManager, chunk);
+                    for (T item : chunk) {
+                        work.succeeded(item);
+                    }
+                    return;
+                } catch (RuntimeException chunkFailure) {
+                    if (chunk.size() == 1) {
+                        failed(transactionManager, chunk.get(0), chunkFailure);
+                        return;
+                    }
+                    // isolate the failure(s), redoing each item in a transaction of its own
+                }
+            }
+            for (T item : chunk) {
+                try {
+                    executeWithinTransaction(transactionManager, Collections.singletonList(item));
+                    work.succeeded(item);
+                } catch (RuntimeException itemFailure) {
+                    failed(transactionManager, item, itemFailure);
+                }
+            }
+        }
+
+        private void executeWithinTransaction(final IsisTransactionManager transactionManager, final List<T> items) {
+            transactionManager.executeWithinTransaction(new TransactionalClosure() {
+                @Override
+                public void execute() {
+                    work.execute(items);
+                }
+            });
+        }
+
+        private void failed(final IsisTransactionManager transactionManager, final T item, final RuntimeException failure) {
+            try {
+                transactionManager.executeWithinTransaction(new TransactionalClosure() {
+                    @Override
+                    public void execute() {
+                        work.failed(item, failure);
+                    }
+                });
+            } catch (RuntimeException ex) {
+                LOG.error("Failed to handle the failure of {}", item, ex);
+            }
+        }
+    }
+
+}
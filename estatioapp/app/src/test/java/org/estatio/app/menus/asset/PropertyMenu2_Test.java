@@ -38,6 +38,7 @@ import org.incode.module.unittestsupport.dom.repo.FinderInteraction.FinderMethod
 import org.estatio.dom.asset.EstatioApplicationTenancyRepositoryForProperty;
 import org.estatio.dom.asset.Property;
 import org.estatio.dom.asset.PropertyRepository;
+import org.estatio.dom.asset.PropertySearchIndex;
 import org.estatio.dom.asset.PropertyType;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -68,6 +69,13 @@ public class PropertyMenu2_Test {
                 return null;
             }
         };
+        // as if the patterns cannot be searched in the index
+        propertyRepository.setPropertySearchIndex(new PropertySearchIndex() {
+            @Override
+            public boolean canSearch(final String referenceOrName) {
+                return false;
+            }
+        });
         propertyMenu = new PropertyMenu();
         propertyMenu.propertyRepository = propertyRepository;
     }
@@ -134,7 +142,14 @@ public class PropertyMenu2_Test {
             propertyRepository = new PropertyRepository();
             propertyRepository.setContainer(mockContainer);
 
-            propertyMenu = new PropertyMenu();
+            // as if the patterns cannot be searched in the index
+        propertyRepository.setPropertySearchIndex(new PropertySearchIndex() {
+            @Override
+            public boolean canSearch(final String referenceOrName) {
+                return false;
+            }
+        });
+        propertyMenu = new PropertyMenu();
             propertyMenu.propertyRepository = propertyRepository;
 
             propertyRepository.setEstatioApplicationTenancyRepository(mockEstatioApplicationTenancyRepository);
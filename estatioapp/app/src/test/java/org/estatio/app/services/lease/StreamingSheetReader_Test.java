@@ -0,0 +1,100 @@
+package org.estatio.app.services.lease;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import org.apache.isis.applib.value.Blob;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StreamingSheetReader_Test {
+
+    static Blob spreadsheet() throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet("other").createRow(0).createCell(0).setCellValue("ignored");
+            final XSSFSheet sheet = workbook.createSheet("lease terms");
+            final XSSFRow header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Lease Term");
+            header.createCell(1).setCellValue("Audited Turnover");
+
+            final XSSFRow row1 = sheet.createRow(1);
+            row1.createCell(0).setCellValue("org.estatio.dom.lease.LeaseTermForTurnoverRent:1");
+            row1.createCell(1).setCellValue(123456.78);
+
+            // row 3 left empty
+
+            final XSSFRow row4 = sheet.createRow(3);
+            row4.createCell(0).setCellValue("org.estatio.dom.lease.LeaseTermForTurnoverRent:2");
+            row4.createCell(1).setCellValue("  ");
+            row4.createCell(5).setCellValue("no header");
+
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            workbook.write(bytes);
+            return new Blob("turnovers.xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+                    bytes.toByteArray());
+        }
+    }
+
+    public static class Read extends StreamingSheetReader_Test {
+
+        @Test
+        public void rows_by_header() throws Exception {
+            // given
+            final List<SheetRow> rows = Lists.newArrayList();
+
+            // when
+            StreamingSheetReader.read(spreadsheet(), "lease terms", rows::add);
+
+            // then
+            assertThat(rows).hasSize(2);
+            assertThat(rows.get(0).getRowNumber()).isEqualTo(2);
+            assertThat(rows.get(0).get("leaseTerm")).isEqualTo("org.estatio.dom.lease.LeaseTermForTurnoverRent:1");
+            assertThat(rows.get(0).getBigDecimal("auditedTurnover")).isEqualByComparingTo(new BigDecimal("123456.78"));
+            assertThat(rows.get(1).getRowNumber()).isEqualTo(4);
+            assertThat(rows.get(1).get("Lease Term")).isEqualTo("org.estatio.dom.lease.LeaseTermForTurnoverRent:2");
+            assertThat(rows.get(1).getBigDecimal("auditedTurnover")).isNull();
+            assertThat(rows.get(1).get("no header")).isNull();
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void no_such_sheet() throws Exception {
+            StreamingSheetReader.read(spreadsheet(), "turnovers", row -> {});
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void not_a_spreadsheet() throws Exception {
+            StreamingSheetReader.read(new Blob("turnovers.xlsx", "text/plain", "lease terms".getBytes()), "lease terms", row -> {});
+        }
+
+    }
+
+    public static class ColumnOf extends StreamingSheetReader_Test {
+
+        @Test
+        public void letters_of_the_reference() throws Exception {
+            assertThat(StreamingSheetReader.SheetHandler.columnOf("A1")).isEqualTo(0);
+            assertThat(StreamingSheetReader.SheetHandler.columnOf("F12")).isEqualTo(5);
+            assertThat(StreamingSheetReader.SheetHandler.columnOf("AB3")).isEqualTo(27);
+        }
+
+    }
+
+    public static class GetBigDecimal extends StreamingSheetReader_Test {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void not_a_number() throws Exception {
+            new SheetRow(2, Collections.singletonMap("auditedturnover", "n/a")).getBigDecimal("auditedTurnover");
+        }
+
+    }
+
+}
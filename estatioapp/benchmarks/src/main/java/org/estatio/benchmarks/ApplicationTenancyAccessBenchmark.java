@@ -0,0 +1,159 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Lists;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.estatio.dom.apptenancy.ApplicationTenancyAccessCache;
+
+/**
+ * The tenancy checks of rendering a page of objects (eg a table of leases): a visibility and an editability check of
+ * each object's path against the user's, as <tt>ApplicationTenancyEvaluatorForEstatio</tt> makes them, comparing
+ * splitting both paths on every check with the {@link ApplicationTenancyAccessCache}.
+ *
+ * <p>
+ * The paths are those of four countries with twenty properties each, at country, property and property-local level;
+ * the user is global, at country level or at property level (with an <tt>X-</tt> part).
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ApplicationTenancyAccessBenchmark {
+
+    @Param({ "/", "/ITA", "/ITA/X-P07" })
+    String userTenancyPath;
+
+    @Param({ "500" })
+    int numberOfObjects;
+
+    String[] objectTenancyPaths;
+
+    ApplicationTenancyAccessCache cache;
+
+    @Setup
+    public void setUp() {
+        final List<String> paths = Lists.newArrayList();
+        for (String country : new String[] { "ITA", "FRA", "NLD", "SWE" }) {
+            paths.add("/" + country);
+            for (int property = 0; property < 20; property++) {
+                final String propertyPath = String.format("/%s/P%02d", country, property);
+                paths.add(propertyPath);
+                paths.add(propertyPath + "/_");
+                paths.add(propertyPath + "/ta");
+            }
+        }
+        final Random random = new Random(42);
+        objectTenancyPaths = new String[numberOfObjects];
+        for (int i = 0; i < numberOfObjects; i++) {
+            objectTenancyPaths[i] = paths.get(random.nextInt(paths.size()));
+        }
+        cache = new ApplicationTenancyAccessCache();
+    }
+
+    @Benchmark
+    public int split() {
+        int enabled = 0;
+        for (String objectTenancyPath : objectTenancyPaths) {
+            if (splitVisible(objectTenancyPath, userTenancyPath) && splitEnabled(objectTenancyPath, userTenancyPath)) {
+                enabled++;
+            }
+        }
+        return enabled;
+    }
+
+    @Benchmark
+    public int cached() {
+        int enabled = 0;
+        for (String objectTenancyPath : objectTenancyPaths) {
+            if (cache.accessFor(objectTenancyPath, userTenancyPath).isVisible()
+                    && cache.accessFor(objectTenancyPath, userTenancyPath).isEnabled()) {
+                enabled++;
+            }
+        }
+        return enabled;
+    }
+
+    // as ApplicationTenancyEvaluatorForEstatio did before the cache
+
+    static boolean splitVisible(final String objectTenancyPath, final String userTenancyPath) {
+        final List<String> objectParts = split(objectTenancyPath);
+        final List<String> userParts = split(userTenancyPath);
+        for (int i = 0; i < objectParts.size(); i++) {
+            if (i >= userParts.size()) {
+                return true;
+            }
+            if (!partsEqual(objectParts.get(i), userParts.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean splitEnabled(final String objectTenancyPath, final String userTenancyPath) {
+        final List<String> objectParts = split(objectTenancyPath);
+        final List<String> userParts = split(userTenancyPath);
+        for (int i = 0; i < objectParts.size(); i++) {
+            if (i >= userParts.size()) {
+                return true;
+            }
+            if (!partsEqual(objectParts.get(i), userParts.get(i))) {
+                return false;
+            }
+        }
+        return objectParts.size() == userParts.size();
+    }
+
+    static boolean partsEqual(final String objectPart, final String userPart) {
+        if (Objects.equals(objectPart, userPart)) {
+            return true;
+        }
+        return userPart.startsWith("X-") && Objects.equals(objectPart, userPart.substring(2));
+    }
+
+    static List<String> split(final String path) {
+        return FluentIterable.from(Splitter.on('/').split(path)).filter(s -> !Strings.isNullOrEmpty(s)).toList();
+    }
+
+}
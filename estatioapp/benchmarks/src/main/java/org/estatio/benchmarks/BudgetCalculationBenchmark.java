@@ -0,0 +1,148 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.estatio.dom.asset.Unit;
+import org.estatio.dom.budgeting.budget.Budget;
+import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculationService;
+import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculationViewmodel;
+import org.estatio.dom.budgeting.budgetitem.BudgetItem;
+import org.estatio.dom.budgeting.keyitem.KeyItem;
+import org.estatio.dom.budgeting.keytable.KeyTable;
+import org.estatio.dom.budgeting.keytable.KeyValueMethod;
+import org.estatio.dom.budgeting.partioning.PartitionItem;
+import org.estatio.dom.charge.Charge;
+
+/**
+ * Calculates the budgeted and audited calculations of the budget of a property, as when recalculating its budget:
+ * every budget item is partitioned over a few key tables, each with an item per unit.
+ *
+ * <p>
+ * The budget is held in memory, so this measures the calculation itself; in the application each key table read and
+ * each budget item value adds queries.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BudgetCalculationBenchmark {
+
+    @Param({ "200", "2000" })
+    int numberOfUnits;
+
+    @Param({ "40" })
+    int numberOfBudgetItems;
+
+    @Param({ "4" })
+    int numberOfKeyTables;
+
+    BudgetCalculationService budgetCalculationService;
+
+    Budget budget;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        final List<Unit> units = Lists.newArrayList();
+        for (int i = 0; i < numberOfUnits; i++) {
+            final Unit unit = new Unit();
+            unit.setName(String.format("UNIT-%05d", i));
+            units.add(unit);
+        }
+        final List<KeyTable> keyTables = Lists.newArrayList();
+        for (int i = 0; i < numberOfKeyTables; i++) {
+            final KeyTable keyTable = new KeyTable();
+            keyTable.setName("KEY-" + i);
+            keyTable.setKeyValueMethod(i % 2 == 0 ? KeyValueMethod.PROMILLE : KeyValueMethod.DEFAULT);
+            keyTable.setPrecision(6);
+            for (Unit unit : units) {
+                final KeyItem keyItem = new KeyItem();
+                keyItem.setKeyTable(keyTable);
+                keyItem.setUnit(unit);
+                keyItem.setValue(BigDecimal.valueOf(random.nextInt(1000000), 6));
+                keyTable.getItems().add(keyItem);
+            }
+            keyTables.add(keyTable);
+        }
+
+        budget = new Budget();
+        for (int i = 0; i < numberOfBudgetItems; i++) {
+            final BigDecimal budgetedValue = BigDecimal.valueOf(100000 + random.nextInt(10000000), 2);
+            final BigDecimal auditedValue = budgetedValue.multiply(new BigDecimal("1.05"));
+            final List<PartitionItem> partitionItems = Lists.newArrayList();
+            final BudgetItem budgetItem = new BudgetItem() {
+                @Override
+                public BigDecimal getBudgetedValue() {
+                    return budgetedValue;
+                }
+
+                @Override
+                public BigDecimal getAuditedValue() {
+                    return auditedValue;
+                }
+
+                @Override
+                public List<PartitionItem> getPartitionItems() {
+                    return partitionItems;
+                }
+            };
+            final Charge charge = new Charge();
+            charge.setReference(String.format("CHARGE-%03d", i));
+            budgetItem.setCharge(charge);
+            budgetItem.setBudget(budget);
+            for (int k = 0; k < 2; k++) {
+                final PartitionItem partitionItem = new PartitionItem();
+                partitionItem.setBudgetItem(budgetItem);
+                partitionItem.setKeyTable(keyTables.get((i + k) % numberOfKeyTables));
+                partitionItem.setPercentage(new BigDecimal(k == 0 ? "70.00" : "30.00"));
+                partitionItems.add(partitionItem);
+            }
+            budget.getItems().add(budgetItem);
+        }
+        budgetCalculationService = new BudgetCalculationService();
+    }
+
+    @Benchmark
+    public List<BudgetCalculationViewmodel> getAllCalculations() {
+        return budgetCalculationService.getAllCalculations(budget);
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.estatio.dom.budgeting.Distributable;
+import org.estatio.dom.budgeting.DistributionService;
+
+/**
+ * Distributes a budget total over the items of a key table, as when (re)calculating the key values of a property.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DistributionBenchmark {
+
+    static class SyntheticDistributable implements Distributable {
+
+        private final BigDecimal sourceValue;
+        private BigDecimal value;
+
+        SyntheticDistributable(final BigDecimal sourceValue) {
+            this.sourceValue = sourceValue;
+        }
+
+        @Override
+        public BigDecimal getSourceValue() {
+            return sourceValue;
+        }
+
+        @Override
+        public BigDecimal getValue() {
+            return value;
+        }
+
+        @Override
+        public void setValue(final BigDecimal value) {
+            this.value = value;
+        }
+    }
+
+    @Param({ "10", "1000", "10000" })
+    int numberOfItems;
+
+    @Param({ "3", "6" })
+    int precision;
+
+    DistributionService distributionService;
+
+    List<Distributable> items;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        items = Lists.newArrayList();
+        for (int i = 0; i < numberOfItems; i++) {
+            // the areas of the units of a property, in square metres
+            items.add(new SyntheticDistributable(BigDecimal.valueOf(1000 + random.nextInt(500000), 2)));
+        }
+        distributionService = new DistributionService();
+    }
+
+    @Benchmark
+    public List<Distributable> distribute() {
+        return distributionService.distribute(items, new BigDecimal(1000), precision);
+    }
+
+}
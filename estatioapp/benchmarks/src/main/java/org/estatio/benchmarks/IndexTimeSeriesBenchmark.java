@@ -0,0 +1,123 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.estatio.dom.index.IndexBase;
+import org.estatio.dom.index.IndexTimeSeries;
+import org.estatio.dom.index.IndexValue;
+
+/**
+ * Looks up the values and rebase factor of a number of indexable terms, from an {@link IndexTimeSeries index time
+ * series} (including building it) and, as before it, by looking up each value and walking the bases for each term;
+ * the latter does not include the queries it takes in practice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexTimeSeriesBenchmark {
+
+    @Param({ "1000", "10000" })
+    int numberOfTerms;
+
+    List<IndexBase> bases;
+    List<IndexValue> values;
+    Map<LocalDate, IndexValue> valuesByDate;
+
+    LocalDate[] baseDates;
+    LocalDate[] nextDates;
+
+    @Setup
+    public void setUp() {
+        bases = Lists.newArrayList();
+        values = Lists.newArrayList();
+        valuesByDate = new HashMap<>();
+        IndexBase previous = null;
+        for (int year = 1990; year <= 2020; year += 5) {
+            final IndexBase base = new IndexBase();
+            base.setStartDate(new LocalDate(year, 1, 1));
+            base.setPrevious(previous);
+            base.setFactor(previous == null ? null : new BigDecimal("1.0" + (year % 7 + 1) + "5"));
+            bases.add(base);
+            for (LocalDate date = base.getStartDate(); date.getYear() < year + 5; date = date.plusMonths(1)) {
+                final IndexValue value = new IndexValue();
+                value.setIndexBase(base);
+                value.setStartDate(date);
+                value.setValue(BigDecimal.valueOf(100 + date.getMonthOfYear() + (date.getYear() - year) * 12, 1));
+                values.add(value);
+                valuesByDate.put(date, value);
+            }
+            previous = base;
+        }
+
+        final Random random = new Random(42);
+        baseDates = new LocalDate[numberOfTerms];
+        nextDates = new LocalDate[numberOfTerms];
+        for (int i = 0; i < numberOfTerms; i++) {
+            baseDates[i] = values.get(random.nextInt(values.size() - 12)).getStartDate();
+            nextDates[i] = baseDates[i].plusMonths(12 * (1 + random.nextInt(3)));
+        }
+    }
+
+    @Benchmark
+    public void timeSeries(final Blackhole blackhole) {
+        final IndexTimeSeries timeSeries = IndexTimeSeries.of(bases, values);
+        for (int i = 0; i < numberOfTerms; i++) {
+            blackhole.consume(timeSeries.valueForDate(baseDates[i]));
+            blackhole.consume(timeSeries.valueForDate(nextDates[i]));
+            blackhole.consume(timeSeries.rebaseFactorForDates(baseDates[i], nextDates[i]));
+        }
+    }
+
+    @Benchmark
+    public void walkingTheBases(final Blackhole blackhole) {
+        for (int i = 0; i < numberOfTerms; i++) {
+            blackhole.consume(valuesByDate.get(baseDates[i]));
+            final IndexValue nextValue = valuesByDate.get(nextDates[i]);
+            blackhole.consume(nextValue);
+            blackhole.consume(nextValue == null ? null : nextValue.getIndexBase().factorForDate(baseDates[i]));
+        }
+    }
+
+}
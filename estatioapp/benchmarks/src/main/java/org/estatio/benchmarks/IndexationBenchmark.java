@@ -0,0 +1,124 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.estatio.dom.index.Index;
+import org.estatio.dom.index.IndexBase;
+import org.estatio.dom.index.IndexTimeSeries;
+import org.estatio.dom.index.IndexValue;
+import org.estatio.dom.index.Indexable;
+import org.estatio.dom.lease.LeaseTermForIndexable;
+import org.estatio.dom.lease.indexation.IndexationService;
+
+/**
+ * Indexes the terms of a portfolio of leases against an index with monthly values since 1990, rebased every five
+ * years, looked up from its (cached) {@link IndexTimeSeries time series}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexationBenchmark {
+
+    /**
+     * An index whose time series is built once, in memory, rather than loaded by the
+     * {@link org.estatio.dom.index.IndexTimeSeriesCache cache}.
+     */
+    static class SyntheticIndex extends Index {
+
+        private final IndexTimeSeries timeSeries;
+
+        SyntheticIndex(final IndexTimeSeries timeSeries) {
+            this.timeSeries = timeSeries;
+        }
+
+        @Override
+        public void initialize(final Indexable input) {
+            timeSeries.initialize(input);
+        }
+    }
+
+    @Param({ "100", "1000" })
+    int numberOfLeases;
+
+    IndexationService indexationService;
+
+    List<LeaseTermForIndexable> terms;
+
+    @Setup
+    public void setUp() {
+        final List<IndexBase> bases = Lists.newArrayList();
+        final List<IndexValue> values = Lists.newArrayList();
+        IndexBase previous = null;
+        for (int year = 1990; year <= 2030; year += 5) {
+            final IndexBase base = new IndexBase();
+            base.setStartDate(new LocalDate(year, 1, 1));
+            base.setPrevious(previous);
+            base.setFactor(previous == null ? null : new BigDecimal("1.125"));
+            bases.add(base);
+            for (LocalDate date = base.getStartDate(); date.getYear() < year + 5; date = date.plusMonths(1)) {
+                final IndexValue value = new IndexValue();
+                value.setIndexBase(base);
+                value.setStartDate(date);
+                value.setValue(BigDecimal.valueOf(1000 + date.getMonthOfYear() + (date.getYear() - year) * 12, 1));
+                values.add(value);
+            }
+            previous = base;
+        }
+
+        final SyntheticLeaseBuilder builder = new SyntheticLeaseBuilder();
+        builder.setNumberOfLeases(numberOfLeases);
+        builder.setIndex(new SyntheticIndex(IndexTimeSeries.of(bases, values)));
+        terms = builder.build().getTerms();
+
+        indexationService = new IndexationService();
+    }
+
+    @Benchmark
+    public BigDecimal indexate() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (LeaseTermForIndexable term : terms) {
+            indexationService.indexate(term);
+            total = total.add(term.getEffectiveValue());
+        }
+        return total;
+    }
+
+}
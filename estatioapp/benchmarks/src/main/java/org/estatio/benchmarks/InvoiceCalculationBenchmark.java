@@ -0,0 +1,95 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.incode.module.base.dom.valuetypes.LocalDateInterval;
+
+import org.estatio.dom.invoice.InvoicingInterval;
+import org.estatio.dom.lease.InvoicingFrequency;
+import org.estatio.dom.lease.LeaseTermForIndexable;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationService;
+
+/**
+ * Calculates the terms of a portfolio of leases for a year of due dates, as a normal invoice run does for each term
+ * once its invoicing intervals are known.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoiceCalculationBenchmark {
+
+    @Param({ "100", "1000" })
+    int numberOfLeases;
+
+    @Param({ "QUARTERLY_IN_ADVANCE", "MONTHLY_IN_ADVANCE" })
+    String invoicingFrequency;
+
+    InvoiceCalculationService invoiceCalculationService;
+
+    List<LeaseTermForIndexable> terms;
+    List<List<InvoicingInterval>> intervalsByTerm;
+    LocalDate dueDateForCalculation;
+
+    @Setup
+    public void setUp() {
+        final SyntheticLeaseBuilder builder = new SyntheticLeaseBuilder();
+        builder.setNumberOfLeases(numberOfLeases);
+        builder.setInvoicingFrequency(InvoicingFrequency.valueOf(invoicingFrequency));
+        terms = builder.build().getTerms();
+
+        invoiceCalculationService = new InvoiceCalculationService();
+
+        final LocalDateInterval dueDateRange = LocalDateInterval.including(new LocalDate(2015, 1, 1), new LocalDate(2015, 12, 31));
+        dueDateForCalculation = dueDateRange.endDate();
+        intervalsByTerm = Lists.newArrayList();
+        for (LeaseTermForIndexable term : terms) {
+            intervalsByTerm.add(term.getLeaseItem().getInvoicingFrequency().intervalsInDueDateRange(dueDateRange, term.getInterval()));
+        }
+    }
+
+    @Benchmark
+    public void calculateTerm(final Blackhole blackhole) {
+        for (int i = 0; i < terms.size(); i++) {
+            blackhole.consume(invoiceCalculationService.calculateTerm(terms.get(i), intervalsByTerm.get(i), dueDateForCalculation));
+        }
+    }
+
+}
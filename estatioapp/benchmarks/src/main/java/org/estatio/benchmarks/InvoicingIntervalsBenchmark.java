@@ -0,0 +1,86 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.Interval;
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.estatio.dom.invoice.InvoicingInterval;
+import org.estatio.dom.lease.Frequency;
+import org.estatio.dom.lease.InvoicingFrequency;
+import org.estatio.dom.utils.CalendarUtils;
+
+/**
+ * The calendar calculations behind every invoice run: the intervals of a frequency in a date range and, on top of
+ * those, the invoicing intervals whose due date falls in the range.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoicingIntervalsBenchmark {
+
+    @Param({ "QUARTERLY_IN_ADVANCE", "MONTHLY_IN_ADVANCE", "YEARLY_IN_ARREARS" })
+    String invoicingFrequency;
+
+    @Param({ "1", "10", "20" })
+    int numberOfYears;
+
+    InvoicingFrequency frequency;
+    String rrule;
+    LocalDate startDate;
+    LocalDate endDate;
+
+    @Setup
+    public void setUp() {
+        frequency = InvoicingFrequency.valueOf(invoicingFrequency);
+        // the frequency the invoicing frequency is based on, eg QUARTERLY for QUARTERLY_IN_ADVANCE
+        rrule = Frequency.valueOf(invoicingFrequency.substring(0, invoicingFrequency.indexOf("_IN_"))).getRrule();
+        // not aligned with the calendar, as with the due date ranges of a retro run
+        startDate = new LocalDate(2012, 2, 15);
+        endDate = startDate.plusYears(numberOfYears);
+    }
+
+    @Benchmark
+    public List<Interval> calendarUtilsIntervalsInRange() {
+        return CalendarUtils.intervalsInRange(startDate, endDate, rrule);
+    }
+
+    @Benchmark
+    public List<InvoicingInterval> invoicingFrequencyIntervalsInDueDateRange() {
+        return frequency.intervalsInDueDateRange(startDate, endDate);
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.isisaddons.module.pdfbox.dom.service.PdfBoxService;
+
+import org.estatio.dom.lease.invoicing.dnc.PdfSpool;
+
+/**
+ * Merges the invoice PDFs of a month of a large property into a single PDF, as when downloading the selected
+ * invoice documents, holding all of them in memory for the {@link PdfBoxService} as opposed to
+ * {@link PdfSpool spooling} them to disk. Next to the time taken, the peak heap usage of each merge is reported.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class PdfMergeBenchmark {
+
+    /**
+     * The peak heap usage during a merge, in megabytes.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PeakHeap {
+
+        public long peakHeapMegabytes;
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            System.gc();
+            for (MemoryPoolMXBean pool : heapPools()) {
+                pool.resetPeakUsage();
+            }
+        }
+
+        void record() {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : heapPools()) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+            peakHeapMegabytes = peak / (1024 * 1024);
+        }
+
+        private static List<MemoryPoolMXBean> heapPools() {
+            final List<MemoryPoolMXBean> heapPools = Lists.newArrayList();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    heapPools.add(pool);
+                }
+            }
+            return heapPools;
+        }
+    }
+
+    @Param({ "5000" })
+    int numberOfInvoices;
+
+    PdfBoxService pdfBoxService;
+
+    byte[] invoicePdf;
+
+    @Setup
+    public void setUp() throws IOException {
+        pdfBoxService = new PdfBoxService();
+        try (PDDocument document = new PDDocument();
+             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            final PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                contentStream.beginText();
+                contentStream.setFont(PDType1Font.HELVETICA, 10);
+                contentStream.newLineAtOffset(50, 750);
+                for (int line = 0; line < 40; line++) {
+                    contentStream.showText(String.format("Invoice item %d - Rent 01/01/2017 - 31/03/2017 - 12,345.67", line));
+                    contentStream.newLineAtOffset(0, -15);
+                }
+                contentStream.endText();
+            }
+            document.save(outputStream);
+            invoicePdf = outputStream.toByteArray();
+        }
+    }
+
+    /**
+     * A copy of the invoice PDF, as read from its document.
+     */
+    private byte[] readInvoicePdf() {
+        return Arrays.copyOf(invoicePdf, invoicePdf.length);
+    }
+
+    @Benchmark
+    public byte[] inMemory(final PeakHeap peakHeap) throws IOException {
+        final List<byte[]> pdfBytes = Lists.newArrayList();
+        for (int i = 0; i < numberOfInvoices; i++) {
+            pdfBytes.add(readInvoicePdf());
+        }
+        final byte[] mergedBytes = pdfBoxService.merge(pdfBytes.toArray(new byte[][] {}));
+        peakHeap.record();
+        return mergedBytes;
+    }
+
+    @Benchmark
+    public byte[] spooled(final PeakHeap peakHeap) throws IOException {
+        try (PdfSpool pdfSpool = new PdfSpool()) {
+            for (int i = 0; i < numberOfInvoices; i++) {
+                pdfSpool.append(readInvoicePdf());
+            }
+            final byte[] mergedBytes = Files.readAllBytes(pdfSpool.mergeToFile().toPath());
+            peakHeap.record();
+            return mergedBytes;
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+
+import org.estatio.dom.index.Index;
+import org.estatio.dom.lease.InvoicingFrequency;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseItem;
+import org.estatio.dom.lease.LeaseItemType;
+import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.dom.lease.LeaseTermForIndexable;
+import org.estatio.dom.lease.indexation.IndexationMethod;
+
+/**
+ * Builds leases in memory, each with a single rent item and a chain of yearly, indexable terms, in the style of the
+ * <tt>LeaseBuilder</tt> fixture script but without a running application or database.
+ */
+public class SyntheticLeaseBuilder {
+
+    //region > numberOfLeases
+    private int numberOfLeases = 100;
+
+    public int getNumberOfLeases() {
+        return numberOfLeases;
+    }
+
+    public void setNumberOfLeases(final int numberOfLeases) {
+        this.numberOfLeases = numberOfLeases;
+    }
+    //endregion
+
+    //region > startDate
+    private LocalDate startDate = new LocalDate(2010, 1, 1);
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(final LocalDate startDate) {
+        this.startDate = startDate;
+    }
+    //endregion
+
+    //region > numberOfYears
+    private int numberOfYears = 10;
+
+    public int getNumberOfYears() {
+        return numberOfYears;
+    }
+
+    public void setNumberOfYears(final int numberOfYears) {
+        this.numberOfYears = numberOfYears;
+    }
+    //endregion
+
+    //region > invoicingFrequency
+    private InvoicingFrequency invoicingFrequency = InvoicingFrequency.QUARTERLY_IN_ADVANCE;
+
+    public InvoicingFrequency getInvoicingFrequency() {
+        return invoicingFrequency;
+    }
+
+    public void setInvoicingFrequency(final InvoicingFrequency invoicingFrequency) {
+        this.invoicingFrequency = invoicingFrequency;
+    }
+    //endregion
+
+    //region > index
+    private Index index;
+
+    public Index getIndex() {
+        return index;
+    }
+
+    public void setIndex(final Index index) {
+        this.index = index;
+    }
+    //endregion
+
+    //region > leases, terms (output)
+    private final List<Lease> leases = Lists.newArrayList();
+
+    public List<Lease> getLeases() {
+        return leases;
+    }
+
+    private final List<LeaseTermForIndexable> terms = Lists.newArrayList();
+
+    /**
+     * The terms of all leases, lease by lease and in the order of their chain.
+     */
+    public List<LeaseTermForIndexable> getTerms() {
+        return terms;
+    }
+    //endregion
+
+    public SyntheticLeaseBuilder build() {
+        for (int i = 0; i < numberOfLeases; i++) {
+            // spread the start dates over a year so that not all terms share the same invoicing intervals
+            final LocalDate leaseStartDate = startDate.plusDays(i % 365);
+            final LocalDate leaseEndDate = leaseStartDate.plusYears(numberOfYears).minusDays(1);
+
+            final Lease lease = new Lease();
+            lease.setReference(String.format("BENCH-%05d", i));
+            lease.setName(String.format("Benchmark lease %d", i));
+            lease.setStartDate(leaseStartDate);
+            lease.setEndDate(leaseEndDate);
+            leases.add(lease);
+
+            final LeaseItem leaseItem = new LeaseItem(lease, invoicingFrequency);
+            leaseItem.setType(LeaseItemType.RENT);
+            leaseItem.setSequence(BigInteger.ONE);
+            leaseItem.setStartDate(leaseStartDate);
+
+            LeaseTerm previous = null;
+            for (int year = 0; year < numberOfYears; year++) {
+                final LeaseTermForIndexable term = new LeaseTermForIndexable();
+                term.setLeaseItem(leaseItem);
+                term.setSequence(BigInteger.valueOf(year + 1));
+                term.setStartDate(leaseStartDate.plusYears(year));
+                term.setEndDate(leaseStartDate.plusYears(year + 1).minusDays(1));
+                term.setPrevious(previous);
+                if (previous != null) {
+                    previous.setNext(term);
+                }
+                term.setIndexationMethod(IndexationMethod.BASE_INDEX);
+                term.setIndex(index);
+                term.setBaseIndexStartDate(leaseStartDate.withDayOfMonth(1).minusMonths(2));
+                term.setNextIndexStartDate(term.getStartDate().withDayOfMonth(1).minusMonths(2));
+                term.setEffectiveDate(term.getStartDate());
+                term.setLevellingPercentage(BigDecimal.valueOf(100));
+                term.setBaseValue(BigDecimal.valueOf(10000 + 10 * (i % 1000)).setScale(2));
+                terms.add(term);
+                previous = term;
+            }
+        }
+        return this;
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.incode.module.base.dom.utils.StringUtils;
+
+import org.estatio.dom.search.TrigramIndex;
+
+/**
+ * Matches a wildcard pattern against random texts, using a {@link TrigramIndex trigram index} and, as the datastore
+ * does, by matching the regex against every text.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrigramIndexBenchmark {
+
+    static final String ALPHABET = "ABCDEFGH abcdefgh-";
+    static final int NUMBER_OF_PATTERNS = 100;
+
+    @Param({ "2000", "20000" })
+    int numberOfTexts;
+
+    Map<String, String> textsByKey;
+    TrigramIndex index;
+    String[] patterns;
+    Pattern[] regexes;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        textsByKey = new TreeMap<>();
+        index = new TrigramIndex();
+        for (int i = 0; i < numberOfTexts; i++) {
+            final String key = "key:" + i;
+            final String text = randomString(random, 4 + random.nextInt(12));
+            textsByKey.put(key, text);
+            index.add(key, text);
+        }
+        patterns = new String[NUMBER_OF_PATTERNS];
+        regexes = new Pattern[NUMBER_OF_PATTERNS];
+        for (int i = 0; i < NUMBER_OF_PATTERNS; ) {
+            final String pattern = (random.nextBoolean() ? "*" : "")
+                    + randomString(random, 3 + random.nextInt(2))
+                    + (random.nextBoolean() ? "*" : "");
+            if (TrigramIndex.canSearch(pattern)) {
+                patterns[i] = pattern;
+                regexes[i] = Pattern.compile(StringUtils.wildcardToCaseInsensitiveRegex(pattern));
+                i++;
+            }
+        }
+    }
+
+    @Benchmark
+    public void indexed(final Blackhole blackhole) {
+        for (String pattern : patterns) {
+            blackhole.consume(index.keysMatching(pattern));
+        }
+    }
+
+    @Benchmark
+    public void scanned(final Blackhole blackhole) {
+        for (Pattern regex : regexes) {
+            for (Map.Entry<String, String> entry : textsByKey.entrySet()) {
+                if (regex.matcher(entry.getValue()).matches()) {
+                    blackhole.consume(entry.getKey());
+                }
+            }
+        }
+    }
+
+    private static String randomString(final Random random, final int length) {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+}
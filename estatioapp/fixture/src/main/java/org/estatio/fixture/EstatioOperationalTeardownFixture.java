@@ -75,6 +75,10 @@ import org.estatio.dom.lease.LeaseType;
 import org.estatio.dom.lease.Occupancy;
 import org.estatio.dom.lease.breaks.BreakOption;
 import org.estatio.dom.lease.breaks.EventSourceLinkForBreakOption;
+import org.estatio.dom.lease.invoicing.dnc.OutboundEmail;
+import org.estatio.dom.lease.invoicing.dnc.ScheduledRender;
+import org.estatio.dom.lease.invoicing.summary.InvoiceSummaryTotal;
+import org.estatio.dom.lease.invoicing.summary.InvoiceSummaryTotalChange;
 import org.estatio.dom.lease.tags.Activity;
 import org.estatio.dom.lease.tags.Brand;
 import org.estatio.dom.lease.tags.Sector;
@@ -130,6 +134,10 @@ public class EstatioOperationalTeardownFixture extends TeardownFixtureAbstract {
         deleteFrom(KeyTable.class);
         deleteFrom(Budget.class);
 
+        deleteFrom(OutboundEmail.class);
+        deleteFrom(ScheduledRender.class);
+        deleteFrom(InvoiceSummaryTotalChange.class);
+        deleteFrom(InvoiceSummaryTotal.class);
         deleteFrom(PaperclipForInvoice.class);
         deleteFrom(InvoiceItem.class);
         deleteFrom(InvoiceAttribute.class);
@@ -31,11 +31,10 @@ import org.apache.isis.applib.annotation.Programmatic;
 import org.apache.isis.applib.fixturescripts.DiscoverableFixtureScript;
 import org.apache.isis.applib.services.factory.FactoryService;
 
+import org.estatio.dom.BatchTransactionService;
 import org.estatio.dom.asset.Property;
 import org.estatio.dom.asset.PropertyRepository;
-import org.estatio.dom.invoice.Invoice;
 import org.estatio.dom.invoice.InvoiceStatus;
-import org.estatio.dom.invoice.InvoiceRepository;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseRepository;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationParameters;
@@ -43,15 +42,21 @@ import org.estatio.dom.lease.invoicing.InvoiceCalculationSelection;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationService;
 import org.estatio.dom.invoice.InvoiceRunType;
 import org.estatio.dom.lease.invoicing.InvoiceForLease;
+import org.estatio.dom.lease.invoicing.InvoiceForLeaseRepository;
 
 import static org.incode.module.base.integtests.VT.ld;
 
 /**
  * Replays the invoice creation process
- * 
+ *
+ * The leases of each property, and the invoices created for them, are worked through in batches of
+ * {@value #BATCH_SIZE}, each committed and evicted once done, so that replaying many years does not hold every lease
+ * and invoice in memory.
  */
 public class CreateRetroInvoices extends DiscoverableFixtureScript {
 
+    private static final int BATCH_SIZE = 100;
+
     private static LocalDate EPOCH_START_DATE = ld(2013, 1, 1);
 
     private static LocalDate DEFAULT_START_DATE = ld(2013, 1, 1);
@@ -112,10 +117,13 @@ public class CreateRetroInvoices extends DiscoverableFixtureScript {
         for (Property property : properties) {
             executionContext.addResult(this, property.getReference(), property);
 
-            for (Lease lease : leaseRepository.findLeasesByProperty(property)) {
-                executionContext.addResult(this, lease.getReference(), lease);
-                createLease(lease, startDueDate, nextDueDate, executionContext);
-            }
+            leaseRepository.forEachBatchByProperty(property, BATCH_SIZE, leases -> {
+                for (Lease lease : leases) {
+                    executionContext.addResult(this, lease.getReference(), lease);
+                    createLease(lease, startDueDate, nextDueDate, executionContext);
+                }
+                batchTransactionService.commitAndEvictAll();
+            });
         }
         return executionContext;
     }
@@ -147,15 +155,18 @@ public class CreateRetroInvoices extends DiscoverableFixtureScript {
             final ExecutionContext executionContext) {
         invoiceCalculationService.calculateAndInvoice(parameters);
 
-        for (Invoice invoice : invoiceRepository.findByStatus(InvoiceStatus.NEW)) {
-            factoryService.mixin(InvoiceForLease._saveAsHistoric.class, invoice).$$();
-            executionContext.addResult(this, invoice.getInvoiceNumber(), invoice);
-        }
+        invoiceForLeaseRepository.forEachBatchByFixedAssetAndStatus(parameters.property(), InvoiceStatus.NEW, BATCH_SIZE, invoices -> {
+            for (InvoiceForLease invoice : invoices) {
+                factoryService.mixin(InvoiceForLease._saveAsHistoric.class, invoice).$$();
+                executionContext.addResult(this, invoice.getInvoiceNumber(), invoice);
+            }
+            batchTransactionService.commitAndEvictAll();
+        });
         return executionContext;
     }
 
     @Inject
-    protected InvoiceRepository invoiceRepository;
+    protected InvoiceForLeaseRepository invoiceForLeaseRepository;
 
     @Inject
     protected LeaseRepository leaseRepository;
@@ -169,4 +180,7 @@ public class CreateRetroInvoices extends DiscoverableFixtureScript {
     @Inject
     protected FactoryService factoryService;
 
+    @Inject
+    protected BatchTransactionService batchTransactionService;
+
 }
@@ -27,10 +27,12 @@ import javax.inject.Inject;
 
 import org.apache.log4j.Level;
 import org.apache.log4j.PropertyConfigurator;
+import org.datanucleus.api.jdo.JDOPersistenceManager;
 import org.junit.BeforeClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
 import org.apache.isis.applib.services.xactn.TransactionService;
 import org.apache.isis.core.integtestsupport.IsisSystemForTest;
 import org.apache.isis.core.integtestsupport.scenarios.ScenarioExecutionForIntegration;
@@ -44,7 +46,11 @@ import org.isisaddons.module.command.dom.CommandJdo;
 import org.incode.module.integtestsupport.dom.IncodeIntegrationTestAbstract;
 
 import org.estatio.app.EstatioAppManifest;
+import org.estatio.app.services.documents.DocumentRenderScheduler;
+import org.estatio.app.services.email.OutboundEmailDispatcher;
+import org.estatio.dom.document.documents.ReportServerSettingsService;
 import org.estatio.integtests.fakes.EstatioIntegTestFakeServicesModule;
+import org.estatio.integtests.fakes.FakeReportServer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -77,6 +83,10 @@ public abstract class EstatioIntegrationTest extends IncodeIntegrationTestAbstra
                             Util.withIsisIntegTestProperties(props);
                             Util.withJavaxJdoRunInMemoryProperties(props);
                             Util.withDataNucleusProperties(props);
+                            // to count the queries issued, see #numberOfQueries()
+                            props.put("isis.persistor.datanucleus.impl.datanucleus.enableStatistics", "true");
+                            props.put(ReportServerSettingsService.REPORT_SERVER_CONFIG_PROPERTY_KEY,
+                                    FakeReportServer.instance().getBaseUrl());
                             return props;
                         }
                     })
@@ -110,12 +120,50 @@ public abstract class EstatioIntegrationTest extends IncodeIntegrationTestAbstra
         assertThat(commands).isEmpty();
     }
 
+    /**
+     * Commits the emails queued so far, and dispatches them.
+     */
+    protected void dispatchOutboundEmails() {
+        transactionService.nextTransaction();
+        outboundEmailDispatcher.dispatchDue();
+        transactionService.nextTransaction();
+    }
+
+    /**
+     * Commits the renders scheduled so far, and renders them against the {@link FakeReportServer}.
+     *
+     * @return the number of documents rendered.
+     */
+    protected int renderScheduledDocuments() {
+        transactionService.nextTransaction();
+        final int rendered = documentRenderScheduler.renderPending();
+        transactionService.nextTransaction();
+        return rendered;
+    }
+
+    /**
+     * The number of queries issued to the database by the current persistence manager so far.
+     */
+    protected long numberOfQueries() {
+        final JDOPersistenceManager persistenceManager = (JDOPersistenceManager) isisJdoSupport.getJdoPersistenceManager();
+        return persistenceManager.getExecutionContext().getStatistics().getNumberOfDatastoreReads();
+    }
+
     @Inject
     protected BackgroundCommandServiceJdoRepository backgroundCommandRepository;
 
+    @Inject
+    protected DocumentRenderScheduler documentRenderScheduler;
+
+    @Inject
+    protected OutboundEmailDispatcher outboundEmailDispatcher;
+
     @Inject
     protected TransactionService transactionService;
 
+    @Inject
+    protected IsisJdoSupport isisJdoSupport;
+
 
 }
 
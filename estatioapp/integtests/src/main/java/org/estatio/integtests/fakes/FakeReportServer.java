@@ -0,0 +1,70 @@
+package org.estatio.integtests.fakes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+/**
+ * Local HTTP stub standing in for the SSRS report server, serving the same single page PDF for any report URL.
+ */
+public final class FakeReportServer {
+
+    private static FakeReportServer instance;
+
+    public static synchronized FakeReportServer instance() {
+        if (instance == null) {
+            try {
+                instance = new FakeReportServer();
+            } catch (IOException ex) {
+                throw new IllegalStateException("Could not start fake report server", ex);
+            }
+        }
+        return instance;
+    }
+
+    private final HttpServer server;
+    private final byte[] pdfBytes;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private FakeReportServer() throws IOException {
+        pdfBytes = singlePagePdf();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "application/pdf");
+            exchange.sendResponseHeaders(200, pdfBytes.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(pdfBytes);
+            }
+        });
+        server.start();
+    }
+
+    private static byte[] singlePagePdf() throws IOException {
+        try (PDDocument document = new PDDocument();
+             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            document.addPage(new PDPage());
+            document.save(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+
+    /**
+     * To use as the <tt>estatio.application.reportServerBaseUrl</tt>.
+     */
+    public String getBaseUrl() {
+        return String.format("http://localhost:%d/ReportServer?name=", server.getAddress().getPort());
+    }
+
+    public int getRequests() {
+        return requests.get();
+    }
+
+}
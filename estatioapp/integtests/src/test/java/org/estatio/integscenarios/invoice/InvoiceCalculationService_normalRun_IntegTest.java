@@ -19,6 +19,7 @@
 package org.estatio.integscenarios.invoice;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.SortedSet;
 
 import javax.inject.Inject;
@@ -31,6 +32,10 @@ import org.apache.isis.objectstore.jdo.applib.service.support.IsisJdoSupport;
 
 import org.estatio.app.menus.invoice.InvoiceServiceMenu;
 import org.estatio.dom.appsettings.LeaseInvoicingSettingsService;
+import org.estatio.dom.bankmandate.BankMandate;
+import org.estatio.dom.bankmandate.BankMandateRepository;
+import org.estatio.dom.financial.FinancialAccountRepository;
+import org.estatio.dom.financial.bankaccount.BankAccount;
 import org.estatio.dom.invoice.InvoiceStatus;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseItem;
@@ -42,16 +47,22 @@ import org.estatio.dom.lease.LeaseTermStatus;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationParameters;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationSelection;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationService;
+import org.estatio.dom.lease.invoicing.InvoiceForLease;
+import org.estatio.dom.lease.invoicing.InvoiceForLeaseRepository;
 import org.estatio.dom.lease.invoicing.InvoiceItemForLease;
 import org.estatio.dom.lease.invoicing.InvoiceItemForLeaseRepository;
 import org.estatio.dom.invoice.InvoiceRunType;
+import org.estatio.dom.party.Party;
+import org.estatio.dom.party.PartyRepository;
 import org.estatio.fixture.EstatioBaseLineFixture;
 import org.estatio.fixture.asset.PropertyForKalNl;
 import org.estatio.fixture.asset.PropertyForOxfGb;
+import org.estatio.fixture.financial.BankAccountAndMandateForTopModelGb;
 import org.estatio.fixture.lease.LeaseBreakOptionsForOxfMediax002Gb;
 import org.estatio.fixture.lease.LeaseBreakOptionsForOxfPoison003Gb;
 import org.estatio.fixture.lease.LeaseBreakOptionsForOxfTopModel001;
 import org.estatio.fixture.lease.LeaseForOxfPret004Gb;
+import org.estatio.fixture.lease.LeaseForOxfTopModel001Gb;
 import org.estatio.fixture.lease.LeaseItemAndLeaseTermForRentForKalPoison001;
 import org.estatio.fixture.lease.LeaseItemAndTermsForOxfMiracl005Gb;
 import org.estatio.fixture.party.PersonForLinusTorvaldsNl;
@@ -59,6 +70,7 @@ import org.estatio.integtests.EstatioIntegrationTest;
 import org.incode.module.base.integtests.VT;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
@@ -87,6 +99,18 @@ public class InvoiceCalculationService_normalRun_IntegTest extends EstatioIntegr
     @Inject
     private InvoiceServiceMenu invoiceService;
 
+    @Inject
+    private InvoiceForLeaseRepository invoiceForLeaseRepository;
+
+    @Inject
+    private BankMandateRepository bankMandateRepository;
+
+    @Inject
+    private FinancialAccountRepository financialAccountRepository;
+
+    @Inject
+    private PartyRepository partyRepository;
+
     private Lease lease;
     private LeaseItem leaseTopModelRentItem;
     private LeaseItem leaseTopModelServiceChargeItem;
@@ -205,6 +229,44 @@ public class InvoiceCalculationService_normalRun_IntegTest extends EstatioIntegr
         leaseInvoicingSettingsService.updateEpochDate(VT.ld(1980, 1, 1));
     }
 
+    @Test
+    public void reconcileLease_whenPayerChangedBetweenRuns() throws Exception {
+        // given
+        runFixtureScript(new BankAccountAndMandateForTopModelGb());
+        final Party tenant = partyRepository.findPartyByReference(LeaseForOxfTopModel001Gb.PARTY_REF_TENANT);
+        final BankAccount bankAccount = (BankAccount) financialAccountRepository.findByOwnerAndReference(tenant, BankAccountAndMandateForTopModelGb.REF);
+        final BankMandate bankMandate = bankMandateRepository.findBankMandatesFor(bankAccount).get(0);
+
+        final InvoiceCalculationParameters parameters = InvoiceCalculationParameters.builder()
+                .lease(lease)
+                .leaseItemType(LeaseItemType.RENT)
+                .leaseItemType(LeaseItemType.SERVICE_CHARGE)
+                .invoiceRunType(InvoiceRunType.NORMAL_RUN)
+                .invoiceDueDate(VT.ld(2010, 10, 1))
+                .startDueDate(VT.ld(2010, 10, 1))
+                .nextDueDate(VT.ld(2010, 10, 2)).build();
+        invoiceCalculationService.reconcileLease(invoiceCalculationService.calculateLease(lease, parameters), parameters, "run-1");
+        final List<InvoiceForLease> invoicesOfFirstRun = invoiceForLeaseRepository.findRunInvoicesOfLease(lease, parameters);
+        assertThat(invoicesOfFirstRun.isEmpty(), is(false));
+        for (InvoiceForLease invoice : invoicesOfFirstRun) {
+            assertThat(invoice.getPaidBy(), is(nullValue()));
+        }
+
+        // when
+        lease.paidBy(bankMandate);
+        invoiceCalculationService.reconcileLease(invoiceCalculationService.calculateLease(lease, parameters), parameters, "run-2");
+
+        // then
+        final List<InvoiceForLease> invoicesOfSecondRun = invoiceForLeaseRepository.findRunInvoicesOfLease(lease, parameters);
+        assertThat(invoicesOfSecondRun.size(), is(invoicesOfFirstRun.size()));
+        for (InvoiceForLease invoice : invoicesOfFirstRun) {
+            // kept rather than recreated, yet paid by the new payer
+            assertThat(invoicesOfSecondRun.contains(invoice), is(true));
+            assertThat(invoice.getRunId(), is("run-2"));
+            assertThat(invoice.getPaidBy(), is(bankMandate));
+        }
+    }
+
     public void t16_bulkLeaseCalculate() throws Exception {
         leaseTopModelServiceChargeItem = lease.findItem(LeaseItemType.SERVICE_CHARGE, VT.ld(2010, 7, 15), VT.bi(1));
         LeaseTermForServiceCharge leaseTopModelServiceChargeTerm0 = (LeaseTermForServiceCharge) leaseTopModelServiceChargeItem.getTerms().first();
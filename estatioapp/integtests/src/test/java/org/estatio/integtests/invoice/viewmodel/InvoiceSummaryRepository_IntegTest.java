@@ -113,6 +113,33 @@ public class InvoiceSummaryRepository_IntegTest extends EstatioIntegrationTest {
             assertThat(invoiceSummary.getRunId()).isEqualTo(interactionId);
             assertThat(invoiceSummary.getAtPath()).isEqualTo(lease.getApplicationTenancy().getPath());
         }
+
+        @Test
+        public void when_invoices_of_a_run_are_changed_by_separate_transactions() {
+            // given
+            Lease lease = leaseRepository.findLeaseByReference(LeaseForKalPoison001Nl.REF);
+            final String interactionId = "23456789";
+            for (int i = 0; i < 2; i++) {
+                final InvoiceForLease invoiceForLease = invoiceForLeaseRepository.newInvoice(
+                        lease.getApplicationTenancy(),
+                        lease.getPrimaryParty(),
+                        lease.getSecondaryParty(),
+                        PaymentMethod.DIRECT_DEBIT,
+                        null,
+                        new LocalDate(2010, 1, 1),
+                        lease,
+                        interactionId);
+                invoiceItemForLeaseRepository.newInvoiceItem(invoiceForLease, invoiceForLease.getDueDate());
+                transactionService.nextTransaction();
+            }
+
+            //when
+            final InvoiceSummaryForInvoiceRun invoiceSummary = invoiceSummaryForInvoiceRunRepository.findByRunId(interactionId);
+
+            //then
+            // a single total for the run, so each invoice counted once
+            assertThat(invoiceSummary.getTotal()).isEqualTo(2);
+        }
     }
 
     @Inject
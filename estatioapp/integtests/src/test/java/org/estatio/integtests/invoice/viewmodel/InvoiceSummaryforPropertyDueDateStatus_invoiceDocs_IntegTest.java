@@ -149,7 +149,7 @@ public class InvoiceSummaryforPropertyDueDateStatus_invoiceDocs_IntegTest extend
             assertThat(paperclips).extracting(x -> x.getAttachedTo()).contains(invoice);
 
             // and when rendered
-            runBackgroundCommands();
+            assertThat(renderScheduledDocuments()).isEqualTo(1);
 
             summary = findSummary(InvoiceStatus.INVOICED);
             invoiceDocViewModel = invoiceDocViewModelOf(summary);
@@ -166,6 +166,7 @@ public class InvoiceSummaryforPropertyDueDateStatus_invoiceDocs_IntegTest extend
             // and when send by email
             //
             mixin(InvoiceSummaryForPropertyDueDateStatus_sendByEmailInvoiceDocs.class, summary).$$();
+            dispatchOutboundEmails();
 
             summary = findSummary(InvoiceStatus.INVOICED);
             invoiceDocViewModel = invoiceDocViewModelOf(summary);
@@ -130,7 +130,7 @@ public class InvoiceSummaryforPropertyDueDateStatus_prelimaryLetters_IntegTest e
             assertThat(paperclips).extracting(x -> x.getAttachedTo()).contains(invoice);
 
             // and when rendered
-            runBackgroundCommands();
+            assertThat(renderScheduledDocuments()).isEqualTo(1);
 
             summary = findSummary();
             prelimLetterViewModel = prelimLetterViewModelOf(summary);
@@ -147,6 +147,7 @@ public class InvoiceSummaryforPropertyDueDateStatus_prelimaryLetters_IntegTest e
             // and when send by email
             //
             mixin(InvoiceSummaryForPropertyDueDateStatus_sendByEmailPreliminaryLetters.class, summary).$$();
+            dispatchOutboundEmails();
 
             summary = findSummary();
             prelimLetterViewModel = prelimLetterViewModelOf(summary);
@@ -0,0 +1,153 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.integtests.lease;
+
+import java.util.Collections;
+
+import javax.inject.Inject;
+import javax.jdo.PersistenceManager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.isis.applib.fixturescripts.FixtureScript;
+
+import org.estatio.dom.agreement.AgreementRole;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseGraphFetchPlan;
+import org.estatio.dom.lease.LeaseItem;
+import org.estatio.dom.lease.LeaseRepository;
+import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.dom.lease.Occupancy;
+import org.estatio.fixture.EstatioBaseLineFixture;
+import org.estatio.fixture.lease.LeaseForOxfTopModel001Gb;
+import org.estatio.fixture.lease.LeaseItemAndTermsForOxfTopModel001;
+import org.estatio.integtests.EstatioIntegrationTest;
+import org.incode.module.base.integtests.VT;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LeaseGraphFetchPlan_IntegTest extends EstatioIntegrationTest {
+
+    /**
+     * The lease, its items and occupancies, its roles with their party and type, all of its terms, and all of its
+     * items with their terms, charge and tax; each in a single query (or a few), however many items and terms.
+     */
+    private static final int MAX_QUERIES = 25;
+
+    @Before
+    public void setupData() {
+        runFixtureScript(new FixtureScript() {
+            @Override
+            protected void execute(ExecutionContext executionContext) {
+                executionContext.executeChild(this, new EstatioBaseLineFixture());
+                executionContext.executeChild(this, new LeaseItemAndTermsForOxfTopModel001());
+            }
+        });
+        // a term per year or so for each of the items
+        leaseRepository.findLeaseByReference(LeaseForOxfTopModel001Gb.REF).verifyUntil(VT.ld(2030, 1, 1));
+        transactionService.nextTransaction();
+    }
+
+    @Test
+    public void loads_the_lease_graph_in_a_bounded_number_of_queries() throws Exception {
+
+        // given
+        evictAll();
+
+        // when
+        final long queriesBefore = numberOfQueries();
+        final Lease lease = leaseRepository.findLeaseByReference(LeaseForOxfTopModel001Gb.REF);
+        final int numberOfTerms = leaseGraphFetchPlan.fetching(() -> {
+            leaseGraphFetchPlan.load(Collections.singletonList(lease));
+            return walk(lease);
+        });
+        final long queries = numberOfQueries() - queriesBefore;
+
+        // then
+        final int numberOfItems = lease.getItems().size();
+        assertThat(numberOfItems).isGreaterThanOrEqualTo(9);
+        assertThat(numberOfTerms).isGreaterThan(numberOfItems * 4);
+        assertThat(queries).isLessThanOrEqualTo(MAX_QUERIES);
+    }
+
+    @Test
+    public void fewer_queries_than_when_navigating() throws Exception {
+
+        // given
+        evictAll();
+        long queriesBefore = numberOfQueries();
+        walk(leaseRepository.findLeaseByReference(LeaseForOxfTopModel001Gb.REF));
+        final long queriesWhenNavigating = numberOfQueries() - queriesBefore;
+        evictAll();
+
+        // when
+        queriesBefore = numberOfQueries();
+        leaseGraphFetchPlan.fetching(() -> walk(leaseRepository.findLeaseByReference(LeaseForOxfTopModel001Gb.REF)));
+        final long queriesWithFetchPlan = numberOfQueries() - queriesBefore;
+
+        // then
+        assertThat(queriesWithFetchPlan).isLessThan(queriesWhenNavigating);
+    }
+
+    /**
+     * Starts a new transaction with nothing cached, neither by the persistence manager nor in the level 2 cache, so
+     * that every walk loads the whole graph from the database.
+     */
+    private void evictAll() {
+        transactionService.nextTransaction();
+        final PersistenceManager persistenceManager = isisJdoSupport.getJdoPersistenceManager();
+        persistenceManager.evictAll();
+        persistenceManager.getPersistenceManagerFactory().getDataStoreCache().evictAll();
+    }
+
+    /**
+     * Navigates the lease graph as the lease page and the invoice calculation do.
+     *
+     * @return the number of terms
+     */
+    private static int walk(final Lease lease) {
+        int numberOfTerms = 0;
+        for (AgreementRole role : lease.getRoles()) {
+            assertThat(role.getParty().getName()).isNotNull();
+        }
+        for (Occupancy occupancy : lease.getOccupancies()) {
+            assertThat(occupancy.getUnit().getName()).isNotNull();
+        }
+        for (LeaseItem leaseItem : lease.getItems()) {
+            assertThat(leaseItem.getCharge().getReference()).isNotNull();
+            leaseItem.getTax();
+            for (LeaseTerm leaseTerm : leaseItem.getTerms()) {
+                numberOfTerms++;
+                assertThat(leaseTerm.getStartDate()).isNotNull();
+                if (leaseTerm.getNext() != null) {
+                    assertThat(leaseTerm.getNext().getPrevious()).isSameAs(leaseTerm);
+                }
+            }
+        }
+        return numberOfTerms;
+    }
+
+    @Inject
+    LeaseRepository leaseRepository;
+
+    @Inject
+    LeaseGraphFetchPlan leaseGraphFetchPlan;
+
+}
@@ -50,6 +50,7 @@ import org.estatio.dom.lease.LeaseRepository;
 import org.estatio.dom.lease.LeaseTerm;
 import org.estatio.dom.lease.LeaseTermForIndexable;
 import org.estatio.dom.lease.LeaseTermForServiceCharge;
+import org.estatio.dom.lease.LeaseTermSubscriptions;
 import org.estatio.dom.lease.invoicing.InvoiceItemForLeaseRepository;
 import org.estatio.fixture.EstatioBaseLineFixture;
 import org.estatio.fixture.charge.ChargeRefData;
@@ -327,4 +328,48 @@ public class LeaseItem_IntegTest extends EstatioIntegrationTest {
         }
     }
 
+    public static class ChangedAt extends LeaseItem_IntegTest {
+
+        @Inject
+        LeaseTermSubscriptions leaseTermSubscriptions;
+
+        LeaseItem leaseTopModelRentItem;
+        LeaseTerm leaseTopModelRentTerm;
+
+        @Before
+        public void setUpItem() throws Exception {
+            leaseTopModelRentItem = lease.findItem(LeaseItemType.RENT, VT.ld(2010, 7, 15), VT.bi(1));
+            leaseTopModelRentTerm = leaseTopModelRentItem.getTerms().first();
+            leaseTermSubscriptions.withoutMarkingChanges(() -> {
+                leaseTopModelRentItem.setChangedAt(null);
+                return null;
+            });
+            transactionService.nextTransaction();
+        }
+
+        @Test
+        public void whenTermChangedProgrammatically() throws Exception {
+
+            // when
+            leaseTopModelRentTerm.setEndDate(VT.ld(2012, 12, 31));
+            transactionService.flushTransaction();
+
+            // then
+            assertThat(leaseTopModelRentItem.getChangedAt()).isNotNull();
+        }
+
+        @Test
+        public void whenTermChangedWithoutMarkingChanges() throws Exception {
+
+            // when
+            leaseTermSubscriptions.withoutMarkingChanges(() -> {
+                leaseTopModelRentTerm.setEndDate(VT.ld(2012, 12, 31));
+                return null;
+            });
+
+            // then
+            assertThat(leaseTopModelRentItem.getChangedAt()).isNull();
+        }
+    }
+
 }
\ No newline at end of file
@@ -35,6 +35,7 @@ import org.estatio.dom.asset.Property;
 import org.estatio.dom.asset.PropertyRepository;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseRepository;
+import org.estatio.dom.lease.LeaseStatus;
 import org.estatio.dom.lease.tags.Brand;
 import org.estatio.dom.lease.tags.BrandRepository;
 import org.estatio.fixture.EstatioBaseLineFixture;
@@ -46,6 +47,7 @@ import org.estatio.fixture.lease.LeaseForOxfPoison003Gb;
 import org.estatio.fixture.lease.LeaseForOxfPret004Gb;
 import org.estatio.fixture.lease.LeaseForOxfTopModel001Gb;
 import org.estatio.integtests.EstatioIntegrationTest;
+import org.incode.module.base.dom.valuetypes.LocalDateInterval;
 import org.incode.module.base.integtests.VT;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -168,6 +170,54 @@ public class LeaseRepository_IntegTest extends EstatioIntegrationTest {
 
     }
 
+    public static class MatchByReferenceOrNameInSearchIndex extends LeaseRepository_IntegTest {
+
+        @Before
+        public void setupData() {
+            runFixtureScript(new FixtureScript() {
+                @Override
+                protected void execute(ExecutionContext executionContext) {
+                    executionContext.executeChild(this, new EstatioBaseLineFixture());
+                    executionContext.executeChild(this, new LeaseForOxfTopModel001Gb());
+                }
+            });
+        }
+
+        @Test
+        public void renamed_once_committed() {
+            // given
+            assertThat(leaseRepository.matchByReferenceOrName("*Renamed*", true)).isEmpty();
+            final Lease lease = leaseRepository.findLeaseByReference(LeaseForOxfTopModel001Gb.REF);
+
+            // when
+            lease.setName("Renamed lease");
+            transactionService.flushTransaction();
+
+            // then
+            assertThat(leaseRepository.matchByReferenceOrName("*Renamed*", true)).isEmpty();
+
+            // when
+            transactionService.nextTransaction();
+
+            // then
+            assertThat(leaseRepository.matchByReferenceOrName("*Renamed*", true)).containsExactly(lease);
+        }
+
+        @Test
+        public void uncommitted_changes_kept() {
+            // given
+            final Lease lease = leaseRepository.findLeaseByReference(LeaseForOxfTopModel001Gb.REF);
+
+            // when
+            lease.setName("Renamed lease");
+
+            // then
+            assertThat(leaseRepository.matchByReferenceOrName(LeaseForOxfTopModel001Gb.REF, true)).containsExactly(lease);
+            assertThat(lease.getName()).isEqualTo("Renamed lease");
+        }
+
+    }
+
     public static class FindLeasesByProperty extends LeaseRepository_IntegTest {
 
         @Before
@@ -204,6 +254,90 @@ public class LeaseRepository_IntegTest extends EstatioIntegrationTest {
 
     }
 
+    public static class FindLeasesByPropertyWithOccupancyOverlapping extends LeaseRepository_IntegTest {
+
+        @Before
+        public void setupData() {
+            runFixtureScript(new FixtureScript() {
+                @Override
+                protected void execute(ExecutionContext executionContext) {
+                    executionContext.executeChild(this, new EstatioBaseLineFixture());
+
+                    executionContext.executeChild(this, new LeaseForOxfTopModel001Gb());
+                    executionContext.executeChild(this, new LeaseForOxfMediaX002Gb());
+                    executionContext.executeChild(this, new LeaseForOxfPoison003Gb());
+                    executionContext.executeChild(this, new LeaseForOxfMiracl005Gb());
+                }
+            });
+        }
+
+        @Inject
+        PropertyRepository propertyRepository;
+
+        Property property;
+
+        @Before
+        public void setUp() throws Exception {
+            property = propertyRepository.findPropertyByReference(PropertyForOxfGb.REF);
+        }
+
+        @Test
+        public void when_occupancies_overlap() {
+            // when
+            final List<Lease> leases = leaseRepository.findLeasesByPropertyWithOccupancyOverlapping(
+                    property, LocalDateInterval.including(new LocalDate(2010, 1, 1), new LocalDate(2010, 12, 31)));
+
+            // then ordered by reference, the occupancies of TopModel (from 2010-07-15) and MediaX (from 2008) overlapping
+            assertThat(leases).extracting(Lease::getReference)
+                    .containsExactly(LeaseForOxfMediaX002Gb.REF, LeaseForOxfTopModel001Gb.REF);
+        }
+
+        @Test
+        public void when_occupancy_ended_before() {
+            // given
+            final Lease mediaX = leaseRepository.findLeaseByReference(LeaseForOxfMediaX002Gb.REF);
+            mediaX.getOccupancies().first().setEndDate(new LocalDate(2009, 12, 31));
+            transactionService.flushTransaction();
+
+            // when
+            final List<Lease> leases = leaseRepository.findLeasesByPropertyWithOccupancyOverlapping(
+                    property, LocalDateInterval.including(new LocalDate(2010, 1, 1), new LocalDate(2010, 12, 31)));
+
+            // then
+            assertThat(leases).extracting(Lease::getReference).containsExactly(LeaseForOxfTopModel001Gb.REF);
+        }
+
+        @Test
+        public void when_terminated() {
+            // given
+            final Lease topModel = leaseRepository.findLeaseByReference(LeaseForOxfTopModel001Gb.REF);
+            topModel.setStatus(LeaseStatus.TERMINATED);
+            transactionService.flushTransaction();
+
+            // when
+            final List<Lease> leases = leaseRepository.findLeasesByPropertyWithOccupancyOverlapping(
+                    property, LocalDateInterval.including(new LocalDate(2010, 1, 1), new LocalDate(2010, 12, 31)));
+
+            // then
+            assertThat(leases).extracting(Lease::getReference).containsExactly(LeaseForOxfMediaX002Gb.REF);
+        }
+
+        @Test
+        public void when_open_ended_interval() {
+            // when
+            final List<Lease> leases = leaseRepository.findLeasesByPropertyWithOccupancyOverlapping(
+                    property, LocalDateInterval.including(new LocalDate(2013, 1, 1), null));
+
+            // then each lease once
+            assertThat(leases).extracting(Lease::getReference).containsExactly(
+                    LeaseForOxfMediaX002Gb.REF,
+                    LeaseForOxfMiracl005Gb.REF,
+                    LeaseForOxfPoison003Gb.REF,
+                    LeaseForOxfTopModel001Gb.REF);
+        }
+
+    }
+
     public static class FindByBrand extends LeaseRepository_IntegTest {
 
         @Before
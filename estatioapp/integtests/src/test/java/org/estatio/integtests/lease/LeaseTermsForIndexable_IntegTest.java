@@ -18,6 +18,7 @@
  */
 package org.estatio.integtests.lease;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -32,6 +33,8 @@ import org.apache.isis.applib.fixturescripts.FixtureScript;
 
 import org.estatio.dom.index.Index;
 import org.estatio.dom.index.IndexRepository;
+import org.estatio.dom.index.IndexValue;
+import org.estatio.dom.index.IndexValueRepository;
 import org.estatio.dom.lease.LeaseTermForIndexable;
 import org.estatio.dom.lease.LeaseTermForIndexableRepository;
 import org.estatio.fixture.EstatioBaseLineFixture;
@@ -59,6 +62,9 @@ public class LeaseTermsForIndexable_IntegTest extends EstatioIntegrationTest {
     @Inject
     IndexRepository indexes;
 
+    @Inject
+    IndexValueRepository indexValues;
+
     @Inject
     LeaseTermForIndexableRepository leaseTerms;
 
@@ -88,4 +94,34 @@ public class LeaseTermsForIndexable_IntegTest extends EstatioIntegrationTest {
 
     }
 
-}
\ No newline at end of file
+    public static class WhenIndexValueChanged extends LeaseTermsForIndexable_IntegTest {
+
+        @Test
+        public void reindexing_uses_the_changed_value() throws Exception {
+            // Given
+            final Index index = indexes.findByReference(IndexRefData.IT_REF);
+            final LeaseTermForIndexable leaseTerm = leaseTerms.findByIndexAndDate(index, new LocalDate(2011, 1, 1)).get(0);
+            leaseTerm.verify();
+            transactionService.nextTransaction();
+            final IndexValue indexValue = indexValues.findByIndexAndStartDate(index, leaseTerm.getNextIndexStartDate());
+            assertThat(leaseTerm.getNextIndexValue(), is(indexValue.getValue()));
+
+            // When
+            final BigDecimal changedValue = indexValue.getValue().add(BigDecimal.ONE);
+            indexValue.setValue(changedValue);
+            leaseTerm.verify();
+
+            // Then
+            assertThat(leaseTerm.getNextIndexValue(), is(changedValue));
+
+            // and when, once committed
+            transactionService.nextTransaction();
+            leaseTerm.verify();
+
+            // then
+            assertThat(leaseTerm.getNextIndexValue(), is(changedValue));
+        }
+
+    }
+
+}
@@ -80,7 +80,15 @@ import lombok.Setter;
                         + "FROM org.estatio.dom.asset.Property "
                         + "WHERE (reference.matches(:referenceOrName)"
                         + " || name.matches(:referenceOrName) ) "
-                        + "&& applicationTenancyPath.matches(:atPath) "
+                        + "&& (applicationTenancyPath == :atPath "
+                        + "|| applicationTenancyPath.startsWith(:atPathPrefix)) "
+        ),
+        @javax.jdo.annotations.Query(
+                name = "findByAtPath", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.asset.Property "
+                        + "WHERE applicationTenancyPath == :atPath "
+                        + "|| applicationTenancyPath.startsWith(:atPathPrefix) "
         ),
         @javax.jdo.annotations.Query(
                 name = "findByReference", language = "JDOQL",
@@ -88,6 +96,10 @@ import lombok.Setter;
                         + "FROM org.estatio.dom.asset.Property "
                         + "WHERE reference == :reference")
 })
+@javax.jdo.annotations.Indices({
+        @javax.jdo.annotations.Index(
+                name = "Property_atPath_IDX", members = { "applicationTenancyPath" })
+})
 @DomainObject(autoCompleteRepository = PropertyRepository.class)
 @DomainObjectLayout(bookmarking = BookmarkPolicy.AS_ROOT)
 public class Property
@@ -78,12 +78,29 @@ public class PropertyRepository extends UdoDomainRepositoryAndFactory<Property>
 
     // //////////////////////////////////////
 
+    /**
+     * Looked up in the {@link PropertySearchIndex search index}, unless the pattern has too few literal characters.
+     */
     public List<Property> findProperties(
             final String referenceOrName) {
+        if (propertySearchIndex.canSearch(referenceOrName)) {
+            return propertySearchIndex.search(referenceOrName);
+        }
         return allMatches("findByReferenceOrName",
                 "referenceOrName", StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName));
     }
 
+    /**
+     * As {@link #findProperties(String)}, but only the properties at or below the (user's) tenancy path, filtered
+     * by the datastore.
+     */
+    public List<Property> findProperties(
+            final String referenceOrName,
+            final String atPath) {
+        return allMatchesAtPath("findByReferenceOrNameAndAtPath", atPath,
+                "referenceOrName", StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName));
+    }
+
     // //////////////////////////////////////
 
     public List<Property> allProperties() {
@@ -92,6 +109,15 @@ public class PropertyRepository extends UdoDomainRepositoryAndFactory<Property>
         return properties;
     }
 
+    /**
+     * As {@link #allProperties()}, but only those at or below the tenancy path, eg <tt>/ITA</tt>.
+     */
+    public List<Property> findByAtPath(final String atPath) {
+        List<Property> properties = allMatchesAtPath("findByAtPath", atPath);
+        Collections.sort(properties);
+        return properties;
+    }
+
     // //////////////////////////////////////
 
     public Property findPropertyByReference(final String reference) {
@@ -102,7 +128,9 @@ public class PropertyRepository extends UdoDomainRepositoryAndFactory<Property>
      * For {@link Property} as per {@link DomainObject#autoCompleteRepository()}.
      */
     public List<Property> autoComplete(final String searchPhrase) {
-
+        if (propertySearchIndex.canSearch("*".concat(searchPhrase).concat("*"))) {
+            return propertySearchIndex.searchRanked(searchPhrase);
+        }
         final String refRegex = StringUtils.wildcardToCaseInsensitiveRegex("*".concat(searchPhrase).concat("*"));
         return allMatches("findByReferenceOrName",
                 "referenceOrName", refRegex
@@ -114,6 +142,9 @@ public class PropertyRepository extends UdoDomainRepositoryAndFactory<Property>
     @Inject
     EstatioApplicationTenancyRepositoryForProperty estatioApplicationTenancyRepository;
 
+    @Inject
+    PropertySearchIndex propertySearchIndex;
+
     /**
      * For testing
      */
@@ -121,6 +152,13 @@ public class PropertyRepository extends UdoDomainRepositoryAndFactory<Property>
         this.estatioApplicationTenancyRepository = estatioApplicationTenancyRepository;
     }
 
+    /**
+     * For testing
+     */
+    public void setPropertySearchIndex(final PropertySearchIndex propertySearchIndex) {
+        this.propertySearchIndex = propertySearchIndex;
+    }
+
     @Inject
     PropertyRepository propertyRepository;
 
@@ -19,6 +19,7 @@
 package org.estatio.dom.asset;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -43,6 +44,9 @@ public class UnitRepository extends UdoDomainRepositoryAndFactory<Unit> {
     @Inject
     ClockService clockService;
 
+    @Inject
+    UnitSearchIndex unitSearchIndex;
+
     public UnitRepository() {
         super(UnitRepository.class, Unit.class);
     }
@@ -65,9 +69,15 @@ public class UnitRepository extends UdoDomainRepositoryAndFactory<Unit> {
 
     // //////////////////////////////////////
 
+    /**
+     * Looked up in the {@link UnitSearchIndex search index}, unless the pattern has too few literal characters.
+     */
     public List<Unit> findUnits(
             final String referenceOrName,
             final boolean includeTerminated) {
+        if (unitSearchIndex.canSearch(referenceOrName)) {
+            return notTerminated(unitSearchIndex.search(referenceOrName), includeTerminated);
+        }
         return allMatches("findByReferenceOrName",
                 "referenceOrName", StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName),
                 "includeTerminated", includeTerminated,
@@ -99,7 +109,20 @@ public class UnitRepository extends UdoDomainRepositoryAndFactory<Unit> {
      * Autocomplete for {@link Unit}, as per {@link DomainObject#autoCompleteRepository()}.
      */
     public List<Unit> autoComplete(final String searchPhrase) {
-        return findUnits("*".concat(searchPhrase).concat("*"), false);
+        final String pattern = "*".concat(searchPhrase).concat("*");
+        return unitSearchIndex.canSearch(pattern)
+                ? notTerminated(unitSearchIndex.searchRanked(searchPhrase), false)
+                : findUnits(pattern, false);
+    }
+
+    private List<Unit> notTerminated(final List<Unit> units, final boolean includeTerminated) {
+        if (includeTerminated) {
+            return units;
+        }
+        final LocalDate date = clockService.now();
+        return units.stream()
+                .filter(unit -> unit.getEndDate() == null || !unit.getEndDate().isBefore(date))
+                .collect(Collectors.toList());
     }
 
     public List<Unit> allUnits() {
@@ -16,6 +16,7 @@ import org.isisaddons.module.security.app.user.MeService;
 import org.isisaddons.module.security.dom.user.ApplicationUser;
 
 import org.incode.module.unittestsupport.dom.repo.FinderInteraction;
+import org.incode.module.unittestsupport.dom.repo.FinderInteraction.FinderMethod;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -52,6 +53,7 @@ public class PropertyRepository_Test {
         };
 
         propertyRepository.meService = mockMeService;
+        propertyRepository.propertySearchIndex = new PropertySearchIndex();
     }
 
     public static class AutoComplete extends PropertyRepository_Test {
@@ -82,4 +84,46 @@ public class PropertyRepository_Test {
         }
 
     }
+
+    public static class FindByAtPath extends PropertyRepository_Test {
+
+        @Test
+        public void happyCase() {
+
+            // when
+            propertyRepository.findByAtPath("/");
+
+            // then
+            assertThat(finderInteraction.getFinderMethod()).isEqualTo(FinderMethod.ALL_MATCHES);
+            assertThat(finderInteraction.getResultType()).isEqualTo(Property.class);
+            assertThat(finderInteraction.getQueryName()).isEqualTo("findByAtPath");
+
+            final Map<String, Object> argsByParam = finderInteraction.getArgumentsByParameterName();
+            assertThat(argsByParam.get("atPath")).isEqualTo((Object) "/");
+            assertThat(argsByParam.get("atPathPrefix")).isEqualTo((Object) "/");
+            assertThat(argsByParam).hasSize(2);
+        }
+
+    }
+
+    public static class FindPropertiesAtPath extends PropertyRepository_Test {
+
+        @Test
+        public void happyCase() {
+
+            // when
+            propertyRepository.findProperties("X?yz", "/ITA");
+
+            // then
+            assertThat(finderInteraction.getFinderMethod()).isEqualTo(FinderMethod.ALL_MATCHES);
+            assertThat(finderInteraction.getQueryName()).isEqualTo("findByReferenceOrNameAndAtPath");
+
+            final Map<String, Object> argsByParam = finderInteraction.getArgumentsByParameterName();
+            assertThat(argsByParam.get("referenceOrName")).isEqualTo((Object) "(?i)X.yz");
+            assertThat(argsByParam.get("atPath")).isEqualTo((Object) "/ITA");
+            assertThat(argsByParam.get("atPathPrefix")).isEqualTo((Object) "/ITA/");
+            assertThat(argsByParam).hasSize(3);
+        }
+
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom;
+
+import javax.inject.Inject;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
+import org.apache.isis.applib.services.xactn.TransactionService;
+
+/**
+ * For long running jobs that work through their objects in batches (see
+ * {@link UdoDomainRepositoryAndFactory#forEachBatch(String, Object, java.util.function.Function, int,
+ * java.util.function.Consumer, Object...) forEachBatch}) and so hold one batch at a time rather than all of the
+ * objects at once.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class BatchTransactionService {
+
+    /**
+     * Commits the transaction and evicts all objects from the persistence manager, not only those of the batch but
+     * also those reached from them (lease items, terms, ...); they are reloaded if used again.  Objects changed in the
+     * transaction cannot be evicted until committed, hence the commit; the changes made to the earlier batches are so
+     * kept should a later batch fail.
+     */
+    @Programmatic
+    public void commitAndEvictAll() {
+        transactionService.nextTransaction();
+        isisJdoSupport.getJdoPersistenceManager().evictAll();
+    }
+
+    @Inject
+    TransactionService transactionService;
+
+    @Inject
+    IsisJdoSupport isisJdoSupport;
+
+}
@@ -0,0 +1,38 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom;
+
+/**
+ * Runs actions in a transaction of an Isis session of their own, for threads that have no session, such as those of
+ * an executor started by a domain service.
+ *
+ * <p>
+ * Sessions being managed by the Isis runtime, the service is implemented by the app, so that the domain modules need
+ * not depend on the runtime.
+ * </p>
+ */
+public interface OwnSessionService {
+
+    /**
+     * Runs the action as the (system) user, without roles, in a transaction of a session of its own, on the calling
+     * thread; the transaction is rolled back and the exception rethrown should the action fail.
+     */
+    void executeInTransaction(String userName, Runnable action);
+
+}
@@ -0,0 +1,129 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom;
+
+import javax.inject.Inject;
+import javax.jdo.PersistenceManager;
+
+import org.datanucleus.Transaction;
+import org.datanucleus.TransactionEventListener;
+import org.datanucleus.api.jdo.JDOPersistenceManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
+
+/**
+ * Runs actions once the current transaction has completed, so that application-wide state derived from the
+ * datastore (caches, indexes) follows what has been committed rather than what a transaction that may yet roll back
+ * has flushed.
+ *
+ * <p>
+ * The actions are registered with the DataNucleus transaction of the current persistence manager, for this
+ * transaction only. Outside of an active transaction they are run straight away. An action that throws is logged
+ * rather than propagated, as by then the transaction has completed.
+ * </p>
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class TransactionCompletionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionCompletionService.class);
+
+    /**
+     * Runs the action once the current transaction has committed; if it rolls back, the action is not run.
+     */
+    @Programmatic
+    public void onCommit(final Runnable action) {
+        register(action, false);
+    }
+
+    /**
+     * Runs the action once the current transaction has either committed or rolled back.
+     */
+    @Programmatic
+    public void onCompletion(final Runnable action) {
+        register(action, true);
+    }
+
+    private void register(final Runnable action, final boolean alsoOnRollback) {
+        final Transaction transaction = currentTransaction();
+        if (transaction == null) {
+            run(action);
+            return;
+        }
+        transaction.addTransactionEventListener(new Listener(action, alsoOnRollback));
+    }
+
+    private Transaction currentTransaction() {
+        final PersistenceManager persistenceManager = isisJdoSupport.getJdoPersistenceManager();
+        if (!(persistenceManager instanceof JDOPersistenceManager) || !persistenceManager.currentTransaction().isActive()) {
+            return null;
+        }
+        return ((JDOPersistenceManager) persistenceManager).getExecutionContext().getTransaction();
+    }
+
+    static void run(final Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException ex) {
+            LOG.error("Failed to run action on completion of transaction", ex);
+        }
+    }
+
+    static class Listener implements TransactionEventListener {
+
+        private final Runnable action;
+        private final boolean alsoOnRollback;
+
+        Listener(final Runnable action, final boolean alsoOnRollback) {
+            this.action = action;
+            this.alsoOnRollback = alsoOnRollback;
+        }
+
+        @Override
+        public void transactionCommitted() {
+            run(action);
+        }
+
+        @Override
+        public void transactionRolledBack() {
+            if (alsoOnRollback) {
+                run(action);
+            }
+        }
+
+        @Override public void transactionStarted() {}
+        @Override public void transactionEnded() {}
+        @Override public void transactionPreFlush() {}
+        @Override public void transactionFlushed() {}
+        @Override public void transactionPreCommit() {}
+        @Override public void transactionPreRollBack() {}
+        @Override public void transactionSetSavepoint(final String name) {}
+        @Override public void transactionReleaseSavepoint(final String name) {}
+        @Override public void transactionRollbackToSavepoint(final String name) {}
+
+    }
+
+    @Inject
+    IsisJdoSupport isisJdoSupport;
+
+}
@@ -0,0 +1,133 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Application-wide cache of values loaded from the datastore, keyed by string, that only holds values loaded while
+ * no transaction is changing the data they are loaded from.
+ *
+ * <p>
+ * A transaction that changes the data of a key calls {@link #changing(String)} and then, once it has committed or
+ * rolled back (see {@link TransactionCompletionService#onCompletion(Runnable)}), {@link #changed(String)}. In
+ * between, values are loaded but not cached. Each key has a version, bumped by either call: a value is only cached if
+ * the version it was loaded at is still the current one, so a load that overlaps with a change never puts a stale
+ * value back.
+ * </p>
+ */
+public final class TransactionalCache<V> {
+
+    private final ConcurrentMap<String, Entry<V>> entryByKey = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public V get(final String key, final Supplier<V> loader) {
+        return get(key, loader, null);
+    }
+
+    /**
+     * As {@link #get(String, Supplier)}, passing a value loaded while a transaction is changing the data of the key,
+     * so not cached, to the consumer (unless <tt>null</tt>); for example for the changing transaction to keep it.
+     */
+    public V get(final String key, final Supplier<V> loader, final Consumer<V> notCached) {
+        final Entry<V> entry = entryByKey.getOrDefault(key, Entry.empty());
+        if (entry.value != null) {
+            return entry.value;
+        }
+        final long generationLoaded = generation.get();
+        final V value = loader.get();
+        if (entry.pending == 0) {
+            entryByKey.compute(key, (k, current) -> {
+                final Entry<V> now = current != null ? current : Entry.empty();
+                return now.version == entry.version && now.pending == 0 && generation.get() == generationLoaded
+                        ? new Entry<>(now.version, 0, value)
+                        : current;
+            });
+        } else if (notCached != null) {
+            notCached.accept(value);
+        }
+        return value;
+    }
+
+    /**
+     * The data of the key is being changed by the current transaction.
+     */
+    public void changing(final String key) {
+        entryByKey.compute(key, (k, current) -> {
+            final Entry<V> now = current != null ? current : Entry.empty();
+            return new Entry<>(now.version + 1, now.pending + 1, null);
+        });
+    }
+
+    /**
+     * The transaction that was {@link #changing(String) changing} the data of the key has completed.
+     */
+    public void changed(final String key) {
+        entryByKey.compute(key, (k, current) -> {
+            final Entry<V> now = current != null ? current : Entry.empty();
+            return new Entry<>(now.version + 1, Math.max(now.pending - 1, 0), null);
+        });
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        for (String key : entryByKey.keySet()) {
+            entryByKey.computeIfPresent(key, (k, current) -> new Entry<>(current.version + 1, current.pending, null));
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Entry<V> entry : entryByKey.values()) {
+            if (entry.value != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Immutable, so that it can be read outside of the map's compute methods; never removed from the map, so that
+     * versions are never reset.
+     */
+    private static final class Entry<V> {
+
+        private static final Entry<?> EMPTY = new Entry<>(0, 0, null);
+
+        @SuppressWarnings("unchecked")
+        static <V> Entry<V> empty() {
+            return (Entry<V>) EMPTY;
+        }
+
+        final long version;
+        final int pending;
+        final V value;
+
+        Entry(final long version, final int pending, final V value) {
+            this.version = version;
+            this.pending = pending;
+            this.value = value;
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import com.google.common.collect.Maps;
+
+import org.apache.isis.applib.annotation.Programmatic;
+
+/**
+ * Application-wide cache of the timeline (rates, values...) of each of a type of domain object, loaded from the
+ * datastore on first use and kept until invalidated by a change of the data it is loaded from; subclasses provide
+ * the key and the loader.
+ *
+ * <p>
+ * A transaction that changes the data {@link #invalidate(Object) invalidates} the timeline of its owner. Until the
+ * transaction has completed, that timeline is not cached application-wide, so that neither the changes of a
+ * transaction that rolls back, nor the data from before they were committed, are cached (see
+ * {@link TransactionalCache}). Meanwhile each transaction keeps the timeline it loads to itself, until it changes
+ * the data again, so loads it once rather than on every use.
+ * </p>
+ */
+public abstract class TransactionalTimelineCache<T, V> {
+
+    private final TransactionalCache<V> timelineByKey = new TransactionalCache<>();
+
+    /**
+     * The timelines loaded by the current transaction of the thread that could not be cached application-wide.
+     */
+    private final ThreadLocal<Map<String, V>> timelineByKeyInTransaction = new ThreadLocal<>();
+
+    /**
+     * The (unique) key of the timeline of the owner, such as its reference.
+     */
+    protected abstract String keyOf(T owner);
+
+    /**
+     * Loads the timeline of the owner from the datastore.
+     */
+    protected abstract V load(T owner);
+
+    protected V timelineOf(final T owner) {
+        final String key = keyOf(owner);
+        final Map<String, V> inTransaction = timelineByKeyInTransaction.get();
+        final V timeline = inTransaction != null ? inTransaction.get(key) : null;
+        if (timeline != null) {
+            return timeline;
+        }
+        return timelineByKey.get(key, () -> load(owner), loaded -> keepInTransaction(key, loaded));
+    }
+
+    private void keepInTransaction(final String key, final V timeline) {
+        Map<String, V> inTransaction = timelineByKeyInTransaction.get();
+        if (inTransaction == null) {
+            inTransaction = Maps.newHashMap();
+            timelineByKeyInTransaction.set(inTransaction);
+            // (outside of a transaction, removed straight away)
+            transactionCompletionService.onCompletion(timelineByKeyInTransaction::remove);
+        }
+        if (timelineByKeyInTransaction.get() != null) {
+            inTransaction.put(key, timeline);
+        }
+    }
+
+    @Programmatic
+    public void invalidate(final T owner) {
+        if (owner != null) {
+            final String key = keyOf(owner);
+            final Map<String, V> inTransaction = timelineByKeyInTransaction.get();
+            if (inTransaction != null) {
+                inTransaction.remove(key);
+            }
+            timelineByKey.changing(key);
+            transactionCompletionService.onCompletion(() -> timelineByKey.changed(key));
+        }
+    }
+
+    @Programmatic
+    public void invalidateAll() {
+        timelineByKeyInTransaction.remove();
+        timelineByKey.clear();
+    }
+
+    @Inject
+    protected TransactionCompletionService transactionCompletionService;
+
+}
@@ -18,12 +18,19 @@
  */
 package org.estatio.dom;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
 import javax.jdo.Query;
 
 import org.apache.isis.applib.query.QueryDefault;
 import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
 
+import org.estatio.dom.utils.AtPathUtils;
+
 public abstract class UdoDomainRepositoryAndFactory<T> extends UdoDomainService<T> {
 
     private final Class<T> entityType;
@@ -73,6 +80,88 @@ public abstract class UdoDomainRepositoryAndFactory<T> extends UdoDomainService<
         return allInstances(getEntityType());
     }
 
+    /**
+     * As {@link #allMatches(String, Object...)}, but run once for each of the {@link AtPathUtils#toAtPathScopes(String)
+     * scopes} of the tenancy path, passed as the <tt>atPath</tt> and <tt>atPathPrefix</tt> parameters; the matches
+     * are concatenated scope by scope, and there are none for a null path.
+     */
+    protected List<T> allMatchesAtPath(final String queryName, final String atPath, final Object... paramArgs) {
+        final List<T> matches = new ArrayList<>();
+        for (String atPathScope : AtPathUtils.toAtPathScopes(atPath)) {
+            final List<T> matchesInScope = allMatches(queryName, withAtPathScope(atPathScope, paramArgs));
+            if (matchesInScope != null) {
+                matches.addAll(matchesInScope);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * The parameters of a query, followed by the <tt>atPath</tt> and <tt>atPathPrefix</tt> parameters of the
+     * {@link AtPathUtils#toAtPathScopes(String) scope}.
+     */
+    protected static Object[] withAtPathScope(final String atPathScope, final Object... paramArgs) {
+        final Object[] scopedParamArgs = Arrays.copyOf(paramArgs, paramArgs.length + 4);
+        scopedParamArgs[paramArgs.length] = "atPath";
+        scopedParamArgs[paramArgs.length + 1] = atPathScope;
+        scopedParamArgs[paramArgs.length + 2] = "atPathPrefix";
+        scopedParamArgs[paramArgs.length + 3] = AtPathUtils.toAtPathPrefix(atPathScope);
+        return scopedParamArgs;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The name of the parameter holding the key of the last object of the previous batch, for
+     * {@link #forEachBatch(String, Object, Function, int, Consumer, Object...)}.
+     */
+    protected static final String KEYSET_PARAMETER = "after";
+
+    /**
+     * Hands all matches of the named query to the processor, batch by batch, querying each batch only once the
+     * previous one is processed.  A long running job (eg over all leases) that commits and evicts as each batch is
+     * done (see {@link BatchTransactionService#commitAndEvictAll()}) so holds a batch, and the objects reached from
+     * it, rather than all of the objects at once.
+     *
+     * <p>
+     * The batches are paginated by keyset rather than by offset: the query must order by a non-null, unique key (eg
+     * <tt>reference</tt>, or <tt>JDOHelper.getObjectId(this)</tt> for an entity without one) and only match the
+     * objects after the {@value #KEYSET_PARAMETER} parameter, eg <tt>WHERE reference &gt; :after ORDER BY
+     * reference</tt>; each batch then costs the same however far into the results, and objects created or removed
+     * by the processor do not shift the batches.
+     * </p>
+     *
+     * @param firstKey  - the key to fetch the first batch after, eg <tt>""</tt> for a reference
+     * @param keyOf     - the key of an object
+     * @param paramArgs - the other parameters of the query, as for {@link #allMatches(String, Object...)}
+     * @return the number of objects processed
+     */
+    protected <K> int forEachBatch(
+            final String queryName,
+            final K firstKey,
+            final Function<T, K> keyOf,
+            final int batchSize,
+            final Consumer<List<T>> processor,
+            final Object... paramArgs) {
+        final Object[] batchParamArgs = Arrays.copyOf(paramArgs, paramArgs.length + 2);
+        batchParamArgs[paramArgs.length] = KEYSET_PARAMETER;
+        int processed = 0;
+        K after = firstKey;
+        while (true) {
+            batchParamArgs[paramArgs.length + 1] = after;
+            final List<T> batch = allMatches(newQueryDefault(queryName, batchParamArgs).withCount(batchSize));
+            if (batch == null || batch.isEmpty()) {
+                return processed;
+            }
+            after = keyOf.apply(batch.get(batch.size() - 1));
+            processor.accept(batch);
+            processed += batch.size();
+            if (batch.size() < batchSize) {
+                return processed;
+            }
+        }
+    }
+
     // //////////////////////////////////////
     
     protected Query newQuery(final String jdoql) {
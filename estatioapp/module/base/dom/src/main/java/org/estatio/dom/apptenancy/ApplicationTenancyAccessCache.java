@@ -0,0 +1,143 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.apptenancy;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The access a user with one application tenancy path has to an object with another, worked out once per pair of
+ * paths and then looked up.
+ *
+ * <p>
+ * A user sees an object whose path is the same as, a parent of, or a child of the user's path, and may edit it if
+ * the object's path is the same as or a child of the user's. A user path part <tt>X-CAR</tt> matches an object path
+ * part <tt>CAR</tt>.
+ * </p>
+ *
+ * <p>
+ * The cache is keyed by user path and then by object path, in concurrent maps, so that lookups take no locks. It is
+ * bounded: beyond {@link #MAX_USER_PATHS} user paths or {@link #MAX_OBJECT_PATHS} object paths per user path, the
+ * access is worked out again on every call rather than cached.
+ * </p>
+ */
+public final class ApplicationTenancyAccessCache {
+
+    public enum Access {
+        HIDDEN,
+        VISIBLE,
+        ENABLED;
+
+        public boolean isVisible() {
+            return this != HIDDEN;
+        }
+
+        public boolean isEnabled() {
+            return this == ENABLED;
+        }
+    }
+
+    static final int MAX_USER_PATHS = 1000;
+    static final int MAX_OBJECT_PATHS = 10000;
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Access>> accessByUserPath = new ConcurrentHashMap<>();
+
+    public Access accessFor(final String objectTenancyPath, final String userTenancyPath) {
+        ConcurrentMap<String, Access> accessByObjectPath = accessByUserPath.get(userTenancyPath);
+        if (accessByObjectPath == null) {
+            if (accessByUserPath.size() >= MAX_USER_PATHS) {
+                return evaluate(objectTenancyPath, userTenancyPath);
+            }
+            accessByUserPath.putIfAbsent(userTenancyPath, new ConcurrentHashMap<>());
+            accessByObjectPath = accessByUserPath.get(userTenancyPath);
+        }
+        Access access = accessByObjectPath.get(objectTenancyPath);
+        if (access == null) {
+            access = evaluate(objectTenancyPath, userTenancyPath);
+            if (accessByObjectPath.size() < MAX_OBJECT_PATHS) {
+                accessByObjectPath.putIfAbsent(objectTenancyPath, access);
+            }
+        }
+        return access;
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentMap<String, Access> accessByObjectPath : accessByUserPath.values()) {
+            size += accessByObjectPath.size();
+        }
+        return size;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Compares the paths part by part, in place.
+     */
+    public static Access evaluate(final String objectTenancyPath, final String userTenancyPath) {
+        int objectPos = nextPart(objectTenancyPath, 0);
+        int userPos = nextPart(userTenancyPath, 0);
+        while (objectPos < objectTenancyPath.length()) {
+            if (userPos >= userTenancyPath.length()) {
+                // run out of parts for the user tenancy, so the user tenancy is higher than object
+                return Access.ENABLED;
+            }
+            final int objectEnd = endOfPart(objectTenancyPath, objectPos);
+            final int userEnd = endOfPart(userTenancyPath, userPos);
+            if (!partsEqual(objectTenancyPath, objectPos, objectEnd, userTenancyPath, userPos, userEnd)) {
+                return Access.HIDDEN;
+            }
+            objectPos = nextPart(objectTenancyPath, objectEnd);
+            userPos = nextPart(userTenancyPath, userEnd);
+        }
+        // run out of parts for the object tenancy, so the user tenancy is same or lower than the object
+        return userPos >= userTenancyPath.length() ? Access.ENABLED : Access.VISIBLE;
+    }
+
+    private static boolean partsEqual(
+            final String objectPath, final int objectStart, final int objectEnd,
+            final String userPath, final int userStart, final int userEnd) {
+        final int objectLength = objectEnd - objectStart;
+        if (userEnd - userStart == objectLength
+                && userPath.regionMatches(userStart, objectPath, objectStart, objectLength)) {
+            return true;
+        }
+        // eg allow "X-CAR" user to match with "CAR"
+        return userEnd - userStart == objectLength + 2
+                && userPath.startsWith("X-", userStart)
+                && userPath.regionMatches(userStart + 2, objectPath, objectStart, objectLength);
+    }
+
+    /**
+     * The start of the next non-empty part from the position, or the length of the path if there is none.
+     */
+    private static int nextPart(final String path, final int from) {
+        int pos = from;
+        while (pos < path.length() && path.charAt(pos) == '/') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int endOfPart(final String path, final int from) {
+        final int end = path.indexOf('/', from);
+        return end < 0 ? path.length() : end;
+    }
+
+}
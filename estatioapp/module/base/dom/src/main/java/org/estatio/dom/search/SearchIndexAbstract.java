@@ -0,0 +1,273 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.jdo.JDOHelper;
+import javax.jdo.JDOObjectNotFoundException;
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
+
+import com.google.common.eventbus.Subscribe;
+
+import org.datanucleus.identity.DatastoreId;
+import org.datanucleus.identity.DatastoreIdImpl;
+
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.eventbus.EventBusService;
+import org.apache.isis.applib.services.eventbus.ObjectPersistedEvent;
+import org.apache.isis.applib.services.eventbus.ObjectRemovingEvent;
+import org.apache.isis.applib.services.eventbus.ObjectUpdatedEvent;
+import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
+
+import org.incode.module.base.dom.utils.StringUtils;
+
+import org.estatio.dom.TransactionCompletionService;
+
+/**
+ * Application-wide {@link TrigramIndex trigram index} of the <tt>reference</tt> and <tt>name</tt> of every instance
+ * of a domain type, keyed by object id, so that matching a wildcard pattern against them, as the
+ * <tt>matchByReferenceOrName</tt> style queries do, does not scan the whole table.
+ *
+ * <p>
+ * The index is loaded on first use, querying just the object id, reference and name of each instance, and kept up to
+ * date from the persisted, updated and removing lifecycle events, applied once the transaction raising them has
+ * committed. As the reference and name of an instance are only ever added to the index, every instance found is
+ * matched again, as it is now (including changes not yet committed), before it is returned; an instance that cannot
+ * be found (any more) is skipped. Changes made outside of this application instance are picked up only once the
+ * index is {@link #invalidate() invalidated}.
+ * </p>
+ */
+public abstract class SearchIndexAbstract<T> {
+
+    private final Class<T> type;
+    private final TrigramIndex index = new TrigramIndex();
+    private volatile boolean loaded;
+
+    protected SearchIndexAbstract(final Class<T> type) {
+        this.type = type;
+    }
+
+    protected abstract String referenceOf(T object);
+
+    protected abstract String nameOf(T object);
+
+    @Programmatic
+    @PostConstruct
+    public void postConstruct() {
+        eventBusService.register(this);
+    }
+
+    @Programmatic
+    @PreDestroy
+    public void preDestroy() {
+        eventBusService.unregister(this);
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Whether the pattern (with wildcards <tt>*</tt> and <tt>?</tt>) has enough literal characters to be searched
+     * for in the index; if not, the caller should query the datastore.
+     */
+    @Programmatic
+    public boolean canSearch(final String referenceOrName) {
+        return TrigramIndex.canSearch(referenceOrName);
+    }
+
+    /**
+     * The instances whose reference or name matches the pattern, ordered by reference.
+     */
+    @Programmatic
+    public List<T> search(final String referenceOrName) {
+        final List<T> results = find(referenceOrName);
+        results.sort(Comparator.comparing(this::referenceOf, Comparator.nullsLast(Comparator.naturalOrder())));
+        return results;
+    }
+
+    /**
+     * The instances whose reference or name contains the search phrase, those whose reference or name equals it
+     * first, then those whose reference or name starts with it, each ordered by reference.
+     */
+    @Programmatic
+    public List<T> searchRanked(final String searchPhrase) {
+        final List<T> results = search("*" + searchPhrase + "*");
+        results.sort(Comparator.comparingInt(object -> rankOf(object, searchPhrase)));
+        return results;
+    }
+
+    private int rankOf(final T object, final String searchPhrase) {
+        final String reference = referenceOf(object);
+        final String name = nameOf(object);
+        if (searchPhrase.equalsIgnoreCase(reference) || searchPhrase.equalsIgnoreCase(name)) {
+            return 0;
+        }
+        if (startsWithIgnoreCase(reference, searchPhrase) || startsWithIgnoreCase(name, searchPhrase)) {
+            return 1;
+        }
+        return 2;
+    }
+
+    private static boolean startsWithIgnoreCase(final String text, final String prefix) {
+        return text != null && text.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    private List<T> find(final String referenceOrName) {
+        loadIfRequired();
+        final Pattern regex = Pattern.compile(StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName));
+        final List<T> results = new ArrayList<>();
+        for (String key : index.keysMatching(referenceOrName)) {
+            final T instance = lookup(key);
+            if (instance == null) {
+                // no longer committed
+                continue;
+            }
+            if (matches(regex, referenceOf(instance)) || matches(regex, nameOf(instance))) {
+                results.add(instance);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * As is in the current transaction, rather than refreshed as by a bookmark lookup.
+     */
+    private T lookup(final String key) {
+        try {
+            final Object object = persistenceManager().getObjectById(type, key);
+            return type.isInstance(object) ? type.cast(object) : null;
+        } catch (JDOObjectNotFoundException ex) {
+            return null;
+        }
+    }
+
+    private static boolean matches(final Pattern regex, final String text) {
+        return text != null && regex.matcher(text).matches();
+    }
+
+    private void loadIfRequired() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                final Query query = persistenceManager().newQuery(
+                        "SELECT JDOHelper.getObjectId(this), reference, name FROM " + type.getName());
+                try {
+                    for (Object result : (List<?>) query.execute()) {
+                        final Object[] row = (Object[]) result;
+                        index.add(keyOf(row[0]), (String) row[1], (String) row[2]);
+                    }
+                } finally {
+                    query.closeAll();
+                }
+                loaded = true;
+            }
+        }
+    }
+
+    /**
+     * The object id for the indexed type rather than for the (sub)class of the instance, so that the same whether
+     * queried or taken from the instance.
+     */
+    private String keyOf(final Object objectId) {
+        return objectId instanceof DatastoreId
+                ? new DatastoreIdImpl(type.getName(), ((DatastoreId) objectId).getKeyAsObject()).toString()
+                : null;
+    }
+
+    private PersistenceManager persistenceManager() {
+        return isisJdoSupport.getJdoPersistenceManager();
+    }
+
+    @Programmatic
+    public void invalidate() {
+        synchronized (this) {
+            loaded = false;
+            index.clear();
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @Subscribe
+    @Programmatic
+    public void on(final ObjectPersistedEvent<?> ev) {
+        onChanged(ev.getSource());
+    }
+
+    @Subscribe
+    @Programmatic
+    public void on(final ObjectUpdatedEvent<?> ev) {
+        onChanged(ev.getSource());
+    }
+
+    @Subscribe
+    @Programmatic
+    public void on(final ObjectRemovingEvent<?> ev) {
+        final Object source = ev.getSource();
+        final String key = type.isInstance(source) ? keyOf(JDOHelper.getObjectId(source)) : null;
+        if (key != null) {
+            transactionCompletionService.onCommit(() -> {
+                synchronized (this) {
+                    if (loaded) {
+                        index.remove(key);
+                    }
+                }
+            });
+        }
+    }
+
+    private void onChanged(final Object source) {
+        final String key = type.isInstance(source) ? keyOf(JDOHelper.getObjectId(source)) : null;
+        if (key != null) {
+            final T instance = type.cast(source);
+            final String reference = referenceOf(instance);
+            final String name = nameOf(instance);
+            transactionCompletionService.onCommit(() -> {
+                // until loaded, the instance will be read from the datastore along with the others; while loading,
+                // it may or may not be, hence waiting for the load
+                synchronized (this) {
+                    if (loaded) {
+                        index.add(key, reference, name);
+                    }
+                }
+            });
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    IsisJdoSupport isisJdoSupport;
+
+    @Inject
+    EventBusService eventBusService;
+
+    @Inject
+    TransactionCompletionService transactionCompletionService;
+
+}
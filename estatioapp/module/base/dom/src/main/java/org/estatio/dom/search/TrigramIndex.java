@@ -0,0 +1,231 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.incode.module.base.dom.utils.StringUtils;
+
+/**
+ * An inverted index of the (case-insensitive) trigrams of the texts of each key, to find the keys whose texts match a
+ * wildcard pattern, as {@link StringUtils#wildcardToCaseInsensitiveRegex(String)}, without matching every text.
+ *
+ * <p>
+ * The keys that have all trigrams of the pattern's literal parts are the candidates, which are then matched against
+ * the regex. A pattern without a literal part of three characters or more, or with regex constructs other than the
+ * wildcards, cannot be {@link #canSearch(String) searched}.
+ * </p>
+ *
+ * <p>
+ * Texts are only ever added to a key, so that the texts of a key are a superset of the current ones. The index is
+ * safe for use by concurrent threads.
+ * </p>
+ */
+public final class TrigramIndex {
+
+    private static final int N = 3;
+
+    private final Map<String, Set<String>> textsByKey = new HashMap<>();
+    private final Map<String, Set<String>> keysByTrigram = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void add(final String key, final String... texts) {
+        lock.writeLock().lock();
+        try {
+            final Set<String> keyTexts = textsByKey.computeIfAbsent(key, k -> new HashSet<>());
+            for (String text : texts) {
+                if (text != null && keyTexts.add(text)) {
+                    for (String trigram : trigramsOf(text)) {
+                        keysByTrigram.computeIfAbsent(trigram, t -> new HashSet<>()).add(key);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(final String key) {
+        lock.writeLock().lock();
+        try {
+            final Set<String> keyTexts = textsByKey.remove(key);
+            if (keyTexts == null) {
+                return;
+            }
+            for (String text : keyTexts) {
+                for (String trigram : trigramsOf(text)) {
+                    final Set<String> keys = keysByTrigram.get(trigram);
+                    if (keys != null) {
+                        keys.remove(key);
+                        if (keys.isEmpty()) {
+                            keysByTrigram.remove(trigram);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            textsByKey.clear();
+            keysByTrigram.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return textsByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static boolean canSearch(final String wildcardPattern) {
+        return !trigramsOfPattern(wildcardPattern).isEmpty();
+    }
+
+    /**
+     * The keys with a text that matches the pattern, in no particular order.
+     *
+     * @throws IllegalArgumentException if the pattern {@link #canSearch(String) cannot be searched}
+     */
+    public List<String> keysMatching(final String wildcardPattern) {
+        final Set<String> trigrams = trigramsOfPattern(wildcardPattern);
+        if (trigrams.isEmpty()) {
+            throw new IllegalArgumentException("Cannot search for '" + wildcardPattern + "'");
+        }
+        final Pattern regex = Pattern.compile(StringUtils.wildcardToCaseInsensitiveRegex(wildcardPattern));
+        final List<String> keys = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // the candidates are the keys of the rarest trigram that also have all the others
+            final List<Set<String>> postings = new ArrayList<>();
+            for (String trigram : trigrams) {
+                final Set<String> keysOfTrigram = keysByTrigram.get(trigram);
+                if (keysOfTrigram == null) {
+                    return keys;
+                }
+                postings.add(keysOfTrigram);
+            }
+            postings.sort((p1, p2) -> Integer.compare(p1.size(), p2.size()));
+            for (String key : postings.get(0)) {
+                if (inAll(key, postings) && anyMatches(textsByKey.get(key), regex)) {
+                    keys.add(key);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return keys;
+    }
+
+    private static boolean inAll(final String key, final List<Set<String>> postings) {
+        for (int i = 1; i < postings.size(); i++) {
+            if (!postings.get(i).contains(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean anyMatches(final Set<String> texts, final Pattern regex) {
+        for (String text : texts) {
+            if (regex.matcher(text).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The trigrams of the literal parts of the pattern, or none if it has regex constructs other than the wildcards
+     * <tt>*</tt> and <tt>?</tt>, or <tt>.</tt>.
+     */
+    static Set<String> trigramsOfPattern(final String wildcardPattern) {
+        if (wildcardPattern == null) {
+            return Collections.emptySet();
+        }
+        final Set<String> trigrams = new HashSet<>();
+        int start = 0;
+        for (int i = 0; i <= wildcardPattern.length(); i++) {
+            final char c = i < wildcardPattern.length() ? wildcardPattern.charAt(i) : '*';
+            switch (c) {
+            case '*':
+            case '?':
+            case '.':
+                trigrams.addAll(trigramsOf(wildcardPattern.substring(start, i)));
+                start = i + 1;
+                break;
+            case '\\':
+            case '^':
+            case '$':
+            case '|':
+            case '+':
+            case '(':
+            case ')':
+            case '[':
+            case ']':
+            case '{':
+            case '}':
+                return Collections.emptySet();
+            default:
+                break;
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * The trigrams of the text, lower cased char by char, so that the trigrams of any part of a text are trigrams of
+     * the whole.
+     */
+    static Set<String> trigramsOf(final String text) {
+        if (text.length() < N) {
+            return Collections.emptySet();
+        }
+        final char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(text.charAt(i));
+        }
+        final Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + N <= chars.length; i++) {
+            trigrams.add(new String(chars, i, N));
+        }
+        return trigrams;
+    }
+
+}
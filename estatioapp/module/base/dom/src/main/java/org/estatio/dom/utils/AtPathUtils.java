@@ -18,6 +18,10 @@
  */
 package org.estatio.dom.utils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import com.google.common.base.Strings;
 
 public final class AtPathUtils {
@@ -73,4 +77,46 @@ public final class AtPathUtils {
             return atPathParts[1];
         }
     }
+
+    /**
+     * The paths that a query should match the tenancy of objects at or below against, for a user with the given path,
+     * as the tenancy evaluator compares them: a part <tt>X-CAR</tt> of the user's path matches both <tt>CAR</tt> and
+     * <tt>X-CAR</tt> of an object's path, so <tt>/ITA/X-CAR</tt> scopes to <tt>/ITA/CAR</tt> and <tt>/ITA/X-CAR</tt>.
+     * A path without such parts, the usual case, scopes to just itself; a null path to none.  The scopes do not
+     * overlap, so a query run once for each of them matches an object at most once.
+     *
+     * Used with {@link #toAtPathPrefix(String)} as
+     * <tt>(applicationTenancyPath == :atPath || applicationTenancyPath.startsWith(:atPathPrefix))</tt>, which the
+     * datastore can resolve using an index on the path.  Objects at a level above the user's (eg a country-level
+     * object for a property-level user) are not matched; this is intended for objects whose tenancy is at a fixed,
+     * low level, eg Lease, Invoice or Property.
+     */
+    public static List<String> toAtPathScopes(final String atPath) {
+        if (atPath == null) {
+            return Collections.emptyList();
+        }
+        List<String> scopes = Collections.singletonList("");
+        for (String part : atPath.split("/")) {
+            if (Strings.isNullOrEmpty(part)) {
+                continue;
+            }
+            final List<String> partScopes = new ArrayList<>();
+            for (String scope : scopes) {
+                if (part.startsWith("X-") && part.length() > 2) {
+                    partScopes.add(scope + "/" + part.substring(2));
+                }
+                partScopes.add(scope + "/" + part);
+            }
+            scopes = partScopes;
+        }
+        return scopes.get(0).isEmpty() ? Collections.singletonList("/") : scopes;
+    }
+
+    /**
+     * The prefix of the paths below the given {@link #toAtPathScopes(String) scope}; matching on it (rather than on
+     * the scope itself) keeps eg <tt>/ITA/CA</tt> from matching <tt>/ITA/CAR</tt>.
+     */
+    public static String toAtPathPrefix(final String atPathScope) {
+        return atPathScope.endsWith("/") ? atPathScope : atPathScope + "/";
+    }
 }
@@ -21,6 +21,8 @@ package org.estatio.dom.utils;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.common.collect.Lists;
 import com.google.ical.compat.jodatime.LocalDateIterator;
@@ -39,6 +41,8 @@ public final class CalendarUtils {
      */
     private static final LocalDate START_DATE_DEFAULT = new LocalDate(2000, 1, 1);
 
+    private static final ConcurrentMap<String, IntervalCalendar> CALENDARS = new ConcurrentHashMap<>();
+
     private CalendarUtils() {
     }
 
@@ -65,9 +69,34 @@ public final class CalendarUtils {
      * @return
      */
     public static Interval intervalContaining(final LocalDate containingDate, final String rrule) {
+        if (containingDate == null || rrule == null) {
+            return null;
+        }
+        final IntervalCalendar calendar = calendarFor(rrule);
+        if (calendar.covers(containingDate)) {
+            return calendar.intervalContaining(containingDate);
+        }
         return currentInterval(containingDate, rrule, START_DATE_DEFAULT);
     }
 
+    /**
+     * Returns the precomputed calendar for the rrule, computing it on first use.
+     *
+     * @param rrule
+     * @return
+     */
+    public static IntervalCalendar calendarFor(final String rrule) {
+        IntervalCalendar calendar = CALENDARS.get(rrule);
+        if (calendar == null) {
+            calendar = new IntervalCalendar(rrule, START_DATE_DEFAULT, IntervalCalendar.HORIZON_DEFAULT);
+            final IntervalCalendar existing = CALENDARS.putIfAbsent(rrule, calendar);
+            if (existing != null) {
+                calendar = existing;
+            }
+        }
+        return calendar;
+    }
+
     public static Interval currentInterval(
             final LocalDate date,
             final String rrule,
@@ -120,6 +149,12 @@ public final class CalendarUtils {
             throw new IllegalArgumentException(
                     String.format("Start date %s is after end date %s", startDate.toString(), endDate.toString()));
         }
+        if (rrule != null) {
+            final IntervalCalendar calendar = calendarFor(rrule);
+            if (calendar.covers(endDate)) {
+                return calendar.intervalsInRange(startDate, endDate);
+            }
+        }
         List<Interval> intervals = Lists.newArrayList();
         LocalDate start = startDate;
         Interval interval = null;
@@ -0,0 +1,161 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.utils;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.ical.compat.jodatime.LocalDateIterator;
+import com.google.ical.compat.jodatime.LocalDateIteratorFactory;
+
+import org.joda.time.Interval;
+import org.joda.time.LocalDate;
+
+import org.incode.module.base.dom.IncodeApplicationException;
+
+/**
+ * Immutable, precomputed sequence of the dates generated by an rrule, starting at a fixed start date and running up
+ * to (and including the first date after) a horizon.
+ *
+ * <p>
+ * The sequence is identical to the one walked by {@link CalendarUtils#currentInterval(LocalDate, String, LocalDate)}
+ * (the start date itself followed by every date returned by the iterator), so that
+ * {@link #intervalContaining(LocalDate)} returns exactly the same interval, but found by binary search rather than
+ * by iterating from the start date on every call.
+ * </p>
+ *
+ * <p>
+ * Calendars are built once per rrule and kept in memory, see {@link CalendarUtils#calendarFor(String)}.
+ * </p>
+ */
+public final class IntervalCalendar {
+
+    /**
+     * Calendars are computed up until this date; dates on or after the last computed date are not covered.
+     */
+    static final LocalDate HORIZON_DEFAULT = new LocalDate(2100, 1, 1);
+
+    private final String rrule;
+    private final LocalDate[] dates;
+
+    IntervalCalendar(final String rrule, final LocalDate startDate, final LocalDate horizon) {
+        this.rrule = rrule;
+        this.dates = datesFor(rrule, startDate, horizon);
+    }
+
+    private static LocalDate[] datesFor(final String rrule, final LocalDate startDate, final LocalDate horizon) {
+        final List<LocalDate> dates = new ArrayList<>();
+        dates.add(startDate);
+        try {
+            final LocalDateIterator iter = LocalDateIteratorFactory.createLocalDateIterator(rrule, startDate, true);
+            while (iter.hasNext()) {
+                final LocalDate nextDate = iter.next();
+                dates.add(nextDate);
+                if (nextDate.compareTo(horizon) > 0) {
+                    break;
+                }
+            }
+        } catch (final ParseException ex) {
+            throw new IncodeApplicationException("Unable to parse rrule >>" + rrule + "<<", ex);
+        }
+        return dates.toArray(new LocalDate[dates.size()]);
+    }
+
+    public String getRrule() {
+        return rrule;
+    }
+
+    public LocalDate getStartDate() {
+        return dates[0];
+    }
+
+    /**
+     * The last date that has been computed; {@link #covers(LocalDate) covers} all dates before it.
+     */
+    public LocalDate getEndDate() {
+        return dates[dates.length - 1];
+    }
+
+    public boolean covers(final LocalDate date) {
+        return date.compareTo(getEndDate()) < 0;
+    }
+
+    /**
+     * Returns the interval containing the date, or <tt>null</tt> if the date is not {@link #covers(LocalDate) covered}
+     * by this calendar.
+     */
+    public Interval intervalContaining(final LocalDate date) {
+        final int idx = indexOfFirstDateAfter(date);
+        if (idx < 1) {
+            return null;
+        }
+        return new Interval(
+                dates[idx - 1].toInterval().getStartMillis(),
+                dates[idx].toInterval().getStartMillis());
+    }
+
+    /**
+     * Returns the consecutive intervals from the one containing the start date up to the one containing the date
+     * before the end date, as {@link CalendarUtils#intervalsInRange(LocalDate, LocalDate, String)} does.
+     *
+     * <p>
+     * The end date must be {@link #covers(LocalDate) covered} by this calendar.
+     * </p>
+     */
+    public List<Interval> intervalsInRange(final LocalDate startDate, final LocalDate endDate) {
+        final List<Interval> intervals = new ArrayList<>();
+        int idx = indexOfFirstDateAfter(startDate);
+        if (idx < 1) {
+            return intervals;
+        }
+        do {
+            intervals.add(new Interval(
+                    dates[idx - 1].toInterval().getStartMillis(),
+                    dates[idx].toInterval().getStartMillis()));
+            idx++;
+        } while (idx < dates.length && dates[idx - 1].isBefore(endDate));
+        return intervals;
+    }
+
+    /**
+     * Index of the first date (after the start date) which is strictly after the provided date, or <tt>-1</tt> if
+     * there is none.
+     */
+    int indexOfFirstDateAfter(final LocalDate date) {
+        int low = 1;
+        int high = dates.length - 1;
+        int found = -1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (dates[mid].compareTo(date) > 0) {
+                found = mid;
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return found;
+    }
+
+    int size() {
+        return dates.length;
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.utils;
+
+import org.incode.module.base.dom.types.NotesType;
+
+public final class NotesUtils {
+
+    private NotesUtils() {
+    }
+
+    /**
+     * The text cut down, if need be, to fit a {@link NotesType notes} column, eg an error message recorded against a
+     * failed attempt.
+     */
+    public static String truncated(final String notes) {
+        return notes == null || notes.length() <= NotesType.Meta.MAX_LEN
+                ? notes
+                : notes.substring(0, NotesType.Meta.MAX_LEN);
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.utils;
+
+import java.util.Map;
+
+public final class PropertiesUtils {
+
+    private PropertiesUtils() {
+    }
+
+    /**
+     * The value of an integer configuration property that must be at least 1, such as a number of workers or a chunk
+     * size.
+     *
+     * @return the default if the property is not set
+     * @throws IllegalArgumentException if the property is set, but not to a positive integer
+     */
+    public static int positiveIntProperty(final Map<String, String> properties, final String key, final int defaultValue) {
+        return intProperty(properties, key, defaultValue, 1);
+    }
+
+    /**
+     * The value of an integer configuration property that must be at least 0, such as a polling interval for which 0
+     * means never.
+     *
+     * @return the default if the property is not set
+     * @throws IllegalArgumentException if the property is set, but not to a non-negative integer
+     */
+    public static int nonNegativeIntProperty(final Map<String, String> properties, final String key, final int defaultValue) {
+        return intProperty(properties, key, defaultValue, 0);
+    }
+
+    private static int intProperty(
+            final Map<String, String> properties,
+            final String key,
+            final int defaultValue,
+            final int minimum) {
+        final String value = properties == null ? null : properties.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        final int intValue;
+        try {
+            intValue = Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(String.format("%s must be an integer, was '%s'", key, value), ex);
+        }
+        if (intValue < minimum) {
+            throw new IllegalArgumentException(String.format("%s must be >= %d, was %d", key, minimum, intValue));
+        }
+        return intValue;
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransactionalCache_Test {
+
+    TransactionalCache<String> cache;
+    AtomicInteger loads;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new TransactionalCache<>();
+        loads = new AtomicInteger();
+    }
+
+    String load() {
+        return "value" + loads.incrementAndGet();
+    }
+
+    public static class Get extends TransactionalCache_Test {
+
+        @Test
+        public void loads_once() throws Exception {
+            assertThat(cache.get("A", this::load)).isEqualTo("value1");
+            assertThat(cache.get("A", this::load)).isEqualTo("value1");
+            assertThat(cache.get("B", this::load)).isEqualTo("value2");
+            assertThat(cache.size()).isEqualTo(2);
+        }
+
+    }
+
+    public static class Changing extends TransactionalCache_Test {
+
+        @Test
+        public void not_cached_until_changed() throws Exception {
+            // given
+            cache.get("A", this::load);
+
+            // when
+            cache.changing("A");
+
+            // then
+            assertThat(cache.get("A", this::load)).isEqualTo("value2");
+            assertThat(cache.get("A", this::load)).isEqualTo("value3");
+            assertThat(cache.size()).isEqualTo(0);
+
+            // and when
+            cache.changed("A");
+
+            // then
+            assertThat(cache.get("A", this::load)).isEqualTo("value4");
+            assertThat(cache.get("A", this::load)).isEqualTo("value4");
+        }
+
+        @Test
+        public void not_cached_until_all_changes_completed() throws Exception {
+            // given
+            cache.changing("A");
+            cache.changing("A");
+
+            // when
+            cache.changed("A");
+
+            // then
+            cache.get("A", this::load);
+            assertThat(cache.size()).isEqualTo(0);
+
+            // and when
+            cache.changed("A");
+
+            // then
+            cache.get("A", this::load);
+            assertThat(cache.size()).isEqualTo(1);
+        }
+
+        @Test
+        public void load_overlapping_with_a_change_not_cached() throws Exception {
+            // when
+            final String value = cache.get("A", () -> {
+                final String loaded = load();
+                // another transaction changes the data and completes while loading
+                cache.changing("A");
+                cache.changed("A");
+                return loaded;
+            });
+
+            // then
+            assertThat(value).isEqualTo("value1");
+            assertThat(cache.size()).isEqualTo(0);
+            assertThat(cache.get("A", this::load)).isEqualTo("value2");
+        }
+
+        @Test
+        public void not_cached_passed_on() throws Exception {
+            // given
+            final List<String> notCached = Lists.newArrayList();
+            cache.get("A", this::load, notCached::add);
+            assertThat(notCached).isEmpty();
+
+            // when
+            cache.changing("A");
+
+            // then
+            assertThat(cache.get("A", this::load, notCached::add)).isEqualTo("value2");
+            assertThat(notCached).containsExactly("value2");
+        }
+
+        @Test
+        public void other_keys_unaffected() throws Exception {
+            // given
+            cache.get("B", this::load);
+
+            // when
+            cache.changing("A");
+
+            // then
+            assertThat(cache.get("B", this::load)).isEqualTo("value1");
+        }
+
+    }
+
+    public static class Clear extends TransactionalCache_Test {
+
+        @Test
+        public void happyCase() throws Exception {
+            // given
+            cache.get("A", this::load);
+
+            // when
+            cache.clear();
+
+            // then
+            assertThat(cache.size()).isEqualTo(0);
+            assertThat(cache.get("A", this::load)).isEqualTo("value2");
+        }
+
+        @Test
+        public void load_overlapping_with_a_clear_not_cached() throws Exception {
+            // when
+            cache.get("A", () -> {
+                final String loaded = load();
+                cache.clear();
+                return loaded;
+            });
+
+            // then
+            assertThat(cache.size()).isEqualTo(0);
+        }
+
+    }
+
+}
@@ -18,7 +18,9 @@
  */
 package org.estatio.dom;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -29,6 +31,8 @@ import org.apache.isis.applib.query.QueryDefault;
 
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 
+import static org.estatio.dom.UdoDomainRepositoryAndFactory.KEYSET_PARAMETER;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
@@ -195,6 +199,98 @@ public class UdoDomainRepositoryAndFactory_Test {
         }
     }
 
+    public static class ForEachBatch extends UdoDomainRepositoryAndFactory_Test {
+
+        static class SomeDomainObject extends UdoDomainObject<SomeDomainObject> {
+            private final String reference;
+            public SomeDomainObject(final String reference) {
+                super(null);
+                this.reference = reference;
+            }
+            public String getReference() {
+                return reference;
+            }
+            @Override
+            public ApplicationTenancy getApplicationTenancy() {
+                return null;
+            }
+        }
+
+        static class SomeDomainService extends UdoDomainRepositoryAndFactory<SomeDomainObject> {
+
+            final List<SomeDomainObject> objects = new ArrayList<>();
+            final List<Map<String, Object>> argumentsOfQueries = new ArrayList<>();
+
+            protected SomeDomainService() {
+                super(SomeDomainService.class, SomeDomainObject.class);
+            }
+
+            @Override
+            protected <T> List<T> allMatches(Query<T> query) {
+                final QueryDefault<T> queryDefault = (QueryDefault<T>) query;
+                argumentsOfQueries.add(queryDefault.getArgumentsByParameterName());
+                final String after = (String) queryDefault.getArgumentsByParameterName().get(KEYSET_PARAMETER);
+                final List<T> batch = new ArrayList<>();
+                for (SomeDomainObject object : objects) {
+                    if (object.getReference().compareTo(after) > 0 && batch.size() < queryDefault.getCount()) {
+                        batch.add((T) object);
+                    }
+                }
+                return batch;
+            }
+
+            int forEachBatch(final int batchSize, final List<List<SomeDomainObject>> batches) {
+                return forEachBatch("findAfterReference", "", SomeDomainObject::getReference, batchSize, batches::add,
+                        "foo", "bar");
+            }
+        }
+
+        private SomeDomainService someDomainService;
+
+        @Before
+        public void setUp() throws Exception {
+            someDomainService = new SomeDomainService();
+            for (int i = 0; i < 7; i++) {
+                someDomainService.objects.add(new SomeDomainObject("REF" + i));
+            }
+        }
+
+        @Test
+        public void batches_after_the_key_of_the_previous_batch() {
+            final List<List<SomeDomainObject>> batches = new ArrayList<>();
+
+            assertThat(someDomainService.forEachBatch(3, batches), is(7));
+
+            assertThat(batches.size(), is(3));
+            assertThat(batches.get(0).get(0).getReference(), is("REF0"));
+            assertThat(batches.get(1).get(0).getReference(), is("REF3"));
+            assertThat(batches.get(2).size(), is(1));
+            assertThat(someDomainService.argumentsOfQueries.get(1).get(KEYSET_PARAMETER), is((Object) "REF2"));
+            assertThat(someDomainService.argumentsOfQueries.get(1).get("foo"), is((Object) "bar"));
+        }
+
+        @Test
+        public void last_batch_full() {
+            final List<List<SomeDomainObject>> batches = new ArrayList<>();
+
+            assertThat(someDomainService.forEachBatch(7, batches), is(7));
+
+            // an extra (empty) query to find there are no more
+            assertThat(batches.size(), is(1));
+            assertThat(someDomainService.argumentsOfQueries.size(), is(2));
+        }
+
+        @Test
+        public void none() {
+            someDomainService.objects.clear();
+            final List<List<SomeDomainObject>> batches = new ArrayList<>();
+
+            assertThat(someDomainService.forEachBatch(3, batches), is(0));
+
+            assertThat(batches.isEmpty(), is(true));
+        }
+    }
+
     public static class NewQueryDefault extends UdoDomainRepositoryAndFactory_Test {
 
         private SomeDomainService someDomainService;
@@ -0,0 +1,116 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.apptenancy;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Lists;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.estatio.dom.apptenancy.ApplicationTenancyAccessCache.Access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ApplicationTenancyAccessCache_Test {
+
+    List<String> paths;
+
+    ApplicationTenancyAccessCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        paths = Lists.newArrayList("/", "//", "/ITA/");
+        for (String country : new String[] { "ITA", "FRA", "NLD", "SWE" }) {
+            paths.add("/" + country);
+            for (String property : new String[] { "CAR", "GIG", "X-CAR", "CA" }) {
+                paths.add("/" + country + "/" + property);
+                paths.add("/" + country + "/" + property + "/_");
+                paths.add("/" + country + "/" + property + "/ta");
+            }
+        }
+        cache = new ApplicationTenancyAccessCache();
+    }
+
+    /**
+     * The original algorithm, splitting both paths.
+     */
+    static Access splitAccess(final String objectTenancyPath, final String userTenancyPath) {
+        final List<String> objectParts = split(objectTenancyPath);
+        final List<String> userParts = split(userTenancyPath);
+        for (int i = 0; i < objectParts.size(); i++) {
+            if (i >= userParts.size()) {
+                return Access.ENABLED;
+            }
+            if (!partsEqual(objectParts.get(i), userParts.get(i))) {
+                return Access.HIDDEN;
+            }
+        }
+        return objectParts.size() == userParts.size() ? Access.ENABLED : Access.VISIBLE;
+    }
+
+    static boolean partsEqual(final String objectPart, final String userPart) {
+        if (Objects.equals(objectPart, userPart)) {
+            return true;
+        }
+        return userPart.startsWith("X-") && Objects.equals(objectPart, userPart.substring(2));
+    }
+
+    static List<String> split(final String path) {
+        return FluentIterable.from(Splitter.on('/').split(path)).filter(s -> !Strings.isNullOrEmpty(s)).toList();
+    }
+
+    public static class AccessFor extends ApplicationTenancyAccessCache_Test {
+
+        @Test
+        public void same_as_splitting_the_paths() throws Exception {
+            for (String objectPath : paths) {
+                for (String userPath : paths) {
+                    assertThat(cache.accessFor(objectPath, userPath))
+                            .as("object %s, user %s", objectPath, userPath)
+                            .isEqualTo(splitAccess(objectPath, userPath));
+                }
+            }
+            assertThat(cache.size()).isEqualTo(paths.size() * paths.size());
+        }
+
+        @Test
+        public void x_prefix() throws Exception {
+            assertThat(cache.accessFor("/ITA/CAR", "/ITA/X-CAR")).isEqualTo(Access.ENABLED);
+            assertThat(cache.accessFor("/ITA/X-CAR", "/ITA/CAR")).isEqualTo(Access.HIDDEN);
+            assertThat(cache.accessFor("/ITA/CAR", "/ITA/X-CA")).isEqualTo(Access.HIDDEN);
+            assertThat(cache.accessFor("/ITA", "/ITA/X-CAR")).isEqualTo(Access.VISIBLE);
+        }
+
+        @Test
+        public void bounded() throws Exception {
+            for (int i = 0; i < ApplicationTenancyAccessCache.MAX_OBJECT_PATHS + 10; i++) {
+                assertThat(cache.accessFor("/ITA/P" + i, "/ITA")).isEqualTo(Access.ENABLED);
+            }
+            assertThat(cache.size()).isEqualTo(ApplicationTenancyAccessCache.MAX_OBJECT_PATHS);
+        }
+
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.search;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.incode.module.base.dom.utils.StringUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TrigramIndex_Test {
+
+    TrigramIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        index = new TrigramIndex();
+        index.add("party:1", "HELLOWORLD", "Hello World Ltd");
+        index.add("party:2", "ACME", "Acme Corporation");
+        index.add("party:3", "TOPMODEL", "Topmodel Fashion S.r.l.");
+    }
+
+    public static class KeysMatching extends TrigramIndex_Test {
+
+        @Test
+        public void reference_or_name() throws Exception {
+            assertThat(index.keysMatching("*WORLD*")).containsExactly("party:1");
+            assertThat(index.keysMatching("acme corp*")).containsExactly("party:2");
+        }
+
+        @Test
+        public void case_insensitive() throws Exception {
+            assertThat(index.keysMatching("*fashion*")).containsExactly("party:3");
+            assertThat(index.keysMatching("*TOPMODEL FASHION*")).containsExactly("party:3");
+        }
+
+        @Test
+        public void wildcards() throws Exception {
+            assertThat(index.keysMatching("*wor?x*")).isEmpty();
+            assertThat(index.keysMatching("*Wor?d L*")).containsExactly("party:1");
+            assertThat(index.keysMatching("ACM?")).containsExactly("party:2");
+        }
+
+        @Test
+        public void matches_whole_text() throws Exception {
+            // has all trigrams, but does not match as a whole
+            assertThat(index.keysMatching("ACME")).containsExactly("party:2");
+            assertThat(index.keysMatching("CME")).isEmpty();
+            assertThat(index.keysMatching("*ACMEE*")).isEmpty();
+        }
+
+        @Test
+        public void no_such_trigram() throws Exception {
+            assertThat(index.keysMatching("*XYZ*")).isEmpty();
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void cannot_search() throws Exception {
+            index.keysMatching("*AC*");
+        }
+
+    }
+
+    public static class CanSearch extends TrigramIndex_Test {
+
+        @Test
+        public void literal_of_three_characters() throws Exception {
+            assertThat(TrigramIndex.canSearch("*ABC*")).isTrue();
+            assertThat(TrigramIndex.canSearch("AB?CDE")).isTrue();
+        }
+
+        @Test
+        public void too_few_literal_characters() throws Exception {
+            assertThat(TrigramIndex.canSearch("*AB*")).isFalse();
+            assertThat(TrigramIndex.canSearch("AB?CD")).isFalse();
+            assertThat(TrigramIndex.canSearch("AB.CD")).isFalse();
+            assertThat(TrigramIndex.canSearch("")).isFalse();
+            assertThat(TrigramIndex.canSearch(null)).isFalse();
+        }
+
+        @Test
+        public void regex_constructs() throws Exception {
+            assertThat(TrigramIndex.canSearch("ACME|TOPMODEL")).isFalse();
+            assertThat(TrigramIndex.canSearch("ACME[0-9]")).isFalse();
+            assertThat(TrigramIndex.canSearch("(ACME)")).isFalse();
+        }
+
+    }
+
+    public static class AddAndRemove extends TrigramIndex_Test {
+
+        @Test
+        public void add_keeps_earlier_texts() throws Exception {
+            index.add("party:2", "ACME2", "Acme Holding");
+
+            assertThat(index.keysMatching("*corporation*")).containsExactly("party:2");
+            assertThat(index.keysMatching("*holding*")).containsExactly("party:2");
+            assertThat(index.size()).isEqualTo(3);
+        }
+
+        @Test
+        public void remove() throws Exception {
+            index.remove("party:2");
+
+            assertThat(index.keysMatching("*acme*")).isEmpty();
+            assertThat(index.keysMatching("*world*")).containsExactly("party:1");
+            assertThat(index.size()).isEqualTo(2);
+        }
+
+        @Test
+        public void null_text() throws Exception {
+            index.add("party:4", "NONAME", null);
+
+            assertThat(index.keysMatching("nonam?")).containsExactly("party:4");
+        }
+
+    }
+
+    /**
+     * Matches random patterns against random texts, comparing the index with matching the regex against every text,
+     * as the datastore does.
+     */
+    public static class SameAsScanning extends TrigramIndex_Test {
+
+        static final String ALPHABET = "ABCDEFGH abcdefgh-";
+
+        @Test
+        public void random_patterns() throws Exception {
+            final Random random = new Random(42);
+            final Map<String, String> textsByKey = new TreeMap<>();
+            final TrigramIndex randomIndex = new TrigramIndex();
+            for (int i = 0; i < 2000; i++) {
+                final String key = "key:" + i;
+                final String text = randomString(random, 4 + random.nextInt(12));
+                textsByKey.put(key, text);
+                randomIndex.add(key, text);
+            }
+
+            int patterns = 0;
+            while (patterns < 200) {
+                final String pattern = randomPattern(random);
+                if (!TrigramIndex.canSearch(pattern)) {
+                    continue;
+                }
+                patterns++;
+                final Pattern regex = Pattern.compile(StringUtils.wildcardToCaseInsensitiveRegex(pattern));
+                final List<String> expected = Lists.newArrayList();
+                for (Map.Entry<String, String> entry : textsByKey.entrySet()) {
+                    if (regex.matcher(entry.getValue()).matches()) {
+                        expected.add(entry.getKey());
+                    }
+                }
+                final List<String> found = randomIndex.keysMatching(pattern);
+                assertThat(found).as(pattern).containsOnlyElementsOf(expected).hasSameSizeAs(expected);
+            }
+        }
+
+        private static String randomPattern(final Random random) {
+            final StringBuilder pattern = new StringBuilder();
+            if (random.nextBoolean()) {
+                pattern.append('*');
+            }
+            pattern.append(randomString(random, 3 + random.nextInt(2)));
+            if (random.nextInt(4) == 0) {
+                pattern.append(random.nextBoolean() ? '?' : '*').append(randomString(random, 1 + random.nextInt(3)));
+            }
+            if (random.nextBoolean()) {
+                pattern.append('*');
+            }
+            return pattern.toString();
+        }
+
+        private static String randomString(final Random random, final int length) {
+            final StringBuilder text = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            return text.toString();
+        }
+
+    }
+
+}
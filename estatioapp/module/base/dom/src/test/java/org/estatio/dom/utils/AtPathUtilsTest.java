@@ -1,9 +1,14 @@
 package org.estatio.dom.utils;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import org.estatio.dom.apptenancy.ApplicationTenancyAccessCache;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class AtPathUtilsTest {
@@ -55,6 +60,65 @@ public class AtPathUtilsTest {
         }
     }
 
+    public static class ToAtPathScopes extends AtPathUtilsTest {
+
+        @Test
+        public void all_of_em() {
+            assertThat(AtPathUtils.toAtPathScopes(null)).isEmpty();
+            assertToAtPathScopes("/", "/");
+            assertToAtPathScopes("/ITA", "/ITA");
+            assertToAtPathScopes("/ITA/CAR", "/ITA/CAR");
+            assertToAtPathScopes("/ITA/X-CAR", "/ITA/CAR", "/ITA/X-CAR");
+            assertToAtPathScopes("/X-ITA/", "/ITA", "/X-ITA");
+            assertToAtPathScopes("/X-ITA/X-CAR", "/ITA/CAR", "/ITA/X-CAR", "/X-ITA/CAR", "/X-ITA/X-CAR");
+        }
 
+        @Test
+        public void prefix() {
+            assertThat(AtPathUtils.toAtPathPrefix("/")).isEqualTo("/");
+            assertThat(AtPathUtils.toAtPathPrefix("/ITA/CAR")).isEqualTo("/ITA/CAR/");
+        }
+
+        @Test
+        public void matches_the_visible_objects_at_or_below_the_user() {
+            final List<String> paths = Arrays.asList(
+                    "/", "/ITA", "/ITA/CA", "/ITA/CAR", "/ITA/CARX", "/ITA/CAR/_", "/ITA/CAR/ta", "/ITA/GIG/_",
+                    "/FRA", "/FRA/VIV/ta", "/ITA/X-CAR", "/X-ITA", "/ITA/X-CAR/ta", "/ITA/CAR/X-ta", "/X-ITA/CAR");
+            for (String userPath : paths) {
+                for (String objectPath : paths) {
+                    if (numberOfParts(objectPath) < numberOfParts(userPath)) {
+                        continue;
+                    }
+                    assertThat(matched(objectPath, userPath))
+                            .as("%s for user %s", objectPath, userPath)
+                            .isEqualTo(ApplicationTenancyAccessCache.evaluate(objectPath, userPath).isVisible());
+                }
+            }
+        }
+
+        @Test
+        public void object_path_with_x_part() {
+            assertThat(matched("/ITA/X-CAR/ta", "/ITA/X-CAR")).isTrue();
+            assertThat(matched("/ITA/X-CAR/ta", "/ITA")).isTrue();
+            assertThat(matched("/ITA/X-CAR/ta", "/ITA/CAR")).isFalse();
+        }
+
+        private static boolean matched(final String objectPath, final String userPath) {
+            for (String scope : AtPathUtils.toAtPathScopes(userPath)) {
+                if (objectPath.equals(scope) || objectPath.startsWith(AtPathUtils.toAtPathPrefix(scope))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int numberOfParts(final String path) {
+            return path.replaceAll("/+$", "").split("/").length - 1;
+        }
+
+        private static void assertToAtPathScopes(final String atPath, final String... expected) {
+            assertThat(AtPathUtils.toAtPathScopes(atPath)).containsExactly(expected);
+        }
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,128 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.Interval;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IntervalCalendar_Test {
+
+    static final LocalDate START_DATE = new LocalDate(2000, 1, 1);
+
+    static final List<String> RRULES = Arrays.asList(
+            "RRULE:FREQ=WEEKLY;INTERVAL=1",
+            "RRULE:FREQ=MONTHLY;INTERVAL=1",
+            "RRULE:FREQ=MONTHLY;INTERVAL=3",
+            "RRULE:FREQ=MONTHLY;INTERVAL=3;BYMONTH=2,5,8,11",
+            "RRULE:FREQ=MONTHLY;INTERVAL=3;BYMONTH=3,6,9,12",
+            "RRULE:FREQ=MONTHLY;INTERVAL=6",
+            "RRULE:FREQ=YEARLY;INTERVAL=1",
+            "RRULE:FREQ=YEARLY;INTERVAL=1;BYMONTH=7");
+
+    /**
+     * The original algorithm, iterating from the start date for every interval.
+     */
+    static List<Interval> iteratedIntervalsInRange(final LocalDate startDate, final LocalDate endDate, final String rrule) {
+        List<Interval> intervals = Lists.newArrayList();
+        LocalDate start = startDate;
+        Interval interval;
+        do {
+            interval = CalendarUtils.currentInterval(start, rrule, START_DATE);
+            if (interval != null) {
+                intervals.add(interval);
+                start = interval.getEnd().toLocalDate();
+            }
+        } while (interval != null && start.isBefore(endDate));
+        return intervals;
+    }
+
+    public static class IntervalContaining extends IntervalCalendar_Test {
+
+        @Test
+        public void same_as_iterating_for_every_rrule() throws Exception {
+            for (String rrule : RRULES) {
+                for (LocalDate date = new LocalDate(1999, 12, 1); date.isBefore(new LocalDate(2025, 1, 1)); date = date.plusDays(5)) {
+                    assertThat(CalendarUtils.intervalContaining(date, rrule))
+                            .as(rrule + " " + date)
+                            .isEqualTo(CalendarUtils.currentInterval(date, rrule, START_DATE));
+                }
+            }
+        }
+
+        @Test
+        public void beyond_horizon_falls_back_to_iterating() throws Exception {
+            final String rrule = "RRULE:FREQ=YEARLY;INTERVAL=1";
+            final LocalDate date = CalendarUtils.calendarFor(rrule).getEndDate().plusMonths(3);
+            assertThat(CalendarUtils.calendarFor(rrule).covers(date)).isFalse();
+            assertThat(CalendarUtils.intervalContaining(date, rrule))
+                    .isEqualTo(CalendarUtils.currentInterval(date, rrule, START_DATE));
+        }
+
+        @Test
+        public void calendar_is_computed_once() throws Exception {
+            final String rrule = "RRULE:FREQ=MONTHLY;INTERVAL=1";
+            assertThat(CalendarUtils.calendarFor(rrule)).isSameAs(CalendarUtils.calendarFor(rrule));
+        }
+
+    }
+
+    public static class IntervalsInRange extends IntervalCalendar_Test {
+
+        @Test
+        public void same_as_iterating_for_every_rrule() throws Exception {
+            for (String rrule : RRULES) {
+                for (LocalDate startDate = new LocalDate(2010, 1, 1); startDate.isBefore(new LocalDate(2012, 1, 1)); startDate = startDate.plusDays(17)) {
+                    final LocalDate endDate = startDate.plusYears(3).plusDays(11);
+                    assertThat(CalendarUtils.intervalsInRange(startDate, endDate, rrule))
+                            .as(rrule + " " + startDate)
+                            .isEqualTo(iteratedIntervalsInRange(startDate, endDate, rrule));
+                }
+            }
+        }
+
+        @Test
+        public void twenty_year_horizon() throws Exception {
+            final LocalDate startDate = new LocalDate(2010, 1, 1);
+            final LocalDate endDate = startDate.plusYears(20);
+            for (String rrule : RRULES) {
+                assertThat(CalendarUtils.intervalsInRange(startDate, endDate, rrule))
+                        .as(rrule)
+                        .isEqualTo(iteratedIntervalsInRange(startDate, endDate, rrule));
+            }
+        }
+
+        @Test
+        public void same_start_and_end_date() throws Exception {
+            final LocalDate date = new LocalDate(2012, 1, 1);
+            final String rrule = "RRULE:FREQ=MONTHLY;INTERVAL=3";
+            assertThat(CalendarUtils.intervalsInRange(date, date, rrule))
+                    .isEqualTo(iteratedIntervalsInRange(date, date, rrule));
+        }
+
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.utils;
+
+import com.google.common.base.Strings;
+
+import org.junit.Test;
+
+import org.incode.module.base.dom.types.NotesType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NotesUtils_Test {
+
+    public static class Truncated extends NotesUtils_Test {
+
+        @Test
+        public void when_null() throws Exception {
+            assertThat(NotesUtils.truncated(null)).isNull();
+        }
+
+        @Test
+        public void when_fits() throws Exception {
+            final String notes = Strings.repeat("x", NotesType.Meta.MAX_LEN);
+            assertThat(NotesUtils.truncated(notes)).isEqualTo(notes);
+        }
+
+        @Test
+        public void when_too_long() throws Exception {
+            final String notes = Strings.repeat("x", NotesType.Meta.MAX_LEN) + "y";
+            assertThat(NotesUtils.truncated(notes)).isEqualTo(Strings.repeat("x", NotesType.Meta.MAX_LEN));
+        }
+    }
+
+}
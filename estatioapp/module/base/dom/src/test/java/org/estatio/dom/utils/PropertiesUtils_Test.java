@@ -0,0 +1,84 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.utils;
+
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PropertiesUtils_Test {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    public static class PositiveIntProperty extends PropertiesUtils_Test {
+
+        @Test
+        public void when_not_set() throws Exception {
+            assertThat(PropertiesUtils.positiveIntProperty(null, "key", 25)).isEqualTo(25);
+            assertThat(PropertiesUtils.positiveIntProperty(ImmutableMap.<String, String>of(), "key", 25)).isEqualTo(25);
+            assertThat(PropertiesUtils.positiveIntProperty(properties(" "), "key", 25)).isEqualTo(25);
+        }
+
+        @Test
+        public void when_set() throws Exception {
+            assertThat(PropertiesUtils.positiveIntProperty(properties(" 1 "), "key", 25)).isEqualTo(1);
+        }
+
+        @Test
+        public void when_zero() throws Exception {
+            expectedException.expect(IllegalArgumentException.class);
+            expectedException.expectMessage("key must be >= 1, was 0");
+            PropertiesUtils.positiveIntProperty(properties("0"), "key", 25);
+        }
+
+        @Test
+        public void when_not_an_integer() throws Exception {
+            expectedException.expect(IllegalArgumentException.class);
+            expectedException.expectMessage("key must be an integer, was 'ten'");
+            PropertiesUtils.positiveIntProperty(properties("ten"), "key", 25);
+        }
+    }
+
+    public static class NonNegativeIntProperty extends PropertiesUtils_Test {
+
+        @Test
+        public void when_zero() throws Exception {
+            assertThat(PropertiesUtils.nonNegativeIntProperty(properties("0"), "key", 60)).isEqualTo(0);
+        }
+
+        @Test
+        public void when_negative() throws Exception {
+            expectedException.expect(IllegalArgumentException.class);
+            expectedException.expectMessage("key must be >= 0, was -1");
+            PropertiesUtils.nonNegativeIntProperty(properties("-1"), "key", 60);
+        }
+    }
+
+    static Map<String, String> properties(final String value) {
+        return ImmutableMap.of("key", value);
+    }
+
+}
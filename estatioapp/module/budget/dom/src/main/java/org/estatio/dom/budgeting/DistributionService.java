@@ -7,216 +7,252 @@ import java.util.List;
 
 public class DistributionService {
 
+    /**
+     * Beyond 16 digits {@link MathContext#DECIMAL64} rounds; below it, sums and products are exact.
+     */
+    private static final long DECIMAL64_LIMIT = 10_000_000_000_000_000L;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L,
+            1_000_000_000_000_000_000L
+    };
+
+    private static final int MAX_SCALE = POWERS_OF_TEN.length - 1;
+
     /**
      * @return a {@link List} of
      * {@link org.estatio.dom.budgeting.Distributable} items with {@link BigDecimal} targetTotal
      * equally distributed over {@link BigDecimal} item.value according to
      * {@link BigDecimal} item.sourceValue.
      *
-     * Rounding correction finds place according to {@link int} precision.
+     * Rounding correction finds place according to {@link int} precision, one unit at a time on the last items
+     * with a non-zero item.sourceValue.
      *
      * The original order of List input is preserved.
      *
      * Tested for item.sourceValue >= 0
+     *
+     * The values are calculated on longs, scaled to the source values' and targetTotal's decimals, whenever the
+     * {@link MathContext#DECIMAL64} arithmetic can be reproduced exactly that way; otherwise (negative values,
+     * or more than 16 digits) on {@link BigDecimal}s. Both give the same values.
      */
     public List<Distributable> distribute(
             final List<Distributable> input,
             final BigDecimal targetTotal,
             final int precision){
 
+        final int sourceScale = commonScaleOf(input);
+        final long target = scaled(targetTotal, targetTotal.scale());
+        if (sourceScale < 0 || target < 0 || precision < 0 || precision > MAX_SCALE) {
+            return distributeDecimal(input, targetTotal, precision);
+        }
+        final long validTotal = scaled(targetTotal.setScale(precision, BigDecimal.ROUND_HALF_UP), precision);
+        if (validTotal < 0) {
+            return distributeDecimal(input, targetTotal, precision);
+        }
+
         // determine denominator (sum of all input values)
-        BigDecimal denominator = BigDecimal.ZERO;
+        final int size = input.size();
+        final long[] sourceValues = new long[size];
+        long denominator = 0;
+        int i = 0;
         for (Distributable distributable : input) {
-            denominator = denominator.add(distributable.getSourceValue(), MathContext.DECIMAL64);
+            final long sourceValue = scaled(distributable.getSourceValue(), sourceScale);
+            denominator += sourceValue;
+            if (sourceValue < 0 || denominator >= DECIMAL64_LIMIT) {
+                return distributeDecimal(input, targetTotal, precision);
+            }
+            sourceValues[i++] = sourceValue;
         }
 
         // Case where no non-zero source values are found and so denominator equals zero
-        if (denominator.compareTo(BigDecimal.ZERO) <= 0) {
+        if (denominator == 0) {
             for (Distributable inputItem : input) {
                 inputItem.setValue(BigDecimal.ZERO);
             }
             return input;
         }
 
-            /*debug*/
-//        System.out.println("***************************");
-//        System.out.println("denominator: ");
-//        System.out.println(denominator);
-            /*debug*/
+        final long[] values = new long[size];
+        long sumOfRoundedValues = 0;
+        for (i = 0; i < size; i++) {
+            final long value = roundedShare(sourceValues[i], target, targetTotal.scale(), denominator, precision);
+            sumOfRoundedValues += value;
+            if (value < 0 || sumOfRoundedValues >= DECIMAL64_LIMIT - 1) {
+                return distributeDecimal(input, targetTotal, precision);
+            }
+            values[i] = value;
+        }
 
-        List<OutputHelper> outputHelperList = new ArrayList<>();
-        for (Distributable distributable : input) {
+        // in case of rounding needed: correct the last items with a non-zero source value
+        final long increment = sumOfRoundedValues < validTotal ? 1 : -1;
+        int numberOfCorrectionsNeeded = (int) Math.abs(sumOfRoundedValues - validTotal);
+        for (i = size - 1; i >= 0 && numberOfCorrectionsNeeded > 0; i--) {
+            if (sourceValues[i] != 0) {
+                values[i] += increment;
+                numberOfCorrectionsNeeded--;
+            }
+        }
 
-            BigDecimal unroundedTargetValue = distributable.getSourceValue().multiply(targetTotal, MathContext.DECIMAL64).divide(denominator, MathContext.DECIMAL64);
-            BigDecimal roundedTargetValue = unroundedTargetValue.setScale(precision, BigDecimal.ROUND_HALF_UP);
-            distributable.setValue(roundedTargetValue);
-            OutputHelper newOutputObject = new OutputHelper(
-                    distributable,
-                    roundedTargetValue.subtract(unroundedTargetValue, MathContext.DECIMAL64),
-                    false
-            );
+        final ArrayList<Distributable> output = new ArrayList<>(size);
+        i = 0;
+        for (Distributable distributable : input) {
+            distributable.setValue(BigDecimal.valueOf(values[i++], precision));
+            output.add(distributable);
+        }
+        return output;
+    }
 
-            outputHelperList.add(newOutputObject);
+    /**
+     * The {@link MathContext#DECIMAL64} arithmetic of {@link #distribute(List, BigDecimal, int)}, for the input that
+     * does not fit its scaled longs.
+     */
+    private List<Distributable> distributeDecimal(
+            final List<Distributable> input,
+            final BigDecimal targetTotal,
+            final int precision) {
 
+        BigDecimal denominator = BigDecimal.ZERO;
+        for (Distributable distributable : input) {
+            denominator = denominator.add(distributable.getSourceValue(), MathContext.DECIMAL64);
         }
 
+        if (denominator.compareTo(BigDecimal.ZERO) <= 0) {
+            for (Distributable inputItem : input) {
+                inputItem.setValue(BigDecimal.ZERO);
+            }
+            return input;
+        }
 
-        // 1. check if rounding correction is needed
+        final ArrayList<Distributable> output = new ArrayList<>(input.size());
         BigDecimal sumOfCalculatedRoundedValues = BigDecimal.ZERO;
-        for (OutputHelper helper : outputHelperList) {
-            sumOfCalculatedRoundedValues = sumOfCalculatedRoundedValues.add(helper.distributable.getValue(), MathContext.DECIMAL64);
-                    /*debug*/
-//            System.out.println("***************************");
-//            System.out.println(helper.distributable.getValue());
-//            System.out.print("sumOfCalculatedRoundedValues: ");
-//            System.out.println(sumOfCalculatedRoundedValues);
-                    /*debug*/
-        }
-
-        BigDecimal deltaOfSum = BigDecimal.ZERO;
-        Delta deltaSignOfSum = Delta.NO_DELTA;
-        BigDecimal validTotal = targetTotal.setScale(precision, BigDecimal.ROUND_HALF_UP);
-
-        if (sumOfCalculatedRoundedValues.compareTo(validTotal) > 0) {
-            deltaSignOfSum = Delta.DELTA_POSITIVE;
-            deltaOfSum = deltaOfSum.add(sumOfCalculatedRoundedValues.subtract(validTotal, MathContext.DECIMAL64));
-                    /*debug*/
-//            System.out.println("***************************");
-//            System.out.print("positive delta: ");
-//            System.out.println(deltaOfSum);
-                    /*debug*/
-        }
-        if (sumOfCalculatedRoundedValues.compareTo(validTotal) < 0) {
-            deltaSignOfSum = Delta.DELTA_NEGATIVE;
-            deltaOfSum = deltaOfSum.add(sumOfCalculatedRoundedValues.subtract(validTotal, MathContext.DECIMAL64));
-                    /*debug*/
-//            System.out.println("***************************");
-//            System.out.print("negative delta: ");
-//            System.out.println(deltaOfSum);
-                    /*debug*/
-        }
-
-        // 2. in case of rounding needed: iterate over sorted array until fixed
-        Integer numberOfIterationsNeeded = deltaOfSum.abs().multiply(multiplicationFactor(precision)).intValue();
-
-        for (int i = 0; i < numberOfIterationsNeeded; i = i + 1) {
-
-            if (deltaSignOfSum == Delta.DELTA_NEGATIVE) {
-
-                //find largest (positive) delta in output Object and round up
-                BigDecimal largestPositiveDelta = new BigDecimal(-1);
-                OutputHelper helperToRoundUp = null;
-                for (OutputHelper helper : outputHelperList) {
-                    if (
-                            helper.delta.compareTo(largestPositiveDelta) > 0
-                            &&
-                                    !helper.corrected
-                            &&
-                                    !(helper.distributable.getSourceValue().compareTo(BigDecimal.ZERO) == 0)
-                            ) {
-                        helperToRoundUp = helper;
-                    }
-                }
-                helperToRoundUp
-                        .distributable.setValue(
-                        helperToRoundUp.distributable.getValue()
-                                .add(increment(precision), MathContext.DECIMAL64)
-                                .setScale(precision, BigDecimal.ROUND_HALF_UP)
-                );
-                deltaOfSum = deltaOfSum.add(increment(precision)).setScale(precision +3, BigDecimal.ROUND_HALF_UP);
-                helperToRoundUp.setCorrected(true);
-
-                        /*debug*/
-//                System.out.print("Identifier: ");
-//                System.out.println(helperToRoundUp.distributable.getSourceValue());
-//                System.out.print("New keyRoundedValue: ");
-//                System.out.println(helperToRoundUp.distributable.getValue());
-//                System.out.print("New deltaOfSum: ");
-//                System.out.println(deltaOfSum);
-                        /*debug*/
-
-            } else {
-
-                //find largest negative delta in output Object and round down
-                BigDecimal largestNegativeDelta = BigDecimal.ONE;
-                OutputHelper helperToRoundDown = null;
-                for (OutputHelper helper : outputHelperList) {
-                    if (
-                            helper.delta.compareTo(largestNegativeDelta) < 0
-                            &&
-                                    !helper.corrected
-                            &&
-                                    !(helper.distributable.getSourceValue().compareTo(BigDecimal.ZERO) == 0)
-                            ) {
-                        helperToRoundDown = helper;
-                    }
-                }
-                helperToRoundDown.
-                        distributable.setValue(
-                        helperToRoundDown.distributable.getValue()
-                                .subtract(increment(precision), MathContext.DECIMAL64)
-                                .setScale(precision, BigDecimal.ROUND_HALF_UP)
-                );
-                deltaOfSum = deltaOfSum.subtract(increment(precision)).setScale(precision +3, BigDecimal.ROUND_HALF_UP);
-                helperToRoundDown.setCorrected(true);
-
-                        /*debug*/
-//                System.out.print("Identifier: ");
-//                System.out.println(helperToRoundDown.distributable.getSourceValue());
-//                System.out.print("New keyRoundedValue: ");
-//                System.out.println(helperToRoundDown.distributable.getValue());
-//                System.out.print("New deltaOfSum: ");
-//                System.out.println(deltaOfSum);
-                        /*debug*/
+        for (Distributable distributable : input) {
+            BigDecimal unroundedTargetValue = distributable.getSourceValue().multiply(targetTotal, MathContext.DECIMAL64).divide(denominator, MathContext.DECIMAL64);
+            BigDecimal roundedTargetValue = unroundedTargetValue.setScale(precision, BigDecimal.ROUND_HALF_UP);
+            distributable.setValue(roundedTargetValue);
+            sumOfCalculatedRoundedValues = sumOfCalculatedRoundedValues.add(roundedTargetValue, MathContext.DECIMAL64);
+            output.add(distributable);
+        }
 
+        BigDecimal validTotal = targetTotal.setScale(precision, BigDecimal.ROUND_HALF_UP);
+        BigDecimal deltaOfSum = sumOfCalculatedRoundedValues.subtract(validTotal, MathContext.DECIMAL64);
+        boolean roundUp = deltaOfSum.signum() < 0;
+        int numberOfCorrectionsNeeded = deltaOfSum.abs().multiply(multiplicationFactor(precision)).intValue();
+
+        for (int i = output.size() - 1; i >= 0 && numberOfCorrectionsNeeded > 0; i--) {
+            Distributable distributable = output.get(i);
+            if (distributable.getSourceValue().compareTo(BigDecimal.ZERO) != 0) {
+                BigDecimal value = roundUp
+                        ? distributable.getValue().add(increment(precision), MathContext.DECIMAL64)
+                        : distributable.getValue().subtract(increment(precision), MathContext.DECIMAL64);
+                distributable.setValue(value.setScale(precision, BigDecimal.ROUND_HALF_UP));
+                numberOfCorrectionsNeeded--;
             }
-
         }
 
-        ArrayList<Distributable> output = new ArrayList<>();
+        return output;
+    }
 
-        for (OutputHelper helper : outputHelperList) {
-            output.add(helper.distributable);
+    /**
+     * The share of <tt>sourceValue / denominator</tt> in <tt>target</tt> (with <tt>targetScale</tt> decimals), as
+     * {@link #distributeDecimal(List, BigDecimal, int)} calculates it: the product and the quotient rounded to 16
+     * digits, and the quotient then rounded half up to <tt>precision</tt> decimals.
+     *
+     * @return the unscaled share, or -1 if the product does not fit 16 digits
+     */
+    private static long roundedShare(
+            final long sourceValue,
+            final long target,
+            final int targetScale,
+            final long denominator,
+            final int precision) {
+        if (sourceValue == 0 || target == 0) {
+            return 0;
+        }
+        if (target > Long.MAX_VALUE / sourceValue) {
+            return -1;
+        }
+        final long product = sourceValue * target;
+        if (product >= DECIMAL64_LIMIT && product % POWERS_OF_TEN[numberOfDigits(product) - 16] != 0) {
+            return -1;
         }
 
-        return output;
-    }
+        // long division until the quotient has 16 significant digits, or no remainder
+        long digits = product / denominator;
+        long remainder = product % denominator;
+        if (digits >= DECIMAL64_LIMIT) {
+            return -1;
+        }
+        int decimals = 0;
+        while (remainder != 0 && digits < DECIMAL64_LIMIT / 10) {
+            remainder *= 10;
+            digits = digits * 10 + remainder / denominator;
+            remainder %= denominator;
+            decimals++;
+        }
+        // half even, as MathContext.DECIMAL64
+        if (remainder * 2 > denominator || (remainder * 2 == denominator && (digits & 1) == 1)) {
+            digits++;
+        }
 
-    private BigDecimal multiplicationFactor(final int scale) {
-        return new BigDecimal(10).pow(scale, MathContext.DECIMAL64);
+        final int scale = decimals + targetScale;
+        if (scale <= precision) {
+            final long factor = POWERS_OF_TEN[precision - scale];
+            return digits >= DECIMAL64_LIMIT / factor ? -1 : digits * factor;
+        }
+        final int droppedDigits = scale - precision;
+        if (droppedDigits > 17) {
+            // less than half a unit of precision
+            return 0;
+        }
+        final long factor = POWERS_OF_TEN[droppedDigits];
+        return digits / factor + (digits % factor * 2 >= factor ? 1 : 0);
     }
 
-    private BigDecimal increment(final int scale) {
-        return BigDecimal.valueOf(0.1).pow(scale, MathContext.DECIMAL64);
+    /**
+     * The largest number of decimals of the source values, or -1 if any of them has a negative scale or more than
+     * {@link #MAX_SCALE}.
+     */
+    private static int commonScaleOf(final List<Distributable> input) {
+        int scale = 0;
+        for (Distributable distributable : input) {
+            final int sourceScale = distributable.getSourceValue().scale();
+            if (sourceScale < 0 || sourceScale > MAX_SCALE) {
+                return -1;
+            }
+            scale = Math.max(scale, sourceScale);
+        }
+        return scale;
     }
 
-    private class OutputHelper {
-
-        OutputHelper(
-                final Distributable distributable,
-                final BigDecimal delta,
-                final boolean corrected) {
-            this.distributable = distributable;
-            this.delta = delta;
-            this.corrected = corrected;
+    /**
+     * The unscaled value of the (non-negative) value at the given scale, or -1 if it is negative or does not fit
+     * 16 digits.
+     */
+    private static long scaled(final BigDecimal value, final int scale) {
+        if (value.signum() < 0 || value.scale() < 0 || value.scale() > scale || scale > MAX_SCALE
+                || value.precision() - value.scale() + scale > 16) {
+            return -1;
         }
+        return value.unscaledValue().longValue() * POWERS_OF_TEN[scale - value.scale()];
+    }
 
-        private Distributable distributable;
-
-        private BigDecimal delta;
-
-        private boolean corrected;
-
-        public void setCorrected(final boolean corrected){
-            this.corrected = corrected;
+    private static int numberOfDigits(final long value) {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) {
+            digits++;
         }
+        return digits;
+    }
 
+    private BigDecimal multiplicationFactor(final int scale) {
+        return new BigDecimal(10).pow(scale, MathContext.DECIMAL64);
     }
 
-    private enum Delta {
-        DELTA_POSITIVE,
-        DELTA_NEGATIVE,
-        NO_DELTA
+    private BigDecimal increment(final int scale) {
+        return BigDecimal.valueOf(0.1).pow(scale, MathContext.DECIMAL64);
     }
 
 }
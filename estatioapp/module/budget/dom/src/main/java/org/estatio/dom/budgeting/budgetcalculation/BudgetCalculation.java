@@ -92,6 +92,11 @@ import lombok.Setter;
                 value = "SELECT " +
                         "FROM org.estatio.dom.budgeting.budgetcalculation.BudgetCalculation " +
                         "WHERE partitionItem == :partitionItem"),
+        @Query(
+                name = "findByBudget", language = "JDOQL",
+                value = "SELECT " +
+                        "FROM org.estatio.dom.budgeting.budgetcalculation.BudgetCalculation " +
+                        "WHERE budget == :budget"),
         @Query(
                 name = "findByBudgetAndStatus", language = "JDOQL",
                 value = "SELECT " +
@@ -2,10 +2,14 @@ package org.estatio.dom.budgeting.budgetcalculation;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
 import org.estatio.dom.asset.Unit;
@@ -53,6 +57,50 @@ public class BudgetCalculationRepository extends UdoDomainRepositoryAndFactory<B
                 findUnique(partitionItem, keyItem, calculationType);
     }
 
+    /**
+     * As {@link #findOrCreateBudgetCalculation(PartitionItem, KeyItem, BigDecimal, BudgetCalculationType)} for each
+     * of the results, but looks up the existing calculations of the budget with a single query; the new calculations
+     * are persisted without any query in between.
+     */
+    @Programmatic
+    public List<BudgetCalculation> findOrCreateBudgetCalculations(
+            final Budget budget,
+            final List<BudgetCalculationViewmodel> results) {
+        final Map<List<Object>, BudgetCalculation> calculationsByKey = new HashMap<>();
+        for (BudgetCalculation calculation : findByBudget(budget)) {
+            calculationsByKey.put(
+                    Arrays.asList(calculation.getPartitionItem(), calculation.getKeyItem(), calculation.getCalculationType()),
+                    calculation);
+        }
+        final List<BudgetCalculation> calculations = new ArrayList<>(results.size());
+        for (BudgetCalculationViewmodel result : results) {
+            final List<Object> key = Arrays.asList(result.getPartitionItem(), result.getKeyItem(), result.getCalculationType());
+            BudgetCalculation calculation = calculationsByKey.get(key);
+            if (calculation == null) {
+                calculation = createBudgetCalculation(
+                        result.getPartitionItem(),
+                        result.getKeyItem(),
+                        result.getValue(),
+                        result.getCalculationType());
+                calculationsByKey.put(key, calculation);
+            }
+            calculations.add(calculation);
+        }
+        return calculations;
+    }
+
+    /**
+     * As {@link BudgetCalculation#removeWithStatusNew()} for every calculation of the budget, flushing once.
+     */
+    public void removeWithStatusNew(final Budget budget) {
+        for (BudgetCalculation calculation : findByBudget(budget)) {
+            if (calculation.getStatus() == Status.NEW) {
+                getContainer().remove(calculation);
+            }
+        }
+        getContainer().flush();
+    }
+
     public BudgetCalculation findUnique(
             final PartitionItem partitionItem,
             final KeyItem keyItem,
@@ -96,14 +144,7 @@ public class BudgetCalculationRepository extends UdoDomainRepositoryAndFactory<B
     }
 
     public List<BudgetCalculation> findByBudget(final Budget budget) {
-        List<BudgetCalculation> result = new ArrayList<>();
-        for (BudgetItem item : budget.getItems()){
-
-            result.addAll(findByBudgetItemAndCalculationType(item, BudgetCalculationType.ACTUAL));
-            result.addAll(findByBudgetItemAndCalculationType(item, BudgetCalculationType.BUDGETED));
-
-        }
-        return result;
+        return allMatches("findByBudget", "budget", budget);
     }
 
     public List<BudgetCalculation> findByBudgetAndCalculationType(final Budget budget, final BudgetCalculationType calculationType) {
@@ -3,7 +3,9 @@ package org.estatio.dom.budgeting.budgetcalculation;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
@@ -13,8 +15,18 @@ import org.apache.isis.applib.annotation.NatureOfService;
 import org.estatio.dom.budgeting.partioning.PartitionItem;
 import org.estatio.dom.budgeting.budget.Budget;
 import org.estatio.dom.budgeting.budgetitem.BudgetItem;
-import org.estatio.dom.budgeting.keyitem.KeyItem;
-
+import org.estatio.dom.budgeting.keytable.KeyTable;
+
+/**
+ * Calculates the budget calculations of a budget: the share of every unit in the budgeted (and audited) value of
+ * each partition item, according to the partition item's key table.
+ *
+ * <p>
+ * The items and values of every key table are read once per budget, rather than once per partition item, and the
+ * calculations are persisted after looking up the budget's existing ones with a single query, so that the new
+ * calculations are inserted in one flush instead of each after its own look-up.
+ * </p>
+ */
 @DomainService(nature = NatureOfService.DOMAIN)
 public class BudgetCalculationService {
 
@@ -22,111 +34,87 @@ public class BudgetCalculationService {
 
         removeNewCalculations(budget);
 
-        List<BudgetCalculation> budgetCalculations = new ArrayList<>();
-        for (BudgetCalculationViewmodel result : getBudgetedCalculations(budget)){
-            budgetCalculations.add(
-                    budgetCalculationRepository.findOrCreateBudgetCalculation(
-                    result.getPartitionItem(),
-                    result.getKeyItem(),
-                    result.getValue(),
-                    result.getCalculationType())
-            );
-        }
-        return budgetCalculations;
+        return budgetCalculationRepository.findOrCreateBudgetCalculations(budget, getBudgetedCalculations(budget));
     }
 
     public void removeNewCalculations(final Budget budget) {
-        for (BudgetCalculation calc : budgetCalculationRepository.findByBudget(budget)){
-            calc.removeWithStatusNew();
-        }
+        budgetCalculationRepository.removeWithStatusNew(budget);
     }
 
     public List<BudgetCalculationViewmodel> getBudgetedCalculations(final Budget budget){
+        final Map<KeyTable, KeyTableValues> keyTableValues = new HashMap<>();
         List<BudgetCalculationViewmodel> budgetCalculationViewmodels = new ArrayList<>();
         for (BudgetItem budgetItem : budget.getItems()) {
 
-            budgetCalculationViewmodels.addAll(calculate(budgetItem, BudgetCalculationType.BUDGETED));
+            budgetCalculationViewmodels.addAll(calculate(budgetItem, BudgetCalculationType.BUDGETED, keyTableValues));
 
         }
         return budgetCalculationViewmodels;
     }
 
     public List<BudgetCalculationViewmodel> getAuditedCalculations(final Budget budget){
+        final Map<KeyTable, KeyTableValues> keyTableValues = new HashMap<>();
         List<BudgetCalculationViewmodel> budgetCalculationViewmodels = new ArrayList<>();
         for (BudgetItem budgetItem : budget.getItems()) {
 
-            budgetCalculationViewmodels.addAll(calculate(budgetItem, BudgetCalculationType.ACTUAL));
+            budgetCalculationViewmodels.addAll(calculate(budgetItem, BudgetCalculationType.ACTUAL, keyTableValues));
 
         }
         return budgetCalculationViewmodels;
     }
 
     public List<BudgetCalculationViewmodel> getAllCalculations(final Budget budget){
+        final Map<KeyTable, KeyTableValues> keyTableValues = new HashMap<>();
         List<BudgetCalculationViewmodel> budgetCalculationViewmodels = new ArrayList<>();
         for (BudgetItem budgetItem : budget.getItems()) {
 
-            budgetCalculationViewmodels.addAll(calculate(budgetItem, BudgetCalculationType.BUDGETED));
-            budgetCalculationViewmodels.addAll(calculate(budgetItem, BudgetCalculationType.ACTUAL));
+            budgetCalculationViewmodels.addAll(calculate(budgetItem, BudgetCalculationType.BUDGETED, keyTableValues));
+            budgetCalculationViewmodels.addAll(calculate(budgetItem, BudgetCalculationType.ACTUAL, keyTableValues));
 
         }
         return budgetCalculationViewmodels;
     }
 
-    private List<BudgetCalculationViewmodel> calculate(final BudgetItem budgetItem, final BudgetCalculationType type) {
+    private List<BudgetCalculationViewmodel> calculate(
+            final BudgetItem budgetItem,
+            final BudgetCalculationType type,
+            final Map<KeyTable, KeyTableValues> keyTableValues) {
 
         List<BudgetCalculationViewmodel> result = new ArrayList<>();
+        // the value is looked up once for all partition items
+        final BigDecimal value = type == BudgetCalculationType.BUDGETED
+                ? budgetItem.getBudgetedValue()
+                : budgetItem.getAuditedValue();
+        if (value == null) {
+            // not audited (yet)
+            return result;
+        }
         for (PartitionItem partitionItem : budgetItem.getPartitionItems()) {
 
-            result.addAll(calculate(partitionItem, type));
+            KeyTableValues values = keyTableValues.get(partitionItem.getKeyTable());
+            if (values == null) {
+                values = KeyTableValues.of(partitionItem.getKeyTable());
+                keyTableValues.put(partitionItem.getKeyTable(), values);
+            }
+            BigDecimal total = percentageOf(value, partitionItem.getPercentage());
+            result.addAll(calculateForTotalAndType(partitionItem, total, type, values));
 
         }
 
         return result;
     }
 
-    private List<BudgetCalculationViewmodel> calculate(final PartitionItem partitionItem, final BudgetCalculationType type) {
-
-        List<BudgetCalculationViewmodel> results = new ArrayList<>();
-
-        switch (type) {
-            case BUDGETED:
-                BigDecimal budgetedTotal = percentageOf(partitionItem.getBudgetItem().getBudgetedValue(), partitionItem.getPercentage());
-                results.addAll(calculateForTotalAndType(partitionItem, budgetedTotal, BudgetCalculationType.BUDGETED));
-            break;
-
-            case ACTUAL:
-                if (partitionItem.getBudgetItem().getAuditedValue() != null) {
-                    BigDecimal auditedTotal = percentageOf(partitionItem.getBudgetItem().getAuditedValue(), partitionItem.getPercentage());
-                    results.addAll(calculateForTotalAndType(partitionItem, auditedTotal, BudgetCalculationType.ACTUAL));
-                }
-            break;
-        }
-
-        return results;
-    }
-
-    private List<BudgetCalculationViewmodel> calculateForTotalAndType(final PartitionItem partitionItem, final BigDecimal total, final BudgetCalculationType calculationType) {
-
-        List<BudgetCalculationViewmodel> results = new ArrayList<>();
-
-        BigDecimal divider = partitionItem.getKeyTable().getKeyValueMethod().divider(partitionItem.getKeyTable());
-
-        for (KeyItem keyItem : partitionItem.getKeyTable().getItems()) {
-
-            BudgetCalculationViewmodel calculationResult;
-
-
-            calculationResult = new BudgetCalculationViewmodel(
-                    partitionItem,
-                    keyItem,
-                    total.multiply(keyItem.getValue()).
-                            divide(divider, MathContext.DECIMAL64).
-                            setScale(keyItem.getKeyTable().getPrecision(), BigDecimal.ROUND_HALF_UP),
-                    calculationType);
-
+    private List<BudgetCalculationViewmodel> calculateForTotalAndType(
+            final PartitionItem partitionItem,
+            final BigDecimal total,
+            final BudgetCalculationType calculationType,
+            final KeyTableValues keyTableValues) {
 
+        List<BudgetCalculationViewmodel> results = new ArrayList<>(keyTableValues.size());
 
-            results.add(calculationResult);
+        BigDecimal[] values = keyTableValues.distribute(total);
+        for (int i = 0; i < values.length; i++) {
+            results.add(new BudgetCalculationViewmodel(partitionItem, keyTableValues.keyItem(i), values[i], calculationType));
         }
 
         return results;
@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.math.MathContext;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -588,4 +589,143 @@ public class DistributionService_Test {
 
     }
 
+    /**
+     * Distributes random key tables with both {@link DistributionService#distribute(List, BigDecimal, int)} and the
+     * original, {@link BigDecimal}-only, implementation, which must give exactly the same values.
+     */
+    public static class ComparedToOriginal {
+
+        final Random random = new Random(42);
+
+        @Test
+        public void key_tables() {
+            for (int run = 0; run < 2000; run++) {
+                final List<BigDecimal> sourceValues = new ArrayList<>();
+                final int numberOfItems = random.nextInt(50);
+                final int sourceScale = random.nextInt(7);
+                for (int i = 0; i < numberOfItems; i++) {
+                    sourceValues.add(random.nextInt(5) == 0
+                            ? BigDecimal.ZERO
+                            : BigDecimal.valueOf(random.nextInt(100000000), random.nextInt(sourceScale + 1)).setScale(sourceScale));
+                }
+                final BigDecimal targetTotal = random.nextBoolean()
+                        ? new BigDecimal(random.nextBoolean() ? "1000" : "100")
+                        : BigDecimal.valueOf(random.nextInt(1000000000), random.nextInt(5));
+
+                assertSameAsOriginal(sourceValues, targetTotal, random.nextInt(7));
+            }
+        }
+
+        @Test
+        public void beyond_sixteen_digits() {
+            for (int run = 0; run < 200; run++) {
+                final List<BigDecimal> sourceValues = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    sourceValues.add(BigDecimal.valueOf(Math.abs(random.nextLong()), 6));
+                }
+
+                assertSameAsOriginal(sourceValues, new BigDecimal("1000"), random.nextInt(7));
+            }
+        }
+
+        @Test
+        public void large_key_table() {
+            final List<BigDecimal> sourceValues = new ArrayList<>();
+            for (int i = 0; i < 10000; i++) {
+                sourceValues.add(BigDecimal.valueOf(1000 + random.nextInt(500000), 2).setScale(6));
+            }
+
+            assertSameAsOriginal(sourceValues, new BigDecimal("1000"), 6);
+        }
+
+        void assertSameAsOriginal(final List<BigDecimal> sourceValues, final BigDecimal targetTotal, final int precision) {
+            final List<Distributable> input = new ArrayList<>();
+            final List<Distributable> originalInput = new ArrayList<>();
+            for (BigDecimal sourceValue : sourceValues) {
+                KeyItem item = new KeyItem();
+                item.setSourceValue(sourceValue);
+                input.add(item);
+                KeyItem originalItem = new KeyItem();
+                originalItem.setSourceValue(sourceValue);
+                originalInput.add(originalItem);
+            }
+
+            final List<Distributable> output = new DistributionService().distribute(input, targetTotal, precision);
+            final List<Distributable> originalOutput = originalDistribute(originalInput, targetTotal, precision);
+
+            final List<BigDecimal> values = new ArrayList<>();
+            for (Distributable distributable : output) {
+                values.add(distributable.getValue());
+            }
+            final List<BigDecimal> originalValues = new ArrayList<>();
+            for (Distributable distributable : originalOutput) {
+                originalValues.add(distributable.getValue());
+            }
+            assertThat(values)
+                    .as("%s distributed over %s at precision %d", targetTotal, sourceValues, precision)
+                    .isEqualTo(originalValues);
+        }
+
+        /**
+         * The original algorithm, which rescans all items for every unit of rounding to correct.
+         */
+        static List<Distributable> originalDistribute(
+                final List<Distributable> input,
+                final BigDecimal targetTotal,
+                final int precision) {
+
+            BigDecimal denominator = BigDecimal.ZERO;
+            for (Distributable distributable : input) {
+                denominator = denominator.add(distributable.getSourceValue(), MathContext.DECIMAL64);
+            }
+            if (denominator.compareTo(BigDecimal.ZERO) <= 0) {
+                for (Distributable inputItem : input) {
+                    inputItem.setValue(BigDecimal.ZERO);
+                }
+                return input;
+            }
+
+            List<BigDecimal> deltas = new ArrayList<>();
+            List<Boolean> corrected = new ArrayList<>();
+            for (Distributable distributable : input) {
+                BigDecimal unroundedTargetValue = distributable.getSourceValue().multiply(targetTotal, MathContext.DECIMAL64).divide(denominator, MathContext.DECIMAL64);
+                BigDecimal roundedTargetValue = unroundedTargetValue.setScale(precision, BigDecimal.ROUND_HALF_UP);
+                distributable.setValue(roundedTargetValue);
+                deltas.add(roundedTargetValue.subtract(unroundedTargetValue, MathContext.DECIMAL64));
+                corrected.add(false);
+            }
+
+            BigDecimal sumOfCalculatedRoundedValues = BigDecimal.ZERO;
+            for (Distributable distributable : input) {
+                sumOfCalculatedRoundedValues = sumOfCalculatedRoundedValues.add(distributable.getValue(), MathContext.DECIMAL64);
+            }
+            BigDecimal validTotal = targetTotal.setScale(precision, BigDecimal.ROUND_HALF_UP);
+            BigDecimal deltaOfSum = sumOfCalculatedRoundedValues.subtract(validTotal, MathContext.DECIMAL64);
+            BigDecimal increment = BigDecimal.valueOf(0.1).pow(precision, MathContext.DECIMAL64);
+            int numberOfIterationsNeeded = deltaOfSum.abs().multiply(new BigDecimal(10).pow(precision, MathContext.DECIMAL64)).intValue();
+
+            for (int i = 0; i < numberOfIterationsNeeded; i++) {
+                boolean roundUp = sumOfCalculatedRoundedValues.compareTo(validTotal) < 0;
+                BigDecimal limit = roundUp ? new BigDecimal(-1) : BigDecimal.ONE;
+                int toCorrect = -1;
+                for (int j = 0; j < input.size(); j++) {
+                    if (deltas.get(j).compareTo(limit) == (roundUp ? 1 : -1)
+                            && !corrected.get(j)
+                            && input.get(j).getSourceValue().compareTo(BigDecimal.ZERO) != 0) {
+                        toCorrect = j;
+                    }
+                }
+                Distributable distributable = input.get(toCorrect);
+                distributable.setValue((roundUp
+                        ? distributable.getValue().add(increment, MathContext.DECIMAL64)
+                        : distributable.getValue().subtract(increment, MathContext.DECIMAL64))
+                        .setScale(precision, BigDecimal.ROUND_HALF_UP));
+                corrected.set(toCorrect, true);
+            }
+
+            return new ArrayList<>(input);
+        }
+
+    }
+
 }
@@ -18,6 +18,8 @@
 package org.estatio.dom.budgeting.budgetcalculation;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.jmock.Expectations;
@@ -176,6 +178,81 @@ public class BudgetCalculationRepository_Test {
 
     }
 
+    public static class FindByBudget extends BudgetCalculationRepository_Test {
+
+        @Test
+        public void happyCase() {
+
+            Budget budget = new Budget();
+            budgetCalculationRepository.findByBudget(budget);
+
+            assertThat(finderInteraction.getFinderMethod()).isEqualTo(FinderInteraction.FinderMethod.ALL_MATCHES);
+            assertThat(finderInteraction.getResultType()).isEqualTo(BudgetCalculation.class);
+            assertThat(finderInteraction.getQueryName()).isEqualTo("findByBudget");
+            assertThat(finderInteraction.getArgumentsByParameterName().get("budget")).isEqualTo((Object) budget);
+            assertThat(finderInteraction.getArgumentsByParameterName()).hasSize(1);
+        }
+
+    }
+
+    public static class FindOrCreateBudgetCalculations extends BudgetCalculationRepository_Test {
+
+        Budget budget = new Budget();
+        PartitionItem partitionItem = new PartitionItem();
+        KeyItem keyItem1 = new KeyItem();
+        KeyItem keyItem2 = new KeyItem();
+        BudgetCalculation existing = new BudgetCalculation();
+        List<BudgetCalculation> created = new ArrayList<>();
+
+        @Before
+        public void setup() {
+            existing.setPartitionItem(partitionItem);
+            existing.setKeyItem(keyItem1);
+            existing.setCalculationType(BudgetCalculationType.BUDGETED);
+            budgetCalculationRepository = new BudgetCalculationRepository() {
+                @Override
+                public List<BudgetCalculation> findByBudget(final Budget budget) {
+                    return Arrays.asList(existing);
+                }
+
+                @Override
+                public BudgetCalculation createBudgetCalculation(
+                        final PartitionItem partitionItem,
+                        final KeyItem keyItem,
+                        final BigDecimal value,
+                        final BudgetCalculationType calculationType) {
+                    BudgetCalculation budgetCalculation = new BudgetCalculation();
+                    budgetCalculation.setPartitionItem(partitionItem);
+                    budgetCalculation.setKeyItem(keyItem);
+                    budgetCalculation.setValue(value);
+                    budgetCalculation.setCalculationType(calculationType);
+                    created.add(budgetCalculation);
+                    return budgetCalculation;
+                }
+            };
+        }
+
+        @Test
+        public void creates_only_the_missing_calculations() {
+
+            // when
+            List<BudgetCalculation> calculations = budgetCalculationRepository.findOrCreateBudgetCalculations(budget, Arrays.asList(
+                    new BudgetCalculationViewmodel(partitionItem, keyItem1, new BigDecimal("10.00"), BudgetCalculationType.BUDGETED),
+                    new BudgetCalculationViewmodel(partitionItem, keyItem2, new BigDecimal("20.00"), BudgetCalculationType.BUDGETED),
+                    new BudgetCalculationViewmodel(partitionItem, keyItem1, new BigDecimal("30.00"), BudgetCalculationType.ACTUAL)));
+
+            // then
+            assertThat(calculations).hasSize(3);
+            assertThat(calculations.get(0)).isSameAs(existing);
+            assertThat(calculations.subList(1, 3)).isEqualTo(created);
+            assertThat(created.get(0).getKeyItem()).isSameAs(keyItem2);
+            assertThat(created.get(0).getValue()).isEqualTo(new BigDecimal("20.00"));
+            assertThat(created.get(1).getKeyItem()).isSameAs(keyItem1);
+            assertThat(created.get(1).getCalculationType()).isEqualTo(BudgetCalculationType.ACTUAL);
+        }
+
+    }
+
     @Rule
     public JUnitRuleMockery2 context = JUnitRuleMockery2.createFor(JUnitRuleMockery2.Mode.INTERFACES_AND_CLASSES);
 
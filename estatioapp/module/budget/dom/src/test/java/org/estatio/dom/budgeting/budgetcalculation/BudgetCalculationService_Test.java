@@ -20,6 +20,7 @@ package org.estatio.dom.budgeting.budgetcalculation;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.SortedSet;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -200,4 +201,69 @@ public class BudgetCalculationService_Test {
 
     }
 
+    public static class SharedKeyTable extends BudgetCalculationService_Test {
+
+        int numberOfReads;
+
+        @Test
+        public void key_table_read_once_per_budget() {
+
+            // given
+            final KeyTable keyTable = new KeyTable() {
+                @Override
+                public SortedSet<KeyItem> getItems() {
+                    numberOfReads++;
+                    return super.getItems();
+                }
+            };
+            keyTable.setKeyValueMethod(KeyValueMethod.PROMILLE);
+            keyTable.setPrecision(3);
+            final KeyItem keyItem = new KeyItem();
+            keyItem.setValue(new BigDecimal("250.000"));
+            keyItem.setKeyTable(keyTable);
+            keyTable.getItems().add(keyItem);
+            numberOfReads = 0;
+
+            final Budget budget = new Budget();
+            final PartitionItem partitionItem1 = new PartitionItem();
+            final PartitionItem partitionItem2 = new PartitionItem();
+            final BudgetItem budgetItem = new BudgetItem(){
+                @Override
+                public BigDecimal getBudgetedValue(){
+                    return new BigDecimal("1000.00");
+                }
+                @Override
+                public BigDecimal getAuditedValue(){
+                    return new BigDecimal("1200.00");
+                }
+                @Override
+                public List<PartitionItem> getPartitionItems(){
+                    return Arrays.asList(partitionItem1, partitionItem2);
+                }
+            };
+            for (PartitionItem partitionItem : Arrays.asList(partitionItem1, partitionItem2)) {
+                partitionItem.setBudgetItem(budgetItem);
+                partitionItem.setKeyTable(keyTable);
+            }
+            partitionItem1.setPercentage(new BigDecimal("60.00"));
+            partitionItem2.setPercentage(new BigDecimal("40.00"));
+            budget.getItems().add(budgetItem);
+
+            // when
+            List<BudgetCalculationViewmodel> results = new BudgetCalculationService().getAllCalculations(budget);
+
+            // then
+            assertThat(numberOfReads).isEqualTo(1);
+            assertThat(results).hasSize(4);
+            assertThat(results.get(0).getPartitionItem()).isSameAs(partitionItem1);
+            assertThat(results.get(0).getValue()).isEqualTo(new BigDecimal("150.000"));
+            assertThat(results.get(1).getPartitionItem()).isSameAs(partitionItem2);
+            assertThat(results.get(1).getValue()).isEqualTo(new BigDecimal("100.000"));
+            assertThat(results.get(2).getCalculationType()).isEqualTo(BudgetCalculationType.ACTUAL);
+            assertThat(results.get(2).getValue()).isEqualTo(new BigDecimal("180.000"));
+            assertThat(results.get(3).getValue()).isEqualTo(new BigDecimal("120.000"));
+        }
+
+    }
+
 }
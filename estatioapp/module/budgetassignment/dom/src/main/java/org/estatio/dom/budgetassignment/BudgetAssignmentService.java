@@ -18,6 +18,7 @@ import org.estatio.dom.budgetassignment.calculationresult.BudgetCalculationResul
 import org.estatio.dom.budgetassignment.calculationresult.BudgetCalculationResultRepository;
 import org.estatio.dom.budgetassignment.calculationresult.BudgetCalculationRun;
 import org.estatio.dom.budgetassignment.calculationresult.BudgetCalculationRunRepository;
+import org.estatio.dom.budgetassignment.calculationresult.BudgetCalculationSnapshot;
 import org.estatio.dom.budgetassignment.override.BudgetOverride;
 import org.estatio.dom.budgetassignment.override.BudgetOverrideRepository;
 import org.estatio.dom.budgetassignment.override.BudgetOverrideValue;
@@ -25,6 +26,7 @@ import org.estatio.dom.budgetassignment.viewmodels.CalculationResultViewModel;
 import org.estatio.dom.budgetassignment.viewmodels.DetailedCalculationResultViewmodel;
 import org.estatio.dom.budgeting.budget.Budget;
 import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculation;
+import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculationRepository;
 import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculationType;
 import org.estatio.dom.budgeting.budgetcalculation.Status;
 import org.estatio.dom.budgeting.budgetitem.BudgetItem;
@@ -44,24 +46,57 @@ import org.estatio.dom.lease.LeaseTermForServiceCharge;
 import org.estatio.dom.lease.LeaseTermRepository;
 import org.estatio.dom.lease.Occupancy;
 
+/**
+ * Calculates the {@link BudgetCalculationResult result}s of a budget for the leases of its property, and assigns
+ * them to the leases.
+ *
+ * <p>
+ * The budget calculations are read once per budget, as a {@link BudgetCalculationSnapshot snapshot} that every
+ * lease's results are calculated from; as the snapshot is immutable and holds no entities,
+ * {@link #calculateResultsForLease(Lease, Budget, BudgetCalculationType, BudgetCalculationSnapshot)} can also be
+ * called for different leases in sessions of their own.
+ * </p>
+ */
 @DomainService(nature = NatureOfService.DOMAIN)
 public class BudgetAssignmentService {
 
     public List<BudgetCalculationRun> calculateResultsForLeases(final Budget budget, final BudgetCalculationType type){
         List<BudgetCalculationRun> results = new ArrayList<>();
 
+        final BudgetCalculationSnapshot snapshot = snapshotOf(budget);
         for (Lease lease : leasesWithActiveOccupations(budget)) {
-            removeNewOverrideValues(lease);
-            calculateOverrideValues(lease, budget);
-            results.add(executeCalculationRun(lease, budget, type));
+            results.add(calculateResultsForLease(lease, budget, type, snapshot));
         }
 
         return results;
     }
 
-    List<Lease> leasesWithActiveOccupations(final Budget budget){
+    public BudgetCalculationRun calculateResultsForLease(
+            final Lease lease,
+            final Budget budget,
+            final BudgetCalculationType type,
+            final BudgetCalculationSnapshot snapshot){
+        removeNewOverrideValues(lease);
+        calculateOverrideValues(lease, budget);
+        return executeCalculationRun(lease, budget, type, snapshot);
+    }
+
+    public BudgetCalculationSnapshot snapshotOf(final Budget budget){
+        return BudgetCalculationSnapshot.of(budgetCalculationRepository.findByBudget(budget));
+    }
+
+    /**
+     * The leases, other than terminated ones, with an occupancy of a unit of the budget's property that overlaps the
+     * budget's interval.
+     *
+     * <p>
+     * The leases are selected by a single query, and then checked again against their occupancies, which are
+     * fetched along with them.
+     * </p>
+     */
+    public List<Lease> leasesWithActiveOccupations(final Budget budget){
         List<Lease> result = new ArrayList<>();
-        for (Lease lease : leaseRepository.findLeasesByProperty(budget.getProperty())){
+        for (Lease lease : leaseRepository.findLeasesByPropertyWithOccupancyOverlapping(budget.getProperty(), budget.getInterval())){
             // TODO: this is an extra filter because currently occupancies can outrun terminated leases
             if (lease.getStatus()!=LeaseStatus.TERMINATED) {
                 for (Occupancy occupancy : lease.getOccupancies()) {
@@ -76,20 +111,32 @@ public class BudgetAssignmentService {
     }
 
     public BudgetCalculationRun executeCalculationRun(final Lease lease, final Budget budget, final BudgetCalculationType type){
+        return executeCalculationRun(lease, budget, type, snapshotOf(budget));
+    }
+
+    private BudgetCalculationRun executeCalculationRun(
+            final Lease lease,
+            final Budget budget,
+            final BudgetCalculationType type,
+            final BudgetCalculationSnapshot snapshot){
         BudgetCalculationRun run = budgetCalculationRunRepository.findOrCreateNewBudgetCalculationRun(lease, budget, type);
         if (run.getStatus()==Status.NEW) {
-            createBudgetCalculationResults(run);
+            createBudgetCalculationResults(run, snapshot);
         }
         return run;
     }
 
     public void createBudgetCalculationResults(final BudgetCalculationRun run){
+        createBudgetCalculationResults(run, snapshotOf(run.getBudget()));
+    }
+
+    private void createBudgetCalculationResults(final BudgetCalculationRun run, final BudgetCalculationSnapshot snapshot){
 
         run.removeCalculationResults();
         for (Partitioning partitioning : run.getBudget().getPartitionings()){
             for (Charge invoiceCharge : partitioning.getDistinctInvoiceCharges()){
                 BudgetCalculationResult result = run.createCalculationResult(invoiceCharge);
-                result.calculate();
+                result.calculate(snapshot);
             }
         }
 
@@ -286,4 +333,7 @@ public class BudgetAssignmentService {
     @Inject
     private BudgetCalculationResultLinkRepository budgetCalculationResultLinkRepository;
 
+    @Inject
+    private BudgetCalculationRepository budgetCalculationRepository;
+
 }
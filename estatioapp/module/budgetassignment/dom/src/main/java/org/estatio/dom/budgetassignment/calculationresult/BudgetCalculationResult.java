@@ -3,7 +3,7 @@ package org.estatio.dom.budgetassignment.calculationresult;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 import javax.inject.Inject;
 import javax.jdo.annotations.Column;
@@ -30,11 +30,13 @@ import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.incode.module.base.dom.utils.TitleBuilder;
 
 import org.estatio.dom.UdoDomainObject2;
+import org.estatio.dom.asset.Unit;
 import org.estatio.dom.budgetassignment.override.BudgetOverride;
 import org.estatio.dom.budgetassignment.override.BudgetOverrideRepository;
 import org.estatio.dom.budgetassignment.override.BudgetOverrideValue;
 import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculation;
 import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculationRepository;
+import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculationType;
 import org.estatio.dom.charge.Charge;
 import org.estatio.dom.lease.Occupancy;
 
@@ -126,27 +128,69 @@ public class BudgetCalculationResult extends UdoDomainObject2<BudgetCalculationR
 
     @Programmatic
     public void calculate() throws IllegalArgumentException {
+        final List<BudgetCalculation> calculations = getBudgetCalculations();
+        calculate(
+                valueAsCalculatedBy(calculations),
+                incomingCharge -> {
+                    BigDecimal value = BigDecimal.ZERO;
+                    for (BudgetCalculation calculation : calculations) {
+                        if (calculation.getIncomingCharge().equals(incomingCharge)) {
+                            value = value.add(calculation.getValue());
+                        }
+                    }
+                    return value;
+                });
+    }
+
+    /**
+     * As {@link #calculate()}, taking the budget calculations of the lease's units from the snapshot rather than
+     * querying them.
+     */
+    @Programmatic
+    public void calculate(final BudgetCalculationSnapshot snapshot) throws IllegalArgumentException {
+        final BudgetCalculationType type = getBudgetCalculationRun().getType();
+        final List<Unit> units = new ArrayList<>();
+        for (Occupancy occupancy : getBudgetCalculationRun().getLease().getOccupancies()) {
+            units.add(occupancy.getUnit());
+        }
+        BigDecimal valueCalculatedByBudget = BigDecimal.ZERO;
+        for (Unit unit : units) {
+            valueCalculatedByBudget = valueCalculatedByBudget.add(snapshot.effectiveValueFor(unit, getInvoiceCharge(), type));
+        }
+        calculate(
+                valueCalculatedByBudget,
+                incomingCharge -> {
+                    BigDecimal value = BigDecimal.ZERO;
+                    for (Unit unit : units) {
+                        value = value.add(snapshot.valueFor(unit, getInvoiceCharge(), type, incomingCharge));
+                    }
+                    return value;
+                });
+    }
+
+    private void calculate(
+            final BigDecimal valueCalculatedByBudget,
+            final Function<Charge, BigDecimal> valueCalculatedForIncomingCharge) throws IllegalArgumentException {
 
         validateOverrides();
 
-        BigDecimal valueCalculatedByBudget = valueAsCalculatedByBudget();
+        final List<BudgetOverrideValue> overrideValues = getOverrideValues();
+        final BudgetOverrideValue overrideValueForInvoiceCharge = overrideValueForInvoiceCharge(overrideValues);
         BigDecimal annualOverrideValue = BigDecimal.ZERO;
         List<Charge> incomingChargesOnOverrides = new ArrayList<>();
 
-        if (overrideValueForInvoiceCharge()!=null){
+        if (overrideValueForInvoiceCharge!=null){
             // SCENARIO: one override for all
-            annualOverrideValue = annualOverrideValue.add(overrideValueForInvoiceCharge().getValue());
+            annualOverrideValue = annualOverrideValue.add(overrideValueForInvoiceCharge.getValue());
         } else {
             // SCENARIO: overrides on incoming charge level
             BigDecimal valueToSubtract = BigDecimal.ZERO;
-            for (BudgetOverrideValue value : getOverrideValues()) {
+            for (BudgetOverrideValue value : overrideValues) {
                 incomingChargesOnOverrides.add(value.getBudgetOverride().getIncomingCharge());
                 annualOverrideValue = annualOverrideValue.add(value.getValue());
             }
             for (Charge charge : incomingChargesOnOverrides){
-                for (BudgetCalculation calculation : getBudgetCalculations().stream().filter(x->x.getIncomingCharge().equals(charge)).collect(Collectors.toList())){
-                    valueToSubtract = valueToSubtract.add(calculation.getValue());
-                }
+                valueToSubtract = valueToSubtract.add(valueCalculatedForIncomingCharge.apply(charge));
             }
             annualOverrideValue = annualOverrideValue.add(valueCalculatedByBudget).subtract(valueToSubtract);
         }
@@ -161,9 +205,13 @@ public class BudgetCalculationResult extends UdoDomainObject2<BudgetCalculationR
 
     @Programmatic
     public BudgetOverrideValue overrideValueForInvoiceCharge(){
-        return (getOverrideValues().size()==1 && getOverrideValues().get(0).getBudgetOverride().getIncomingCharge()==null)
+        return overrideValueForInvoiceCharge(getOverrideValues());
+    }
+
+    private static BudgetOverrideValue overrideValueForInvoiceCharge(final List<BudgetOverrideValue> overrideValues){
+        return (overrideValues.size()==1 && overrideValues.get(0).getBudgetOverride().getIncomingCharge()==null)
                 ?
-                getOverrideValues().get(0)
+                overrideValues.get(0)
                 :
                 null;
     }
@@ -176,8 +224,12 @@ public class BudgetCalculationResult extends UdoDomainObject2<BudgetCalculationR
 
     @Programmatic
     public BigDecimal valueAsCalculatedByBudget(){
+        return valueAsCalculatedBy(getBudgetCalculations());
+    }
+
+    private static BigDecimal valueAsCalculatedBy(final List<BudgetCalculation> calculations){
         BigDecimal valueCalculatedByBudget = BigDecimal.ZERO;
-        for (BudgetCalculation calculation : getBudgetCalculations()){
+        for (BudgetCalculation calculation : calculations){
             valueCalculatedByBudget = valueCalculatedByBudget.add(calculation.getEffectiveValue());
         }
         return valueCalculatedByBudget;
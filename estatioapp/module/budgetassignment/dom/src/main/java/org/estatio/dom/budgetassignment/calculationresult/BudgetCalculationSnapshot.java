@@ -0,0 +1,91 @@
+package org.estatio.dom.budgetassignment.calculationresult;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.estatio.dom.asset.Unit;
+import org.estatio.dom.budgeting.budget.Budget;
+import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculation;
+import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculationType;
+import org.estatio.dom.charge.Charge;
+
+/**
+ * The values of the {@link BudgetCalculation}s of a {@link Budget}, read once and totalled by unit, invoice charge
+ * and type, and by incoming charge within those, so that the {@link BudgetCalculationResult result}s of all leases
+ * can be {@link BudgetCalculationResult#calculate(BudgetCalculationSnapshot) calculated} without querying the
+ * calculations lease by lease.
+ *
+ * <p>
+ * A snapshot holds no entities, only the references of the units and charges, and is immutable, so it can be shared
+ * by calculations running in other sessions and threads.
+ * </p>
+ */
+public final class BudgetCalculationSnapshot {
+
+    private final Map<List<Object>, BigDecimal> effectiveValues;
+    private final Map<List<Object>, BigDecimal> valuesByIncomingCharge;
+
+    private BudgetCalculationSnapshot(
+            final Map<List<Object>, BigDecimal> effectiveValues,
+            final Map<List<Object>, BigDecimal> valuesByIncomingCharge) {
+        this.effectiveValues = ImmutableMap.copyOf(effectiveValues);
+        this.valuesByIncomingCharge = ImmutableMap.copyOf(valuesByIncomingCharge);
+    }
+
+    public static BudgetCalculationSnapshot of(final List<BudgetCalculation> calculations) {
+        final Map<List<Object>, BigDecimal> effectiveValues = new HashMap<>();
+        final Map<List<Object>, BigDecimal> valuesByIncomingCharge = new HashMap<>();
+        for (BudgetCalculation calculation : calculations) {
+            final String unitReference = calculation.getUnit().getReference();
+            final String invoiceChargeReference = calculation.getInvoiceCharge().getReference();
+            final BudgetCalculationType type = calculation.getCalculationType();
+            effectiveValues.merge(
+                    key(unitReference, invoiceChargeReference, type),
+                    calculation.getEffectiveValue(),
+                    BigDecimal::add);
+            if (calculation.getIncomingCharge() != null) {
+                valuesByIncomingCharge.merge(
+                        key(unitReference, invoiceChargeReference, type, calculation.getIncomingCharge().getReference()),
+                        calculation.getValue(),
+                        BigDecimal::add);
+            }
+        }
+        return new BudgetCalculationSnapshot(effectiveValues, valuesByIncomingCharge);
+    }
+
+    /**
+     * The total of the {@link BudgetCalculation#getEffectiveValue() effective value}s of the calculations of the unit
+     * for the invoice charge and type.
+     */
+    public BigDecimal effectiveValueFor(final Unit unit, final Charge invoiceCharge, final BudgetCalculationType type) {
+        final BigDecimal value = effectiveValues.get(key(unit.getReference(), invoiceCharge.getReference(), type));
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    /**
+     * The total of the {@link BudgetCalculation#getValue() value}s of the calculations of the unit for the invoice
+     * charge and type that stem from the incoming charge.
+     */
+    public BigDecimal valueFor(
+            final Unit unit,
+            final Charge invoiceCharge,
+            final BudgetCalculationType type,
+            final Charge incomingCharge) {
+        if (incomingCharge == null) {
+            return BigDecimal.ZERO;
+        }
+        final BigDecimal value = valuesByIncomingCharge.get(
+                key(unit.getReference(), invoiceCharge.getReference(), type, incomingCharge.getReference()));
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    private static List<Object> key(final Object... members) {
+        return Arrays.asList(members);
+    }
+
+}
@@ -13,6 +13,8 @@ import org.junit.Test;
 
 import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2;
 
+import org.incode.module.base.dom.valuetypes.LocalDateInterval;
+
 import org.estatio.dom.asset.Property;
 import org.estatio.dom.budgeting.budget.Budget;
 import org.estatio.dom.lease.Lease;
@@ -33,6 +35,9 @@ public class BudgetAssignmentService_Test {
     Occupancy o3;
     Occupancy o4;
     Occupancy o5;
+    Property property;
+    Property propertyQueried;
+    LocalDateInterval intervalQueried;
 
     @Rule
     public JUnitRuleMockery2 context = JUnitRuleMockery2.createFor(JUnitRuleMockery2.Mode.INTERFACES_AND_CLASSES);
@@ -74,14 +79,18 @@ public class BudgetAssignmentService_Test {
             }
         };
 
+        property = new Property();
         budget = new Budget();
+        budget.setProperty(property);
         LocalDate startDate = new LocalDate(2015,01,01);
         LocalDate endDate = new LocalDate(2015,12,31);
         budget.setStartDate(startDate);
         budget.setEndDate(endDate);
         LeaseRepository leaseRepository = new LeaseRepository(){
             @Override
-            public List<Lease> findLeasesByProperty(final Property property) {
+            public List<Lease> findLeasesByPropertyWithOccupancyOverlapping(final Property property, final LocalDateInterval interval) {
+                propertyQueried = property;
+                intervalQueried = interval;
                 return Arrays.asList(
                         leaseWith1ActiveOccupancy,
                         leaseWith2ActiveOccupancies,
@@ -111,6 +120,9 @@ public class BudgetAssignmentService_Test {
         Assertions.assertThat(leasesfound.size()).isEqualTo(2);
         Assertions.assertThat(leasesfound.get(0)).isEqualTo(leaseWith1ActiveOccupancy);
         Assertions.assertThat(leasesfound.get(1)).isEqualTo(leaseWith2ActiveOccupancies);
+        Assertions.assertThat(propertyQueried).isSameAs(property);
+        Assertions.assertThat(intervalQueried.startDate()).isEqualTo(new LocalDate(2015,01,01));
+        Assertions.assertThat(intervalQueried.endDate()).isEqualTo(new LocalDate(2015,12,31));
     }
 
 
@@ -19,7 +19,10 @@ package org.estatio.dom.budgetassignment.calculationresult;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -28,11 +31,15 @@ import org.junit.rules.ExpectedException;
 
 import org.incode.module.unittestsupport.dom.bean.AbstractBeanPropertiesTest;
 
+import org.estatio.dom.asset.Unit;
 import org.estatio.dom.budgetassignment.override.BudgetOverride;
 import org.estatio.dom.budgetassignment.override.BudgetOverrideDummy;
 import org.estatio.dom.budgetassignment.override.BudgetOverrideValue;
 import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculation;
+import org.estatio.dom.budgeting.budgetcalculation.BudgetCalculationType;
 import org.estatio.dom.charge.Charge;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.Occupancy;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -165,4 +172,105 @@ public class BudgetCalculationResult_Test {
 
     }
 
+    public static class CalculateFromSnapshotTest extends BudgetCalculationResult_Test {
+
+        BudgetCalculationResult budgetCalculationResult;
+        Charge invoiceCharge = new Charge("INVOICE");
+        Charge incomingCharge1 = new Charge("INCOMING1");
+        Charge incomingCharge2 = new Charge("INCOMING2");
+        Unit unit = new Unit();
+        Unit otherUnit = new Unit();
+        Lease lease = new Lease(){
+            @Override
+            public SortedSet<Occupancy> getOccupancies(){
+                return new TreeSet<>(Arrays.asList(occupancy));
+            }
+        };
+        Occupancy occupancy = new Occupancy();
+        BudgetCalculationRun run = new BudgetCalculationRun();
+        List<BudgetCalculation> budgetCalculations = new ArrayList<>();
+        List<BudgetOverrideValue> budgetOverrideValues = new ArrayList<>();
+        BudgetOverride budgetOverride = new BudgetOverrideDummy();
+        BudgetOverrideValue bOvVal1 = new BudgetOverrideValue();
+
+        BudgetCalculation budgetCalculation(final Unit unit, final Charge incomingCharge, final BudgetCalculationType type, final String value){
+            BudgetCalculation calculation = new BudgetCalculation(){
+                @Override
+                public BigDecimal getEffectiveValue(){
+                    return getValue();
+                }
+            };
+            calculation.setUnit(unit);
+            calculation.setInvoiceCharge(invoiceCharge);
+            calculation.setIncomingCharge(incomingCharge);
+            calculation.setCalculationType(type);
+            calculation.setValue(new BigDecimal(value));
+            return calculation;
+        }
+
+        @Before
+        public void setUp(){
+            unit.setReference("UNIT");
+            otherUnit.setReference("OTHER");
+            occupancy.setUnit(unit);
+            run.setLease(lease);
+            run.setType(BudgetCalculationType.BUDGETED);
+
+            budgetCalculations.add(budgetCalculation(unit, incomingCharge1, BudgetCalculationType.BUDGETED, "75.00"));
+            budgetCalculations.add(budgetCalculation(unit, incomingCharge2, BudgetCalculationType.BUDGETED, "25.00"));
+            // neither of the lease's units nor of the run's type
+            budgetCalculations.add(budgetCalculation(otherUnit, incomingCharge1, BudgetCalculationType.BUDGETED, "1000.00"));
+            budgetCalculations.add(budgetCalculation(unit, incomingCharge1, BudgetCalculationType.ACTUAL, "1000.00"));
+
+            budgetOverride.setIncomingCharge(incomingCharge1);
+            bOvVal1.setBudgetOverride(budgetOverride);
+            bOvVal1.setValue(new BigDecimal("74.99"));
+            budgetOverrideValues.add(bOvVal1);
+
+            budgetCalculationResult = new BudgetCalculationResult(){
+                @Override
+                public List<BudgetCalculation> getBudgetCalculations(){
+                    throw new AssertionError("calculations are taken from the snapshot");
+                }
+                @Override
+                public List<BudgetOverrideValue> getOverrideValues(){
+                    return budgetOverrideValues;
+                }
+                @Override
+                void validateOverrides(){}
+                @Override
+                public BigDecimal getFractionOfYear(){
+                    return BigDecimal.ONE;
+                }
+            };
+            budgetCalculationResult.setBudgetCalculationRun(run);
+            budgetCalculationResult.setInvoiceCharge(invoiceCharge);
+        }
+
+        @Test
+        public void calculate_Overriding_One_BudgetCalculation() {
+
+            // when
+            budgetCalculationResult.calculate(BudgetCalculationSnapshot.of(budgetCalculations));
+
+            // then
+            assertThat(budgetCalculationResult.getValue()).isEqualTo(new BigDecimal("99.99"));
+            assertThat(budgetCalculationResult.getShortfall()).isEqualTo(new BigDecimal("0.01"));
+
+        }
+
+        @Test
+        public void calculate_Without_BudgetCalculations() {
+
+            // when
+            budgetCalculationResult.calculate(BudgetCalculationSnapshot.of(new ArrayList<>()));
+
+            // then
+            assertThat(budgetCalculationResult.getValue()).isEqualTo(new BigDecimal("74.99"));
+            assertThat(budgetCalculationResult.getShortfall()).isEqualTo(new BigDecimal("-74.99"));
+
+        }
+
+    }
+
 }
@@ -219,11 +219,13 @@ public class Index
         return indexBaseRepository.newIndexBase(this, indexBaseRepository.findByIndexAndDate(this, indexBaseStartDate), indexBaseStartDate, indexBaseFactor);
     }
 
+    /**
+     * Sets the index values and rebase factor of the input, looked up in the cached
+     * {@link IndexTimeSeries time series} of this index.
+     */
     @Programmatic
     public void initialize(final Indexable input) {
-        input.setBaseIndexValue(getIndexValueForDate(input.getBaseIndexStartDate()));
-        input.setNextIndexValue(getIndexValueForDate(input.getNextIndexStartDate()));
-        input.setRebaseFactor(getRebaseFactorForDates(input.getBaseIndexStartDate(), input.getNextIndexStartDate()));
+        indexTimeSeriesCache.timeSeriesFor(this).initialize(input);
     }
 
     @Inject
@@ -232,4 +234,7 @@ public class Index
     @Inject
     private IndexBaseRepository indexBaseRepository;
 
+    @Inject
+    IndexTimeSeriesCache indexTimeSeriesCache;
+
 }
@@ -92,7 +92,13 @@ import lombok.Setter;
                         "FROM org.estatio.dom.index.IndexBase " +
                         "WHERE index == :index " +
                         "&& startDate <= :date " +
-                        "ORDER BY startDate DESC ")
+                        "ORDER BY startDate DESC "),
+        @Query(
+                name = "findByIndex", language = "JDOQL",
+                value = "SELECT " +
+                        "FROM org.estatio.dom.index.IndexBase " +
+                        "WHERE index == :index " +
+                        "ORDER BY startDate ASC ")
 })
 @DomainObject(
         editing = Editing.DISABLED,
@@ -136,9 +142,15 @@ public class IndexBase
     @Persistent
     @Column(scale = FACTOR_SCALE)
     @Property(optionality = Optionality.OPTIONAL)
-    @Getter @Setter
+    @Getter
     private BigDecimal factor;
 
+    public void setFactor(final BigDecimal factor) {
+        this.factor = factor;
+        // so that the rest of this transaction sees the change too
+        invalidateTimeSeries();
+    }
+
     public String validateFactor(final BigDecimal factor) {
         if (getPrevious() == null) {
             return null;
@@ -183,7 +195,20 @@ public class IndexBase
         return last == null ? null : last.getStartDate().plusMonths(1);
     }
 
+    public void updating() {
+        invalidateTimeSeries();
+    }
+
+    private void invalidateTimeSeries() {
+        if (indexTimeSeriesCache != null && getIndex() != null) {
+            indexTimeSeriesCache.invalidate(getIndex());
+        }
+    }
+
     @Inject
     IndexValueRepository indexValueRepository;
 
+    @Inject
+    IndexTimeSeriesCache indexTimeSeriesCache;
+
 }
@@ -21,6 +21,8 @@ package org.estatio.dom.index;
 import java.math.BigDecimal;
 import java.util.List;
 
+import javax.inject.Inject;
+
 import org.joda.time.LocalDate;
 
 import org.apache.isis.applib.annotation.DomainService;
@@ -47,6 +49,7 @@ public class IndexBaseRepository
         indexBase.setFactor(factor);
         indexBase.setIndex(index);
         persistIfNotAlready(indexBase);
+        indexTimeSeriesCache.invalidate(index);
         return indexBase;
     }
 
@@ -80,8 +83,15 @@ public class IndexBaseRepository
         return uniqueMatch("findByIndexAndDate", "index", index, "date", date);
     }
 
+    public List<IndexBase> findByIndex(final Index index) {
+        return allMatches("findByIndex", "index", index);
+    }
+
     public List<IndexBase> allIndexBases() {
         return allInstances();
     }
 
+    @Inject
+    IndexTimeSeriesCache indexTimeSeriesCache;
+
 }
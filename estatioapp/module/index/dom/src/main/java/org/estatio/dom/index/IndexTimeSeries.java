@@ -0,0 +1,149 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.index;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.LocalDate;
+
+/**
+ * Immutable, in-memory copy of the {@link IndexBase base}s and {@link IndexValue value}s of an {@link Index}, as
+ * {@link IndexTimeSeriesCache cached} for indexation.
+ *
+ * <p>
+ * The rebase factors are precomputed for every pair of bases, so that
+ * {@link #rebaseFactorForDates(LocalDate, LocalDate)} gives the same result as
+ * {@link Index#getRebaseFactorForDates(LocalDate, LocalDate)} without walking the {@link IndexBase#getPrevious()
+ * previous} bases.
+ * </p>
+ */
+public final class IndexTimeSeries {
+
+    private final LocalDate[] baseStartDates;
+
+    /**
+     * The factor to rebase a date active in base <tt>k</tt> (or before the first base, if <tt>k</tt> is -1) to base
+     * <tt>i</tt>, held at <tt>[i][k + 1]</tt>; <tt>null</tt> if a factor is missing.
+     */
+    private final BigDecimal[][] rebaseFactors;
+
+    private final Map<LocalDate, Entry> entries;
+
+    private static class Entry {
+        private final BigDecimal value;
+        private final int base;
+
+        Entry(final BigDecimal value, final int base) {
+            this.value = value;
+            this.base = base;
+        }
+    }
+
+    private IndexTimeSeries(
+            final LocalDate[] baseStartDates,
+            final BigDecimal[][] rebaseFactors,
+            final Map<LocalDate, Entry> entries) {
+        this.baseStartDates = baseStartDates;
+        this.rebaseFactors = rebaseFactors;
+        this.entries = entries;
+    }
+
+    /**
+     * @param bases  - the bases of the index, ordered by start date
+     * @param values - the values of those bases
+     */
+    public static IndexTimeSeries of(final List<IndexBase> bases, final List<IndexValue> values) {
+        final int numberOfBases = bases.size();
+        final LocalDate[] baseStartDates = new LocalDate[numberOfBases];
+        final BigDecimal[][] rebaseFactors = new BigDecimal[numberOfBases][];
+        for (int i = 0; i < numberOfBases; i++) {
+            baseStartDates[i] = bases.get(i).getStartDate();
+            rebaseFactors[i] = new BigDecimal[i + 2];
+            // a date active in base i itself is not rebased; every base back adds its factor
+            BigDecimal factor = BigDecimal.ONE;
+            rebaseFactors[i][i + 1] = factor;
+            for (int k = i - 1; k >= -1; k--) {
+                final BigDecimal baseFactor = bases.get(k + 1).getFactor();
+                factor = factor == null || baseFactor == null ? null : baseFactor.multiply(factor);
+                rebaseFactors[i][k + 1] = factor;
+            }
+        }
+        final Map<LocalDate, Entry> entries = new HashMap<>();
+        for (IndexValue indexValue : values) {
+            final int base = Arrays.binarySearch(baseStartDates, indexValue.getIndexBase().getStartDate());
+            if (base >= 0) {
+                entries.put(indexValue.getStartDate(), new Entry(indexValue.getValue(), base));
+            }
+        }
+        return new IndexTimeSeries(baseStartDates, rebaseFactors, Collections.unmodifiableMap(entries));
+    }
+
+    /**
+     * As {@link Index#getIndexValueForDate(LocalDate)}.
+     */
+    public BigDecimal valueForDate(final LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        final Entry entry = entries.get(date);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * As {@link Index#getRebaseFactorForDates(LocalDate, LocalDate)}.
+     */
+    public BigDecimal rebaseFactorForDates(final LocalDate baseIndexStartDate, final LocalDate nextIndexStartDate) {
+        if (baseIndexStartDate == null || nextIndexStartDate == null) {
+            return null;
+        }
+        final Entry nextEntry = entries.get(nextIndexStartDate);
+        if (nextEntry == null) {
+            return null;
+        }
+        final int activeBase = activeBaseOn(baseIndexStartDate);
+        return activeBase >= nextEntry.base ? BigDecimal.ONE : rebaseFactors[nextEntry.base][activeBase + 1];
+    }
+
+    /**
+     * As {@link Index#initialize(Indexable)}.
+     */
+    public void initialize(final Indexable input) {
+        input.setBaseIndexValue(valueForDate(input.getBaseIndexStartDate()));
+        input.setNextIndexValue(valueForDate(input.getNextIndexStartDate()));
+        input.setRebaseFactor(rebaseFactorForDates(input.getBaseIndexStartDate(), input.getNextIndexStartDate()));
+    }
+
+    public int numberOfValues() {
+        return entries.size();
+    }
+
+    /**
+     * The position of the last base starting on or before the date, or -1 if the date precedes all bases.
+     */
+    private int activeBaseOn(final LocalDate date) {
+        final int position = Arrays.binarySearch(baseStartDates, date);
+        return position >= 0 ? position : -position - 2;
+    }
+
+}
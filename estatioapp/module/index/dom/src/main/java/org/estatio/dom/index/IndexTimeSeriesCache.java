@@ -0,0 +1,67 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.index;
+
+import javax.inject.Inject;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.estatio.dom.TransactionalTimelineCache;
+
+/**
+ * Caches the {@link IndexTimeSeries time series} of each {@link Index}, keyed by the index' reference, so that
+ * indexing a portfolio of terms loads the bases and values of an index once rather than once per term.
+ *
+ * <p>
+ * A time series is loaded on first use and kept until the index' data changes: creating a base
+ * ({@link IndexBaseRepository#newIndexBase(Index, IndexBase, org.joda.time.LocalDate, java.math.BigDecimal)}),
+ * creating a value ({@link IndexValueRepository#findOrCreate(IndexBase, org.joda.time.LocalDate, java.math.BigDecimal)},
+ * and hence {@link IndexBase#newIndexValue(org.joda.time.LocalDate, java.math.BigDecimal)}), changing a value
+ * ({@link IndexValue#setValue(java.math.BigDecimal)}) or a base's factor ({@link IndexBase#setFactor(java.math.BigDecimal)}),
+ * updating either in any other way ({@link IndexValue#updating()}, {@link IndexBase#updating()}) or removing a value
+ * ({@link IndexValue#remove()}) invalidates it.
+ * </p>
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class IndexTimeSeriesCache extends TransactionalTimelineCache<Index, IndexTimeSeries> {
+
+    @Programmatic
+    public IndexTimeSeries timeSeriesFor(final Index index) {
+        return timelineOf(index);
+    }
+
+    @Override
+    protected String keyOf(final Index index) {
+        return index.getReference();
+    }
+
+    @Override
+    protected IndexTimeSeries load(final Index index) {
+        return IndexTimeSeries.of(indexBaseRepository.findByIndex(index), indexValueRepository.findByIndex(index));
+    }
+
+    @Inject
+    IndexBaseRepository indexBaseRepository;
+
+    @Inject
+    IndexValueRepository indexValueRepository;
+
+}
@@ -71,7 +71,13 @@ import lombok.Setter;
                 value = "SELECT "
                         + "FROM org.estatio.dom.index.IndexValue "
                         + "WHERE indexBase.index == :index "
-                        + "ORDER BY startDate DESC")
+                        + "ORDER BY startDate DESC"),
+        @javax.jdo.annotations.Query(
+                name = "findByIndex", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.index.IndexValue "
+                        + "WHERE indexBase.index == :index "
+                        + "ORDER BY startDate ASC")
 })
 @javax.jdo.annotations.Unique(
         name = "IndexValue_indexBase_startDate_IDX",
@@ -114,14 +120,34 @@ public class IndexValue
     private IndexBase indexBase;
 
     @javax.jdo.annotations.Column(scale = ValueType.Meta.SCALE, allowsNull = "false")
-    @Getter @Setter
+    @Getter
     private BigDecimal value;
 
+    public void setValue(final BigDecimal value) {
+        this.value = value;
+        // so that the rest of this transaction sees the change too
+        invalidateTimeSeries();
+    }
+
     @Action(semantics = SemanticsOf.NON_IDEMPOTENT, domainEvent = UpdateEvent.class)
     public void remove() {
+        invalidateTimeSeries();
         getContainer().remove(this);
     }
 
+    public void updating() {
+        invalidateTimeSeries();
+    }
+
+    private void invalidateTimeSeries() {
+        if (indexTimeSeriesCache != null && getIndexBase() != null) {
+            indexTimeSeriesCache.invalidate(getIndexBase().getIndex());
+        }
+    }
+
+    @javax.inject.Inject
+    IndexTimeSeriesCache indexTimeSeriesCache;
+
     public static class UpdateEvent extends ActionDomainEvent<IndexValue> {
         private static final long serialVersionUID = 1L;
     }
@@ -58,6 +58,8 @@ public class IndexValueRepository
             indexValue = create(indexBase, startDate, value);
         }
         indexValue.setValue(value);
+        // invalidate before posting, the subscribers reindex the terms using this value
+        indexTimeSeriesCache.invalidate(indexBase.getIndex());
         final IndexValue.UpdateEvent event = new IndexValue.UpdateEvent();
         event.setSource(indexValue);
         eventBusService.post(event);
@@ -98,6 +100,10 @@ public class IndexValueRepository
                 "index", index);
     }
 
+    public List<IndexValue> findByIndex(final Index index) {
+        return allMatches("findByIndex", "index", index);
+    }
+
     public List<IndexValue> all() {
         return allInstances();
     }
@@ -111,6 +117,9 @@ public class IndexValueRepository
     @Inject
     QueryResultsCache queryResultsCache;
 
+    @Inject
+    IndexTimeSeriesCache indexTimeSeriesCache;
+
     @Inject
     EventBusService eventBusService;
 }
@@ -0,0 +1,125 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.index;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndexTimeSeries_Test {
+
+    List<IndexBase> bases;
+    List<IndexValue> values;
+    Map<LocalDate, IndexValue> valuesByDate;
+
+    IndexTimeSeries timeSeries;
+
+    @Before
+    public void setUp() throws Exception {
+        bases = Lists.newArrayList();
+        values = Lists.newArrayList();
+        valuesByDate = new HashMap<>();
+
+        IndexBase previous = null;
+        for (int year = 1990; year <= 2020; year += 5) {
+            final IndexBase base = new IndexBase();
+            base.setStartDate(new LocalDate(year, 1, 1));
+            base.setPrevious(previous);
+            base.setFactor(previous == null ? null : new BigDecimal("1.0" + (year % 7 + 1) + "5"));
+            bases.add(base);
+            for (LocalDate date = base.getStartDate(); date.getYear() < year + 5; date = date.plusMonths(1)) {
+                final IndexValue value = new IndexValue();
+                value.setIndexBase(base);
+                value.setStartDate(date);
+                value.setValue(BigDecimal.valueOf(100 + date.getMonthOfYear() + (date.getYear() - year) * 12, 1));
+                values.add(value);
+                valuesByDate.put(date, value);
+            }
+            previous = base;
+        }
+
+        timeSeries = IndexTimeSeries.of(bases, values);
+    }
+
+    /**
+     * The original algorithm, as {@link Index#getRebaseFactorForDates(LocalDate, LocalDate)}.
+     */
+    BigDecimal walkedRebaseFactor(final LocalDate baseIndexStartDate, final LocalDate nextIndexStartDate) {
+        final IndexValue nextIndexValue = valuesByDate.get(nextIndexStartDate);
+        return nextIndexValue == null ? null : nextIndexValue.getIndexBase().factorForDate(baseIndexStartDate);
+    }
+
+    public static class ValueForDate extends IndexTimeSeries_Test {
+
+        @Test
+        public void happyCase() throws Exception {
+            assertThat(timeSeries.valueForDate(new LocalDate(2001, 3, 1))).isEqualTo(new BigDecimal("11.5"));
+            assertThat(timeSeries.numberOfValues()).isEqualTo(values.size());
+        }
+
+        @Test
+        public void no_value() throws Exception {
+            assertThat(timeSeries.valueForDate(new LocalDate(2001, 3, 2))).isNull();
+            assertThat(timeSeries.valueForDate(new LocalDate(2030, 1, 1))).isNull();
+            assertThat(timeSeries.valueForDate(null)).isNull();
+        }
+
+    }
+
+    public static class RebaseFactorForDates extends IndexTimeSeries_Test {
+
+        @Test
+        public void same_base() throws Exception {
+            assertThat(timeSeries.rebaseFactorForDates(new LocalDate(2001, 1, 1), new LocalDate(2003, 1, 1)))
+                    .isEqualTo(BigDecimal.ONE);
+        }
+
+        @Test
+        public void equal_to_walking_the_bases() throws Exception {
+            for (IndexValue base : values) {
+                for (IndexValue next : values) {
+                    assertThat(timeSeries.rebaseFactorForDates(base.getStartDate(), next.getStartDate()))
+                            .isEqualTo(walkedRebaseFactor(base.getStartDate(), next.getStartDate()));
+                }
+            }
+        }
+
+        @Test
+        public void no_next_value() throws Exception {
+            assertThat(timeSeries.rebaseFactorForDates(new LocalDate(2001, 1, 1), new LocalDate(2030, 1, 1))).isNull();
+            assertThat(timeSeries.rebaseFactorForDates(null, new LocalDate(2001, 1, 1))).isNull();
+        }
+
+        @Test
+        public void before_first_base_without_factor() throws Exception {
+            assertThat(timeSeries.rebaseFactorForDates(new LocalDate(1980, 1, 1), new LocalDate(2001, 1, 1))).isNull();
+        }
+
+    }
+
+}
@@ -117,13 +117,22 @@ import lombok.Setter;
                 value = "SELECT " +
                         "FROM org.estatio.dom.invoice.Invoice " +
                         "WHERE invoiceNumber.matches(:invoiceNumber) "
-                        + "ORDER BY invoiceDate DESC")
+                        + "ORDER BY invoiceDate DESC"),
+        @javax.jdo.annotations.Query(
+                name = "findWithoutTotals", language = "JDOQL",
+                value = "SELECT " +
+                        "FROM org.estatio.dom.invoice.Invoice " +
+                        "WHERE netAmount == null " +
+                        "|| vatAmount == null " +
+                        "|| grossAmount == null")
 })
 @Indices({
         @Index(name = "Invoice_invoiceNumber_IDX",
                 members = { "invoiceNumber" })
         ,@Index(name = "Invoice_sendTo_IDX",
                 members = { "sendTo" })
+        ,@Index(name = "Invoice_atPath_IDX",
+                members = { "applicationTenancyPath" })
 })
 @DomainObject(
         editing = Editing.DISABLED
@@ -161,9 +170,15 @@ public abstract class Invoice<T extends Invoice<T>>
             name = "atPath"
     )
     @Property(hidden = Where.EVERYWHERE)
-    @Getter @Setter
+    @Getter
     private String applicationTenancyPath;
 
+    public void setApplicationTenancyPath(final String applicationTenancyPath) {
+        summaryAffected();
+        this.applicationTenancyPath = applicationTenancyPath;
+        summaryAffected();
+    }
+
     @PropertyLayout(
             named = "Application Level",
             describedAs = "Determines those users for whom this object is available to view and/or modify."
@@ -196,9 +211,15 @@ public abstract class Invoice<T extends Invoice<T>>
 
     @javax.jdo.annotations.Column(name = "sellerPartyId", allowsNull = "false")
     @Property(hidden = Where.ALL_TABLES)
-    @Getter @Setter
+    @Getter
     private Party seller;
 
+    public void setSeller(final Party seller) {
+        summaryAffected();
+        this.seller = seller;
+        summaryAffected();
+    }
+
     @javax.jdo.annotations.Column(allowsNull = "true", length = InvoiceNumberType.Meta.MAX_LEN)
     @Property(hidden = Where.ALL_TABLES)
     @Getter @Setter
@@ -221,9 +242,15 @@ public abstract class Invoice<T extends Invoice<T>>
 
     @javax.jdo.annotations.Column(allowsNull = "false")
     @javax.jdo.annotations.Persistent
-    @Getter @Setter
+    @Getter
     private LocalDate dueDate;
 
+    public void setDueDate(final LocalDate dueDate) {
+        summaryAffected();
+        this.dueDate = dueDate;
+        summaryAffected();
+    }
+
     @Persistent(mappedBy = "invoice", dependentElement = "false")
     @Getter @Setter
     private SortedSet<InvoiceAttribute> attributes = new TreeSet<InvoiceAttribute>();
@@ -300,9 +327,15 @@ public abstract class Invoice<T extends Invoice<T>>
 
 
     @javax.jdo.annotations.Column(allowsNull = "false", length = InvoiceStatus.Meta.MAX_LEN)
-    @Getter @Setter
+    @Getter
     private InvoiceStatus status;
 
+    public void setStatus(final InvoiceStatus status) {
+        summaryAffected();
+        this.status = status;
+        summaryAffected();
+    }
+
 
     // REVIEW: invoice generation is not populating this field.
     @javax.jdo.annotations.Column(name = "currencyId", allowsNull = "true")
@@ -366,33 +399,117 @@ public abstract class Invoice<T extends Invoice<T>>
     }
 
 
-    @Property(notPersisted = true)
+    /**
+     * The totals of the {@link #getItems() items}, maintained by the items as their amounts change (see
+     * {@link #addToTotals(BigDecimal, BigDecimal, BigDecimal)}) rather than summed on every access.
+     *
+     * <p>
+     * Invoices persisted before the totals were introduced hold <tt>null</tt>s until
+     * {@link InvoiceTotalsService#backfill() backfilled}; until then the totals are summed from the items.
+     * </p>
+     */
+    @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
+    @Setter
+    private BigDecimal netAmount;
+
+    @Property
     public BigDecimal getNetAmount() {
-        BigDecimal total = BigDecimal.ZERO;
-        for (InvoiceItem item : getItems()) {
-            total = total.add(item.getNetAmount());
-        }
-        return total;
+        return netAmount != null ? netAmount : sumOfItems(AmountType.NET);
     }
 
-    @Property(notPersisted = true, hidden = Where.ALL_TABLES)
+    @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
+    @Setter
+    private BigDecimal vatAmount;
+
+    @Property(hidden = Where.ALL_TABLES)
     public BigDecimal getVatAmount() {
-        BigDecimal total = BigDecimal.ZERO;
-        for (InvoiceItem item : getItems()) {
-            total = total.add(item.getVatAmount());
-        }
-        return total;
+        return vatAmount != null ? vatAmount : sumOfItems(AmountType.VAT);
     }
 
-    @Property(notPersisted = true)
+    @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
+    @Setter
+    private BigDecimal grossAmount;
+
+    @Property
     public BigDecimal getGrossAmount() {
+        return grossAmount != null ? grossAmount : sumOfItems(AmountType.GROSS);
+    }
+
+    /**
+     * Called by an {@link InvoiceItem item} before its amounts change, with the differences; a <tt>null</tt> is
+     * taken as zero.
+     */
+    @Programmatic
+    public void addToTotals(final BigDecimal netDelta, final BigDecimal vatDelta, final BigDecimal grossDelta) {
+        if (!hasTotals()) {
+            recalculateTotals();
+        }
+        summaryAffected();
+        setNetAmount(netAmount.add(zeroIfNull(netDelta)));
+        setVatAmount(vatAmount.add(zeroIfNull(vatDelta)));
+        setGrossAmount(grossAmount.add(zeroIfNull(grossDelta)));
+    }
+
+    /**
+     * Sets the totals to the sum of the items, as done when {@link InvoiceTotalsService#backfill() backfilling}.
+     */
+    @Programmatic
+    public void recalculateTotals() {
+        summaryAffected();
+        setNetAmount(sumOfItems(AmountType.NET));
+        setVatAmount(sumOfItems(AmountType.VAT));
+        setGrossAmount(sumOfItems(AmountType.GROSS));
+    }
+
+    @Programmatic
+    public boolean hasTotals() {
+        return netAmount != null && vatAmount != null && grossAmount != null;
+    }
+
+    /**
+     * Whether the persisted totals equal the sum of the items; checked by
+     * {@link InvoiceTotalsService#findInconsistent()}.
+     */
+    @Programmatic
+    public boolean totalsAreConsistent() {
+        return hasTotals()
+                && netAmount.compareTo(sumOfItems(AmountType.NET)) == 0
+                && vatAmount.compareTo(sumOfItems(AmountType.VAT)) == 0
+                && grossAmount.compareTo(sumOfItems(AmountType.GROSS)) == 0;
+    }
+
+    private enum AmountType {
+        NET, VAT, GROSS
+    }
+
+    private BigDecimal sumOfItems(final AmountType amountType) {
         BigDecimal total = BigDecimal.ZERO;
         for (InvoiceItem item : getItems()) {
-            total = total.add(item.getGrossAmount());
+            switch (amountType) {
+            case NET:
+                total = total.add(zeroIfNull(item.getNetAmount()));
+                break;
+            case VAT:
+                total = total.add(zeroIfNull(item.getVatAmount()));
+                break;
+            default:
+                total = total.add(zeroIfNull(item.getGrossAmount()));
+            }
         }
         return total;
     }
 
+    private static BigDecimal zeroIfNull(final BigDecimal amount) {
+        return amount == null ? BigDecimal.ZERO : amount;
+    }
+
+    /**
+     * Called before and after every change that moves this invoice between the invoice summaries, or changes its
+     * totals; does nothing unless overridden.
+     */
+    protected void summaryAffected() {
+    }
+
     protected boolean isImmutable() {
         return !getStatus().invoiceIsChangable();
     }
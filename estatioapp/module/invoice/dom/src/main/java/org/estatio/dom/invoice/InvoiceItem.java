@@ -135,9 +135,25 @@ public abstract class InvoiceItem<T extends InvoiceItem<T>>
     @javax.jdo.annotations.Column(name = "invoiceId", allowsNull = "false")
     @Property(hidden = Where.REFERENCES_PARENT)
     @CollectionLayout(render = RenderType.EAGERLY)
-    @Getter @Setter
+    @Getter
     private Invoice<?> invoice;
 
+    /**
+     * Moves this item's amounts from the totals of the previous invoice (if any) to those of the new one.
+     */
+    public void setInvoice(final Invoice<?> invoice) {
+        if (this.invoice == invoice) {
+            return;
+        }
+        if (this.invoice != null) {
+            this.invoice.addToTotals(negate(netAmount), negate(vatAmount), negate(grossAmount));
+        }
+        if (invoice != null) {
+            invoice.addToTotals(netAmount, vatAmount, grossAmount);
+        }
+        this.invoice = invoice;
+    }
+
     // //////////////////////////////////////
 
     @javax.jdo.annotations.Column(name = "chargeId", allowsNull = "true")
@@ -157,9 +173,16 @@ public abstract class InvoiceItem<T extends InvoiceItem<T>>
     // //////////////////////////////////////
 
     @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
-    @Getter @Setter
+    @Getter
     private BigDecimal netAmount;
 
+    public void setNetAmount(final BigDecimal netAmount) {
+        if (invoice != null) {
+            invoice.addToTotals(difference(netAmount, this.netAmount), null, null);
+        }
+        this.netAmount = netAmount;
+    }
+
     public BigDecimal defaultNetAmount() {
         return BigDecimal.ZERO;
     }
@@ -168,15 +191,40 @@ public abstract class InvoiceItem<T extends InvoiceItem<T>>
 
     @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
     @Property(hidden = Where.ALL_TABLES)
-    @Getter @Setter
+    @Getter
     private BigDecimal vatAmount;
 
+    public void setVatAmount(final BigDecimal vatAmount) {
+        if (invoice != null) {
+            invoice.addToTotals(null, difference(vatAmount, this.vatAmount), null);
+        }
+        this.vatAmount = vatAmount;
+    }
+
     // //////////////////////////////////////
 
     @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
-    @Getter @Setter
+    @Getter
     private BigDecimal grossAmount;
 
+    public void setGrossAmount(final BigDecimal grossAmount) {
+        if (invoice != null) {
+            invoice.addToTotals(null, null, difference(grossAmount, this.grossAmount));
+        }
+        this.grossAmount = grossAmount;
+    }
+
+    private static BigDecimal difference(final BigDecimal newAmount, final BigDecimal oldAmount) {
+        if (newAmount == null) {
+            return negate(oldAmount);
+        }
+        return oldAmount == null ? newAmount : newAmount.subtract(oldAmount);
+    }
+
+    private static BigDecimal negate(final BigDecimal amount) {
+        return amount == null ? null : amount.negate();
+    }
+
     // //////////////////////////////////////
 
     @javax.jdo.annotations.Column(name = "taxId", allowsNull = "true")
@@ -325,6 +373,7 @@ public abstract class InvoiceItem<T extends InvoiceItem<T>>
     @Action(invokeOn = InvokeOn.OBJECT_AND_COLLECTION, semantics = SemanticsOf.NON_IDEMPOTENT_ARE_YOU_SURE)
     public Invoice remove() {
         if (!getInvoice().isImmutable()) {
+            getInvoice().addToTotals(negate(getNetAmount()), negate(getVatAmount()), negate(getGrossAmount()));
             repositoryService.remove(this);
         }
         return getInvoice();
@@ -344,7 +393,10 @@ public abstract class InvoiceItem<T extends InvoiceItem<T>>
         setGrossAmount(grossFromNet(getNetAmount(), percentage));
     }
 
-    private BigDecimal vatFromNet(final BigDecimal net, final BigDecimal percentage) {
+    /**
+     * The VAT amount for a net amount and VAT percentage, as calculated by {@link #verify()}.
+     */
+    public static BigDecimal vatFromNet(final BigDecimal net, final BigDecimal percentage) {
         if (net == null || percentage == null) {
             return BigDecimal.ZERO;
         }
@@ -352,7 +404,10 @@ public abstract class InvoiceItem<T extends InvoiceItem<T>>
         return net.multiply(rate).setScale(2, RoundingMode.HALF_UP);
     }
 
-    private BigDecimal grossFromNet(final BigDecimal net, final BigDecimal percentage) {
+    /**
+     * The gross amount for a net amount and VAT percentage, as calculated by {@link #verify()}.
+     */
+    public static BigDecimal grossFromNet(final BigDecimal net, final BigDecimal percentage) {
         if (net == null) {
             return BigDecimal.ZERO;
         }
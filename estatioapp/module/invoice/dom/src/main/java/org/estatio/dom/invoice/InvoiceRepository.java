@@ -68,6 +68,15 @@ public class InvoiceRepository extends UdoDomainRepositoryAndFactory<Invoice> {
 
 
 
+    /**
+     * The invoices whose totals have not been {@link InvoiceTotalsService#backfill() backfilled}, at most
+     * <tt>max</tt> of them.
+     */
+    @Programmatic
+    public List<Invoice> findWithoutTotals(final int max) {
+        return allMatches(newQueryDefault("findWithoutTotals").withCount(max));
+    }
+
     // //////////////////////////////////////
 
     @Programmatic
@@ -0,0 +1,82 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.invoice;
+
+import java.util.List;
+
+import javax.inject.Inject;
+
+import com.google.common.collect.Lists;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.estatio.dom.UdoDomainService;
+
+/**
+ * Maintenance of the totals persisted on {@link Invoice}: backfilling invoices created before the totals were
+ * introduced, and checking the totals against the sum of the items.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class InvoiceTotalsService extends UdoDomainService<InvoiceTotalsService> {
+
+    static final int BATCH_SIZE = 500;
+
+    public InvoiceTotalsService() {
+        super(InvoiceTotalsService.class);
+    }
+
+    /**
+     * Calculates the totals of all invoices without any, flushing every {@link #BATCH_SIZE} invoices.
+     *
+     * @return the number of invoices backfilled
+     */
+    @Programmatic
+    public int backfill() {
+        int backfilled = 0;
+        List<Invoice> invoices;
+        while (!(invoices = invoiceRepository.findWithoutTotals(BATCH_SIZE)).isEmpty()) {
+            for (Invoice invoice : invoices) {
+                invoice.recalculateTotals();
+            }
+            getContainer().flush();
+            backfilled += invoices.size();
+        }
+        return backfilled;
+    }
+
+    /**
+     * The invoices whose persisted totals are missing or differ from the sum of their items.
+     */
+    @Programmatic
+    public List<Invoice> findInconsistent() {
+        final List<Invoice> inconsistent = Lists.newArrayList();
+        for (Invoice invoice : invoiceRepository.allInvoices()) {
+            if (!invoice.totalsAreConsistent()) {
+                inconsistent.add(invoice);
+            }
+        }
+        return inconsistent;
+    }
+
+    @Inject
+    InvoiceRepository invoiceRepository;
+
+}
@@ -128,6 +128,28 @@ import static org.apache.commons.lang3.StringUtils.left;
                         + "VARIABLES "
                         + "org.estatio.dom.lease.Occupancy occ "
                         + "ORDER BY reference"),
+        @javax.jdo.annotations.Query(
+                name = "findByPropertyAfterReference", language = "JDOQL",
+                value = "SELECT DISTINCT this "
+                        + "FROM org.estatio.dom.lease.Lease "
+                        + "WHERE occupancies.contains(occ) "
+                        + "&& (occ.unit.property == :property) "
+                        + "&& reference > :after "
+                        + "VARIABLES "
+                        + "org.estatio.dom.lease.Occupancy occ "
+                        + "ORDER BY reference"),
+        @javax.jdo.annotations.Query(
+                name = "findByPropertyAndStatusNotAndOccupancyOverlapping", language = "JDOQL",
+                value = "SELECT DISTINCT this "
+                        + "FROM org.estatio.dom.lease.Lease "
+                        + "WHERE occupancies.contains(occ) "
+                        + "&& (occ.unit.property == :property) "
+                        + "&& status != :status "
+                        + "&& (:endDate == null || occ.startDate == null || occ.startDate <= :endDate) "
+                        + "&& (:startDate == null || occ.endDate == null || occ.endDate >= :startDate) "
+                        + "VARIABLES "
+                        + "org.estatio.dom.lease.Occupancy occ "
+                        + "ORDER BY reference"),
         @javax.jdo.annotations.Query(
                 name = "findByBrand", language = "JDOQL",
                 value = "SELECT "
@@ -155,7 +177,43 @@ import static org.apache.commons.lang3.StringUtils.left;
                         "FROM org.estatio.dom.lease.Lease " +
                         "WHERE " +
                         "endDate != null && (endDate >= :rangeStartDate && endDate < :rangeEndDate) " +
-                        "ORDER BY endDate")
+                        "ORDER BY endDate"),
+        @javax.jdo.annotations.Query(
+                name = "findByAtPath", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.Lease "
+                        + "WHERE (applicationTenancyPath == :atPath "
+                        + "|| applicationTenancyPath.startsWith(:atPathPrefix)) "
+                        + "ORDER BY reference"),
+        @javax.jdo.annotations.Query(
+                name = "findByAtPathAfterReference", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.Lease "
+                        + "WHERE (applicationTenancyPath == :atPath "
+                        + "|| applicationTenancyPath.startsWith(:atPathPrefix)) "
+                        + "&& reference > :after "
+                        + "ORDER BY reference"),
+        @javax.jdo.annotations.Query(
+                name = "matchByReferenceOrNameAndAtPath", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.Lease "
+                        + "WHERE (reference.matches(:referenceOrName) "
+                        + "|| name.matches(:referenceOrName)) "
+                        + "&& (:includeTerminated || tenancyEndDate == null || tenancyEndDate >= :date) "
+                        + "&& (applicationTenancyPath == :atPath "
+                        + "|| applicationTenancyPath.startsWith(:atPathPrefix)) "
+                        + "ORDER BY reference")
+})
+@javax.jdo.annotations.Indices({
+        @javax.jdo.annotations.Index(
+                name = "Lease_atPath_IDX", members = { "applicationTenancyPath" })
+})
+@javax.jdo.annotations.FetchGroups({
+        @javax.jdo.annotations.FetchGroup(
+                name = LeaseGraphFetchPlan.LEASE_GRAPH,
+                members = {
+                        @javax.jdo.annotations.Persistent(name = "items"),
+                        @javax.jdo.annotations.Persistent(name = "occupancies") })
 })
 @DomainObject(autoCompleteRepository = LeaseRepository.class)
 @DomainObjectLayout(bookmarking = BookmarkPolicy.AS_ROOT)
@@ -0,0 +1,117 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+import javax.inject.Inject;
+import javax.jdo.FetchPlan;
+import javax.jdo.Query;
+
+import com.google.common.collect.Lists;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
+
+/**
+ * Loads leases together with their graph, that is: their {@link Lease#getItems() items} and
+ * {@link Lease#getOccupancies() occupancies}, the {@link LeaseItem#getTerms() terms}, {@link LeaseItem#getCharge()
+ * charge} and {@link LeaseItem#getTax() tax} of each item, and the {@link LeaseTerm#getPrevious() previous} and
+ * {@link LeaseTerm#getNext() next} term of each term, as well as the references back up to the lease, as declared by
+ * the {@value #LEASE_GRAPH} fetch group of those classes.  The roles of a lease are in its default fetch group
+ * already.
+ *
+ * <p>
+ * Without it, each of these is loaded when first navigated to: a query per item for its terms, per term for its
+ * previous and next term, and so on. With it, the items and occupancies of a lease, and the terms of an item, are
+ * each loaded in a single query; DataNucleus does still look up the subclass of the previous and next term of each
+ * term by its discriminator, unless that term has already been loaded. Hence a job that works through the whole graph
+ * of the leases should first {@link #load(Collection) load} them, which takes a number of queries that is independent
+ * of the number of items and terms.
+ * </p>
+ *
+ * <p>
+ * The fetch plan applies to everything loaded while it is active, so a job that works through the graph of the
+ * leases it finds should run as a whole within {@link #fetching(Supplier)}, not just its finder. Finders for
+ * single leases (as used by imports and the UI) do not use it, so as not to load graphs that are never walked.
+ * </p>
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class LeaseGraphFetchPlan {
+
+    public static final String LEASE_GRAPH = "Lease_graph";
+
+    /**
+     * Deep enough for lease, item, term, next (or previous) term.
+     */
+    static final int MAX_FETCH_DEPTH = 3;
+
+    /**
+     * Runs the finder (of leases), or the job working through them, with the {@value #LEASE_GRAPH} fetch group added
+     * to the fetch plan of the persistence manager, which the queries run meanwhile take over; the fetch plan is
+     * restored afterwards.
+     */
+    @Programmatic
+    public <T> T fetching(final Supplier<T> finder) {
+        final FetchPlan fetchPlan = isisJdoSupport.getJdoPersistenceManager().getFetchPlan();
+        if (fetchPlan.getGroups().contains(LEASE_GRAPH)) {
+            // nested
+            return finder.get();
+        }
+        final int maxFetchDepth = fetchPlan.getMaxFetchDepth();
+        fetchPlan.addGroup(LEASE_GRAPH);
+        if (maxFetchDepth != -1 /* unlimited */ && maxFetchDepth < MAX_FETCH_DEPTH) {
+            fetchPlan.setMaxFetchDepth(MAX_FETCH_DEPTH);
+        }
+        try {
+            return finder.get();
+        } finally {
+            fetchPlan.removeGroup(LEASE_GRAPH);
+            fetchPlan.setMaxFetchDepth(maxFetchDepth);
+        }
+    }
+
+    /**
+     * Loads the graphs of the leases up front: first all of their terms, so that the previous and next term of each
+     * are then found already loaded rather than looked up one by one, and then all of their items, together with the
+     * terms, charge and tax of each.
+     */
+    @Programmatic
+    public void load(final Collection<Lease> leases) {
+        if (leases.isEmpty()) {
+            return;
+        }
+        final Query terms = isisJdoSupport.getJdoPersistenceManager()
+                .newQuery(LeaseTerm.class, ":leases.contains(leaseItem.lease)");
+        terms.getFetchPlan().removeGroup(LEASE_GRAPH);
+        Lists.newArrayList((Collection<?>) terms.execute(leases));
+        fetching(() -> {
+            final Query items = isisJdoSupport.getJdoPersistenceManager()
+                    .newQuery(LeaseItem.class, ":leases.contains(lease)");
+            return Lists.newArrayList((Collection<?>) items.execute(leases));
+        });
+    }
+
+    @Inject
+    IsisJdoSupport isisJdoSupport;
+
+}
@@ -20,6 +20,7 @@ package org.estatio.dom.lease;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
@@ -162,7 +163,21 @@ import lombok.Setter;
                         + "&& charge == :charge "
                         + "&& startDate == :startDate "
                         + "&& invoicedBy == :invoicedBy "
-                        + "ORDER BY sequence ")
+                        + "ORDER BY sequence "),
+        @javax.jdo.annotations.Query(
+                name = "findByLeases", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.LeaseItem "
+                        + "WHERE :leases.contains(lease) ")
+})
+@javax.jdo.annotations.FetchGroups({
+        @javax.jdo.annotations.FetchGroup(
+                name = LeaseGraphFetchPlan.LEASE_GRAPH,
+                members = {
+                        @Persistent(name = "lease"),
+                        @Persistent(name = "terms"),
+                        @Persistent(name = "charge"),
+                        @Persistent(name = "tax") })
 })
 @Unique(name = "LeaseItem_lease_type_charge_startDate_invoicedBy_sequence_UNQ", members = {"lease", "type", "charge", "startDate", "invoicedBy", "sequence"})
 @DomainObject(
@@ -313,6 +328,30 @@ public class LeaseItem
 
     // //////////////////////////////////////
 
+    /**
+     * Set when the item is created, and whenever it, any of its terms or its lease is persisted, updated or removed
+     * other than by the invoice calculation (see {@link LeaseTermSubscriptions}); used to find the items changed since
+     * the last invoice calculation run.  Unlike an update timestamp, it is not set by the verification that each run
+     * does itself.
+     */
+    @Column(allowsNull = "true")
+    @Property(hidden = Where.ALL_TABLES, editing = Editing.DISABLED)
+    @Getter @Setter
+    private Timestamp changedAt;
+
+    @Programmatic
+    public void markChanged() {
+        setChangedAt(getClockService().nowAsJavaSqlTimestamp());
+    }
+
+    public void persisting() {
+        if (getChangedAt() == null) {
+            markChanged();
+        }
+    }
+
+    // //////////////////////////////////////
+
     @Column(allowsNull = "false")
     @Property(hidden = Where.EVERYWHERE)
     @Getter @Setter
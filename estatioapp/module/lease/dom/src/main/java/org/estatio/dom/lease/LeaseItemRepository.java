@@ -105,6 +105,15 @@ public class LeaseItemRepository extends UdoDomainRepositoryAndFactory<LeaseItem
                 "type", type);
     }
 
+    /**
+     * The items of all of the leases, in a single query.
+     */
+    @Programmatic
+    public List<LeaseItem> findByLeases(final List<Lease> leases) {
+        return allMatches("findByLeases",
+                "leases", leases);
+    }
+
     @Programmatic
     public LeaseItem findByLeaseAndTypeAndCharge(
             final Lease lease,
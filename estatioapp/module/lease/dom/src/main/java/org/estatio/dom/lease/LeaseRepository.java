@@ -21,6 +21,8 @@ package org.estatio.dom.lease;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -39,6 +41,7 @@ import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 
 import org.incode.module.base.dom.utils.JodaPeriodUtils;
 import org.incode.module.base.dom.utils.StringUtils;
+import org.incode.module.base.dom.valuetypes.LocalDateInterval;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
 import org.estatio.dom.agreement.AgreementRoleCommunicationChannelTypeData;
@@ -54,6 +57,7 @@ import org.estatio.dom.lease.tags.Brand;
 import org.estatio.dom.party.Party;
 import org.estatio.dom.party.role.PartyRoleTypeData;
 import org.estatio.dom.party.role.PartyRoleTypeRepository;
+import org.estatio.dom.utils.AtPathUtils;
 
 @DomainService(repositoryFor = Lease.class, nature = NatureOfService.DOMAIN)
 public class LeaseRepository extends UdoDomainRepositoryAndFactory<Lease> {
@@ -146,13 +150,66 @@ public class LeaseRepository extends UdoDomainRepositoryAndFactory<Lease> {
         return allInstances();
     }
 
+    /**
+     * Looked up in the {@link LeaseSearchIndex search index}, unless the pattern has too few literal characters.
+     */
     public List<Lease> matchByReferenceOrName(
             final String referenceOrName,
             final boolean includeTerminated) {
+        if (leaseSearchIndex.canSearch(referenceOrName)) {
+            return notTerminated(leaseSearchIndex.search(referenceOrName), includeTerminated);
+        }
         String pattern = StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName);
         return allMatches("matchByReferenceOrName", "referenceOrName", pattern, "includeTerminated", includeTerminated, "date", clockService.now());
     }
 
+    /**
+     * As {@link #matchByReferenceOrName(String, boolean)}, but only the leases at or below the (user's) tenancy path,
+     * filtered by the datastore rather than hidden one by one after loading.
+     */
+    @Programmatic
+    public List<Lease> matchByReferenceOrNameAndAtPath(
+            final String referenceOrName,
+            final boolean includeTerminated,
+            final String atPath) {
+        String pattern = StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName);
+        return allMatchesAtPath(
+                "matchByReferenceOrNameAndAtPath", atPath,
+                "referenceOrName", pattern,
+                "includeTerminated", includeTerminated,
+                "date", clockService.now());
+    }
+
+    /**
+     * The leases at or below the tenancy path, eg <tt>/ITA</tt> or <tt>/ITA/CAR</tt>.
+     */
+    @Programmatic
+    public List<Lease> findByAtPath(final String atPath) {
+        return allMatchesAtPath("findByAtPath", atPath);
+    }
+
+    /**
+     * As {@link #findByAtPath(String)}, but handing the leases to the processor in batches (ordered by reference
+     * within each {@link AtPathUtils#toAtPathScopes(String) scope} of the path), for jobs over many leases.
+     *
+     * @return the number of leases processed
+     */
+    @Programmatic
+    public int forEachBatchAtPath(
+            final String atPath,
+            final int batchSize,
+            final Consumer<List<Lease>> processor) {
+        return leaseGraphFetchPlan.fetching(() -> {
+            int processed = 0;
+            for (String atPathScope : AtPathUtils.toAtPathScopes(atPath)) {
+                processed += forEachBatch(
+                        "findByAtPathAfterReference", "", Lease::getReference, batchSize, processor,
+                        withAtPathScope(atPathScope));
+            }
+            return processed;
+        });
+    }
+
     public List<Lease> findByAssetAndActiveOnDate(
             final FixedAsset fixedAsset,
             final LocalDate activeOnDate) {
@@ -174,6 +231,49 @@ public class LeaseRepository extends UdoDomainRepositoryAndFactory<Lease> {
         return allMatches("findByProperty", "property", property);
     }
 
+    /**
+     * As {@link #findLeasesByProperty(Property)}, but handing the leases to the processor in batches (ordered by
+     * reference, each lease once), for jobs over the leases of a property.
+     *
+     * @return the number of leases processed
+     */
+    @Programmatic
+    public int forEachBatchByProperty(
+            final Property property,
+            final int batchSize,
+            final Consumer<List<Lease>> processor) {
+        return forEachBatch(
+                "findByPropertyAfterReference", "", Lease::getReference, batchSize, processor,
+                "property", property);
+    }
+
+    /**
+     * As {@link #findLeasesByProperty(Property)}, but loading the {@link LeaseGraphFetchPlan lease graph} along with
+     * the leases, as do {@link #findLeasesByPropertyWithOccupancyOverlapping(Property, LocalDateInterval)} and
+     * {@link #forEachBatchAtPath(String, int, Consumer)}; for jobs that go on to work through the graph of each
+     * lease.
+     */
+    @Programmatic
+    public List<Lease> findLeasesByPropertyWithGraph(final Property property) {
+        return leaseGraphFetchPlan.fetching(() -> findLeasesByProperty(property));
+    }
+
+    /**
+     * The leases, other than {@link LeaseStatus#TERMINATED terminated} ones, with an occupancy of a unit of the
+     * property that overlaps the interval; each lease once, ordered by reference.
+     */
+    @Programmatic
+    public List<Lease> findLeasesByPropertyWithOccupancyOverlapping(
+            final Property property,
+            final LocalDateInterval interval) {
+        return leaseGraphFetchPlan.fetching(() -> allMatches(
+                "findByPropertyAndStatusNotAndOccupancyOverlapping",
+                "property", property,
+                "status", LeaseStatus.TERMINATED,
+                "startDate", interval.startDate(),
+                "endDate", interval.endDate()));
+    }
+
     @Programmatic
     public List<Lease> findExpireInDateRange(final LocalDate rangeStartDate, final LocalDate rangeEndDate) {
         return allMatches(
@@ -193,9 +293,22 @@ public class LeaseRepository extends UdoDomainRepositoryAndFactory<Lease> {
 
     @Programmatic
     public List<Lease> autoComplete(final String searchPhrase) {
-        return searchPhrase.length() > 2
-                ? matchByReferenceOrName("*" + searchPhrase + "*", true)
-                : Lists.<Lease>newArrayList();
+        if (searchPhrase.length() <= 2) {
+            return Lists.<Lease>newArrayList();
+        }
+        return leaseSearchIndex.canSearch("*" + searchPhrase + "*")
+                ? leaseSearchIndex.searchRanked(searchPhrase)
+                : matchByReferenceOrName("*" + searchPhrase + "*", true);
+    }
+
+    private List<Lease> notTerminated(final List<Lease> leases, final boolean includeTerminated) {
+        if (includeTerminated) {
+            return leases;
+        }
+        final LocalDate date = clockService.now();
+        return leases.stream()
+                .filter(lease -> lease.getTenancyEndDate() == null || !lease.getTenancyEndDate().isBefore(date))
+                .collect(Collectors.toList());
     }
 
     // //////////////////////////////////////
@@ -209,6 +322,12 @@ public class LeaseRepository extends UdoDomainRepositoryAndFactory<Lease> {
     @Inject
     ClockService clockService;
 
+    @Inject
+    LeaseGraphFetchPlan leaseGraphFetchPlan;
+
+    @Inject
+    LeaseSearchIndex leaseSearchIndex;
+
     @Inject
     private AgreementRoleCommunicationChannelTypeRepository agreementRoleCommunicationChannelTypeRepository;
 
@@ -0,0 +1,46 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+
+import org.estatio.dom.search.SearchIndexAbstract;
+
+/**
+ * Search index of the reference and name of all {@link Lease leases}.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class LeaseSearchIndex extends SearchIndexAbstract<Lease> {
+
+    public LeaseSearchIndex() {
+        super(Lease.class);
+    }
+
+    @Override
+    protected String referenceOf(final Lease lease) {
+        return lease.getReference();
+    }
+
+    @Override
+    protected String nameOf(final Lease lease) {
+        return lease.getName();
+    }
+
+}
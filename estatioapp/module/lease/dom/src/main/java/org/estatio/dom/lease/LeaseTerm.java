@@ -20,6 +20,7 @@ package org.estatio.dom.lease;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -138,7 +139,20 @@ import lombok.Setter;
                         + "FROM org.estatio.dom.lease.LeaseTerm "
                         + "WHERE status == :status "
                         + "&& startDate <= :date "
-                        + "&& (endDate == null || endDate > :date )")
+                        + "&& (endDate == null || endDate > :date )"),
+        @javax.jdo.annotations.Query(
+                name = "findByLeases", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.LeaseTerm "
+                        + "WHERE :leases.contains(leaseItem.lease) ")
+})
+@javax.jdo.annotations.FetchGroups({
+        @javax.jdo.annotations.FetchGroup(
+                name = LeaseGraphFetchPlan.LEASE_GRAPH,
+                members = {
+                        @Persistent(name = "leaseItem"),
+                        @Persistent(name = "previous", recursionDepth = 1),
+                        @Persistent(name = "next", recursionDepth = 1) })
 })
 @DomainObjectLayout(bookmarking = BookmarkPolicy.AS_CHILD)
 @DomainObject()
@@ -389,22 +403,54 @@ public abstract class LeaseTerm
 
     @Action(semantics = SemanticsOf.IDEMPOTENT)
     public LeaseTerm verifyUntil(final LocalDate date) {
+        final boolean autoCreateTerms = getLeaseItem().getType().autoCreateTerms();
+        final LocalDateInterval effectiveInterval = autoCreateTerms ? getLeaseItem().getEffectiveInterval() : null;
+        verifyChainUntil(date, effectiveInterval, autoCreateTerms);
+        return this;
+    }
+
+    /**
+     * Verifies this term and, one after the other, its next terms; the effective interval and whether to auto create
+     * terms are those of the lease item, passed in as they are the same for all terms of the chain (the effective
+     * interval is only used when auto creating terms).
+     */
+    @Programmatic
+    public void verifyChainUntil(
+            final LocalDate date,
+            final LocalDateInterval effectiveInterval,
+            final boolean autoCreateTerms) {
+        final List<LeaseTerm> verifiedTerms = new ArrayList<>();
+        LeaseTerm term = this;
+        while (term != null) {
+            verifiedTerms.add(term);
+            term = term.verifyTermUntil(date, effectiveInterval, autoCreateTerms);
+        }
+        // last term first, as when the chain was verified recursively
+        for (int i = verifiedTerms.size() - 1; i >= 0; i--) {
+            verifiedTerms.get(i).doVerifyUntil(date);
+        }
+    }
+
+    /**
+     * Verifies this term only, returning the next term to verify, if any.
+     */
+    private LeaseTerm verifyTermUntil(
+            final LocalDate date,
+            final LocalDateInterval effectiveInterval,
+            final boolean autoCreateTerms) {
         LeaseTerm nextTerm = getNext();
-        boolean autoCreateTerms = getLeaseItem().getType().autoCreateTerms();
         if (autoCreateTerms) {
             // Remove items after the period
-            LocalDateInterval effectiveInterval = getLeaseItem().getEffectiveInterval();
             LocalDate endDateExcluding = effectiveInterval != null ? effectiveInterval.endDateExcluding() : date;
-            if (getNext() != null && endDateExcluding != null && getNext().getStartDate().compareTo(endDateExcluding) >= 0) {
-                getNext().doRemove();
-                return this;
+            if (nextTerm != null && endDateExcluding != null && nextTerm.getStartDate().compareTo(endDateExcluding) >= 0) {
+                nextTerm.doRemove();
+                return null;
             }
         }
         align();
         if (autoCreateTerms) {
             // convenience code to automatically create terms but not for terms
             // who have a start date after today
-            LocalDateInterval effectiveInterval = getLeaseItem().getEffectiveInterval();
             LocalDate minDate = ObjectUtils.min(effectiveInterval == null ? null : effectiveInterval.endDateExcluding(), date);
             LocalDate nextStartDate = nextStartDate();
             if (nextTerm == null && nextStartDate.compareTo(minDate) < 0) {
@@ -413,10 +459,15 @@ public abstract class LeaseTerm
                 nextTerm = createNext(nextstartDate, nextEndDate);
             }
         }
-        if (nextTerm != null) {
-            nextTerm.verifyUntil(date);
-        }
-        return this;
+        return nextTerm;
+    }
+
+    /**
+     * Optional hook for subclasses to do additional verification, called once the term and all of its next terms
+     * have been verified.
+     */
+    @Programmatic
+    protected void doVerifyUntil(final LocalDate date) {
     }
 
     protected LocalDate nextStartDate() {
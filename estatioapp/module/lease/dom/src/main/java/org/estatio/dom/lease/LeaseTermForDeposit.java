@@ -133,13 +133,9 @@ public class LeaseTermForDeposit extends LeaseTerm {
     }
 
     @Override
-    public LeaseTerm verifyUntil(final LocalDate date) {
-        super.verifyUntil(date);
-
+    protected void doVerifyUntil(final LocalDate date) {
         setDepositBase(calculateDepositBaseValue(date));
         setCalculatedDepositValue(getFraction().fractionOf(getDepositBase()));
-
-        return this;
     }
 
     @Programmatic
@@ -118,6 +118,15 @@ public class LeaseTermRepository extends UdoDomainRepositoryAndFactory<LeaseTerm
         return getClockService().now();
     }
 
+    /**
+     * The terms of all items of the leases, in a single query.
+     */
+    @Programmatic
+    public List<LeaseTerm> findByLeases(final List<Lease> leases) {
+        return allMatches("findByLeases",
+                "leases", leases);
+    }
+
     @Programmatic
     public List<LeaseTerm> findByLeaseItem(final LeaseItem leaseItem) {
         return allMatches("findByLeaseItem",
@@ -20,16 +20,23 @@
 package org.estatio.dom.lease;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import javax.inject.Inject;
 
+import com.google.common.collect.Sets;
 import com.google.common.eventbus.Subscribe;
 
 import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.NatureOfService;
 import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.eventbus.ObjectPersistingEvent;
+import org.apache.isis.applib.services.eventbus.ObjectRemovingEvent;
+import org.apache.isis.applib.services.eventbus.ObjectUpdatingEvent;
 import org.apache.isis.applib.services.title.TitleService;
 
+import org.estatio.dom.TransactionCompletionService;
 import org.estatio.dom.UdoDomainService;
 
 @DomainService(nature = NatureOfService.DOMAIN)
@@ -68,8 +75,93 @@ public class LeaseTermSubscriptions extends UdoDomainService<LeaseTermSubscripti
         }
     }
 
+    /**
+     * Marks the lease items changed, for the incremental invoice calculation, as the leases, lease items and lease terms
+     * are persisted, updated or removed; however they are changed, by an action, a property edit, a fixture or import,
+     * the update of an index value, or programmatically.  All items of a lease are marked when the lease itself is
+     * (eg when its dates are changed), else the item itself or that of the term; a term to be removed can still be
+     * followed to its item.
+     *
+     * <p>
+     * The invoice calculation verifies and invoices the leases {@link #withoutMarkingChanges(Supplier) without marking}
+     * the items it updates as changed.
+     * </p>
+     */
+    @Subscribe
+    @Programmatic
+    public void on(final ObjectPersistingEvent<?> ev) {
+        markChanged(ev.getSource());
+    }
+
+    @Subscribe
+    @Programmatic
+    public void on(final ObjectUpdatingEvent<?> ev) {
+        markChanged(ev.getSource());
+    }
+
+    @Subscribe
+    @Programmatic
+    public void on(final ObjectRemovingEvent<?> ev) {
+        markChanged(ev.getSource());
+    }
+
+    /**
+     * Executes the work, flushing its changes before returning, without marking the lease items it changes; the items
+     * changed by verification alone need no recalculation by the incremental invoice calculation.
+     */
+    @Programmatic
+    public <T> T withoutMarkingChanges(final Supplier<T> work) {
+        final boolean alreadyUnmarked = unmarked.get() != null;
+        unmarked.set(Boolean.TRUE);
+        try {
+            final T result = work.get();
+            getContainer().flush();
+            return result;
+        } finally {
+            if (!alreadyUnmarked) {
+                unmarked.remove();
+            }
+        }
+    }
+
+    /**
+     * Set while changes are not to be marked.
+     */
+    private final ThreadLocal<Boolean> unmarked = new ThreadLocal<>();
+
+    /**
+     * The items marked by the current transaction of the thread; each is marked once per transaction.
+     */
+    private final ThreadLocal<Set<LeaseItem>> markedInTransaction = new ThreadLocal<>();
+
+    private void markChanged(final Object source) {
+        if (unmarked.get() != null) {
+            return;
+        }
+        if (source instanceof Lease) {
+            for (LeaseItem leaseItem : ((Lease) source).getItems()) {
+                markChanged(leaseItem);
+            }
+        } else if (source instanceof LeaseItem) {
+            final LeaseItem leaseItem = (LeaseItem) source;
+            Set<LeaseItem> marked = markedInTransaction.get();
+            if (marked == null) {
+                marked = Sets.newIdentityHashSet();
+                markedInTransaction.set(marked);
+                transactionCompletionService.onCompletion(markedInTransaction::remove);
+            }
+            if (marked.add(leaseItem)) {
+                leaseItem.markChanged();
+            }
+        } else if (source instanceof LeaseTerm) {
+            markChanged(((LeaseTerm) source).getLeaseItem());
+        }
+    }
+
     @Inject
     LeaseTermRepository leaseTermRepository;
     @Inject
     TitleService titleService;
+    @Inject
+    TransactionCompletionService transactionCompletionService;
 }
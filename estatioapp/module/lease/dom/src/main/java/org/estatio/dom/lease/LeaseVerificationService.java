@@ -0,0 +1,135 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Sets;
+
+import org.apache.commons.lang3.ObjectUtils;
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.incode.module.base.dom.valuetypes.LocalDateInterval;
+
+import org.estatio.dom.UdoDomainService;
+
+/**
+ * Verifies a set of leases in bulk, with the same outcome as calling {@link Lease#verifyUntil(LocalDate)} on each.
+ *
+ * <p>
+ * The items and terms of all leases are loaded with one query each, rather than lease by lease and item by item as
+ * their collections are navigated, and each chain of terms is verified
+ * {@link LeaseTerm#verifyChainUntil(LocalDate, LocalDateInterval, boolean) iteratively}. Each term created along the way
+ * is flushed as it is {@link LeaseTermRepository#newLeaseTerm(LeaseItem, LeaseTerm, LocalDate, LocalDate) created}.
+ * </p>
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class LeaseVerificationService extends UdoDomainService<LeaseVerificationService> {
+
+    public LeaseVerificationService() {
+        super(LeaseVerificationService.class);
+    }
+
+    @Programmatic
+    public void verifyUntil(final List<Lease> leases, final LocalDate date) {
+        if (leases.isEmpty()) {
+            return;
+        }
+        final ListMultimap<Lease, LeaseItem> itemsByLease = ArrayListMultimap.create();
+        for (LeaseItem leaseItem : leaseItemRepository.findByLeases(leases)) {
+            itemsByLease.put(leaseItem.getLease(), leaseItem);
+        }
+        final ListMultimap<LeaseItem, LeaseTerm> firstTermsByItem = ArrayListMultimap.create();
+        for (LeaseTerm leaseTerm : leaseTermRepository.findByLeases(leases)) {
+            if (leaseTerm.getPrevious() == null) {
+                // only verify the first terms of a chain or the standalones
+                firstTermsByItem.put(leaseTerm.getLeaseItem(), leaseTerm);
+            }
+        }
+
+        for (Lease lease : leases) {
+            // in the order of the lease's (sorted) items and their (sorted) terms, as Lease#verifyUntil
+            final List<LeaseItem> leaseItems = Lists.newArrayList(itemsByLease.get(lease));
+            Collections.sort(leaseItems);
+            for (LeaseItem leaseItem : leaseItems) {
+                final LocalDateInterval effectiveInterval = leaseItem.getEffectiveInterval();
+                final LocalDate itemDate = ObjectUtils.min(effectiveInterval == null ? null : effectiveInterval.endDateExcluding(), date);
+                final boolean autoCreateTerms = leaseItem.getType().autoCreateTerms();
+                final List<LeaseTerm> firstTerms = Lists.newArrayList(firstTermsByItem.get(leaseItem));
+                Collections.sort(firstTerms);
+                for (LeaseTerm leaseTerm : firstTerms) {
+                    leaseTerm.verifyChainUntil(itemDate, effectiveInterval, autoCreateTerms);
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifies the terms, with the same outcome as calling {@link LeaseTerm#verify()} on each, but verifying each
+     * chain of terms once: a term that is one of the next terms of another (earlier) term of the same lease item is
+     * verified along with that term.
+     */
+    @Programmatic
+    public void verifyTerms(final Collection<? extends LeaseTerm> leaseTerms) {
+        final ListMultimap<LeaseItem, LeaseTerm> termsByItem = ArrayListMultimap.create();
+        for (LeaseTerm leaseTerm : leaseTerms) {
+            if (!termsByItem.containsEntry(leaseTerm.getLeaseItem(), leaseTerm)) {
+                termsByItem.put(leaseTerm.getLeaseItem(), leaseTerm);
+            }
+        }
+        final LocalDate now = getClockService().now();
+        for (LeaseItem leaseItem : termsByItem.keySet()) {
+            // as LeaseTerm#verify
+            final LocalDateInterval effectiveInterval = leaseItem.getEffectiveInterval();
+            final LocalDate itemDate = ObjectUtils.min(effectiveInterval == null ? null : effectiveInterval.endDateExcluding(), now);
+            final boolean autoCreateTerms = leaseItem.getType().autoCreateTerms();
+            final List<LeaseTerm> terms = Lists.newArrayList(termsByItem.get(leaseItem));
+            Collections.sort(terms);
+            final Set<LeaseTerm> verified = Sets.newHashSet();
+            for (LeaseTerm leaseTerm : terms) {
+                if (verified.contains(leaseTerm)) {
+                    continue;
+                }
+                leaseTerm.verifyChainUntil(itemDate, autoCreateTerms ? effectiveInterval : null, autoCreateTerms);
+                for (LeaseTerm term = leaseTerm; term != null; term = term.getNext()) {
+                    verified.add(term);
+                }
+            }
+        }
+    }
+
+    @Inject
+    LeaseItemRepository leaseItemRepository;
+
+    @Inject
+    LeaseTermRepository leaseTermRepository;
+
+}
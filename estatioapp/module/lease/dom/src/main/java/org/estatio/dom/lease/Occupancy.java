@@ -119,6 +119,13 @@ import lombok.Setter;
                         + "WHERE brand == :brand "
                         + "&& (:includeTerminated || endDate == null || endDate >= :date)")
 })
+@javax.jdo.annotations.FetchGroups({
+        @javax.jdo.annotations.FetchGroup(
+                name = LeaseGraphFetchPlan.LEASE_GRAPH,
+                members = {
+                        @javax.jdo.annotations.Persistent(name = "lease"),
+                        @javax.jdo.annotations.Persistent(name = "unit") })
+})
 @DomainObject(
         objectType = "org.estatio.dom.lease.Occupancy"
 )
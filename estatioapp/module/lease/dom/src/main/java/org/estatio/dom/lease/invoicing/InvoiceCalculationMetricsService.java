@@ -0,0 +1,127 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.jdo.PersistenceManager;
+
+import org.datanucleus.api.jdo.JDOPersistenceManager;
+import org.datanucleus.management.ManagerStatistics;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
+
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationMetrics;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationMetrics.Counter;
+
+/**
+ * Keeps the {@link InvoiceCalculationMetrics metrics} of the most recent invoice calculation runs, in memory.
+ *
+ * <p>
+ * A run is {@link #start(String) started} on each thread that takes part in it, which binds its metrics to that
+ * thread so that the {@link InvoiceCalculationService} records into them, and {@link #stop() stopped} when the thread
+ * is done. Only the last {@value #MAX_RUNS} runs are kept, and none survive a restart.
+ * </p>
+ *
+ * <p>
+ * The {@link Counter#QUERIES_ISSUED queries issued} by a thread between start and stop are taken from the statistics
+ * of its persistence manager, so are only counted when DataNucleus keeps them (<tt>datanucleus.enableStatistics</tt>).
+ * </p>
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class InvoiceCalculationMetricsService {
+
+    static final int MAX_RUNS = 50;
+
+    private final Map<String, InvoiceCalculationMetrics> metricsByRunId = Collections.synchronizedMap(
+            new LinkedHashMap<String, InvoiceCalculationMetrics>() {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, InvoiceCalculationMetrics> eldest) {
+                    return size() > MAX_RUNS;
+                }
+            });
+
+    private final ThreadLocal<InvoiceCalculationMetrics> current = new ThreadLocal<>();
+    private final ThreadLocal<Long> queriesIssuedAtStart = new ThreadLocal<>();
+
+    /**
+     * Binds the metrics of the run to the current thread, creating them the first time the run is started.
+     */
+    @Programmatic
+    public InvoiceCalculationMetrics start(final String runId) {
+        final InvoiceCalculationMetrics metrics = metricsByRunId.computeIfAbsent(runId, InvoiceCalculationMetrics::new);
+        current.set(metrics);
+        queriesIssuedAtStart.set(queriesIssued());
+        return metrics;
+    }
+
+    @Programmatic
+    public void stop() {
+        final InvoiceCalculationMetrics metrics = current.get();
+        final Long atStart = queriesIssuedAtStart.get();
+        final Long atStop = queriesIssued();
+        if (metrics != null && atStart != null && atStop != null) {
+            metrics.count(Counter.QUERIES_ISSUED, atStop - atStart);
+        }
+        current.remove();
+        queriesIssuedAtStart.remove();
+    }
+
+    /**
+     * The number of queries issued to the database by the persistence manager of the current thread so far;
+     * <tt>null</tt> if not known.
+     */
+    private Long queriesIssued() {
+        if (isisJdoSupport == null) {
+            return null;
+        }
+        final PersistenceManager persistenceManager = isisJdoSupport.getJdoPersistenceManager();
+        if (!(persistenceManager instanceof JDOPersistenceManager)) {
+            return null;
+        }
+        final ManagerStatistics statistics = ((JDOPersistenceManager) persistenceManager).getExecutionContext().getStatistics();
+        return statistics == null ? null : (long) statistics.getNumberOfDatastoreReads();
+    }
+
+    /**
+     * The metrics of the run the current thread takes part in, if any.
+     */
+    @Programmatic
+    public InvoiceCalculationMetrics current() {
+        return current.get();
+    }
+
+    /**
+     * The metrics of the run, provided it is one of the most recent runs since the application started.
+     */
+    @Programmatic
+    public InvoiceCalculationMetrics metricsFor(final String runId) {
+        return runId == null ? null : metricsByRunId.get(runId);
+    }
+
+    @Inject
+    IsisJdoSupport isisJdoSupport;
+
+}
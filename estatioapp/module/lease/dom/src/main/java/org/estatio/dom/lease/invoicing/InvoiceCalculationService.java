@@ -21,13 +21,23 @@ package org.estatio.dom.lease.invoicing;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.sql.Timestamp;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 
 import org.apache.commons.lang3.ObjectUtils;
@@ -45,17 +55,26 @@ import org.estatio.dom.UdoDomainService;
 import org.estatio.dom.appsettings.LeaseInvoicingSettingsService;
 import org.estatio.dom.base.FragmentRenderService;
 import org.estatio.dom.charge.Charge;
+import org.estatio.dom.invoice.Invoice;
+import org.estatio.dom.invoice.InvoiceItem;
 import org.estatio.dom.invoice.InvoiceRunType;
+import org.estatio.dom.invoice.InvoiceStatus;
 import org.estatio.dom.invoice.InvoicingInterval;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseConstants;
+import org.estatio.dom.lease.LeaseGraphFetchPlan;
 import org.estatio.dom.lease.LeaseItem;
 import org.estatio.dom.lease.LeaseItemStatus;
 import org.estatio.dom.lease.LeaseRepository;
 import org.estatio.dom.lease.LeaseStatus;
 import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.dom.lease.LeaseTermSubscriptions;
 import org.estatio.dom.lease.LeaseTermValueType;
+import org.estatio.dom.lease.LeaseVerificationService;
 import org.estatio.dom.lease.invoicing.ssrs.InvoiceItemAttributesVM;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationMetrics;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationMetrics.Counter;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationMetrics.Phase;
 
 //@RequestScoped  // TODO: this should be @RequestScoped, I think, since has a field
 @DomainService(menuOrder = "50", nature = NatureOfService.DOMAIN)
@@ -131,49 +150,108 @@ public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculati
         return leaseInvoicingSettingsService == null ? new LocalDate(1980, 1, 1) : leaseInvoicingSettingsService.fetchEpochDate();
     }
 
+    /**
+     * The calculated results of all terms of a single lease, in the order in which they were calculated.
+     */
+    public static class LeaseCalculationResult {
+        private final Lease lease;
+        private final Map<LeaseTerm, List<CalculationResult>> resultsByTerm = new LinkedHashMap<>();
+
+        public LeaseCalculationResult(final Lease lease) {
+            this.lease = lease;
+        }
+
+        public Lease lease() {
+            return lease;
+        }
+
+        public Map<LeaseTerm, List<CalculationResult>> resultsByTerm() {
+            return resultsByTerm;
+        }
+
+        void add(final LeaseTerm leaseTerm, final List<CalculationResult> results) {
+            resultsByTerm.put(leaseTerm, results);
+        }
+    }
+
     private String interactionId;
 
     private void startInteraction(final String parameters) {
         if (interactionId == null) {
-            interactionId = LocalDateTime.now().toString().concat(" - ").concat(parameters);
+            interactionId = newRunId(parameters);
+            startMetrics(interactionId);
         }
     }
 
     private void endInteraction() {
+        stopMetrics(true);
         interactionId = null;
     }
 
+    private static final String RUN_ID_SEPARATOR = " - ";
+
+    /**
+     * A run id recording the start of the run, by the {@link org.apache.isis.applib.services.clock.ClockService} as the
+     * {@link LeaseItem#getChangedAt() changes} of the lease items are, and its parameters.
+     */
+    @Programmatic
+    public String newRunId(final String parameters) {
+        return runIdFor(getClockService().nowAsLocalDateTime(), parameters);
+    }
+
+    static String runIdFor(final LocalDateTime startOfRun, final String parameters) {
+        return startOfRun.toString().concat(RUN_ID_SEPARATOR).concat(parameters);
+    }
+
+    /**
+     * The start of the run, as recorded in a run id created by {@link #newRunId(String)}; <tt>null</tt> if the run id
+     * is not of that format.
+     */
+    static LocalDateTime startOfRun(final String runId) {
+        final int separator = runId == null ? -1 : runId.indexOf(RUN_ID_SEPARATOR);
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(runId.substring(0, separator));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The parameters of the run, as recorded in a run id created by {@link #newRunId(String)}.
+     */
+    static String parametersOfRun(final String runId) {
+        final int separator = runId == null ? -1 : runId.indexOf(RUN_ID_SEPARATOR);
+        return separator < 0 ? null : runId.substring(separator + RUN_ID_SEPARATOR.length());
+    }
+
+    /**
+     * Calculates the leases and reconciles the NEW invoices of the property and due date with the result: the
+     * invoices of leases that are not calculated are removed, those of the calculated leases are
+     * {@link #reconcileLease(LeaseCalculationResult, InvoiceCalculationParameters, String) reconciled}.
+     */
     @Programmatic
-    public String calculateAndInvoice(InvoiceCalculationParameters parameters) {
+    public String calculateAndInvoice(final InvoiceCalculationParameters parameters) {
+        // items, terms etc of the leases are loaded along with them, rather than as navigated to
+        return leaseGraphFetchPlan.fetching(
+                () -> leaseTermSubscriptions.withoutMarkingChanges(() -> doCalculateAndInvoice(parameters)));
+    }
+
+    private String doCalculateAndInvoice(final InvoiceCalculationParameters parameters) {
         String lastInteractionId = null;
-        invoiceForLeaseRepository.removeRuns(parameters);
         try {
             startInteraction(parameters.toString());
-            final List<Lease> leases = parameters.leases();
-            for (Lease lease : leases.size() == 0 ? leaseRepository.findLeasesByProperty(parameters.property()) : leases) {
-                lease.verifyUntil(parameters.dueDateRange().endDateExcluding());
-                if (lease.getStatus() != LeaseStatus.SUSPENDED) {
-                    SortedSet<LeaseItem> leaseItems =
-                            parameters.leaseItem() == null ?
-                                    lease.getItems() :
-                                    new TreeSet<>(Arrays.asList(parameters.leaseItem()));
-                    for (LeaseItem leaseItem : leaseItems) {
-                        if (!leaseItem.getStatus().equals(LeaseItemStatus.SUSPENDED) && leaseItem.getInvoicedBy().equals(LeaseConstants.AgreementRoleType.LANDLORD)) {
-                            //TODO: We only filter the Landlords
-                            if (parameters.leaseItemTypes() == null || parameters.leaseItemTypes().contains(leaseItem.getType())) {
-                                SortedSet<LeaseTerm> leaseTerms =
-                                        parameters.leaseTerm() == null ?
-                                                leaseItem.getTerms() :
-                                                new TreeSet<>(Arrays.asList(parameters.leaseTerm()));
-                                for (LeaseTerm leaseTerm : leaseTerms) {
-                                    final List<CalculationResult> results;
-                                    results = calculateDueDateRange(leaseTerm, parameters);
-                                    createInvoiceItems(leaseTerm, parameters, results);
-                                }
-                            }
-                        }
-                    }
-                }
+            final List<Lease> leases = leasesToCalculate(parameters);
+            final long removeStarted = System.nanoTime();
+            invoiceForLeaseRepository.removeRunsExcept(parameters, leases);
+            time(Phase.PERSIST, removeStarted);
+            final long verifyStarted = System.nanoTime();
+            leaseVerificationService.verifyUntil(leases, parameters.dueDateRange().endDateExcluding());
+            time(Phase.VERIFY, verifyStarted);
+            for (Lease lease : leases) {
+                reconcileLease(calculateVerifiedLease(lease, parameters), parameters, interactionId);
             }
         } finally {
             lastInteractionId = interactionId;
@@ -182,6 +260,411 @@ public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculati
         return lastInteractionId;
     }
 
+    /**
+     * Incrementally recalculates the last run for the same parameters, that is: only recalculates the lease items
+     * {@link LeaseItem#getChangedAt() changed} since the start of that run, keeping the invoice items of all other lease
+     * items.
+     *
+     * <p>
+     * The last run is identified from the NEW invoices of the property and due date, which must all belong to a
+     * single run calculated with the same parameters (the run type aside). When there is no such run, all leases are
+     * calculated, as by {@link #calculateAndInvoice(InvoiceCalculationParameters)}.
+     * </p>
+     *
+     * @return the run id of the last run, to which the recalculated items are added
+     */
+    @Programmatic
+    public String recalculateAndInvoice(final InvoiceCalculationParameters parameters) {
+        final List<InvoiceForLease> invoices = invoiceForLeaseRepository.findByFixedAssetAndDueDateAndStatus(
+                parameters.property(), parameters.invoiceDueDate(), InvoiceStatus.NEW);
+        final String runId = lastRunId(invoices, parameters);
+        if (runId == null) {
+            return calculateAndInvoice(parameters);
+        }
+        final Timestamp startOfRun = new Timestamp(startOfRun(runId).toDate().getTime());
+        final ListMultimap<Lease, InvoiceForLease> invoicesByLease = ArrayListMultimap.create();
+        for (InvoiceForLease invoice : invoices) {
+            invoicesByLease.put(invoice.getLease(), invoice);
+        }
+        try {
+            startMetrics(runId);
+            leaseTermSubscriptions.withoutMarkingChanges(() -> {
+                for (Lease lease : leasesToCalculate(parameters)) {
+                    final Set<LeaseItem> changedItems = itemsChangedSince(lease, startOfRun);
+                    if (changedItems.isEmpty()) {
+                        continue;
+                    }
+                    final long removeStarted = System.nanoTime();
+                    invoiceForLeaseRepository.removeRunItems(invoicesByLease.get(lease), changedItems);
+                    getContainer().flush();
+                    time(Phase.PERSIST, removeStarted);
+
+                    final long verifyStarted = System.nanoTime();
+                    lease.verifyUntil(parameters.dueDateRange().endDateExcluding());
+                    time(Phase.VERIFY, verifyStarted);
+                    invoiceLease(calculateTerms(lease, parameters, changedItems), parameters, runId);
+                }
+                return null;
+            });
+        } finally {
+            // the elapsed time remains that of the run itself
+            stopMetrics(false);
+        }
+        return runId;
+    }
+
+    /**
+     * The id of the run that all invoices belong to, provided that it was calculated with the same parameters.
+     */
+    static String lastRunId(final List<InvoiceForLease> invoices, final InvoiceCalculationParameters parameters) {
+        String runId = null;
+        for (InvoiceForLease invoice : invoices) {
+            if (invoice.getRunId() == null || (runId != null && !runId.equals(invoice.getRunId()))) {
+                return null;
+            }
+            runId = invoice.getRunId();
+        }
+        return runId != null && startOfRun(runId) != null && parameters.toString().equals(parametersOfRun(runId))
+                ? runId
+                : null;
+    }
+
+    /**
+     * The items of the lease {@link LeaseItem#getChangedAt() changed} since the timestamp; not those that were merely
+     * verified, as by the run itself.
+     */
+    static Set<LeaseItem> itemsChangedSince(final Lease lease, final Timestamp timestamp) {
+        final Set<LeaseItem> changedItems = new HashSet<>();
+        for (LeaseItem leaseItem : lease.getItems()) {
+            if (leaseItem.getChangedAt() != null && leaseItem.getChangedAt().after(timestamp)) {
+                changedItems.add(leaseItem);
+            }
+        }
+        return changedItems;
+    }
+
+    /**
+     * The leases in scope of the parameters: either those provided or else all leases of the property.
+     */
+    @Programmatic
+    public List<Lease> leasesToCalculate(final InvoiceCalculationParameters parameters) {
+        final List<Lease> leases = parameters.leases();
+        if (leases.size() == 0) {
+            return leaseRepository.findLeasesByPropertyWithGraph(parameters.property());
+        }
+        return leases;
+    }
+
+    /**
+     * Verifies the lease and calculates all of its terms in scope of the parameters, without creating any invoice
+     * items.
+     */
+    @Programmatic
+    public LeaseCalculationResult calculateLease(final Lease lease, final InvoiceCalculationParameters parameters) {
+        final long verifyStarted = System.nanoTime();
+        leaseTermSubscriptions.withoutMarkingChanges(() -> {
+            lease.verifyUntil(parameters.dueDateRange().endDateExcluding());
+            return null;
+        });
+        time(Phase.VERIFY, verifyStarted);
+        return calculateTerms(lease, parameters, null);
+    }
+
+    /**
+     * As {@link #calculateLease(Lease, InvoiceCalculationParameters)}, for a lease that has already been verified
+     * until the end of the due date range, typically in bulk by the {@link LeaseVerificationService}.
+     */
+    @Programmatic
+    public LeaseCalculationResult calculateVerifiedLease(final Lease lease, final InvoiceCalculationParameters parameters) {
+        return calculateTerms(lease, parameters, null);
+    }
+
+    /**
+     * Calculates the terms of the lease, restricted to the given lease items unless <tt>null</tt>.
+     */
+    private LeaseCalculationResult calculateTerms(
+            final Lease lease,
+            final InvoiceCalculationParameters parameters,
+            final Set<LeaseItem> leaseItemsToCalculate) {
+        final long calculateStarted = System.nanoTime();
+        count(Counter.LEASES_VISITED, 1);
+        final LeaseCalculationResult leaseCalculationResult = new LeaseCalculationResult(lease);
+        if (lease.getStatus() != LeaseStatus.SUSPENDED) {
+            SortedSet<LeaseItem> leaseItems =
+                    parameters.leaseItem() == null ?
+                            lease.getItems() :
+                            new TreeSet<>(Arrays.asList(parameters.leaseItem()));
+            for (LeaseItem leaseItem : leaseItems) {
+                if (leaseItemsToCalculate != null && !leaseItemsToCalculate.contains(leaseItem)) {
+                    continue;
+                }
+                count(Counter.ITEMS_VISITED, 1);
+                if (!leaseItem.getStatus().equals(LeaseItemStatus.SUSPENDED) && leaseItem.getInvoicedBy().equals(LeaseConstants.AgreementRoleType.LANDLORD)) {
+                    //TODO: We only filter the Landlords
+                    if (parameters.leaseItemTypes() == null || parameters.leaseItemTypes().contains(leaseItem.getType())) {
+                        SortedSet<LeaseTerm> leaseTerms =
+                                parameters.leaseTerm() == null ?
+                                        leaseItem.getTerms() :
+                                        new TreeSet<>(Arrays.asList(parameters.leaseTerm()));
+                        for (LeaseTerm leaseTerm : leaseTerms) {
+                            count(Counter.TERMS_VISITED, 1);
+                            leaseCalculationResult.add(leaseTerm, calculateDueDateRange(leaseTerm, parameters));
+                        }
+                    }
+                }
+            }
+        }
+        time(Phase.CALCULATE, calculateStarted);
+        return leaseCalculationResult;
+    }
+
+    /**
+     * Creates the invoice items for a {@link #calculateLease(Lease, InvoiceCalculationParameters) calculated} lease,
+     * as part of the run identified by the run id.
+     */
+    @Programmatic
+    public void invoiceLease(
+            final LeaseCalculationResult leaseCalculationResult,
+            final InvoiceCalculationParameters parameters,
+            final String runId) {
+        if (leaseCalculationResult.resultsByTerm().isEmpty()) {
+            return;
+        }
+        final long lookupStarted = System.nanoTime();
+        final InvoicedValues invoicedValues = invoiceItemForLeaseRepository.invoicedValuesFor(leaseCalculationResult.lease());
+        time(Phase.LOOKUP_INVOICED_VALUE, lookupStarted);
+        for (Map.Entry<LeaseTerm, List<CalculationResult>> entry : leaseCalculationResult.resultsByTerm().entrySet()) {
+            createInvoiceItems(entry.getKey(), parameters, entry.getValue(), invoicedValues, runId);
+        }
+    }
+
+    /**
+     * Persists the invoices for a {@link #calculateLease(Lease, InvoiceCalculationParameters) calculated} lease, as
+     * part of the run identified by the run id, by patching the lease's existing NEW invoices for the property and
+     * due date rather than removing and recreating them.
+     *
+     * <p>
+     * Existing invoices and items that match the calculated ones are kept (with their UUID and attached documents);
+     * the invoices are brought up to date with the lease (such as its payer and invoice address) and the items only
+     * updated if their amounts, dates or descriptions differ. Missing invoices and items are created and obsolete
+     * ones removed. The
+     * result is the same as {@link InvoiceForLeaseRepository#removeRuns(InvoiceCalculationParameters) removing} the
+     * invoices followed by {@link #invoiceLease(LeaseCalculationResult, InvoiceCalculationParameters, String)}, with
+     * a single flush for the lease.
+     * </p>
+     */
+    @Programmatic
+    public void reconcileLease(
+            final LeaseCalculationResult leaseCalculationResult,
+            final InvoiceCalculationParameters parameters,
+            final String runId) {
+        final long findStarted = System.nanoTime();
+        final List<InvoiceForLease> existingInvoices =
+                invoiceForLeaseRepository.findRunInvoicesOfLease(leaseCalculationResult.lease(), parameters);
+        time(Phase.PERSIST, findStarted);
+        if (leaseCalculationResult.resultsByTerm().isEmpty() && existingInvoices.isEmpty()) {
+            return;
+        }
+        final InvoicePreview calculated = new InvoicePreview();
+        previewLease(leaseCalculationResult, parameters, calculated);
+
+        for (InvoicePreview.PreviewInvoice calculatedInvoice : calculated.invoices().collect(Collectors.toList())) {
+            InvoiceForLease invoice = takeMatchingInvoice(existingInvoices, calculatedInvoice);
+            if (invoice == null) {
+                final long persistStarted = System.nanoTime();
+                invoice = invoiceForLeaseRepository.newInvoiceForRun(
+                        calculatedInvoice.getItems().get(0).getLeaseTerm().getApplicationTenancy(),
+                        calculatedInvoice.getPaymentMethod(),
+                        calculatedInvoice.getLease(),
+                        calculatedInvoice.getDueDate(),
+                        runId);
+                count(Counter.INVOICES_CREATED, 1);
+                time(Phase.PERSIST, persistStarted);
+            } else {
+                invoiceForLeaseRepository.updateForRun(
+                        invoice,
+                        calculatedInvoice.getItems().get(0).getLeaseTerm().getApplicationTenancy(),
+                        runId);
+            }
+            reconcileItems(invoice, calculatedInvoice.getItems());
+        }
+        final long persistStarted = System.nanoTime();
+        for (InvoiceForLease obsoleteInvoice : existingInvoices) {
+            invoiceForLeaseRepository.removeInvoice(obsoleteInvoice);
+        }
+        getContainer().flush();
+        time(Phase.PERSIST, persistStarted);
+    }
+
+    private static InvoiceForLease takeMatchingInvoice(
+            final List<InvoiceForLease> invoices,
+            final InvoicePreview.PreviewInvoice calculatedInvoice) {
+        for (Iterator<InvoiceForLease> iterator = invoices.iterator(); iterator.hasNext(); ) {
+            final InvoiceForLease invoice = iterator.next();
+            if (invoice.getSeller() == calculatedInvoice.getSeller()
+                    && invoice.getBuyer() == calculatedInvoice.getBuyer()
+                    && invoice.getPaymentMethod() == calculatedInvoice.getPaymentMethod()
+                    && Objects.equals(invoice.getDueDate(), calculatedInvoice.getDueDate())) {
+                iterator.remove();
+                return invoice;
+            }
+        }
+        return null;
+    }
+
+    private void reconcileItems(final InvoiceForLease invoice, final List<InvoicePreview.PreviewItem> calculatedItems) {
+        final List<InvoiceItem> existingItems = Lists.newArrayList(invoice.getItems());
+        for (InvoicePreview.PreviewItem calculatedItem : calculatedItems) {
+            InvoiceItemForLease invoiceItem = takeMatchingItem(existingItems, calculatedItem);
+            if (invoiceItem == null) {
+                final long persistStarted = System.nanoTime();
+                invoiceItem = invoiceItemForLeaseRepository.newInvoiceItem(
+                        invoice,
+                        calculatedItem.getLeaseTerm(),
+                        LocalDateInterval.including(calculatedItem.getStartDate(), calculatedItem.getEndDate()),
+                        calculatedItem.getDueDate());
+                count(Counter.INVOICE_ITEMS_CREATED, 1);
+                time(Phase.PERSIST, persistStarted);
+            } else if (isUnchanged(invoiceItem, calculatedItem)) {
+                continue;
+            }
+            populate(
+                    invoiceItem,
+                    calculatedItem.getLeaseTerm(),
+                    calculatedItem.getDueDate(),
+                    calculatedItem.getStartDate(),
+                    calculatedItem.getEndDate(),
+                    LocalDateInterval.including(calculatedItem.getEffectiveStartDate(), calculatedItem.getEffectiveEndDate()),
+                    calculatedItem.getNetAmount(),
+                    calculatedItem.isAdjustment());
+        }
+        final long persistStarted = System.nanoTime();
+        for (InvoiceItem obsoleteItem : existingItems) {
+            obsoleteItem.remove();
+        }
+        time(Phase.PERSIST, persistStarted);
+    }
+
+    private static InvoiceItemForLease takeMatchingItem(
+            final List<InvoiceItem> invoiceItems,
+            final InvoicePreview.PreviewItem calculatedItem) {
+        for (Iterator<InvoiceItem> iterator = invoiceItems.iterator(); iterator.hasNext(); ) {
+            final InvoiceItem invoiceItem = iterator.next();
+            if (invoiceItem instanceof InvoiceItemForLease
+                    && ((InvoiceItemForLease) invoiceItem).getLeaseTerm() == calculatedItem.getLeaseTerm()
+                    && Objects.equals(invoiceItem.getStartDate(), calculatedItem.getStartDate())
+                    && Objects.equals(invoiceItem.getEndDate(), calculatedItem.getEndDate())) {
+                iterator.remove();
+                return (InvoiceItemForLease) invoiceItem;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether the item already is as {@link #populate(InvoiceItemForLease, LeaseTerm, LocalDate, LocalDate, LocalDate, LocalDateInterval, BigDecimal, boolean) populating}
+     * it with the calculated values would leave it. The description is only rendered once all else matches, and then
+     * from the item itself, its attributes being those of the calculated item.
+     */
+    private boolean isUnchanged(final InvoiceItemForLease invoiceItem, final InvoicePreview.PreviewItem calculatedItem) {
+        return invoiceItem.getNetAmount() != null
+                && invoiceItem.getNetAmount().compareTo(calculatedItem.getNetAmount()) == 0
+                && invoiceItem.getCharge() == calculatedItem.getCharge()
+                && invoiceItem.getTax() == calculatedItem.getTax()
+                && Objects.equals(invoiceItem.getDueDate(), calculatedItem.getDueDate())
+                && Objects.equals(invoiceItem.getEffectiveStartDate(), calculatedItem.getEffectiveStartDate())
+                && Objects.equals(invoiceItem.getEffectiveEndDate(), calculatedItem.getEffectiveEndDate())
+                && Objects.equals(invoiceItem.getAdjustment(), calculatedItem.isAdjustment())
+                && Objects.equals(invoiceItem.getDescription(), renderDescription(invoiceItem));
+    }
+
+    /**
+     * Previews the invoices that {@link #calculateAndInvoice(InvoiceCalculationParameters) calculating and invoicing}
+     * with the same parameters would create, without inserting, removing or flushing anything.
+     *
+     * <p>
+     * The NEW invoices that the run would remove first are not taken into account as already invoiced. Unlike the run,
+     * the preview does not verify the leases (which could create lease terms), so the terms are calculated as they
+     * currently are.
+     * </p>
+     */
+    @Programmatic
+    public InvoicePreview preview(final InvoiceCalculationParameters parameters) {
+        return preview(parameters, new InvoicePreview());
+    }
+
+    /**
+     * As {@link #preview(InvoiceCalculationParameters)}, adding to an existing preview; for example to preview all
+     * properties of a country at once.
+     */
+    @Programmatic
+    public InvoicePreview preview(final InvoiceCalculationParameters parameters, final InvoicePreview preview) {
+        return leaseGraphFetchPlan.fetching(() -> {
+            for (Lease lease : leasesToCalculate(parameters)) {
+                previewLease(calculateTerms(lease, parameters, null), parameters, preview);
+            }
+            return preview;
+        });
+    }
+
+    private void previewLease(
+            final LeaseCalculationResult leaseCalculationResult,
+            final InvoiceCalculationParameters parameters,
+            final InvoicePreview preview) {
+        if (leaseCalculationResult.resultsByTerm().isEmpty()) {
+            return;
+        }
+        final long lookupStarted = System.nanoTime();
+        final List<InvoiceItemForLease> invoicedItems = Lists.newArrayList();
+        for (InvoiceItemForLease invoiceItem : invoiceItemForLeaseRepository.findByLeaseTermOfLease(leaseCalculationResult.lease())) {
+            if (!isRemovedByRun(invoiceItem, parameters)) {
+                invoicedItems.add(invoiceItem);
+            }
+        }
+        final InvoicedValues invoicedValues = new InvoicedValues(invoicedItems);
+        time(Phase.LOOKUP_INVOICED_VALUE, lookupStarted);
+        for (Map.Entry<LeaseTerm, List<CalculationResult>> entry : leaseCalculationResult.resultsByTerm().entrySet()) {
+            final LeaseTerm leaseTerm = entry.getKey();
+            final LeaseItem leaseItem = leaseTerm.getLeaseItem();
+            for (CalculationResult result : entry.getValue()) {
+                final ItemToInvoice itemToInvoice = itemToInvoice(leaseTerm, parameters, result, invoicedValues);
+                if (itemToInvoice == null) {
+                    continue;
+                }
+                final LocalDateInterval effectiveInterval = itemToInvoice.effectiveInterval();
+                preview.add(new InvoicePreview.PreviewItem(
+                        leaseTerm,
+                        leaseItem.getPaymentMethod(),
+                        leaseItem.getCharge(),
+                        parameters.invoiceDueDate(),
+                        result.invoicingInterval().startDate(),
+                        result.invoicingInterval().endDate(),
+                        effectiveInterval.startDate(),
+                        effectiveInterval.endDate(),
+                        itemToInvoice.adjustment,
+                        leaseItem.getEffectiveTax(),
+                        itemToInvoice.netAmount));
+                invoicedValues.add(
+                        leaseTerm,
+                        result.invoicingInterval().startDate(),
+                        result.invoicingInterval().endDate(),
+                        itemToInvoice.netAmount);
+            }
+        }
+    }
+
+    /**
+     * Whether the invoice item is on one of the NEW invoices that
+     * {@link InvoiceForLeaseRepository#removeRuns(InvoiceCalculationParameters)} removes.
+     */
+    static boolean isRemovedByRun(final InvoiceItemForLease invoiceItem, final InvoiceCalculationParameters parameters) {
+        final Invoice<?> invoice = invoiceItem.getInvoice();
+        return invoice instanceof InvoiceForLease
+                && invoice.getStatus() == InvoiceStatus.NEW
+                && Objects.equals(((InvoiceForLease) invoice).getFixedAsset(), parameters.property())
+                && Objects.equals(invoice.getDueDate(), parameters.invoiceDueDate());
+    }
+
     /**
      * Calculates a term with a given invoicing frequency
      */
@@ -203,6 +686,7 @@ public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculati
             final List<InvoicingInterval> intervals = leaseTerm.getLeaseItem().getInvoicingFrequency().intervalsInDueDateRange(
                     dueDateRangeInterval,
                     leaseTerm.getInterval());
+            count(Counter.INTERVALS_GENERATED, intervals.size());
 
             final LocalDate dueDateForCalculation
                     = parameters.dueDateRange().endDateExcluding().minusDays(1);
@@ -290,58 +774,165 @@ public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculati
         return new BigDecimal("0.00");
     }
 
+    /**
+     * The difference between the already invoiced and calculated value of a calculation result, to invoice.
+     */
+    static class ItemToInvoice {
+        private final CalculationResult result;
+        private final BigDecimal netAmount;
+        private final boolean adjustment;
+
+        ItemToInvoice(final CalculationResult result, final BigDecimal netAmount, final boolean adjustment) {
+            this.result = result;
+            this.netAmount = netAmount;
+            this.adjustment = adjustment;
+        }
+
+        LocalDateInterval effectiveInterval() {
+            return adjustment
+                    ? result.invoicingInterval().asLocalDateInterval()
+                    : result.effectiveInterval();
+        }
+    }
+
+    /**
+     * Returns the item to invoice for a calculation result, or <tt>null</tt> if there is nothing (more) to invoice.
+     */
+    private ItemToInvoice itemToInvoice(
+            final LeaseTerm leaseTerm,
+            final InvoiceCalculationParameters parameters,
+            final CalculationResult result,
+            final InvoicedValues invoicedValues) {
+        // TODO: this is a hack to speed up processing by ignoring zero
+        // values on a normal run
+        if (result.value().compareTo(BigDecimal.ZERO) != 0 || parameters.invoiceRunType().equals(InvoiceRunType.RETRO_RUN)) {
+            final long lookupStarted = System.nanoTime();
+            BigDecimal invoicedValue = invoicedValues.invoicedValue(leaseTerm, result.invoicingInterval().asLocalDateInterval());
+            time(Phase.LOOKUP_INVOICED_VALUE, lookupStarted);
+            BigDecimal newValue = result.value().subtract(invoicedValue);
+            if (newValue.compareTo(BigDecimal.ZERO) != 0) {
+                boolean adjustment = invoicedValue.compareTo(BigDecimal.ZERO) != 0;
+                return new ItemToInvoice(result, newValue, adjustment);
+            }
+        }
+        return null;
+    }
+
     /**
      * Calculates an invoice item with the difference between the already
      * invoiced and calculated value.
+     *
+     * <p>
+     * The already invoiced values are looked up in the provided {@link InvoicedValues}, which is kept up to date
+     * with the items created here.
+     * </p>
      */
     void createInvoiceItems(
             final LeaseTerm leaseTerm,
             final InvoiceCalculationParameters parameters,
-            final List<CalculationResult> results) {
+            final List<CalculationResult> results,
+            final InvoicedValues invoicedValues,
+            final String runId) {
 
         for (CalculationResult result : results) {
-            // TODO: this is a hack to speed up processing by ignoring zero
-            // values on a normal run
-            if (result.value().compareTo(BigDecimal.ZERO) != 0 || parameters.invoiceRunType().equals(InvoiceRunType.RETRO_RUN)) {
-                BigDecimal invoicedValue = invoiceItemForLeaseRepository.invoicedValue(leaseTerm, result.invoicingInterval().asLocalDateInterval());
-                BigDecimal newValue = result.value().subtract(invoicedValue);
-                if (newValue.compareTo(BigDecimal.ZERO) != 0) {
-                    boolean adjustment = invoicedValue.compareTo(BigDecimal.ZERO) != 0;
-                    InvoiceItemForLease invoiceItem =
-                            invoiceItemForLeaseRepository.createUnapprovedInvoiceItem(
-                                    leaseTerm,
-                                    result.invoicingInterval().asLocalDateInterval(),
-                                    parameters.invoiceDueDate(),
-                                    interactionId);
-                    invoiceItem.setNetAmount(newValue);
-                    invoiceItem.setQuantity(BigDecimal.ONE);
-                    LeaseItem leaseItem = leaseTerm.getLeaseItem();
-                    Charge charge = leaseItem.getCharge();
-                    invoiceItem.setCharge(charge);
-                    invoiceItem.setDueDate(parameters.invoiceDueDate());
-                    invoiceItem.setStartDate(result.invoicingInterval().startDate());
-                    invoiceItem.setEndDate(result.invoicingInterval().endDate());
-
-                    LocalDateInterval intervalToUse =
-                            adjustment
-                                    ? result.invoicingInterval().asLocalDateInterval()
-                                    : result.effectiveInterval();
-                    invoiceItem.setEffectiveStartDate(intervalToUse.startDate());
-                    invoiceItem.setEffectiveEndDate(intervalToUse.endDate());
-
-                    invoiceItem.setTax(leaseItem.getEffectiveTax());
-
-                    final InvoiceItemAttributesVM vm = new InvoiceItemAttributesVM(invoiceItem);
-                    final String description = fragmentRenderService.render(vm, "description");
-                    invoiceItem.setDescription(description);
-
-                    invoiceItem.verify();
-                    invoiceItem.setAdjustment(adjustment);
-                }
+            final ItemToInvoice itemToInvoice = itemToInvoice(leaseTerm, parameters, result, invoicedValues);
+            if (itemToInvoice != null) {
+                final long persistStarted = System.nanoTime();
+                InvoiceItemForLease invoiceItem =
+                        invoiceItemForLeaseRepository.createUnapprovedInvoiceItem(
+                                leaseTerm,
+                                result.invoicingInterval().asLocalDateInterval(),
+                                parameters.invoiceDueDate(),
+                                runId);
+                count(Counter.INVOICE_ITEMS_CREATED, 1);
+                time(Phase.PERSIST, persistStarted);
+                populate(
+                        invoiceItem,
+                        leaseTerm,
+                        parameters.invoiceDueDate(),
+                        result.invoicingInterval().startDate(),
+                        result.invoicingInterval().endDate(),
+                        itemToInvoice.effectiveInterval(),
+                        itemToInvoice.netAmount,
+                        itemToInvoice.adjustment);
+                invoicedValues.add(invoiceItem);
             }
         }
     }
 
+    private void populate(
+            final InvoiceItemForLease invoiceItem,
+            final LeaseTerm leaseTerm,
+            final LocalDate dueDate,
+            final LocalDate startDate,
+            final LocalDate endDate,
+            final LocalDateInterval effectiveInterval,
+            final BigDecimal netAmount,
+            final boolean adjustment) {
+        invoiceItem.setNetAmount(netAmount);
+        invoiceItem.setQuantity(BigDecimal.ONE);
+        LeaseItem leaseItem = leaseTerm.getLeaseItem();
+        Charge charge = leaseItem.getCharge();
+        invoiceItem.setCharge(charge);
+        invoiceItem.setDueDate(dueDate);
+        invoiceItem.setStartDate(startDate);
+        invoiceItem.setEndDate(endDate);
+
+        invoiceItem.setEffectiveStartDate(effectiveInterval.startDate());
+        invoiceItem.setEffectiveEndDate(effectiveInterval.endDate());
+
+        invoiceItem.setTax(leaseItem.getEffectiveTax());
+
+        invoiceItem.setDescription(renderDescription(invoiceItem));
+
+        invoiceItem.verify();
+        invoiceItem.setAdjustment(adjustment);
+    }
+
+    private String renderDescription(final InvoiceItemForLease invoiceItem) {
+        final long renderStarted = System.nanoTime();
+        final InvoiceItemAttributesVM vm = new InvoiceItemAttributesVM(invoiceItem);
+        final String description = fragmentRenderService.render(vm, "description");
+        time(Phase.RENDER_DESCRIPTION, renderStarted);
+        return description;
+    }
+
+    // //////////////////////////////////////
+
+    private void startMetrics(final String runId) {
+        if (invoiceCalculationMetricsService != null) {
+            invoiceCalculationMetricsService.start(runId);
+        }
+    }
+
+    private void stopMetrics(final boolean finished) {
+        final InvoiceCalculationMetrics metrics = currentMetrics();
+        if (metrics != null) {
+            if (finished) {
+                metrics.finished();
+            }
+            invoiceCalculationMetricsService.stop();
+        }
+    }
+
+    private InvoiceCalculationMetrics currentMetrics() {
+        return invoiceCalculationMetricsService == null ? null : invoiceCalculationMetricsService.current();
+    }
+
+    private void count(final Counter counter, final long count) {
+        final InvoiceCalculationMetrics metrics = currentMetrics();
+        if (metrics != null) {
+            metrics.count(counter, count);
+        }
+    }
+
+    private void time(final Phase phase, final long startedNanos) {
+        final InvoiceCalculationMetrics metrics = currentMetrics();
+        if (metrics != null) {
+            metrics.time(phase, System.nanoTime() - startedNanos);
+        }
+    }
+
     // //////////////////////////////////////
 
     @javax.inject.Inject
@@ -359,4 +950,16 @@ public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculati
     @Inject
     private LeaseRepository leaseRepository;
 
+    @Inject
+    private LeaseVerificationService leaseVerificationService;
+
+    @Inject
+    private LeaseTermSubscriptions leaseTermSubscriptions;
+
+    @Inject
+    private LeaseGraphFetchPlan leaseGraphFetchPlan;
+
+    @Inject
+    InvoiceCalculationMetricsService invoiceCalculationMetricsService;
+
 }
@@ -71,6 +71,8 @@ import org.estatio.dom.invoice.InvoiceStatus;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.Occupancy;
 import org.estatio.dom.lease.invoicing.ssrs.InvoiceAttributesVM;
+import org.estatio.dom.lease.invoicing.summary.InvoiceSummaryStore;
+import org.estatio.dom.lease.invoicing.summary.InvoiceSummaryTotal;
 import org.estatio.dom.lease.invoicing.ssrs.InvoiceItemAttributesVM;
 import org.estatio.dom.roles.EstatioRole;
 import org.estatio.numerator.dom.impl.Numerator;
@@ -113,6 +115,15 @@ import lombok.Setter;
                         "fixedAsset == :fixedAsset && " +
                         "status == :status " +
                         "ORDER BY invoiceNumber"),
+        @javax.jdo.annotations.Query(
+                name = "findByFixedAssetAndStatusAfterId", language = "JDOQL",
+                value = "SELECT " +
+                        "FROM org.estatio.dom.invoice.Invoice " +
+                        "WHERE " +
+                        "fixedAsset == :fixedAsset && " +
+                        "status == :status && " +
+                        "JDOHelper.getObjectId(this) > :after " +
+                        "ORDER BY JDOHelper.getObjectId(this)"),
         @javax.jdo.annotations.Query(
                 name = "findByFixedAssetAndDueDateAndStatus", language = "JDOQL",
                 value = "SELECT FROM org.estatio.dom.invoice.Invoice " +
@@ -121,6 +132,15 @@ import lombok.Setter;
                         "status == :status && " +
                         "dueDate == :dueDate " +
                         "ORDER BY invoiceNumber"),
+        @javax.jdo.annotations.Query(
+                name = "findByLeaseAndFixedAssetAndDueDateAndStatus", language = "JDOQL",
+                value = "SELECT FROM org.estatio.dom.invoice.Invoice " +
+                        "WHERE " +
+                        "lease == :lease && " +
+                        "fixedAsset == :fixedAsset && " +
+                        "status == :status && " +
+                        "dueDate == :dueDate " +
+                        "ORDER BY invoiceNumber"),
         @javax.jdo.annotations.Query(
                 name = "findByFixedAssetAndDueDate", language = "JDOQL",
                 value = "SELECT FROM org.estatio.dom.invoice.Invoice " +
@@ -162,6 +182,21 @@ import lombok.Setter;
                         "applicationTenancyPath == :applicationTenancyPath && " +
                         "invoiceDate == :invoiceDate " +
                         "ORDER BY invoiceNumber"),
+        @javax.jdo.annotations.Query(
+                name = "findByAtPathAndStatus", language = "JDOQL",
+                value = "SELECT FROM org.estatio.dom.invoice.Invoice " +
+                        "WHERE " +
+                        "(applicationTenancyPath == :atPath || applicationTenancyPath.startsWith(:atPathPrefix)) && " +
+                        "status == :status " +
+                        "ORDER BY invoiceNumber"),
+        @javax.jdo.annotations.Query(
+                name = "findByAtPathAndDueDateAndStatus", language = "JDOQL",
+                value = "SELECT FROM org.estatio.dom.invoice.Invoice " +
+                        "WHERE " +
+                        "(applicationTenancyPath == :atPath || applicationTenancyPath.startsWith(:atPathPrefix)) && " +
+                        "status == :status && " +
+                        "dueDate == :dueDate " +
+                        "ORDER BY invoiceNumber"),
 })
 @Indices({
         @Index(name = "Invoice_runId_IDX",
@@ -211,9 +246,25 @@ public class InvoiceForLease
 
     @Property(hidden = Where.EVERYWHERE, optionality = Optionality.OPTIONAL)
     @Column(length = 512)
-    @Getter @Setter
+    @Getter
     private String runId;
 
+    public void setRunId(final String runId) {
+        summaryAffected();
+        this.runId = runId;
+        summaryAffected();
+    }
+
+    /**
+     * Marks the {@link InvoiceSummaryTotal summary totals} this invoice is counted in as dirty.
+     */
+    @Override
+    protected void summaryAffected() {
+        if (invoiceSummaryStore != null) {
+            invoiceSummaryStore.markDirty(this);
+        }
+    }
+
     @Programmatic
     public Occupancy getCurrentOccupancy() {
         final InvoiceForLease invoice =
@@ -650,5 +701,8 @@ public class InvoiceForLease
     @javax.inject.Inject
     FragmentRenderService fragmentRenderService;
 
+    @javax.inject.Inject
+    InvoiceSummaryStore invoiceSummaryStore;
+
 
 }
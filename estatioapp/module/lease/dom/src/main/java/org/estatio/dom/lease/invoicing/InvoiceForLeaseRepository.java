@@ -19,6 +19,11 @@
 package org.estatio.dom.lease.invoicing;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 import org.joda.time.LocalDate;
 
@@ -40,10 +45,13 @@ import org.estatio.dom.appsettings.LeaseInvoicingSettingsService;
 import org.estatio.dom.asset.FixedAsset;
 import org.estatio.dom.currency.Currency;
 import org.estatio.dom.invoice.Invoice;
+import org.estatio.dom.invoice.InvoiceItem;
 import org.estatio.dom.invoice.InvoiceStatus;
 import org.estatio.dom.invoice.PaymentMethod;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseConstants;
+import org.estatio.dom.lease.LeaseItem;
+import org.estatio.dom.lease.LeaseTerm;
 import org.estatio.dom.lease.invoicing.viewmodel.InvoiceSummaryForPropertyDueDateStatus;
 import org.estatio.dom.party.Party;
 
@@ -136,6 +144,37 @@ public class InvoiceForLeaseRepository extends UdoDomainRepositoryAndFactory<Inv
             final Lease lease,
             final String interactionId
     ) {
+        final InvoiceForLease invoice = createInvoice(applicationTenancy, seller, buyer, paymentMethod, currency, dueDate, lease, interactionId);
+        getContainer().flush();
+        return invoice;
+    }
+
+    /**
+     * Creates a NEW invoice for the lease, like {@link #findOrCreateMatchingInvoice(ApplicationTenancy, PaymentMethod, Lease, InvoiceStatus, LocalDate, String)}
+     * but without looking for a matching invoice first, nor flushing; used when reconciling a run, which knows the
+     * existing invoices and flushes once per lease.
+     */
+    @Programmatic
+    public InvoiceForLease newInvoiceForRun(
+            final ApplicationTenancy applicationTenancy,
+            final PaymentMethod paymentMethod,
+            final Lease lease,
+            final LocalDate dueDate,
+            final String runId) {
+        return createInvoice(
+                applicationTenancy, lease.getPrimaryParty(), lease.getSecondaryParty(), paymentMethod,
+                settingsService.systemCurrency(), dueDate, lease, runId);
+    }
+
+    private InvoiceForLease createInvoice(
+            final ApplicationTenancy applicationTenancy,
+            final Party seller,
+            final Party buyer,
+            final PaymentMethod paymentMethod,
+            final Currency currency,
+            final LocalDate dueDate,
+            final Lease lease,
+            final String interactionId) {
         InvoiceForLease invoice = newTransientInstance();
         invoice.setApplicationTenancyPath(applicationTenancy.getPath());
         invoice.setBuyer(buyer);
@@ -150,18 +189,35 @@ public class InvoiceForLeaseRepository extends UdoDomainRepositoryAndFactory<Inv
 
         // copy down form the agreement, we require all invoice items to relate
         // back to this (root) fixed asset
-        invoice.setPaidBy(lease.getPaidBy());
         invoice.setFixedAsset(lease.getProperty());
+        copyFromLease(invoice, lease);
+
+        persistIfNotAlready(invoice);
+        return invoice;
+    }
+
+    /**
+     * Brings a NEW invoice kept by a run up to date, as if {@link #newInvoiceForRun(ApplicationTenancy, PaymentMethod, Lease, LocalDate, String) created}
+     * by it: the lease's payer or invoice address, for example, may have changed since the invoice was created.
+     */
+    @Programmatic
+    public void updateForRun(
+            final InvoiceForLease invoice,
+            final ApplicationTenancy applicationTenancy,
+            final String runId) {
+        invoice.setApplicationTenancyPath(applicationTenancy.getPath());
+        invoice.setRunId(runId);
+        copyFromLease(invoice, invoice.getLease());
+    }
+
+    private void copyFromLease(final InvoiceForLease invoice, final Lease lease) {
+        invoice.setPaidBy(lease.getPaidBy());
 
         // copy over the current invoice address (if any)
         final CommunicationChannel sendTo = firstCurrentTenantInvoiceAddress(lease);
         invoice.setSendTo(sendTo);
 
         invoice.updateDescriptions();
-
-        persistIfNotAlready(invoice);
-        getContainer().flush();
-        return invoice;
     }
 
 
@@ -186,6 +242,25 @@ public class InvoiceForLeaseRepository extends UdoDomainRepositoryAndFactory<Inv
                 "status", status);
     }
 
+    /**
+     * As {@link #findByFixedAssetAndStatus(FixedAsset, InvoiceStatus)}, but handing the invoices to the processor in
+     * batches.  The batches are keyed by the invoices' datastore id, the
+     * only key that every invoice has and that is unique.
+     *
+     * @return the number of invoices processed
+     */
+    @Programmatic
+    public int forEachBatchByFixedAssetAndStatus(
+            final FixedAsset fixedAsset,
+            final InvoiceStatus status,
+            final int batchSize,
+            final Consumer<List<InvoiceForLease>> processor) {
+        return forEachBatch(
+                "findByFixedAssetAndStatusAfterId", 0L, invoice -> Long.valueOf(invoice.getId()), batchSize, processor,
+                "fixedAsset", fixedAsset,
+                "status", status);
+    }
+
     @Programmatic
     public List<InvoiceForLease> findByFixedAssetAndDueDate(
             final FixedAsset fixedAsset,
@@ -234,6 +309,28 @@ public class InvoiceForLeaseRepository extends UdoDomainRepositoryAndFactory<Inv
 
 
 
+    /**
+     * The invoices with the status at or below the (user's) tenancy path, eg across all properties of a country,
+     * filtered by the datastore rather than hidden one by one after loading.
+     */
+    @Programmatic
+    public List<InvoiceForLease> findByAtPathAndStatus(
+            final String atPath,
+            final InvoiceStatus status) {
+        return allMatchesAtPath("findByAtPathAndStatus", atPath,
+                "status", status);
+    }
+
+    @Programmatic
+    public List<InvoiceForLease> findByAtPathAndDueDateAndStatus(
+            final String atPath,
+            final LocalDate dueDate,
+            final InvoiceStatus status) {
+        return allMatchesAtPath("findByAtPathAndDueDateAndStatus", atPath,
+                "dueDate", dueDate,
+                "status", status);
+    }
+
     @Programmatic
     public List<InvoiceForLease> findInvoicesByRunId(final String runId) {
         return allMatches("findByRunId",
@@ -257,6 +354,62 @@ public class InvoiceForLeaseRepository extends UdoDomainRepositoryAndFactory<Inv
         }
     }
 
+    /**
+     * As {@link #removeRuns(InvoiceCalculationParameters)}, but keeping the invoices of the given leases; these are
+     * reconciled with the newly calculated invoices instead.
+     */
+    @Programmatic
+    public void removeRunsExcept(final InvoiceCalculationParameters parameters, final List<Lease> leases) {
+        final Set<Lease> leasesToKeep = Sets.newHashSet(leases);
+        List<InvoiceForLease> invoices = findByFixedAssetAndDueDateAndStatus(parameters.property(), parameters.invoiceDueDate(), InvoiceStatus.NEW);
+        for (InvoiceForLease invoice : invoices) {
+            if (!leasesToKeep.contains(invoice.getLease())) {
+                removeInvoice(invoice);
+            }
+        }
+    }
+
+    /**
+     * The NEW invoices of the lease that {@link #removeRuns(InvoiceCalculationParameters)} would remove.
+     */
+    @Programmatic
+    public List<InvoiceForLease> findRunInvoicesOfLease(final Lease lease, final InvoiceCalculationParameters parameters) {
+        return allMatches("findByLeaseAndFixedAssetAndDueDateAndStatus",
+                "lease", lease,
+                "fixedAsset", parameters.property(),
+                "dueDate", parameters.invoiceDueDate(),
+                "status", InvoiceStatus.NEW);
+    }
+
+    @Programmatic
+    public void removeInvoice(final InvoiceForLease invoice) {
+        factoryService.mixin(Invoice._remove.class, invoice).exec();
+    }
+
+    /**
+     * Removes the items of the (NEW) invoices that were calculated for any of the lease items, removing the invoices
+     * that are left without items.
+     */
+    @Programmatic
+    public void removeRunItems(final List<InvoiceForLease> invoices, final Set<LeaseItem> leaseItems) {
+        for (InvoiceForLease invoice : invoices) {
+            final List<InvoiceItem> itemsToRemove = Lists.newArrayList();
+            for (InvoiceItem invoiceItem : invoice.getItems()) {
+                final LeaseTerm leaseTerm = invoiceItem instanceof InvoiceItemForLease ? ((InvoiceItemForLease) invoiceItem).getLeaseTerm() : null;
+                if (leaseTerm != null && leaseItems.contains(leaseTerm.getLeaseItem())) {
+                    itemsToRemove.add(invoiceItem);
+                }
+            }
+            if (itemsToRemove.size() == invoice.getItems().size()) {
+                removeInvoice(invoice);
+            } else {
+                for (InvoiceItem invoiceItem : itemsToRemove) {
+                    invoiceItem.remove();
+                }
+            }
+        }
+    }
+
     @javax.inject.Inject
     FactoryService factoryService;
 
@@ -78,6 +78,20 @@ public class InvoiceItemForLeaseRepository extends UdoDomainRepositoryAndFactory
                 InvoiceStatus.NEW,
                 dueDate, interactionId);
 
+        return newInvoiceItem(invoice, leaseTerm, interval, dueDate);
+    }
+
+    /**
+     * Creates an item for the lease term on the given invoice, which must be the invoice matching the term.
+     */
+    @Programmatic
+    public InvoiceItemForLease newInvoiceItem(
+            final InvoiceForLease invoice,
+            final LeaseTerm leaseTerm,
+            final LocalDateInterval interval,
+            final LocalDate dueDate) {
+
+        final Lease lease = leaseTerm.getLeaseItem().getLease();
         final InvoiceItemForLease invoiceItem = newItem(invoice, dueDate);
 
         invoiceItem.setStartDate(interval.startDate());
@@ -110,6 +124,15 @@ public class InvoiceItemForLeaseRepository extends UdoDomainRepositoryAndFactory
     }
 
 
+    /**
+     * All items (of any invoice status) whose {@link InvoiceItemForLease#getLeaseTerm() lease term} belongs to the
+     * lease.
+     */
+    @Programmatic
+    public List<InvoiceItemForLease> findByLeaseTermOfLease(final Lease lease){
+        return allMatches("findByLeaseTermOfLease", "lease", lease);
+    }
+
     @Programmatic
     public List<InvoiceItemForLease> findByLeaseTermAndInterval(
             final LeaseTerm leaseTerm,
@@ -207,6 +230,15 @@ public class InvoiceItemForLeaseRepository extends UdoDomainRepositoryAndFactory
         return invoicedValue;
     }
 
+    /**
+     * Loads the values already invoiced for all terms of the lease in a single query, to be used instead of
+     * {@link #invoicedValue(LeaseTerm, LocalDateInterval)} when calculating many terms.
+     */
+    @Programmatic
+    public InvoicedValues invoicedValuesFor(final Lease lease) {
+        return new InvoicedValues(findByLeaseTermOfLease(lease));
+    }
+
     @Programmatic
     public void removeUnapprovedInvoiceItems(
             final LeaseTerm leaseTerm,
@@ -0,0 +1,284 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.joda.time.LocalDate;
+
+import org.estatio.dom.charge.Charge;
+import org.estatio.dom.invoice.InvoiceItem;
+import org.estatio.dom.invoice.PaymentMethod;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.dom.party.Party;
+import org.estatio.dom.tax.Tax;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * In-memory model of the invoices and invoice items an invoice calculation run would create, as returned by
+ * {@link InvoiceCalculationService#preview(InvoiceCalculationParameters)}.
+ *
+ * <p>
+ * The items are grouped into invoices the way
+ * {@link InvoiceForLeaseRepository#findOrCreateMatchingInvoice(org.isisaddons.module.security.dom.tenancy.ApplicationTenancy, PaymentMethod, Lease, org.estatio.dom.invoice.InvoiceStatus, LocalDate, String) findOrCreateMatchingInvoice}
+ * does (by seller, buyer, payment method, lease and due date), and the invoices are totalled per seller, buyer,
+ * payment method and due date. Nothing in this model is, or will be, persisted.
+ * </p>
+ */
+public class InvoicePreview {
+
+    private final Map<InvoiceKey, PreviewInvoice> invoices = new LinkedHashMap<>();
+    private final Map<TotalsKey, Totals> totals = new LinkedHashMap<>();
+
+    /**
+     * The would-be invoices, in the order in which they were first calculated.
+     */
+    public Stream<PreviewInvoice> invoices() {
+        return invoices.values().stream();
+    }
+
+    /**
+     * The would-be invoice items, of all invoices.
+     */
+    public Stream<PreviewItem> items() {
+        return invoices().flatMap(invoice -> invoice.getItems().stream());
+    }
+
+    /**
+     * The totals per seller, buyer, payment method and due date.
+     */
+    public List<Totals> totals() {
+        return Collections.unmodifiableList(new ArrayList<>(totals.values()));
+    }
+
+    public int numberOfInvoices() {
+        return invoices.size();
+    }
+
+    void add(final PreviewItem item) {
+        final InvoiceKey invoiceKey = new InvoiceKey(
+                item.getSeller(), item.getBuyer(), item.getPaymentMethod(), item.getLease(), item.getDueDate());
+        PreviewInvoice invoice = invoices.get(invoiceKey);
+        final TotalsKey totalsKey = new TotalsKey(
+                item.getSeller(), item.getBuyer(), item.getPaymentMethod(), item.getDueDate());
+        Totals totalsForKey = totals.get(totalsKey);
+        if (totalsForKey == null) {
+            totalsForKey = new Totals(item.getSeller(), item.getBuyer(), item.getPaymentMethod(), item.getDueDate());
+            totals.put(totalsKey, totalsForKey);
+        }
+        if (invoice == null) {
+            invoice = new PreviewInvoice(item.getSeller(), item.getBuyer(), item.getPaymentMethod(), item.getLease(), item.getDueDate());
+            invoices.put(invoiceKey, invoice);
+            totalsForKey.numberOfInvoices++;
+        }
+        invoice.add(item);
+        totalsForKey.add(item);
+    }
+
+    @EqualsAndHashCode
+    private static class InvoiceKey {
+        private final Party seller;
+        private final Party buyer;
+        private final PaymentMethod paymentMethod;
+        private final Lease lease;
+        private final LocalDate dueDate;
+
+        InvoiceKey(final Party seller, final Party buyer, final PaymentMethod paymentMethod, final Lease lease, final LocalDate dueDate) {
+            this.seller = seller;
+            this.buyer = buyer;
+            this.paymentMethod = paymentMethod;
+            this.lease = lease;
+            this.dueDate = dueDate;
+        }
+    }
+
+    @EqualsAndHashCode
+    private static class TotalsKey {
+        private final Party seller;
+        private final Party buyer;
+        private final PaymentMethod paymentMethod;
+        private final LocalDate dueDate;
+
+        TotalsKey(final Party seller, final Party buyer, final PaymentMethod paymentMethod, final LocalDate dueDate) {
+            this.seller = seller;
+            this.buyer = buyer;
+            this.paymentMethod = paymentMethod;
+            this.dueDate = dueDate;
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Amounts summed over a number of items.
+     */
+    public abstract static class Amounts {
+
+        @Getter
+        private BigDecimal netAmount = BigDecimal.ZERO;
+
+        @Getter
+        private BigDecimal vatAmount = BigDecimal.ZERO;
+
+        @Getter
+        private BigDecimal grossAmount = BigDecimal.ZERO;
+
+        void add(final PreviewItem item) {
+            netAmount = netAmount.add(item.getNetAmount());
+            vatAmount = vatAmount.add(item.getVatAmount());
+            grossAmount = grossAmount.add(item.getGrossAmount());
+        }
+    }
+
+    /**
+     * A would-be invoice.
+     */
+    public static class PreviewInvoice extends Amounts {
+
+        @Getter
+        private final Party seller;
+
+        @Getter
+        private final Party buyer;
+
+        @Getter
+        private final PaymentMethod paymentMethod;
+
+        @Getter
+        private final Lease lease;
+
+        @Getter
+        private final LocalDate dueDate;
+
+        private final List<PreviewItem> items = new ArrayList<>();
+
+        PreviewInvoice(final Party seller, final Party buyer, final PaymentMethod paymentMethod, final Lease lease, final LocalDate dueDate) {
+            this.seller = seller;
+            this.buyer = buyer;
+            this.paymentMethod = paymentMethod;
+            this.lease = lease;
+            this.dueDate = dueDate;
+        }
+
+        public List<PreviewItem> getItems() {
+            return Collections.unmodifiableList(items);
+        }
+
+        @Override
+        void add(final PreviewItem item) {
+            items.add(item);
+            super.add(item);
+        }
+    }
+
+    /**
+     * The totals of all would-be invoices of a seller, buyer, payment method and due date.
+     */
+    public static class Totals extends Amounts {
+
+        @Getter
+        private final Party seller;
+
+        @Getter
+        private final Party buyer;
+
+        @Getter
+        private final PaymentMethod paymentMethod;
+
+        @Getter
+        private final LocalDate dueDate;
+
+        @Getter
+        private int numberOfInvoices;
+
+        Totals(final Party seller, final Party buyer, final PaymentMethod paymentMethod, final LocalDate dueDate) {
+            this.seller = seller;
+            this.buyer = buyer;
+            this.paymentMethod = paymentMethod;
+            this.dueDate = dueDate;
+        }
+    }
+
+    /**
+     * A would-be invoice item, holding the values
+     * {@link InvoiceCalculationService#createInvoiceItems(LeaseTerm, InvoiceCalculationParameters, List, InvoicedValues, String) createInvoiceItems}
+     * would set on the {@link InvoiceItemForLease}.
+     */
+    @Getter
+    public static class PreviewItem {
+
+        private final LeaseTerm leaseTerm;
+        private final Lease lease;
+        private final Party seller;
+        private final Party buyer;
+        private final PaymentMethod paymentMethod;
+        private final Charge charge;
+        private final LocalDate dueDate;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final LocalDate effectiveStartDate;
+        private final LocalDate effectiveEndDate;
+        private final boolean adjustment;
+        private final Tax tax;
+        private final BigDecimal netAmount;
+        private final BigDecimal vatAmount;
+        private final BigDecimal grossAmount;
+
+        PreviewItem(
+                final LeaseTerm leaseTerm,
+                final PaymentMethod paymentMethod,
+                final Charge charge,
+                final LocalDate dueDate,
+                final LocalDate startDate,
+                final LocalDate endDate,
+                final LocalDate effectiveStartDate,
+                final LocalDate effectiveEndDate,
+                final boolean adjustment,
+                final Tax tax,
+                final BigDecimal netAmount) {
+            this.leaseTerm = leaseTerm;
+            this.lease = leaseTerm.getLeaseItem().getLease();
+            this.seller = lease.getPrimaryParty();
+            this.buyer = lease.getSecondaryParty();
+            this.paymentMethod = paymentMethod;
+            this.charge = charge;
+            this.dueDate = dueDate;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.effectiveStartDate = effectiveStartDate;
+            this.effectiveEndDate = effectiveEndDate;
+            this.adjustment = adjustment;
+            this.tax = tax;
+            this.netAmount = netAmount;
+            final BigDecimal percentage = tax == null ? null : tax.percentageFor(dueDate);
+            this.vatAmount = InvoiceItem.vatFromNet(netAmount, percentage);
+            this.grossAmount = InvoiceItem.grossFromNet(netAmount, percentage);
+        }
+    }
+
+}
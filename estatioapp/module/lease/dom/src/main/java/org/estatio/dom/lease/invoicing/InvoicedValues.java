@@ -0,0 +1,105 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.LocalDate;
+
+import org.incode.module.base.dom.valuetypes.LocalDateInterval;
+
+import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.dom.lease.LeaseTermValueType;
+
+import lombok.EqualsAndHashCode;
+
+/**
+ * In-memory index of the net amounts already invoiced, per {@link LeaseTerm} and per (lease term, start date, end
+ * date), answering {@link InvoiceItemForLeaseRepository#invoicedValue(LeaseTerm, LocalDateInterval)} without a query
+ * per calculation result.
+ *
+ * <p>
+ * Loaded once for a set of {@link InvoiceItemForLease}s (see
+ * {@link InvoiceItemForLeaseRepository#invoicedValuesFor(org.estatio.dom.lease.Lease)}) and kept up to date with the
+ * items created during the run using {@link #add(InvoiceItemForLease)}.
+ * </p>
+ */
+public class InvoicedValues {
+
+    @EqualsAndHashCode
+    private static class Key {
+        private final LeaseTerm leaseTerm;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+
+        Key(final LeaseTerm leaseTerm, final LocalDate startDate, final LocalDate endDate) {
+            this.leaseTerm = leaseTerm;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+    }
+
+    private final Map<LeaseTerm, BigDecimal> byLeaseTerm = new HashMap<>();
+    private final Map<Key, BigDecimal> byLeaseTermAndInterval = new HashMap<>();
+
+    public InvoicedValues(final List<InvoiceItemForLease> invoiceItems) {
+        for (InvoiceItemForLease invoiceItem : invoiceItems) {
+            add(invoiceItem);
+        }
+    }
+
+    /**
+     * Registers an (existing or newly created) invoice item.
+     */
+    public void add(final InvoiceItemForLease invoiceItem) {
+        add(invoiceItem.getLeaseTerm(), invoiceItem.getStartDate(), invoiceItem.getEndDate(), invoiceItem.getNetAmount());
+    }
+
+    /**
+     * Registers the net amount of an invoice item that is not (yet) persisted, such as a {@link InvoicePreview preview}
+     * item.
+     */
+    public void add(final LeaseTerm leaseTerm, final LocalDate startDate, final LocalDate endDate, final BigDecimal netAmount) {
+        if (leaseTerm == null) {
+            return;
+        }
+        byLeaseTerm.put(leaseTerm, sum(byLeaseTerm.get(leaseTerm), netAmount));
+        final Key key = new Key(leaseTerm, startDate, endDate);
+        byLeaseTermAndInterval.put(key, sum(byLeaseTermAndInterval.get(key), netAmount));
+    }
+
+    /**
+     * Same semantics as {@link InvoiceItemForLeaseRepository#invoicedValue(LeaseTerm, LocalDateInterval)}.
+     */
+    public BigDecimal invoicedValue(final LeaseTerm leaseTerm, final LocalDateInterval interval) {
+        final BigDecimal invoicedValue = leaseTerm.valueType() == LeaseTermValueType.FIXED
+                ? byLeaseTerm.get(leaseTerm)
+                : byLeaseTermAndInterval.get(new Key(leaseTerm, interval.startDate(), interval.endDate()));
+        return invoicedValue == null ? new BigDecimal(0) : invoicedValue;
+    }
+
+    private static BigDecimal sum(final BigDecimal current, final BigDecimal netAmount) {
+        final BigDecimal base = current == null ? new BigDecimal(0) : current;
+        return netAmount == null ? base : base.add(netAmount);
+    }
+
+}
@@ -1,6 +1,5 @@
 package org.estatio.dom.lease.invoicing.canonical.v1;
 
-import java.math.BigDecimal;
 import java.util.Optional;
 
 import javax.inject.Inject;
@@ -12,7 +11,6 @@ import org.apache.isis.applib.annotation.Programmatic;
 import org.estatio.dom.dto.DtoFactoryAbstract;
 import org.estatio.dom.dto.DtoMappingHelper;
 import org.estatio.canonical.invoice.v1.InvoiceDto;
-import org.estatio.canonical.invoice.v1.InvoiceItemDto;
 import org.estatio.dom.asset.FixedAsset;
 import org.estatio.dom.assetfinancial.FixedAssetFinancialAccountRepository;
 import org.estatio.dom.bankmandate.BankMandate;
@@ -64,15 +62,9 @@ public class InvoiceForLeaseDtoFactory extends DtoFactoryAbstract {
 
         invoiceForLease.getItems().stream().forEach(item -> dto.getItems().add(invoiceItemForLeaseDtoFactory.newDto(item)));
 
-        dto.setNetAmount(dto.getItems().stream()
-                            .map(InvoiceItemDto::getNetAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add));
-        dto.setGrossAmount(dto.getItems().stream()
-                            .map(InvoiceItemDto::getGrossAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add));
-        dto.setVatAmount(dto.getItems().stream()
-                            .map(InvoiceItemDto::getVatAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add));
+        dto.setNetAmount(invoiceForLease.getNetAmount());
+        dto.setGrossAmount(invoiceForLease.getGrossAmount());
+        dto.setVatAmount(invoiceForLease.getVatAmount());
 
         return dto;
     }
@@ -21,31 +21,46 @@ package org.estatio.dom.lease.invoicing.dnc;
 
 import java.io.IOException;
 
+import javax.inject.Inject;
+
 import org.apache.isis.applib.annotation.Action;
 import org.apache.isis.applib.annotation.Mixin;
 import org.apache.isis.applib.annotation.Where;
 
+import org.incode.module.document.dom.impl.docs.Document;
 import org.incode.module.document.dom.impl.docs.DocumentTemplate;
-import org.incode.module.document.dom.mixins.T_createAndAttachDocumentAndScheduleRender;
+import org.incode.module.document.dom.services.DocumentCreatorService;
 
 import org.estatio.dom.invoice.Invoice;
 
+/**
+ * Creates and attaches the document of the invoice, {@link ScheduledRender scheduling} it to be rendered in the
+ * background, along with those of other invoices.
+ */
 @Mixin
-public class Invoice_backgroundPrepare
-        extends T_createAndAttachDocumentAndScheduleRender<Invoice> {
+public class Invoice_backgroundPrepare {
+
+    private final Invoice invoice;
 
-    public Invoice_backgroundPrepare(final Invoice domainObject) {
-        super(domainObject);
+    public Invoice_backgroundPrepare(final Invoice invoice) {
+        this.invoice = invoice;
     }
 
     /**
      * For use only programmatically.
      */
     @Action(hidden = Where.EVERYWHERE)
-    @Override
     public Object $$(
             final DocumentTemplate template) throws IOException {
-        super.$$(template);
-        return domainObject;
+        final Document document = documentCreatorService.createDocumentAndAttachPaperclips(invoice, template);
+        scheduledRenderRepository.schedule(invoice, document, template);
+        return invoice;
     }
+
+    @Inject
+    DocumentCreatorService documentCreatorService;
+
+    @Inject
+    ScheduledRenderRepository scheduledRenderRepository;
+
 }
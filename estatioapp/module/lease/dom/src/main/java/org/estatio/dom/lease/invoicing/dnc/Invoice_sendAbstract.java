@@ -19,18 +19,15 @@
 package org.estatio.dom.lease.invoicing.dnc;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.List;
 
 import javax.inject.Inject;
 
-import com.google.common.collect.Lists;
-
 import org.apache.isis.applib.annotation.ParameterLayout;
 import org.apache.isis.applib.annotation.Programmatic;
 import org.apache.isis.applib.services.factory.FactoryService;
 
-import org.isisaddons.module.pdfbox.dom.service.PdfBoxService;
-
 import org.incode.module.communications.dom.impl.commchannel.EmailAddress;
 import org.incode.module.communications.dom.impl.commchannel.PostalAddress;
 import org.incode.module.communications.dom.impl.comms.Communication;
@@ -101,16 +98,17 @@ public abstract class Invoice_sendAbstract {
 
 
     byte[] mergePdfBytes(final Document document) throws IOException {
-        final List<byte[]> pdfBytes = Lists.newArrayList();
-        appendPdfBytes(document, pdfBytes);
-        return pdfBoxService.merge(pdfBytes.toArray(new byte[][] {}));
+        try (PdfSpool pdfSpool = new PdfSpool()) {
+            appendPdfBytes(document, pdfSpool);
+            return Files.readAllBytes(pdfSpool.mergeToFile().toPath());
+        }
     }
 
     @Programmatic
-    public void appendPdfBytes(final Document prelimLetterOrInvoiceDoc, final List<byte[]> pdfBytes) {
+    public void appendPdfBytes(final Document prelimLetterOrInvoiceDoc, final PdfSpool pdfSpool) throws IOException {
 
         // this one should be a PDF
-        appendBytesIfPdf(prelimLetterOrInvoiceDoc, pdfBytes);
+        appendBytesIfPdf(prelimLetterOrInvoiceDoc, pdfSpool);
 
         // and any attachments that are PDFs are also merged in
         final List<Paperclip> paperclips = paperclipRepository.findByDocument(prelimLetterOrInvoiceDoc);
@@ -118,13 +116,13 @@ public abstract class Invoice_sendAbstract {
             final Object objAttachedToDocument = paperclip.getAttachedTo();
             if(objAttachedToDocument instanceof Document) {
                 final Document docAttachedToDocument = (Document) objAttachedToDocument;
-                appendBytesIfPdf(docAttachedToDocument, pdfBytes);
+                appendBytesIfPdf(docAttachedToDocument, pdfSpool);
             }
         }
     }
 
 
-    private static void appendBytesIfPdf(final Document docAttachedToDocument, final List<byte[]> pdfBytes) {
+    private static void appendBytesIfPdf(final Document docAttachedToDocument, final PdfSpool pdfSpool) throws IOException {
         final DocumentSort attachedDocSort = docAttachedToDocument.getSort();
         if (!attachedDocSort.isBytes()) {
             return;
@@ -134,7 +132,7 @@ public abstract class Invoice_sendAbstract {
             return;
         }
         final byte[] attachedDocBytes = attachedDocSort.asBytes(docAttachedToDocument);
-        pdfBytes.add(attachedDocBytes);
+        pdfSpool.append(attachedDocBytes);
     }
 
 
@@ -145,8 +143,4 @@ public abstract class Invoice_sendAbstract {
     @Inject
     PaperclipRepository paperclipRepository;
 
-
-    @Inject
-    PdfBoxService pdfBoxService;
-
 }
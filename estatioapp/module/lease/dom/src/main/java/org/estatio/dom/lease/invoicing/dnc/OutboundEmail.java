@@ -0,0 +1,219 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.dnc;
+
+import javax.jdo.annotations.Column;
+import javax.jdo.annotations.DatastoreIdentity;
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.IdentityType;
+import javax.jdo.annotations.Index;
+import javax.jdo.annotations.Indices;
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Queries;
+import javax.jdo.annotations.Query;
+import javax.jdo.annotations.Version;
+import javax.jdo.annotations.VersionStrategy;
+
+import org.joda.time.DateTime;
+
+import org.apache.isis.applib.annotation.Action;
+import org.apache.isis.applib.annotation.DomainObject;
+import org.apache.isis.applib.annotation.Editing;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.Property;
+import org.apache.isis.applib.annotation.SemanticsOf;
+import org.apache.isis.applib.annotation.Where;
+
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+
+import org.incode.module.base.dom.types.NotesType;
+import org.incode.module.communications.dom.impl.commchannel.CommunicationChannel;
+import org.incode.module.communications.dom.impl.commchannel.EmailAddress;
+import org.incode.module.communications.dom.impl.comms.Communication;
+import org.incode.module.document.dom.impl.docs.Document;
+
+import org.estatio.dom.UdoDomainObject2;
+import org.estatio.dom.invoice.Invoice;
+import org.estatio.dom.utils.NotesUtils;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * An invoice document queued to be sent by email, as {@link Invoice_sendByEmail} would send it there and then.
+ *
+ * <p>
+ * Queued emails are drained in the background, each in a transaction of its own, rather than within the request and
+ * transaction of the user sending all invoices of a property and due date. Once {@link #getCommunication() its
+ * communication} has been created and scheduled to be sent, an email is
+ * {@link OutboundEmailState#DISPATCHED dispatched}. A failed attempt is retried with an exponential backoff until the
+ * maximum number of attempts is reached, after which the email is {@link OutboundEmailState#FAILED failed} and can be
+ * {@link #requeue() requeued} manually.
+ * </p>
+ */
+@PersistenceCapable(identityType = IdentityType.DATASTORE, schema = "dbo")
+@DatastoreIdentity(strategy = IdGeneratorStrategy.NATIVE, column = "id")
+@Version(strategy = VersionStrategy.VERSION_NUMBER, column = "version")
+@Indices({
+        @Index(name = "OutboundEmail_state_nextAttemptAt_IDX", members = { "state", "nextAttemptAt" })
+})
+@Queries({
+        @Query(
+                name = "findByInvoice", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.invoicing.dnc.OutboundEmail "
+                        + "WHERE invoice == :invoice "
+                        + "ORDER BY queuedAt DESC"),
+        @Query(
+                name = "findByDocumentAndState", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.invoicing.dnc.OutboundEmail "
+                        + "WHERE document == :document && "
+                        + "state == :state"),
+        @Query(
+                name = "findByState", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.invoicing.dnc.OutboundEmail "
+                        + "WHERE state == :state "
+                        + "ORDER BY queuedAt ASC"),
+        @Query(
+                name = "findDue", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.invoicing.dnc.OutboundEmail "
+                        + "WHERE state == :state && "
+                        + "nextAttemptAt <= :now "
+                        + "ORDER BY nextAttemptAt ASC")
+})
+@DomainObject(
+        editing = Editing.DISABLED,
+        objectType = "org.estatio.dom.lease.invoicing.dnc.OutboundEmail"
+)
+public class OutboundEmail extends UdoDomainObject2<OutboundEmail> {
+
+    /**
+     * The backoff never grows beyond an hour.
+     */
+    static final int MAX_BACKOFF_SECONDS = 60 * 60;
+
+    public OutboundEmail() {
+        super("invoice,document,queuedAt");
+    }
+
+    @Override
+    public ApplicationTenancy getApplicationTenancy() {
+        return invoice.getApplicationTenancy();
+    }
+
+    @Column(name = "invoiceId", allowsNull = "false")
+    @Getter @Setter
+    @Property(hidden = Where.PARENTED_TABLES)
+    private Invoice invoice;
+
+    @Column(name = "documentId", allowsNull = "false")
+    @Getter @Setter
+    private Document document;
+
+    @Column(name = "toChannelId", allowsNull = "false")
+    @Getter @Setter
+    private EmailAddress toChannel;
+
+    @Column(allowsNull = "true", length = CommunicationChannel.EmailType.Meta.MAX_LEN)
+    @Getter @Setter
+    private String cc;
+
+    @Column(allowsNull = "true", length = CommunicationChannel.EmailType.Meta.MAX_LEN)
+    @Getter @Setter
+    private String bcc;
+
+    @Column(allowsNull = "false")
+    @Getter @Setter
+    private OutboundEmailState state;
+
+    @Getter @Setter
+    private int attempts;
+
+    @Column(allowsNull = "false")
+    @Getter @Setter
+    private DateTime queuedAt;
+
+    @Column(allowsNull = "true")
+    @Getter @Setter
+    @Property(hidden = Where.ALL_TABLES)
+    private DateTime nextAttemptAt;
+
+    @Column(allowsNull = "true")
+    @Getter @Setter
+    private DateTime dispatchedAt;
+
+    @Column(allowsNull = "true", length = NotesType.Meta.MAX_LEN)
+    @Getter @Setter
+    @Property(hidden = Where.ALL_TABLES)
+    private String lastError;
+
+    @Column(name = "communicationId", allowsNull = "true")
+    @Getter @Setter
+    private Communication communication;
+
+    // //////////////////////////////////////
+
+    @Programmatic
+    public void dispatched(final Communication communication, final DateTime dispatchedAt) {
+        setCommunication(communication);
+        setDispatchedAt(dispatchedAt);
+        setNextAttemptAt(null);
+        setLastError(null);
+        setState(OutboundEmailState.DISPATCHED);
+    }
+
+    /**
+     * Records a failed attempt, scheduling the next one <tt>backoffSeconds</tt> later, doubling with every further
+     * attempt, or failing the email for good once it has been attempted <tt>maxAttempts</tt> times.
+     */
+    @Programmatic
+    public void failed(final String error, final DateTime now, final int maxAttempts, final int backoffSeconds) {
+        setAttempts(getAttempts() + 1);
+        setLastError(NotesUtils.truncated(error));
+        if (getAttempts() >= maxAttempts) {
+            setNextAttemptAt(null);
+            setState(OutboundEmailState.FAILED);
+        } else {
+            setNextAttemptAt(now.plusSeconds(backoffSecondsFor(getAttempts(), backoffSeconds)));
+        }
+    }
+
+    static int backoffSecondsFor(final int attempts, final int backoffSeconds) {
+        final long backoff = (long) backoffSeconds << Math.min(attempts - 1, 20);
+        return (int) Math.min(backoff, MAX_BACKOFF_SECONDS);
+    }
+
+    // //////////////////////////////////////
+
+    @Action(semantics = SemanticsOf.IDEMPOTENT)
+    public OutboundEmail requeue() {
+        setAttempts(0);
+        setNextAttemptAt(getClockService().nowAsDateTime());
+        setState(OutboundEmailState.QUEUED);
+        return this;
+    }
+
+    public String disableRequeue() {
+        return getState() != OutboundEmailState.FAILED ? "Only failed emails can be requeued" : null;
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.dnc;
+
+import java.util.List;
+
+import org.joda.time.DateTime;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.incode.module.communications.dom.impl.commchannel.EmailAddress;
+import org.incode.module.document.dom.impl.docs.Document;
+
+import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.invoice.Invoice;
+
+@DomainService(nature = NatureOfService.DOMAIN, repositoryFor = OutboundEmail.class)
+public class OutboundEmailRepository extends UdoDomainRepositoryAndFactory<OutboundEmail> {
+
+    public OutboundEmailRepository() {
+        super(OutboundEmailRepository.class, OutboundEmail.class);
+    }
+
+    @Programmatic
+    public OutboundEmail enqueue(
+            final Invoice invoice,
+            final Document document,
+            final EmailAddress toChannel,
+            final String cc,
+            final String bcc) {
+        final DateTime now = getClockService().nowAsDateTime();
+        final OutboundEmail outboundEmail = newTransientInstance();
+        outboundEmail.setInvoice(invoice);
+        outboundEmail.setDocument(document);
+        outboundEmail.setToChannel(toChannel);
+        outboundEmail.setCc(cc);
+        outboundEmail.setBcc(bcc);
+        outboundEmail.setState(OutboundEmailState.QUEUED);
+        outboundEmail.setQueuedAt(now);
+        outboundEmail.setNextAttemptAt(now);
+        persistIfNotAlready(outboundEmail);
+        return outboundEmail;
+    }
+
+    @Programmatic
+    public List<OutboundEmail> findByInvoice(final Invoice invoice) {
+        return allMatches("findByInvoice", "invoice", invoice);
+    }
+
+    @Programmatic
+    public List<OutboundEmail> findByState(final OutboundEmailState state) {
+        return allMatches("findByState", "state", state);
+    }
+
+    @Programmatic
+    public boolean isQueued(final Document document) {
+        return firstMatch("findByDocumentAndState", "document", document, "state", OutboundEmailState.QUEUED) != null;
+    }
+
+    /**
+     * The queued emails whose next attempt is due, the longest overdue first.
+     */
+    @Programmatic
+    public List<OutboundEmail> findDue(final DateTime now, final int max) {
+        return allMatches(newQueryDefault("findDue", "state", OutboundEmailState.QUEUED, "now", now).withCount(max));
+    }
+
+}
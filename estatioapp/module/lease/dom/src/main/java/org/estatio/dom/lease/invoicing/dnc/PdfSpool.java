@@ -0,0 +1,123 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.dnc;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.google.common.collect.Lists;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+
+import org.apache.isis.applib.value.Blob;
+
+import org.incode.module.communications.dom.mixins.DocumentConstants;
+
+/**
+ * Collects PDFs to be merged into a single PDF, spooling each to a temporary file as it is
+ * {@link #append(byte[]) appended} so that only one of them is held in memory at a time.
+ *
+ * <p>
+ * The {@link #mergeTo(OutputStream) merge} itself reads the spooled files and buffers the documents' streams in
+ * temporary files rather than on the heap. The temporary files are removed on {@link #close()}, which must be called
+ * once the spool is no longer needed, whether or not it has been merged.
+ * </p>
+ */
+public class PdfSpool implements Closeable {
+
+    private Path directory;
+    private final List<File> files = Lists.newArrayList();
+
+    public void append(final byte[] pdfBytes) throws IOException {
+        final Path file = directory().resolve(String.format("%06d.pdf", files.size()));
+        Files.write(file, pdfBytes);
+        files.add(file.toFile());
+    }
+
+    public boolean isEmpty() {
+        return files.isEmpty();
+    }
+
+    public int size() {
+        return files.size();
+    }
+
+    /**
+     * Merges the appended PDFs, in order, writing the result to the stream.
+     */
+    public void mergeTo(final OutputStream outputStream) throws IOException {
+        final PDFMergerUtility merger = new PDFMergerUtility();
+        for (File file : files) {
+            merger.addSource(file);
+        }
+        merger.setDestinationStream(outputStream);
+        merger.mergeDocuments(MemoryUsageSetting.setupTempFileOnly());
+    }
+
+    /**
+     * Merges the appended PDFs into a file of the spool, which is removed on {@link #close()} like the others.
+     */
+    public File mergeToFile() throws IOException {
+        final Path merged = directory().resolve("merged.pdf");
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(merged))) {
+            mergeTo(outputStream);
+        }
+        return merged.toFile();
+    }
+
+    /**
+     * Merges the appended PDFs into a {@link Blob} to be downloaded; as a {@link Blob} holds its bytes, the merged
+     * PDF (but none of the appended ones) is read into memory.
+     */
+    public Blob mergeToBlob(final String fileName) throws IOException {
+        final File merged = mergeToFile();
+        return new Blob(fileName, DocumentConstants.MIME_TYPE_APPLICATION_PDF, Files.readAllBytes(merged.toPath()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+        Files.deleteIfExists(directory);
+        directory = null;
+        files.clear();
+    }
+
+    private Path directory() throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory("estatio-pdfspool-");
+        }
+        return directory;
+    }
+
+}
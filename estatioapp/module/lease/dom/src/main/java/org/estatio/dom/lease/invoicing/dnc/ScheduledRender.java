@@ -0,0 +1,176 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.dnc;
+
+import java.io.IOException;
+
+import javax.jdo.annotations.Column;
+import javax.jdo.annotations.DatastoreIdentity;
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.IdentityType;
+import javax.jdo.annotations.Index;
+import javax.jdo.annotations.Indices;
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Queries;
+import javax.jdo.annotations.Query;
+import javax.jdo.annotations.Version;
+import javax.jdo.annotations.VersionStrategy;
+
+import org.joda.time.DateTime;
+
+import org.apache.isis.applib.annotation.Action;
+import org.apache.isis.applib.annotation.DomainObject;
+import org.apache.isis.applib.annotation.Editing;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.Property;
+import org.apache.isis.applib.annotation.SemanticsOf;
+import org.apache.isis.applib.annotation.Where;
+
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+
+import org.incode.module.base.dom.types.NotesType;
+import org.incode.module.document.dom.impl.docs.Document;
+import org.incode.module.document.dom.impl.docs.DocumentTemplate;
+
+import org.estatio.dom.UdoDomainObject2;
+import org.estatio.dom.invoice.Invoice;
+import org.estatio.dom.utils.NotesUtils;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A {@link Document} of an {@link Invoice}, created by {@link Invoice_backgroundPrepare} but not yet rendered.
+ *
+ * <p>
+ * Pending renders are rendered in the background, grouped by template, by a bounded number of workers. Each document
+ * is rendered, and its render marked as such, in a transaction of its own, so that an interrupted run resumes with the
+ * documents not yet rendered. A render that fails is retried by later runs until the maximum number of attempts is
+ * reached, after which it is {@link ScheduledRenderState#FAILED failed} and can be {@link #reschedule() rescheduled}
+ * manually.
+ * </p>
+ */
+@PersistenceCapable(identityType = IdentityType.DATASTORE, schema = "dbo")
+@DatastoreIdentity(strategy = IdGeneratorStrategy.NATIVE, column = "id")
+@Version(strategy = VersionStrategy.VERSION_NUMBER, column = "version")
+@Indices({
+        @Index(name = "ScheduledRender_state_scheduledAt_IDX", members = { "state", "scheduledAt" })
+})
+@Queries({
+        @Query(
+                name = "findByInvoice", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.invoicing.dnc.ScheduledRender "
+                        + "WHERE invoice == :invoice "
+                        + "ORDER BY scheduledAt DESC"),
+        @Query(
+                name = "findByState", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.invoicing.dnc.ScheduledRender "
+                        + "WHERE state == :state "
+                        + "ORDER BY scheduledAt ASC")
+})
+@DomainObject(
+        editing = Editing.DISABLED,
+        objectType = "org.estatio.dom.lease.invoicing.dnc.ScheduledRender"
+)
+public class ScheduledRender extends UdoDomainObject2<ScheduledRender> {
+
+    public ScheduledRender() {
+        super("document");
+    }
+
+    @Override
+    public ApplicationTenancy getApplicationTenancy() {
+        return invoice.getApplicationTenancy();
+    }
+
+    @Column(name = "invoiceId", allowsNull = "false")
+    @Getter @Setter
+    @Property(hidden = Where.PARENTED_TABLES)
+    private Invoice invoice;
+
+    @Column(name = "documentId", allowsNull = "false")
+    @Getter @Setter
+    private Document document;
+
+    @Column(name = "templateId", allowsNull = "false")
+    @Getter @Setter
+    private DocumentTemplate template;
+
+    @Column(allowsNull = "false")
+    @Getter @Setter
+    private ScheduledRenderState state;
+
+    @Getter @Setter
+    private int attempts;
+
+    @Column(allowsNull = "false")
+    @Getter @Setter
+    private DateTime scheduledAt;
+
+    @Column(allowsNull = "true")
+    @Getter @Setter
+    private DateTime renderedAt;
+
+    @Column(allowsNull = "true", length = NotesType.Meta.MAX_LEN)
+    @Getter @Setter
+    @Property(hidden = Where.ALL_TABLES)
+    private String lastError;
+
+    // //////////////////////////////////////
+
+    /**
+     * Renders the document, as {@link Invoice_prepareAbstract} does there and then.
+     */
+    @Programmatic
+    public void render() throws IOException {
+        getDocument().render(getTemplate(), getInvoice());
+        setAttempts(getAttempts() + 1);
+        setRenderedAt(getClockService().nowAsDateTime());
+        setLastError(null);
+        setState(ScheduledRenderState.RENDERED);
+    }
+
+    /**
+     * Records a failed attempt; the render stays pending until it has been attempted <tt>maxAttempts</tt> times.
+     */
+    @Programmatic
+    public void failed(final String error, final int maxAttempts) {
+        setAttempts(getAttempts() + 1);
+        setLastError(NotesUtils.truncated(error));
+        if (getAttempts() >= maxAttempts) {
+            setState(ScheduledRenderState.FAILED);
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @Action(semantics = SemanticsOf.IDEMPOTENT)
+    public ScheduledRender reschedule() {
+        setAttempts(0);
+        setState(ScheduledRenderState.PENDING);
+        return this;
+    }
+
+    public String disableReschedule() {
+        return getState() != ScheduledRenderState.FAILED ? "Only failed renders can be rescheduled" : null;
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.dnc;
+
+import java.util.List;
+
+import javax.jdo.Query;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.incode.module.document.dom.impl.docs.Document;
+import org.incode.module.document.dom.impl.docs.DocumentTemplate;
+
+import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.invoice.Invoice;
+
+@DomainService(nature = NatureOfService.DOMAIN, repositoryFor = ScheduledRender.class)
+public class ScheduledRenderRepository extends UdoDomainRepositoryAndFactory<ScheduledRender> {
+
+    public ScheduledRenderRepository() {
+        super(ScheduledRenderRepository.class, ScheduledRender.class);
+    }
+
+    @Programmatic
+    public ScheduledRender schedule(
+            final Invoice invoice,
+            final Document document,
+            final DocumentTemplate template) {
+        final ScheduledRender scheduledRender = newTransientInstance();
+        scheduledRender.setInvoice(invoice);
+        scheduledRender.setDocument(document);
+        scheduledRender.setTemplate(template);
+        scheduledRender.setState(ScheduledRenderState.PENDING);
+        scheduledRender.setScheduledAt(getClockService().nowAsDateTime());
+        persistIfNotAlready(scheduledRender);
+        return scheduledRender;
+    }
+
+    @Programmatic
+    public List<ScheduledRender> findByInvoice(final Invoice invoice) {
+        return allMatches("findByInvoice", "invoice", invoice);
+    }
+
+    @Programmatic
+    public List<ScheduledRender> findByState(final ScheduledRenderState state) {
+        return allMatches("findByState", "state", state);
+    }
+
+    /**
+     * The pending renders, the longest pending first.
+     */
+    @Programmatic
+    public List<ScheduledRender> findPending(final int max) {
+        return allMatches(newQueryDefault("findByState", "state", ScheduledRenderState.PENDING).withCount(max));
+    }
+
+    @Programmatic
+    public long countByState(final ScheduledRenderState state) {
+        final Query query = newQuery(
+                "SELECT count(this) FROM org.estatio.dom.lease.invoicing.dnc.ScheduledRender WHERE state == :state");
+        return (Long) query.execute(state);
+    }
+
+}
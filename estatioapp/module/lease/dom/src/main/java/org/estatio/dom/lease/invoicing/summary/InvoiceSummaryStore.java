@@ -0,0 +1,295 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.summary;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.estatio.dom.OwnSessionService;
+import org.estatio.dom.TransactionCompletionService;
+import org.estatio.dom.UdoDomainService;
+import org.estatio.dom.invoice.InvoiceStatus;
+import org.estatio.dom.invoice.InvoiceTotalsService;
+import org.estatio.dom.lease.invoicing.InvoiceForLease;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceSummaryForInvoiceRunRepository;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceSummaryForPropertyDueDateStatusRepository;
+
+import static org.estatio.dom.utils.PropertiesUtils.nonNegativeIntProperty;
+
+/**
+ * Maintains the {@link InvoiceSummaryTotal}s incrementally.
+ *
+ * <p>
+ * An {@link InvoiceForLease invoice} {@link #markDirty(InvoiceForLease) marks} the totals it belongs to as dirty
+ * whenever its status, seller, due date, application tenancy, run or totals change, both before and after the change,
+ * by appending an {@link InvoiceSummaryTotalChange}, once per totals and transaction. The transactions changing
+ * invoices, such as those of the workers of an invoice run, thus never update a total, nor contend for any row.
+ * </p>
+ *
+ * <p>
+ * Once a transaction that marked totals has committed, the changes are consolidated into the totals, each recalculated
+ * with one aggregate query over its own invoices, in a transaction of their own. Consolidations are run one at a time,
+ * by a single thread, so are the only writers of the totals. A consolidation that fails leaves its changes in place,
+ * to be consolidated by the next. A {@link #rebuild()} recreates all totals from the invoices, and happens on the
+ * first consolidation if there are none at all.
+ * </p>
+ *
+ * <p>
+ * The {@link InvoiceSummaryForPropertyDueDateStatusRepository} and {@link InvoiceSummaryForInvoiceRunRepository}
+ * {@link #refresh() refresh} the totals before reading the summaries. A transaction that has itself changed invoices
+ * (eg one that has just calculated a run) recalculates the totals it marked there and then, so reads its own
+ * changes; any other waits (for up to <tt>estatio.invoice.summary.refreshWaitSeconds</tt> seconds) for the
+ * outstanding changes to be consolidated, without writing itself.
+ * </p>
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class InvoiceSummaryStore extends UdoDomainService<InvoiceSummaryStore> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InvoiceSummaryStore.class);
+
+    static final String KEY_REFRESH_WAIT_SECONDS = "estatio.invoice.summary.refreshWaitSeconds";
+    static final int REFRESH_WAIT_SECONDS_DEFAULT = 10;
+
+    static final String CONSOLIDATION_USER = "estatio-invoice-summary";
+
+    private int refreshWaitSeconds;
+    private ExecutorService consolidationService;
+    private FutureTask<Integer> queuedConsolidation;
+
+    /**
+     * The keys of the totals marked by the current transaction of the thread.
+     */
+    private final ThreadLocal<Set<List<Object>>> markedInTransaction = new ThreadLocal<>();
+
+    public InvoiceSummaryStore() {
+        super(InvoiceSummaryStore.class);
+    }
+
+    @PostConstruct
+    public void init(final Map<String, String> properties) {
+        super.init(properties);
+        refreshWaitSeconds = nonNegativeIntProperty(properties, KEY_REFRESH_WAIT_SECONDS, REFRESH_WAIT_SECONDS_DEFAULT);
+        consolidationService = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("invoice-summary-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (consolidationService != null) {
+            consolidationService.shutdownNow();
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @Programmatic
+    public void markDirty(final InvoiceForLease invoice) {
+        final String atPath = invoice.getApplicationTenancyPath();
+        if (atPath == null || invoice.getSeller() == null || invoice.getDueDate() == null || invoice.getStatus() == null) {
+            // not (yet) part of any summary
+            return;
+        }
+        final String sellerReference = invoice.getSeller().getReference();
+        Set<List<Object>> marked = markedInTransaction.get();
+        if (marked == null) {
+            marked = Sets.newHashSet();
+            markedInTransaction.set(marked);
+            transactionCompletionService.onCompletion(markedInTransaction::remove);
+            transactionCompletionService.onCommit(this::consolidateLater);
+        }
+        if (marked.add(Arrays.<Object>asList(
+                atPath, sellerReference, invoice.getDueDate(), invoice.getStatus(), invoice.getRunId()))) {
+            invoiceSummaryTotalChangeRepository.create(
+                    atPath, sellerReference, invoice.getDueDate(), invoice.getStatus(), invoice.getRunId());
+        }
+    }
+
+    /**
+     * Brings the totals up to date before the summaries are read: with the changes of the current transaction, if it
+     * made any, else with those committed so far.
+     */
+    @Programmatic
+    public void refresh() {
+        final Set<List<Object>> marked = markedInTransaction.get();
+        if (marked != null) {
+            // the consolidation could not see, and might wait on, the changes of this transaction
+            consolidateInTransaction(marked);
+            return;
+        }
+        if (invoiceSummaryTotalChangeRepository.countAll() == 0 && invoiceSummaryTotalRepository.countAll() > 0) {
+            return;
+        }
+        final Future<Integer> consolidation = schedule(false);
+        try {
+            consolidation.get(refreshWaitSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ex) {
+            // reading the totals as they are, for now
+        }
+    }
+
+    /**
+     * Recreates all totals from the invoices, first {@link InvoiceTotalsService#backfill() backfilling} the totals
+     * of invoices that have none.
+     *
+     * @return the number of totals
+     */
+    @Programmatic
+    public int rebuild() {
+        try {
+            return schedule(true).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding the invoice summaries", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Failed to rebuild the invoice summaries", ex.getCause());
+        }
+    }
+
+    /**
+     * Recalculates the totals marked by the current transaction within it, including its own uncommitted invoices;
+     * the consolidation once it has committed recalculates them again, from the committed invoices.  Should there be
+     * no totals at all yet, they are all built instead, as the first consolidation would otherwise.
+     */
+    private void consolidateInTransaction(final Set<List<Object>> marked) {
+        getContainer().flush();
+        if (invoiceSummaryTotalRepository.countAll() == 0) {
+            invoiceTotalsService.backfill();
+            invoiceSummaryTotalRepository.rebuild();
+            return;
+        }
+        for (List<Object> key : marked) {
+            invoiceSummaryTotalRepository.recalculate(invoiceSummaryTotalRepository.findOrCreate(
+                    (String) key.get(0), (String) key.get(1), (LocalDate) key.get(2), (InvoiceStatus) key.get(3),
+                    (String) key.get(4)));
+        }
+        getContainer().flush();
+    }
+
+    // //////////////////////////////////////
+
+    private void consolidateLater() {
+        schedule(false);
+    }
+
+    /**
+     * Queues a consolidation, or (unless rebuilding) returns the one already queued but not yet started.
+     */
+    private synchronized Future<Integer> schedule(final boolean rebuild) {
+        if (!rebuild && queuedConsolidation != null) {
+            return queuedConsolidation;
+        }
+        final FutureTask<Integer> consolidation = new FutureTask<>(() -> consolidate(rebuild));
+        if (!rebuild) {
+            queuedConsolidation = consolidation;
+        }
+        consolidationService.execute(consolidation);
+        return consolidation;
+    }
+
+    private synchronized void started() {
+        queuedConsolidation = null;
+    }
+
+    /**
+     * Recalculates the totals changed, on the consolidation thread.
+     *
+     * @return the number of totals recalculated or rebuilt
+     */
+    private int consolidate(final boolean rebuild) {
+        if (!rebuild) {
+            // changes committed from now on are left to the next consolidation
+            started();
+        }
+        final int[] consolidated = { 0 };
+        try {
+            ownSessionService.executeInTransaction(CONSOLIDATION_USER, () -> {
+                // read first, so that only the changes committed before the totals are recalculated are removed
+                final List<InvoiceSummaryTotalChange> changes = invoiceSummaryTotalChangeRepository.allChanges();
+                if (rebuild || invoiceSummaryTotalRepository.countAll() == 0) {
+                    invoiceTotalsService.backfill();
+                    consolidated[0] = invoiceSummaryTotalRepository.rebuild();
+                } else {
+                    final Set<List<Object>> recalculated = Sets.newHashSet();
+                    for (InvoiceSummaryTotalChange change : changes) {
+                        if (recalculated.add(change.getKey())) {
+                            invoiceSummaryTotalRepository.recalculate(invoiceSummaryTotalRepository.findOrCreate(
+                                    change.getAtPath(), change.getSellerReference(), change.getDueDate(),
+                                    change.getStatus(), change.getRunId()));
+                        }
+                    }
+                    consolidated[0] = recalculated.size();
+                }
+                for (InvoiceSummaryTotalChange change : changes) {
+                    invoiceSummaryTotalChangeRepository.remove(change);
+                }
+            });
+        } catch (RuntimeException ex) {
+            if (rebuild) {
+                throw ex;
+            }
+            LOG.warn("Failed to consolidate the invoice summary totals, leaving the changes to the next consolidation", ex);
+        }
+        return consolidated[0];
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    InvoiceSummaryTotalRepository invoiceSummaryTotalRepository;
+
+    @Inject
+    InvoiceSummaryTotalChangeRepository invoiceSummaryTotalChangeRepository;
+
+    @Inject
+    InvoiceTotalsService invoiceTotalsService;
+
+    @Inject
+    TransactionCompletionService transactionCompletionService;
+
+    @Inject
+    OwnSessionService ownSessionService;
+
+}
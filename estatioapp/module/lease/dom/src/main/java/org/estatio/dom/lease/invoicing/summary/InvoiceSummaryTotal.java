@@ -0,0 +1,160 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.summary;
+
+import java.math.BigDecimal;
+
+import javax.jdo.annotations.Column;
+import javax.jdo.annotations.DatastoreIdentity;
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.IdentityType;
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Queries;
+import javax.jdo.annotations.Query;
+import javax.jdo.annotations.Unique;
+import javax.jdo.annotations.Version;
+import javax.jdo.annotations.VersionStrategy;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainObject;
+import org.apache.isis.applib.annotation.Editing;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.Property;
+import org.apache.isis.applib.annotation.Where;
+
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+
+import org.incode.module.document.dom.types.AtPathType;
+
+import org.estatio.dom.UdoDomainObject2;
+import org.estatio.dom.invoice.InvoiceStatus;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceSummaryForInvoiceRun;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceSummaryForPropertyDueDateStatus;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The number and totals of the invoices sharing an application tenancy, seller, due date, status and (optionally)
+ * run, from which the {@link InvoiceSummaryForPropertyDueDateStatus} and {@link InvoiceSummaryForInvoiceRun} views
+ * are summed, rather than from the invoices and their items.
+ *
+ * <p>
+ * Maintained by the {@link InvoiceSummaryStore}: changing an invoice records an {@link InvoiceSummaryTotalChange} for
+ * the totals it belongs to, and the changed totals are recalculated once the change has been committed. There is at
+ * most one total per key, run included, so that the views do not count an invoice twice.
+ * </p>
+ */
+@PersistenceCapable(identityType = IdentityType.DATASTORE, schema = "dbo")
+@DatastoreIdentity(strategy = IdGeneratorStrategy.NATIVE, column = "id")
+@Version(strategy = VersionStrategy.VERSION_NUMBER, column = "version")
+@Unique(name = "InvoiceSummaryTotal_atPath_sellerReference_dueDate_status_runId_UNQ",
+        members = { "atPath", "sellerReference", "dueDate", "status", "runId" })
+@Queries({
+        @Query(
+                name = "findByKey", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.invoicing.summary.InvoiceSummaryTotal "
+                        + "WHERE atPath == :atPath "
+                        + "   && sellerReference == :sellerReference "
+                        + "   && dueDate == :dueDate "
+                        + "   && status == :status "
+                        + "   && runId == :runId"),
+        @Query(
+                name = "findByKeyWithoutRunId", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.invoicing.summary.InvoiceSummaryTotal "
+                        + "WHERE atPath == :atPath "
+                        + "   && sellerReference == :sellerReference "
+                        + "   && dueDate == :dueDate "
+                        + "   && status == :status "
+                        + "   && runId == null")
+})
+@DomainObject(
+        editing = Editing.DISABLED,
+        objectType = "org.estatio.dom.lease.invoicing.summary.InvoiceSummaryTotal"
+)
+public class InvoiceSummaryTotal extends UdoDomainObject2<InvoiceSummaryTotal> {
+
+    public InvoiceSummaryTotal() {
+        super("atPath, sellerReference, dueDate, status, runId");
+    }
+
+    @Override
+    public ApplicationTenancy getApplicationTenancy() {
+        return securityApplicationTenancyRepository.findByPathCached(getAtPath());
+    }
+
+    @Column(allowsNull = "false", length = AtPathType.Meta.MAX_LEN)
+    @Getter @Setter
+    @Property(hidden = Where.EVERYWHERE)
+    private String atPath;
+
+    @Column(allowsNull = "false")
+    @Getter @Setter
+    private String sellerReference;
+
+    @Column(allowsNull = "false")
+    @Getter @Setter
+    private LocalDate dueDate;
+
+    @Column(allowsNull = "false", length = InvoiceStatus.Meta.MAX_LEN)
+    @Getter @Setter
+    private InvoiceStatus status;
+
+    @Column(allowsNull = "true", length = 512)
+    @Getter @Setter
+    private String runId;
+
+    @Getter @Setter
+    private int total;
+
+    @Column(allowsNull = "false", scale = 2)
+    @Getter @Setter
+    private BigDecimal netAmount;
+
+    @Column(allowsNull = "false", scale = 2)
+    @Getter @Setter
+    @Property(hidden = Where.ALL_TABLES)
+    private BigDecimal vatAmount;
+
+    @Column(allowsNull = "false", scale = 2)
+    @Getter @Setter
+    private BigDecimal grossAmount;
+
+    // //////////////////////////////////////
+
+    @Programmatic
+    public void recalculated(
+            final int total,
+            final BigDecimal netAmount,
+            final BigDecimal vatAmount,
+            final BigDecimal grossAmount) {
+        setTotal(total);
+        setNetAmount(zeroIfNull(netAmount));
+        setVatAmount(zeroIfNull(vatAmount));
+        setGrossAmount(zeroIfNull(grossAmount));
+    }
+
+    private static BigDecimal zeroIfNull(final BigDecimal amount) {
+        return amount == null ? BigDecimal.ZERO : amount;
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.summary;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.jdo.annotations.Column;
+import javax.jdo.annotations.DatastoreIdentity;
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.IdentityType;
+import javax.jdo.annotations.PersistenceCapable;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainObject;
+import org.apache.isis.applib.annotation.Editing;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.Property;
+import org.apache.isis.applib.annotation.Where;
+
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+
+import org.incode.module.document.dom.types.AtPathType;
+
+import org.estatio.dom.UdoDomainObject2;
+import org.estatio.dom.invoice.InvoiceStatus;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Records that the invoices of an {@link InvoiceSummaryTotal} have changed, and so that it needs recalculating.
+ *
+ * <p>
+ * Appended by the {@link InvoiceSummaryStore} within the transaction changing the invoices, at most once per total and
+ * transaction, and removed once the total has been recalculated. Never updated, so that concurrent transactions
+ * changing invoices of the same total do not contend for a row; for the same reason it is not versioned, and the key
+ * is not unique.
+ * </p>
+ */
+@PersistenceCapable(identityType = IdentityType.DATASTORE, schema = "dbo")
+@DatastoreIdentity(strategy = IdGeneratorStrategy.NATIVE, column = "id")
+@DomainObject(
+        editing = Editing.DISABLED,
+        objectType = "org.estatio.dom.lease.invoicing.summary.InvoiceSummaryTotalChange"
+)
+public class InvoiceSummaryTotalChange extends UdoDomainObject2<InvoiceSummaryTotalChange> {
+
+    public InvoiceSummaryTotalChange() {
+        super("atPath, sellerReference, dueDate, status, runId");
+    }
+
+    @Override
+    public ApplicationTenancy getApplicationTenancy() {
+        return securityApplicationTenancyRepository.findByPathCached(getAtPath());
+    }
+
+    @Column(allowsNull = "false", length = AtPathType.Meta.MAX_LEN)
+    @Getter @Setter
+    @Property(hidden = Where.EVERYWHERE)
+    private String atPath;
+
+    @Column(allowsNull = "false")
+    @Getter @Setter
+    private String sellerReference;
+
+    @Column(allowsNull = "false")
+    @Getter @Setter
+    private LocalDate dueDate;
+
+    @Column(allowsNull = "false", length = InvoiceStatus.Meta.MAX_LEN)
+    @Getter @Setter
+    private InvoiceStatus status;
+
+    @Column(allowsNull = "true", length = 512)
+    @Getter @Setter
+    private String runId;
+
+    /**
+     * The key of the {@link InvoiceSummaryTotal} changed.
+     */
+    @Programmatic
+    public List<Object> getKey() {
+        return Arrays.asList(getAtPath(), getSellerReference(), getDueDate(), getStatus(), getRunId());
+    }
+
+}
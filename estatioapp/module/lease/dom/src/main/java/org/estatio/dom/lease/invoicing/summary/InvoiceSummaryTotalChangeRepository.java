@@ -0,0 +1,75 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.summary;
+
+import java.util.List;
+
+import javax.jdo.Query;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.invoice.InvoiceStatus;
+
+@DomainService(nature = NatureOfService.DOMAIN, repositoryFor = InvoiceSummaryTotalChange.class)
+public class InvoiceSummaryTotalChangeRepository extends UdoDomainRepositoryAndFactory<InvoiceSummaryTotalChange> {
+
+    public InvoiceSummaryTotalChangeRepository() {
+        super(InvoiceSummaryTotalChangeRepository.class, InvoiceSummaryTotalChange.class);
+    }
+
+    @Programmatic
+    public InvoiceSummaryTotalChange create(
+            final String atPath,
+            final String sellerReference,
+            final LocalDate dueDate,
+            final InvoiceStatus status,
+            final String runId) {
+        final InvoiceSummaryTotalChange change = newTransientInstance();
+        change.setAtPath(atPath);
+        change.setSellerReference(sellerReference);
+        change.setDueDate(dueDate);
+        change.setStatus(status);
+        change.setRunId(runId);
+        persistIfNotAlready(change);
+        return change;
+    }
+
+    @Programmatic
+    public List<InvoiceSummaryTotalChange> allChanges() {
+        return allInstances();
+    }
+
+    @Programmatic
+    public long countAll() {
+        final Query query = newQuery(
+                "SELECT count(this) FROM org.estatio.dom.lease.invoicing.summary.InvoiceSummaryTotalChange");
+        return (Long) query.execute();
+    }
+
+    @Programmatic
+    public void remove(final InvoiceSummaryTotalChange change) {
+        removeIfNotAlready(change);
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.summary;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import javax.jdo.Query;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.invoice.InvoiceStatus;
+
+@DomainService(nature = NatureOfService.DOMAIN, repositoryFor = InvoiceSummaryTotal.class)
+public class InvoiceSummaryTotalRepository extends UdoDomainRepositoryAndFactory<InvoiceSummaryTotal> {
+
+    /**
+     * The invoices counted, as by the view definitions this store replaces: only those with items.
+     */
+    private static final String INVOICES =
+            "FROM org.estatio.dom.lease.invoicing.InvoiceForLease "
+                    + "WHERE !items.isEmpty() ";
+
+    private static final String TOTALS = "count(this), sum(netAmount), sum(vatAmount), sum(grossAmount)";
+
+    public InvoiceSummaryTotalRepository() {
+        super(InvoiceSummaryTotalRepository.class, InvoiceSummaryTotal.class);
+    }
+
+    @Programmatic
+    public InvoiceSummaryTotal findByKey(
+            final String atPath,
+            final String sellerReference,
+            final LocalDate dueDate,
+            final InvoiceStatus status,
+            final String runId) {
+        return runId == null
+                ? firstMatch("findByKeyWithoutRunId",
+                        "atPath", atPath,
+                        "sellerReference", sellerReference,
+                        "dueDate", dueDate,
+                        "status", status)
+                : firstMatch("findByKey",
+                        "atPath", atPath,
+                        "sellerReference", sellerReference,
+                        "dueDate", dueDate,
+                        "status", status,
+                        "runId", runId);
+    }
+
+    /**
+     * Only called by the {@link InvoiceSummaryStore}: by its consolidation, one at a time, or by a transaction
+     * refreshing the totals it changed itself, which the consolidation only sees once committed.  Should another node
+     * insert the same total concurrently, the unique key fails one of the transactions; a consolidation so failed
+     * leaves its changes to be consolidated again.
+     */
+    @Programmatic
+    public InvoiceSummaryTotal findOrCreate(
+            final String atPath,
+            final String sellerReference,
+            final LocalDate dueDate,
+            final InvoiceStatus status,
+            final String runId) {
+        InvoiceSummaryTotal summaryTotal = findByKey(atPath, sellerReference, dueDate, status, runId);
+        if (summaryTotal == null) {
+            summaryTotal = newTransientInstance();
+            summaryTotal.setAtPath(atPath);
+            summaryTotal.setSellerReference(sellerReference);
+            summaryTotal.setDueDate(dueDate);
+            summaryTotal.setStatus(status);
+            summaryTotal.setRunId(runId);
+            summaryTotal.recalculated(0, null, null, null);
+            persistIfNotAlready(summaryTotal);
+        }
+        return summaryTotal;
+    }
+
+    @Programmatic
+    public List<InvoiceSummaryTotal> allSummaryTotals() {
+        return allInstances();
+    }
+
+    @Programmatic
+    public long countAll() {
+        final Query query = newQuery(
+                "SELECT count(this) FROM org.estatio.dom.lease.invoicing.summary.InvoiceSummaryTotal");
+        return (Long) query.execute();
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Sums the invoices of the summary total from scratch, with a single aggregate query.
+     */
+    @Programmatic
+    public void recalculate(final InvoiceSummaryTotal summaryTotal) {
+        final Map<String, Object> parameters = Maps.newHashMap();
+        parameters.put("atPath", summaryTotal.getAtPath());
+        parameters.put("sellerReference", summaryTotal.getSellerReference());
+        parameters.put("dueDate", summaryTotal.getDueDate());
+        parameters.put("status", summaryTotal.getStatus());
+        String filter = "&& applicationTenancyPath == :atPath "
+                + "&& seller.reference == :sellerReference "
+                + "&& dueDate == :dueDate "
+                + "&& status == :status ";
+        if (summaryTotal.getRunId() == null) {
+            filter += "&& runId == null";
+        } else {
+            filter += "&& runId == :runId";
+            parameters.put("runId", summaryTotal.getRunId());
+        }
+        final Query query = newQuery("SELECT " + TOTALS + " " + INVOICES + filter);
+        query.setUnique(true);
+        final Object[] row = (Object[]) query.executeWithMap(parameters);
+        summaryTotal.recalculated(
+                ((Number) row[0]).intValue(), (BigDecimal) row[1], (BigDecimal) row[2], (BigDecimal) row[3]);
+    }
+
+    /**
+     * Replaces all summary totals with ones summed from the invoices, grouped in a single aggregate query.
+     */
+    @Programmatic
+    public int rebuild() {
+        for (InvoiceSummaryTotal summaryTotal : allSummaryTotals()) {
+            removeIfNotAlready(summaryTotal);
+        }
+        getContainer().flush();
+
+        final Query query = newQuery(
+                "SELECT applicationTenancyPath, seller.reference, dueDate, status, runId, " + TOTALS + " "
+                        + INVOICES
+                        + "GROUP BY applicationTenancyPath, seller.reference, dueDate, status, runId");
+        @SuppressWarnings("unchecked")
+        final List<Object[]> rows = Lists.newArrayList((List<Object[]>) query.execute());
+        for (Object[] row : rows) {
+            final InvoiceSummaryTotal summaryTotal = newTransientInstance();
+            summaryTotal.setAtPath((String) row[0]);
+            summaryTotal.setSellerReference((String) row[1]);
+            summaryTotal.setDueDate((LocalDate) row[2]);
+            summaryTotal.setStatus((InvoiceStatus) row[3]);
+            summaryTotal.setRunId((String) row[4]);
+            summaryTotal.recalculated(
+                    ((Number) row[5]).intValue(), (BigDecimal) row[6], (BigDecimal) row[7], (BigDecimal) row[8]);
+            persistIfNotAlready(summaryTotal);
+        }
+        getContainer().flush();
+        return rows.size();
+    }
+
+}
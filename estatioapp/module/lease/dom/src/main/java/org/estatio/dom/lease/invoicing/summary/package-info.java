@@ -0,0 +1,4 @@
+/**
+ * Incrementally maintained totals backing the invoice summary view models of the dashboard.
+ */
+package org.estatio.dom.lease.invoicing.summary;
@@ -0,0 +1,263 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.viewmodel;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
+
+import org.apache.isis.applib.annotation.Action;
+import org.apache.isis.applib.annotation.DomainObject;
+import org.apache.isis.applib.annotation.Nature;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.Property;
+import org.apache.isis.applib.annotation.PropertyLayout;
+import org.apache.isis.applib.annotation.SemanticsOf;
+import org.apache.isis.applib.annotation.Where;
+import org.apache.isis.applib.services.jaxb.JaxbService;
+import org.apache.isis.applib.value.Clob;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * View model with the metrics of an invoice calculation run, as recorded by the
+ * {@link org.estatio.dom.lease.invoicing.InvoiceCalculationMetricsService}: what was visited, queried and created,
+ * and the time spent in each {@link Phase phase} of the calculation.
+ *
+ * <p>
+ * The times of the phases are the sum over all workers, so may add up to more than the elapsed time of a parallel
+ * run. The metrics can be {@link #exportAsXml() exported} to compare runs.
+ * </p>
+ */
+@DomainObject(
+        nature = Nature.VIEW_MODEL,
+        objectType = "org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationMetrics"
+)
+@XmlRootElement(name = "invoiceCalculationMetrics")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class InvoiceCalculationMetrics {
+
+    public enum Counter {
+        LEASES_VISITED,
+        ITEMS_VISITED,
+        TERMS_VISITED,
+        INTERVALS_GENERATED,
+        QUERIES_ISSUED,
+        INVOICES_CREATED,
+        INVOICE_ITEMS_CREATED
+    }
+
+    public enum Phase {
+        VERIFY,
+        CALCULATE,
+        LOOKUP_INVOICED_VALUE,
+        PERSIST,
+        RENDER_DESCRIPTION
+    }
+
+    public InvoiceCalculationMetrics() {
+    }
+
+    public InvoiceCalculationMetrics(final String runId) {
+        this.runId = runId;
+        this.started = System.nanoTime();
+    }
+
+    public String title() {
+        return String.format("%d leases, %d invoice items in %d ms", getLeasesVisited(), getInvoiceItemsCreated(), getElapsedMillis());
+    }
+
+    @PropertyLayout(typicalLength = 100)
+    @Getter @Setter
+    private String runId;
+
+    // //////////////////////////////////////
+
+    @Getter @Setter
+    private long leasesVisited;
+
+    @Getter @Setter
+    private long itemsVisited;
+
+    @Getter @Setter
+    private long termsVisited;
+
+    @Getter @Setter
+    private long intervalsGenerated;
+
+    /**
+     * The queries issued to the database during the run, lazily loaded collections and references included, as
+     * counted by DataNucleus (if its statistics are enabled).
+     */
+    @Getter @Setter
+    private long queriesIssued;
+
+    @Getter @Setter
+    private long invoicesCreated;
+
+    @Getter @Setter
+    private long invoiceItemsCreated;
+
+    // //////////////////////////////////////
+
+    @Property(hidden = Where.EVERYWHERE)
+    @Getter @Setter
+    private long elapsedNanos;
+
+    @Property(hidden = Where.EVERYWHERE)
+    @Getter @Setter
+    private long verifyNanos;
+
+    @Property(hidden = Where.EVERYWHERE)
+    @Getter @Setter
+    private long calculateNanos;
+
+    @Property(hidden = Where.EVERYWHERE)
+    @Getter @Setter
+    private long lookupInvoicedValueNanos;
+
+    @Property(hidden = Where.EVERYWHERE)
+    @Getter @Setter
+    private long persistNanos;
+
+    @Property(hidden = Where.EVERYWHERE)
+    @Getter @Setter
+    private long renderDescriptionNanos;
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public long getVerifyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(verifyNanos);
+    }
+
+    public long getCalculateMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(calculateNanos);
+    }
+
+    public long getLookupInvoicedValueMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lookupInvoicedValueNanos);
+    }
+
+    public long getPersistMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(persistNanos);
+    }
+
+    public long getRenderDescriptionMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(renderDescriptionNanos);
+    }
+
+    // //////////////////////////////////////
+
+    public InvoiceSummaryForInvoiceRun getInvoiceSummary() {
+        return runId == null ? null : invoiceSummaryForInvoiceRunRepository.findByRunId(runId);
+    }
+
+    // //////////////////////////////////////
+
+    @Action(semantics = SemanticsOf.SAFE)
+    public Clob exportAsXml() {
+        return new Clob("invoice-calculation-metrics.xml", "application/xml", jaxbService.toXml(this));
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The {@link System#nanoTime()} the run started at, to determine its elapsed time when {@link #finished()}.
+     */
+    @XmlTransient
+    private long started;
+
+    /**
+     * Adds to a counter; safe to call from concurrent workers.
+     */
+    @Programmatic
+    public synchronized void count(final Counter counter, final long count) {
+        switch (counter) {
+        case LEASES_VISITED:
+            leasesVisited += count;
+            break;
+        case ITEMS_VISITED:
+            itemsVisited += count;
+            break;
+        case TERMS_VISITED:
+            termsVisited += count;
+            break;
+        case INTERVALS_GENERATED:
+            intervalsGenerated += count;
+            break;
+        case QUERIES_ISSUED:
+            queriesIssued += count;
+            break;
+        case INVOICES_CREATED:
+            invoicesCreated += count;
+            break;
+        case INVOICE_ITEMS_CREATED:
+            invoiceItemsCreated += count;
+            break;
+        }
+    }
+
+    /**
+     * Adds the time spent in a phase; safe to call from concurrent workers.
+     */
+    @Programmatic
+    public synchronized void time(final Phase phase, final long nanos) {
+        switch (phase) {
+        case VERIFY:
+            verifyNanos += nanos;
+            break;
+        case CALCULATE:
+            calculateNanos += nanos;
+            break;
+        case LOOKUP_INVOICED_VALUE:
+            lookupInvoicedValueNanos += nanos;
+            break;
+        case PERSIST:
+            persistNanos += nanos;
+            break;
+        case RENDER_DESCRIPTION:
+            renderDescriptionNanos += nanos;
+            break;
+        }
+    }
+
+    /**
+     * Records the elapsed time of the run, up until now.
+     */
+    @Programmatic
+    public synchronized void finished() {
+        elapsedNanos = System.nanoTime() - started;
+    }
+
+    @XmlTransient
+    @Inject
+    InvoiceSummaryForInvoiceRunRepository invoiceSummaryForInvoiceRunRepository;
+
+    @XmlTransient
+    @Inject
+    JaxbService jaxbService;
+
+}
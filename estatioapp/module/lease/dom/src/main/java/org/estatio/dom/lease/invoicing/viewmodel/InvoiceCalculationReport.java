@@ -0,0 +1,147 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.viewmodel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementWrapper;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
+
+import org.apache.isis.applib.annotation.CollectionLayout;
+import org.apache.isis.applib.annotation.DomainObject;
+import org.apache.isis.applib.annotation.Nature;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.PropertyLayout;
+
+import org.estatio.dom.lease.invoicing.InvoiceCalculationMetricsService;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * View model reporting the outcome of an invoice calculation run that is executed lease by lease, such as the
+ * parallel calculation: the number of leases calculated and, for each lease that failed, why.
+ *
+ * <p>
+ * The invoices of the run itself are available from the {@link #getInvoiceSummary() invoice summary}.
+ * </p>
+ */
+@DomainObject(
+        nature = Nature.VIEW_MODEL,
+        objectType = "org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationReport"
+)
+@XmlRootElement(name = "invoiceCalculationReport")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class InvoiceCalculationReport {
+
+    public InvoiceCalculationReport() {
+    }
+
+    public InvoiceCalculationReport(final String runId) {
+        this.runId = runId;
+    }
+
+    public String title() {
+        return String.format("%d leases calculated, %d failed", getLeasesCalculated(), getLeasesFailed());
+    }
+
+    @PropertyLayout(typicalLength = 100)
+    @Getter @Setter
+    private String runId;
+
+    @Getter @Setter
+    private int leasesCalculated;
+
+    public int getLeasesFailed() {
+        return failures.size();
+    }
+
+    public InvoiceSummaryForInvoiceRun getInvoiceSummary() {
+        return runId == null ? null : invoiceSummaryForInvoiceRunRepository.findByRunId(runId);
+    }
+
+    public InvoiceCalculationMetrics getMetrics() {
+        return invoiceCalculationMetricsService.metricsFor(runId);
+    }
+
+    @XmlElementWrapper
+    @XmlElement(name = "failure")
+    @CollectionLayout(defaultView = "table")
+    @Getter @Setter
+    private List<Failure> failures = new ArrayList<>();
+
+    /**
+     * Records a lease that has been calculated and invoiced; safe to call from concurrent workers.
+     */
+    @Programmatic
+    public synchronized void succeeded() {
+        leasesCalculated++;
+    }
+
+    /**
+     * Records a lease that failed to calculate; safe to call from concurrent workers.
+     */
+    @Programmatic
+    public synchronized void failed(final String leaseReference, final Throwable cause) {
+        failures.add(new Failure(leaseReference, cause.getClass().getSimpleName() + ": " + cause.getMessage()));
+    }
+
+    @DomainObject(
+            nature = Nature.VIEW_MODEL,
+            objectType = "org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationReport$Failure"
+    )
+    @XmlRootElement(name = "failure")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class Failure {
+
+        public Failure() {
+        }
+
+        public Failure(final String leaseReference, final String message) {
+            this.leaseReference = leaseReference;
+            this.message = message;
+        }
+
+        public String title() {
+            return getLeaseReference();
+        }
+
+        @Getter @Setter
+        private String leaseReference;
+
+        @PropertyLayout(multiLine = 3)
+        @Getter @Setter
+        private String message;
+    }
+
+    @XmlTransient
+    @Inject
+    InvoiceSummaryForInvoiceRunRepository invoiceSummaryForInvoiceRunRepository;
+
+    @XmlTransient
+    @Inject
+    InvoiceCalculationMetricsService invoiceCalculationMetricsService;
+
+}
@@ -20,6 +20,7 @@ package org.estatio.dom.lease.invoicing.viewmodel;
 import java.math.BigDecimal;
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.jdo.annotations.Extension;
 import javax.jdo.annotations.IdentityType;
 import javax.jdo.annotations.InheritanceStrategy;
@@ -37,6 +38,7 @@ import org.apache.isis.applib.annotation.Where;
 
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 
+import org.estatio.dom.lease.invoicing.InvoiceCalculationMetricsService;
 import org.estatio.dom.lease.invoicing.InvoiceForLease;
 
 import lombok.Getter;
@@ -62,23 +64,18 @@ import lombok.Setter;
                                 "  {this.grossAmount} " +
                                 ") AS " +
                                 "SELECT " +
-                                "   i.\"atPath\" , " +
-                                "   i.\"runId\" , " +
-                                "   COUNT(DISTINCT(i.\"id\")) AS \"total\", " +
-                                "   SUM(ii.\"netAmount\") AS \"netAmount\", " +
-                                "   SUM(ii.\"vatAmount\") AS \"vatAmount\", " +
-                                "   SUM(ii.\"grossAmount\") AS \"grossAmount\" " +
-                                "FROM \"dbo\".\"Invoice\" i " +
-                                "  INNER JOIN \"dbo\".\"Lease\" l  " +
-                                "    ON i.\"leaseId\" = l.\"id\" " +
-                                "  INNER JOIN \"dbo\".\"FixedAsset\" fa " +
-                                "    ON fa.\"id\"  = i.\"fixedAssetId\" " +
-                                "  INNER JOIN \"dbo\".\"InvoiceItem\" ii " +
-                                "    ON ii.\"invoiceId\" = i.\"id\" " +
+                                "   s.\"atPath\" , " +
+                                "   s.\"runId\" , " +
+                                "   SUM(s.\"total\") AS \"total\", " +
+                                "   SUM(s.\"netAmount\") AS \"netAmount\", " +
+                                "   SUM(s.\"vatAmount\") AS \"vatAmount\", " +
+                                "   SUM(s.\"grossAmount\") AS \"grossAmount\" " +
+                                "FROM \"dbo\".\"InvoiceSummaryTotal\" s " +
                                 "WHERE " +
-                                "   NOT i.\"runId\" IS NULL " +
+                                "   NOT s.\"runId\" IS NULL " +
+                                "   AND s.\"total\" > 0 " +
                                 "GROUP BY " +
-                                "   i.\"runId\", i.\"atPath\"")
+                                "   s.\"runId\", s.\"atPath\"")
         })
 @javax.jdo.annotations.Queries({
         @javax.jdo.annotations.Query(
@@ -139,9 +136,21 @@ public class InvoiceSummaryForInvoiceRun extends InvoiceSummaryAbstract {
 
     // //////////////////////////////////////
 
+    /**
+     * The metrics of the run, if it is one of the most recent runs since the application started.
+     */
+    public InvoiceCalculationMetrics getMetrics() {
+        return invoiceCalculationMetricsService.metricsFor(getRunId());
+    }
+
+    // //////////////////////////////////////
+
     @CollectionLayout(defaultView = "table")
     public List<InvoiceForLease> getInvoices() {
         return invoiceForLeaseRepository.findByRunIdAndApplicationTenancyPath(runId, getAtPath());
     }
 
+    @Inject
+    InvoiceCalculationMetricsService invoiceCalculationMetricsService;
+
 }
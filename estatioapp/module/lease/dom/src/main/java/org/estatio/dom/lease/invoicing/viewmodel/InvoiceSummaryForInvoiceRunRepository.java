@@ -19,11 +19,14 @@ package org.estatio.dom.lease.invoicing.viewmodel;
 
 import java.util.List;
 
+import javax.inject.Inject;
+
 import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.NatureOfService;
 import org.apache.isis.applib.annotation.Programmatic;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.lease.invoicing.summary.InvoiceSummaryStore;
 
 @DomainService(nature = NatureOfService.DOMAIN)
 public class InvoiceSummaryForInvoiceRunRepository extends UdoDomainRepositoryAndFactory<InvoiceSummaryForInvoiceRun> {
@@ -35,12 +38,18 @@ public class InvoiceSummaryForInvoiceRunRepository extends UdoDomainRepositoryAn
     @Programmatic
     public InvoiceSummaryForInvoiceRun findByRunId(
             final String runId) {
+        invoiceSummaryStore.refresh();
         return firstMatch("findByRunId",
                 "runId", runId);
     }
 
     @Programmatic
     public List<InvoiceSummaryForInvoiceRun> allInvoiceRuns() {
+        invoiceSummaryStore.refresh();
         return allInstances();
     }
+
+    @Inject
+    InvoiceSummaryStore invoiceSummaryStore;
+
 }
@@ -66,24 +66,22 @@ import lombok.Setter;
                                 "  {this.grossAmount} " +
                                 ") AS " +
                                 "SELECT " +
-                                "  i.\"atPath\", " +
-                                "  p.\"reference\" , " +
-                                "  i.\"dueDate\", " +
-                                "  i.\"status\", " +
-                                "  COUNT(DISTINCT(i.\"id\")) AS \"total\", " +
-                                "   SUM(ii.\"netAmount\") AS \"netAmount\", " +
-                                "   SUM(ii.\"vatAmount\") AS \"vatAmount\", " +
-                                "   SUM(ii.\"grossAmount\") AS \"grossAmount\" " +
-                                "FROM \"dbo\".\"Invoice\" i " +
-                                "  INNER JOIN \"dbo\".\"InvoiceItem\" ii " +
-                                "    ON ii.\"invoiceId\" = i.\"id\" " +
-                                "  INNER JOIN \"dbo\".\"Party\" p " +
-                                "    ON p.\"id\" = i.\"sellerPartyId\" " +
+                                "  s.\"atPath\", " +
+                                "  s.\"sellerReference\", " +
+                                "  s.\"dueDate\", " +
+                                "  s.\"status\", " +
+                                "  SUM(s.\"total\") AS \"total\", " +
+                                "  SUM(s.\"netAmount\") AS \"netAmount\", " +
+                                "  SUM(s.\"vatAmount\") AS \"vatAmount\", " +
+                                "  SUM(s.\"grossAmount\") AS \"grossAmount\" " +
+                                "FROM \"dbo\".\"InvoiceSummaryTotal\" s " +
+                                "WHERE " +
+                                "  s.\"total\" > 0 " +
                                 "GROUP BY " +
-                                "  i.\"atPath\", " +
-                                "  p.\"reference\", " +
-                                "  i.\"dueDate\", " +
-                                "  i.\"status\"")
+                                "  s.\"atPath\", " +
+                                "  s.\"sellerReference\", " +
+                                "  s.\"dueDate\", " +
+                                "  s.\"status\"")
         })
 @javax.jdo.annotations.Queries({
         @javax.jdo.annotations.Query(
@@ -19,6 +19,8 @@ package org.estatio.dom.lease.invoicing.viewmodel;
 
 import java.util.List;
 
+import javax.inject.Inject;
+
 import org.joda.time.LocalDate;
 
 import org.apache.isis.applib.annotation.DomainService;
@@ -27,6 +29,7 @@ import org.apache.isis.applib.annotation.Programmatic;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
 import org.estatio.dom.invoice.InvoiceStatus;
+import org.estatio.dom.lease.invoicing.summary.InvoiceSummaryStore;
 
 @DomainService(nature = NatureOfService.DOMAIN)
 public class InvoiceSummaryForPropertyDueDateStatusRepository
@@ -39,6 +42,7 @@ public class InvoiceSummaryForPropertyDueDateStatusRepository
     @Programmatic
     public List<InvoiceSummaryForPropertyDueDateStatus> findInvoicesByStatus(
             final InvoiceStatus status) {
+        invoiceSummaryStore.refresh();
         return allMatches("findByStatus",
                 "status", status);
     }
@@ -47,6 +51,7 @@ public class InvoiceSummaryForPropertyDueDateStatusRepository
     public List<InvoiceSummaryForPropertyDueDateStatus> findInvoicesByStatusAndDueDateAfter(
             final InvoiceStatus status,
             final LocalDate fromDate) {
+        invoiceSummaryStore.refresh();
         return allMatches("findByStatusAndDueDateAfter",
                 "status", status,
                 "dueDateAfter", fromDate);
@@ -57,6 +62,7 @@ public class InvoiceSummaryForPropertyDueDateStatusRepository
                 final String atPath,
                 final String sellerReference,
                 final InvoiceStatus status) {
+        invoiceSummaryStore.refresh();
         return allMatches("findByAtPathAndSellerReferenceAndStatus",
                 "atPath", atPath,
                 "sellerReference", sellerReference,
@@ -69,6 +75,7 @@ public class InvoiceSummaryForPropertyDueDateStatusRepository
                 final String sellerReference,
                 final InvoiceStatus status,
                 final LocalDate dueDate) {
+        invoiceSummaryStore.refresh();
         return allMatches("findByAtPathAndSellerReferenceAndStatusAndDueDate",
                 "atPath", atPath,
                 "sellerReference", sellerReference,
@@ -76,4 +83,7 @@ public class InvoiceSummaryForPropertyDueDateStatusRepository
                 "dueDate", dueDate);
     }
 
+    @Inject
+    InvoiceSummaryStore invoiceSummaryStore;
+
 }
@@ -23,8 +23,6 @@ import java.util.List;
 
 import javax.inject.Inject;
 
-import com.google.common.collect.Lists;
-
 import org.apache.isis.applib.annotation.Action;
 import org.apache.isis.applib.annotation.ActionLayout;
 import org.apache.isis.applib.annotation.Contributed;
@@ -33,8 +31,6 @@ import org.apache.isis.applib.annotation.SemanticsOf;
 import org.apache.isis.applib.services.scratchpad.Scratchpad;
 import org.apache.isis.applib.value.Blob;
 
-import org.isisaddons.module.pdfbox.dom.service.PdfBoxService;
-
 import org.incode.module.communications.dom.mixins.DocumentPredicates;
 import org.incode.module.communications.dom.mixins.Document_communicationAttachments;
 import org.incode.module.document.dom.impl.docs.Document;
@@ -42,8 +38,7 @@ import org.incode.module.document.dom.impl.docs.DocumentSort;
 import org.incode.module.document.dom.impl.docs.DocumentState;
 
 import org.estatio.dom.invoice.DocumentTypeData;
-
-import static org.incode.module.communications.dom.mixins.DocumentConstants.MIME_TYPE_APPLICATION_PDF;
+import org.estatio.dom.lease.invoicing.dnc.PdfSpool;
 
 /**
  * It doesn't seem to be possible to combine this with {@link DocAndCommAbstract_downloadSelected};
@@ -65,18 +60,18 @@ public abstract class DocAndCommAbstract_download<T extends DocAndCommAbstract<T
     @ActionLayout(contributed = Contributed.AS_ACTION)
     public Blob act() throws IOException {
 
-        final List<byte[]> pdfBytes = Lists.newArrayList();
+        try (PdfSpool pdfSpool = new PdfSpool()) {
 
-        final Document document = getDocument();
-        appendBytes(document, pdfBytes);
+            final Document document = getDocument();
+            appendBytes(document, pdfSpool);
 
-        final List<Document> supportingDocs = attachmentsProvider.attachmentsFor(document);
-        for (Document supportingDoc : supportingDocs) {
-            appendBytes(supportingDoc, pdfBytes);
-        }
+            final List<Document> supportingDocs = attachmentsProvider.attachmentsFor(document);
+            for (Document supportingDoc : supportingDocs) {
+                appendBytes(supportingDoc, pdfSpool);
+            }
 
-        final byte[] mergedBytes = pdfBoxService.merge(pdfBytes.toArray(new byte[][] {}));
-        return new Blob(fileName, MIME_TYPE_APPLICATION_PDF, mergedBytes);
+            return pdfSpool.mergeToBlob(fileName);
+        }
     }
 
     public String disableAct() {
@@ -86,7 +81,7 @@ public abstract class DocAndCommAbstract_download<T extends DocAndCommAbstract<T
                 : null;
     }
 
-    private static void appendBytes(final Document document, final List<byte[]> pdfBytes) {
+    private static void appendBytes(final Document document, final PdfSpool pdfSpool) throws IOException {
         if (document.getState() != DocumentState.RENDERED ||
             !DocumentPredicates.isPdfAndBlob().apply(document)) {
             return;
@@ -94,16 +89,13 @@ public abstract class DocAndCommAbstract_download<T extends DocAndCommAbstract<T
 
         final DocumentSort documentSort = document.getSort();
         final byte[] bytes = documentSort.asBytes(document);
-        pdfBytes.add(bytes);
+        pdfSpool.append(bytes);
     }
 
 
     @Inject
     Document_communicationAttachments.Provider attachmentsProvider;
 
-    @Inject
-    PdfBoxService pdfBoxService;
-
     @Inject
     Scratchpad scratchpad;
 
@@ -23,8 +23,6 @@ import java.util.List;
 
 import javax.inject.Inject;
 
-import com.google.common.collect.Lists;
-
 import org.apache.isis.applib.annotation.Action;
 import org.apache.isis.applib.annotation.ActionLayout;
 import org.apache.isis.applib.annotation.Bulk;
@@ -33,9 +31,6 @@ import org.apache.isis.applib.annotation.InvokeOn;
 import org.apache.isis.applib.annotation.SemanticsOf;
 import org.apache.isis.applib.services.message.MessageService;
 import org.apache.isis.applib.services.scratchpad.Scratchpad;
-import org.apache.isis.applib.value.Blob;
-
-import org.isisaddons.module.pdfbox.dom.service.PdfBoxService;
 
 import org.incode.module.communications.dom.mixins.DocumentPredicates;
 import org.incode.module.communications.dom.mixins.Document_communicationAttachments;
@@ -44,12 +39,16 @@ import org.incode.module.document.dom.impl.docs.DocumentSort;
 import org.incode.module.document.dom.impl.docs.DocumentState;
 
 import org.estatio.dom.invoice.DocumentTypeData;
-
-import static org.incode.module.communications.dom.mixins.DocumentConstants.MIME_TYPE_APPLICATION_PDF;
+import org.estatio.dom.lease.invoicing.dnc.PdfSpool;
 
 /**
  * It doesn't seem to be possible to combine this with {@link DocAndCommAbstract_download};
  * the regular action must return a Blob whereas this must return a java.lang.Object.
+ *
+ * <p>
+ * The PDFs of the selected objects are spooled to disk as each is invoked, rather than held in the scratchpad
+ * until the last one, and merged from there.
+ * </p>
  */
 public abstract class DocAndCommAbstract_downloadSelected<T extends DocAndCommAbstract<T>> extends DocAndCommAbstract_abstract<T> {
 
@@ -67,35 +66,42 @@ public abstract class DocAndCommAbstract_downloadSelected<T extends DocAndCommAb
     @ActionLayout(contributed = Contributed.AS_ACTION)
     public Object act() throws IOException {
 
-        final List<byte[]> pdfBytes = createOrLookupPdfBytes();
-
-        final Document document = getDocument();
+        final PdfSpool pdfSpool = createOrLookupPdfSpool();
+        try {
+            final Document document = getDocument();
 
-        // in a bulk situation it's possible that some DnC's have a document, others do not.
-        // we just ignore those that do not
-        if (document != null) {
-            appendBytes(document, pdfBytes);
+            // in a bulk situation it's possible that some DnC's have a document, others do not.
+            // we just ignore those that do not
+            if (document != null) {
+                appendBytes(document, pdfSpool);
 
-            final List<Document> supportingDocs = attachmentsProvider.attachmentsFor(document);
-            for (Document supportingDoc : supportingDocs) {
-                appendBytes(supportingDoc, pdfBytes);
+                final List<Document> supportingDocs = attachmentsProvider.attachmentsFor(document);
+                for (Document supportingDoc : supportingDocs) {
+                    appendBytes(supportingDoc, pdfSpool);
+                }
             }
-        }
 
-        if(interactionContext.isLast()) {
-            if(pdfBytes.isEmpty()) {
-                messageService.warnUser("No documents to be merged");
-                return null;
-            }
+            if(interactionContext.isLast()) {
+                if(pdfSpool.isEmpty()) {
+                    messageService.warnUser("No documents to be merged");
+                    return null;
+                }
 
-            final byte[] mergedBytes = pdfBoxService.merge(pdfBytes.toArray(new byte[][] {}));
-            return new Blob(fileName, MIME_TYPE_APPLICATION_PDF, mergedBytes);
+                return pdfSpool.mergeToBlob(fileName);
+            }
+        } catch (IOException | RuntimeException ex) {
+            pdfSpool.close();
+            throw ex;
+        } finally {
+            if(interactionContext.isLast()) {
+                pdfSpool.close();
+            }
         }
 
         return null;
     }
 
-    private static void appendBytes(final Document document, final List<byte[]> pdfBytes) {
+    private static void appendBytes(final Document document, final PdfSpool pdfSpool) throws IOException {
         if (document.getState() != DocumentState.RENDERED ||
             !DocumentPredicates.isPdfAndBlob().apply(document)) {
             return;
@@ -103,27 +109,24 @@ public abstract class DocAndCommAbstract_downloadSelected<T extends DocAndCommAb
 
         final DocumentSort documentSort = document.getSort();
         final byte[] bytes = documentSort.asBytes(document);
-        pdfBytes.add(bytes);
+        pdfSpool.append(bytes);
     }
 
-    private List<byte[]> createOrLookupPdfBytes() {
-        final List<byte[]> pdfBytes ;
+    private PdfSpool createOrLookupPdfSpool() {
+        final PdfSpool pdfSpool;
         if(interactionContext.isFirst()) {
-            pdfBytes = Lists.newArrayList();
-            scratchpad.put("pdfBytes", pdfBytes);
+            pdfSpool = new PdfSpool();
+            scratchpad.put("pdfSpool", pdfSpool);
         } else {
-            pdfBytes = (List<byte[]>) scratchpad.get("pdfBytes");
+            pdfSpool = (PdfSpool) scratchpad.get("pdfSpool");
         }
-        return pdfBytes;
+        return pdfSpool;
     }
 
 
     @Inject
     Document_communicationAttachments.Provider attachmentsProvider;
 
-    @Inject
-    PdfBoxService pdfBoxService;
-
     // TODO: @ActionInvocationContext is broken...
     @Inject
     Bulk.InteractionContext interactionContext;
@@ -19,7 +19,9 @@
 package org.estatio.dom.lease.invoicing.viewmodel.dnc;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
@@ -39,6 +41,8 @@ import org.incode.module.document.dom.impl.docs.Document;
 import org.estatio.dom.invoice.DocumentTypeData;
 import org.estatio.dom.invoice.Invoice;
 import org.estatio.dom.lease.invoicing.dnc.Invoice_sendByEmail;
+import org.estatio.dom.lease.invoicing.dnc.OutboundEmail;
+import org.estatio.dom.lease.invoicing.dnc.OutboundEmailRepository;
 import org.estatio.dom.lease.invoicing.viewmodel.InvoiceSummaryForPropertyDueDateStatus;
 
 public abstract class InvoiceSummaryForPropertyDueDateStatus_sendByEmailAbstract extends InvoiceSummaryForPropertyDueDateStatus_sendAbstract {
@@ -49,6 +53,15 @@ public abstract class InvoiceSummaryForPropertyDueDateStatus_sendByEmailAbstract
         super(invoiceSummary, documentTypeData, CommunicationChannelType.EMAIL_ADDRESS);
     }
 
+    /**
+     * The email address of each document's invoice, as evaluated when filtering the documents to send.
+     */
+    private final Map<Document, EmailAddress> emailAddressByDocument = new HashMap<>();
+
+    /**
+     * Queues each document to be {@link OutboundEmail sent by email} in the background, rather than sending them all
+     * within this interaction.
+     */
     @Action(semantics = SemanticsOf.NON_IDEMPOTENT_ARE_YOU_SURE)
     @ActionLayout(contributed = Contributed.AS_ACTION)
     public InvoiceSummaryForPropertyDueDateStatus $$() throws IOException {
@@ -60,11 +73,11 @@ public abstract class InvoiceSummaryForPropertyDueDateStatus_sendByEmailAbstract
 
             final Invoice_sendByEmail invoice_sendByEmail = invoice_email(invoice);
 
-            final EmailAddress emailAddress = invoice_sendByEmail.default1$$(document);
+            final EmailAddress emailAddress = emailAddressFor(invoiceAndDocument);
             final String cc = invoice_sendByEmail.default2$$(document);
             final String bcc = invoice_sendByEmail.default5$$(document);
 
-            invoice_sendByEmail.$$(document, emailAddress, cc, null, null, bcc, null);
+            outboundEmailRepository.enqueue(invoice, document, emailAddress, cc, bcc);
         }
         return this.invoiceSummary;
     }
@@ -89,11 +102,18 @@ public abstract class InvoiceSummaryForPropertyDueDateStatus_sendByEmailAbstract
     }
 
     private Predicate<InvoiceAndDocument> canBeSentByEmail() {
-        return invoiceAndDocument -> {
+        return invoiceAndDocument ->
+                emailAddressFor(invoiceAndDocument) != null &&
+                !outboundEmailRepository.isQueued(invoiceAndDocument.getDocument());
+    }
+
+    private EmailAddress emailAddressFor(final InvoiceAndDocument invoiceAndDocument) {
+        final Document document = invoiceAndDocument.getDocument();
+        if (!emailAddressByDocument.containsKey(document)) {
             final Invoice_sendByEmail emailMixin = invoice_email(invoiceAndDocument.getInvoice());
-            final EmailAddress emailAddress = emailMixin.default1$$(invoiceAndDocument.getDocument());
-            return emailAddress != null;
-        };
+            emailAddressByDocument.put(document, emailMixin.default1$$(document));
+        }
+        return emailAddressByDocument.get(document);
     }
 
     private Invoice_sendByEmail invoice_email(final Invoice invoice) {
@@ -102,4 +122,7 @@ public abstract class InvoiceSummaryForPropertyDueDateStatus_sendByEmailAbstract
 
     @Inject
     FactoryService factoryService;
+
+    @Inject
+    OutboundEmailRepository outboundEmailRepository;
 }
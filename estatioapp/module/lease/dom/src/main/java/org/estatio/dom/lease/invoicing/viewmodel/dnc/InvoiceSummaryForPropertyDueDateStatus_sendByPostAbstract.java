@@ -19,13 +19,11 @@
 package org.estatio.dom.lease.invoicing.viewmodel.dnc;
 
 import java.io.IOException;
-import java.util.List;
 
 import javax.inject.Inject;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
-import com.google.common.collect.Lists;
 
 import org.apache.isis.applib.annotation.Action;
 import org.apache.isis.applib.annotation.ActionLayout;
@@ -34,16 +32,14 @@ import org.apache.isis.applib.annotation.SemanticsOf;
 import org.apache.isis.applib.services.factory.FactoryService;
 import org.apache.isis.applib.value.Blob;
 
-import org.isisaddons.module.pdfbox.dom.service.PdfBoxService;
-
 import org.incode.module.communications.dom.impl.commchannel.CommunicationChannelType;
 import org.incode.module.communications.dom.impl.commchannel.PostalAddress;
-import org.incode.module.communications.dom.mixins.DocumentConstants;
 import org.incode.module.document.dom.impl.docs.Document;
 
 import org.estatio.dom.invoice.DocumentTypeData;
 import org.estatio.dom.invoice.Invoice;
 import org.estatio.dom.lease.invoicing.dnc.Invoice_sendByPost;
+import org.estatio.dom.lease.invoicing.dnc.PdfSpool;
 import org.estatio.dom.lease.invoicing.viewmodel.InvoiceSummaryForPropertyDueDateStatus;
 
 public abstract class InvoiceSummaryForPropertyDueDateStatus_sendByPostAbstract extends InvoiceSummaryForPropertyDueDateStatus_sendAbstract {
@@ -61,23 +57,22 @@ public abstract class InvoiceSummaryForPropertyDueDateStatus_sendByPostAbstract
     @ActionLayout(contributed = Contributed.AS_ACTION)
     public Blob $$(final String fileName) throws IOException {
 
-        final List<byte[]> pdfBytes = Lists.newArrayList();
-
-        for (final InvoiceAndDocument invoiceAndDocument : invoiceAndDocumentsToSend()) {
+        try (PdfSpool pdfSpool = new PdfSpool()) {
 
-            final Invoice invoice = invoiceAndDocument.getInvoice();
-            final Document prelimLetterOrInvoiceNote = invoiceAndDocument.getDocument();
+            for (final InvoiceAndDocument invoiceAndDocument : invoiceAndDocumentsToSend()) {
 
-            final Invoice_sendByPost invoice_sendByPost = invoice_sendByPost(invoice);
-            final PostalAddress postalAddress = invoice_sendByPost.default1$$(prelimLetterOrInvoiceNote);
+                final Invoice invoice = invoiceAndDocument.getInvoice();
+                final Document prelimLetterOrInvoiceNote = invoiceAndDocument.getDocument();
 
-            invoice_sendByPost.createPostalCommunicationAsSent(prelimLetterOrInvoiceNote, postalAddress);
-            invoice_sendByPost.appendPdfBytes(prelimLetterOrInvoiceNote, pdfBytes);
-        }
+                final Invoice_sendByPost invoice_sendByPost = invoice_sendByPost(invoice);
+                final PostalAddress postalAddress = invoice_sendByPost.default1$$(prelimLetterOrInvoiceNote);
 
-        final byte[] mergedBytes = pdfBoxService.merge(pdfBytes.toArray(new byte[][] {}));
+                invoice_sendByPost.createPostalCommunicationAsSent(prelimLetterOrInvoiceNote, postalAddress);
+                invoice_sendByPost.appendPdfBytes(prelimLetterOrInvoiceNote, pdfSpool);
+            }
 
-        return new Blob(fileName, DocumentConstants.MIME_TYPE_APPLICATION_PDF, mergedBytes);
+            return pdfSpool.mergeToBlob(fileName);
+        }
     }
 
 
@@ -108,9 +103,6 @@ public abstract class InvoiceSummaryForPropertyDueDateStatus_sendByPostAbstract
     }
 
 
-    @Inject
-    PdfBoxService pdfBoxService;
-
     @Inject
     FactoryService factoryService;
 
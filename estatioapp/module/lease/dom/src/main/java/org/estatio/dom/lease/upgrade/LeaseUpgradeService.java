@@ -7,6 +7,7 @@ import javax.inject.Inject;
 import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.NatureOfService;
 
+import org.estatio.dom.BatchTransactionService;
 import org.estatio.dom.UdoDomainService;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseItem;
@@ -23,32 +24,48 @@ public class LeaseUpgradeService extends UdoDomainService<LeaseUpgradeService>
         super(LeaseUpgradeService.class);
     }
 
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * Works through all leases in batches of {@value #BATCH_SIZE}, each committed and evicted once done.
+     */
     public BigInteger upgradeLinkedItems() {
 
-        BigInteger numberOfItemsLinkedIfNotAlready = BigInteger.ZERO;
+        final BigInteger[] numberOfItemsLinkedIfNotAlready = { BigInteger.ZERO };
+
+        leaseRepository.forEachBatchAtPath("/", BATCH_SIZE, leases -> {
+            for (Lease lease : leases) {
+                numberOfItemsLinkedIfNotAlready[0] = numberOfItemsLinkedIfNotAlready[0].add(upgradeLinkedItems(lease));
+            }
+            batchTransactionService.commitAndEvictAll();
+        });
+        return numberOfItemsLinkedIfNotAlready[0];
+    }
+
+    private BigInteger upgradeLinkedItems(final Lease lease) {
 
-        for (Lease lease : leaseRepository.allLeases()) {
-            for (LeaseItem depositItem : lease.findItemsOfType(LeaseItemType.DEPOSIT)) {
-                for (LeaseItem rentItem : lease.findItemsOfType(LeaseItemType.RENT)) {
-                    depositItem.findOrCreateSourceItem(rentItem);
-                    numberOfItemsLinkedIfNotAlready = numberOfItemsLinkedIfNotAlready.add(BigInteger.ONE);
-                }
+        BigInteger numberOfItemsLinkedIfNotAlready = BigInteger.ZERO;
 
+        for (LeaseItem depositItem : lease.findItemsOfType(LeaseItemType.DEPOSIT)) {
+            for (LeaseItem rentItem : lease.findItemsOfType(LeaseItemType.RENT)) {
+                depositItem.findOrCreateSourceItem(rentItem);
+                numberOfItemsLinkedIfNotAlready = numberOfItemsLinkedIfNotAlready.add(BigInteger.ONE);
             }
-            for (LeaseItem trItem : lease.findItemsOfType(LeaseItemType.TURNOVER_RENT)) {
-                for (LeaseItem rentItem : lease.findItemsOfType(LeaseItemType.RENT)) {
-                    trItem.findOrCreateSourceItem(rentItem);
-                    numberOfItemsLinkedIfNotAlready = numberOfItemsLinkedIfNotAlready.add(BigInteger.ONE);
-                }
 
+        }
+        for (LeaseItem trItem : lease.findItemsOfType(LeaseItemType.TURNOVER_RENT)) {
+            for (LeaseItem rentItem : lease.findItemsOfType(LeaseItemType.RENT)) {
+                trItem.findOrCreateSourceItem(rentItem);
+                numberOfItemsLinkedIfNotAlready = numberOfItemsLinkedIfNotAlready.add(BigInteger.ONE);
             }
-            for (LeaseItem taxItem : lease.findItemsOfType(LeaseItemType.TAX)) {
-                for (LeaseItem rentItem : lease.findItemsOfType(LeaseItemType.RENT)) {
-                    taxItem.findOrCreateSourceItem(rentItem);
-                    numberOfItemsLinkedIfNotAlready = numberOfItemsLinkedIfNotAlready.add(BigInteger.ONE);
-                }
 
+        }
+        for (LeaseItem taxItem : lease.findItemsOfType(LeaseItemType.TAX)) {
+            for (LeaseItem rentItem : lease.findItemsOfType(LeaseItemType.RENT)) {
+                taxItem.findOrCreateSourceItem(rentItem);
+                numberOfItemsLinkedIfNotAlready = numberOfItemsLinkedIfNotAlready.add(BigInteger.ONE);
             }
+
         }
         return numberOfItemsLinkedIfNotAlready;
     }
@@ -56,4 +73,7 @@ public class LeaseUpgradeService extends UdoDomainService<LeaseUpgradeService>
     @Inject
     private LeaseRepository leaseRepository;
 
+    @Inject
+    private BatchTransactionService batchTransactionService;
+
 }
@@ -19,6 +19,9 @@
 package org.estatio.dom.lease;
 
 import java.util.List;
+import java.util.function.Supplier;
+
+import com.google.common.collect.Lists;
 
 import org.joda.time.LocalDate;
 import org.junit.Before;
@@ -76,6 +79,19 @@ public class LeaseRepository_Test {
         };
 
         leaseRepository.clockService = new ClockService();
+        leaseRepository.leaseGraphFetchPlan = new LeaseGraphFetchPlan() {
+            @Override
+            public <T> T fetching(final Supplier<T> finder) {
+                return finder.get();
+            }
+        };
+        // as if the patterns cannot be searched in the index
+        leaseRepository.leaseSearchIndex = new LeaseSearchIndex() {
+            @Override
+            public boolean canSearch(final String referenceOrName) {
+                return false;
+            }
+        };
     }
 
     public static class FindLeaseByReference extends LeaseRepository_Test {
@@ -107,6 +123,82 @@ public class LeaseRepository_Test {
         }
     }
 
+    public static class MatchByReferenceOrNameAndAtPath extends LeaseRepository_Test {
+
+        @Test
+        public void byReferenceWildcard() {
+
+            leaseRepository.matchByReferenceOrNameAndAtPath("*REF?1*", false, "/ITA/X-CAR");
+
+            assertThat(finderInteraction.getFinderMethod()).isEqualTo(FinderMethod.ALL_MATCHES);
+            assertThat(finderInteraction.getResultType()).isEqualTo(Lease.class);
+            assertThat(finderInteraction.getQueryName()).isEqualTo("matchByReferenceOrNameAndAtPath");
+            assertThat(finderInteraction.getArgumentsByParameterName().get("referenceOrName")).isEqualTo((Object) "(?i).*REF.1.*");
+            // the last of the two scopes, /ITA/CAR and /ITA/X-CAR
+            assertThat(finderInteraction.getArgumentsByParameterName().get("atPath")).isEqualTo((Object) "/ITA/X-CAR");
+            assertThat(finderInteraction.getArgumentsByParameterName().get("atPathPrefix")).isEqualTo((Object) "/ITA/X-CAR/");
+            assertThat(finderInteraction.getArgumentsByParameterName()).hasSize(5);
+        }
+    }
+
+    public static class MatchByReferenceOrNameInSearchIndex extends LeaseRepository_Test {
+
+        Lease lease = new Lease();
+        Lease leaseTerminated = new Lease();
+
+        @Before
+        public void setUpSearchIndex() {
+            lease.setTenancyEndDate(new LocalDate(2999, 12, 31));
+            leaseTerminated.setTenancyEndDate(new LocalDate(2000, 12, 31));
+            leaseRepository.leaseSearchIndex = new LeaseSearchIndex() {
+                @Override
+                public List<Lease> search(final String referenceOrName) {
+                    return Lists.newArrayList(lease, leaseTerminated);
+                }
+            };
+        }
+
+        @Test
+        public void excluding_terminated() {
+
+            assertThat(leaseRepository.matchByReferenceOrName("*REF?1*", false)).containsExactly(lease);
+
+            assertThat(finderInteraction).isNull();
+        }
+
+        @Test
+        public void including_terminated() {
+
+            assertThat(leaseRepository.matchByReferenceOrName("*REF?1*", true)).containsExactly(lease, leaseTerminated);
+
+            assertThat(finderInteraction).isNull();
+        }
+    }
+
+    public static class FindByAtPath extends LeaseRepository_Test {
+
+        @Test
+        public void country() {
+
+            leaseRepository.findByAtPath("/ITA");
+
+            assertThat(finderInteraction.getFinderMethod()).isEqualTo(FinderMethod.ALL_MATCHES);
+            assertThat(finderInteraction.getResultType()).isEqualTo(Lease.class);
+            assertThat(finderInteraction.getQueryName()).isEqualTo("findByAtPath");
+            assertThat(finderInteraction.getArgumentsByParameterName().get("atPath")).isEqualTo((Object) "/ITA");
+            assertThat(finderInteraction.getArgumentsByParameterName().get("atPathPrefix")).isEqualTo((Object) "/ITA/");
+            assertThat(finderInteraction.getArgumentsByParameterName()).hasSize(2);
+        }
+
+        @Test
+        public void no_path() {
+
+            assertThat(leaseRepository.findByAtPath(null)).isEmpty();
+
+            assertThat(finderInteraction).isNull();
+        }
+    }
+
     public static class FindLeasesByProperty extends LeaseRepository_Test {
 
         @Test
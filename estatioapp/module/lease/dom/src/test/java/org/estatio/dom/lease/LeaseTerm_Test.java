@@ -110,7 +110,7 @@ public class LeaseTerm_Test {
         term.initialize();
     }
 
-    private Action returnLeaseTerm() {
+    Action returnLeaseTerm() {
         return new Action() {
             @Override
             public Object invoke(Invocation invocation) throws Throwable {
@@ -287,6 +287,56 @@ public class LeaseTerm_Test {
         }
     }
 
+    public static class VerifyChainUntil extends LeaseTerm_Test {
+
+        @Test
+        public void long_chain_is_verified_iteratively() throws Exception {
+            // given a monthly chain of 20,000 terms that are not aligned
+            item.setType(LeaseItemType.RENT_DISCOUNT);
+            LeaseTerm last = term;
+            for (int i = 1; i < 20000; i++) {
+                final LeaseTermForTesting next = new LeaseTermForTesting(item, term.getStartDate().plusMonths(i), null, null);
+                next.setPrevious(last);
+                last.setNext(next);
+                last = next;
+            }
+
+            // when
+            term.verifyUntil(new LocalDate(2014, 1, 1));
+
+            // then
+            assertThat(term.getEndDate()).isEqualTo(new LocalDate(2012, 1, 31));
+            assertThat(last.getPrevious().getEndDate()).isEqualTo(last.getStartDate().minusDays(1));
+        }
+
+        @Test
+        public void creates_next_terms() throws Exception {
+            // given
+            item.setType(LeaseItemType.RENT);
+            context.checking(new Expectations() {
+                {
+                    oneOf(mockLeaseTermRepository).newLeaseTerm(
+                            with(item),
+                            with(term),
+                            with(new LocalDate(2013, 1, 1)),
+                            with(new LocalDate(2013, 12, 31)));
+                    will(returnLeaseTerm());
+                }
+            });
+
+            // when
+            term.verifyChainUntil(
+                    new LocalDate(2014, 1, 1),
+                    new LocalDateInterval(new LocalDate(2012, 1, 1), new LocalDate(2013, 6, 30)),
+                    true);
+
+            // then
+            assertThat(term.getNext().getStartDate()).isEqualTo(new LocalDate(2013, 1, 1));
+            assertThat(term.getNext().getNext()).isNull();
+        }
+
+    }
+
     public static class BeanProperties extends AbstractBeanPropertiesTest {
 
         @Test
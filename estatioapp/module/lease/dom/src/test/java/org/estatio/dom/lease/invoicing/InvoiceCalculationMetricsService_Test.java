@@ -0,0 +1,117 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationMetrics;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationMetrics.Counter;
+import org.estatio.dom.lease.invoicing.viewmodel.InvoiceCalculationMetrics.Phase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InvoiceCalculationMetricsService_Test {
+
+    InvoiceCalculationMetricsService service;
+
+    @Before
+    public void setUp() throws Exception {
+        service = new InvoiceCalculationMetricsService();
+    }
+
+    public static class Start extends InvoiceCalculationMetricsService_Test {
+
+        @Test
+        public void binds_the_metrics_of_the_run_to_the_thread() throws Exception {
+            // when
+            final InvoiceCalculationMetrics metrics = service.start("run 1");
+
+            // then
+            assertThat(service.current()).isSameAs(metrics);
+            assertThat(service.metricsFor("run 1")).isSameAs(metrics);
+
+            // when
+            service.stop();
+
+            // then
+            assertThat(service.current()).isNull();
+            assertThat(service.metricsFor("run 1")).isSameAs(metrics);
+        }
+
+        @Test
+        public void the_same_run_shares_its_metrics() throws Exception {
+            // given
+            final InvoiceCalculationMetrics metrics = service.start("run 1");
+            metrics.count(Counter.LEASES_VISITED, 2);
+            service.stop();
+
+            // when
+            final Thread worker = new Thread(() -> {
+                service.start("run 1").count(Counter.LEASES_VISITED, 3);
+                service.stop();
+            });
+            worker.start();
+            worker.join();
+
+            // then
+            assertThat(metrics.getLeasesVisited()).isEqualTo(5);
+        }
+
+        @Test
+        public void keeps_the_most_recent_runs_only() throws Exception {
+            // when
+            for (int i = 0; i <= InvoiceCalculationMetricsService.MAX_RUNS; i++) {
+                service.start("run " + i);
+                service.stop();
+            }
+
+            // then
+            assertThat(service.metricsFor("run 0")).isNull();
+            assertThat(service.metricsFor("run 1")).isNotNull();
+            assertThat(service.metricsFor(null)).isNull();
+        }
+
+    }
+
+    public static class Metrics extends InvoiceCalculationMetricsService_Test {
+
+        @Test
+        public void counts_and_times() throws Exception {
+            // given
+            final InvoiceCalculationMetrics metrics = service.start("run 1");
+
+            // when
+            metrics.count(Counter.INVOICE_ITEMS_CREATED, 4);
+            metrics.count(Counter.QUERIES_ISSUED, 1);
+            metrics.time(Phase.RENDER_DESCRIPTION, 3000000L);
+            metrics.time(Phase.RENDER_DESCRIPTION, 2000000L);
+            metrics.finished();
+
+            // then
+            assertThat(metrics.getInvoiceItemsCreated()).isEqualTo(4);
+            assertThat(metrics.getQueriesIssued()).isEqualTo(1);
+            assertThat(metrics.getRenderDescriptionMillis()).isEqualTo(5);
+            assertThat(metrics.getPersistMillis()).isEqualTo(0);
+            assertThat(metrics.getElapsedNanos()).isGreaterThan(0);
+        }
+
+    }
+
+}
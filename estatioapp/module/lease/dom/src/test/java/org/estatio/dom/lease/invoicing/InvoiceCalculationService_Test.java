@@ -20,12 +20,14 @@ package org.estatio.dom.lease.invoicing;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.Timestamp;
 import java.util.Arrays;
 import java.util.List;
 
 import org.jmock.Expectations;
 import org.jmock.auto.Mock;
 import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -40,8 +42,10 @@ import org.estatio.dom.agreement.AgreementRoleType;
 import org.estatio.dom.agreement.AgreementRoleTypeRepository;
 import org.estatio.dom.agreement.AgreementTypeRepository;
 import org.estatio.dom.appsettings.LeaseInvoicingSettingsService;
+import org.estatio.dom.asset.Property;
 import org.estatio.dom.charge.Charge;
 import org.estatio.dom.invoice.InvoiceRunType;
+import org.estatio.dom.invoice.InvoiceStatus;
 import org.estatio.dom.lease.InvoicingFrequency;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseItem;
@@ -467,4 +471,153 @@ public class InvoiceCalculationService_Test {
 
     }
 
-}
\ No newline at end of file
+    public static class IsRemovedByRun extends InvoiceCalculationService_Test {
+
+        Property property;
+        InvoiceForLease invoice;
+        InvoiceItemForLease invoiceItem;
+
+        @Before
+        public void setUp() throws Exception {
+            property = new Property();
+            invoice = new InvoiceForLease();
+            invoice.setFixedAsset(property);
+            invoice.setDueDate(new LocalDate(2014, 1, 1));
+            invoice.setStatus(InvoiceStatus.NEW);
+            invoiceItem = new InvoiceItemForLease();
+            invoiceItem.setInvoice(invoice);
+        }
+
+        @Test
+        public void new_invoice_of_property_and_due_date() throws Exception {
+            assertThat(InvoiceCalculationService.isRemovedByRun(invoiceItem, parametersFor(property, new LocalDate(2014, 1, 1)))).isTrue();
+        }
+
+        @Test
+        public void other_due_date() throws Exception {
+            assertThat(InvoiceCalculationService.isRemovedByRun(invoiceItem, parametersFor(property, new LocalDate(2014, 4, 1)))).isFalse();
+        }
+
+        @Test
+        public void other_property() throws Exception {
+            assertThat(InvoiceCalculationService.isRemovedByRun(invoiceItem, parametersFor(new Property(), new LocalDate(2014, 1, 1)))).isFalse();
+        }
+
+        @Test
+        public void not_new() throws Exception {
+            invoice.setStatus(InvoiceStatus.APPROVED);
+            assertThat(InvoiceCalculationService.isRemovedByRun(invoiceItem, parametersFor(property, new LocalDate(2014, 1, 1)))).isFalse();
+        }
+
+        private static InvoiceCalculationParameters parametersFor(final Property property, final LocalDate dueDate) {
+            return InvoiceCalculationParameters.builder()
+                    .property(property)
+                    .invoiceDueDate(dueDate)
+                    .build();
+        }
+
+    }
+
+    public static class RunId extends InvoiceCalculationService_Test {
+
+        @Test
+        public void start_and_parameters_of_run() throws Exception {
+            final String runId = InvoiceCalculationService.runIdFor(new LocalDateTime(2014, 1, 1, 10, 0), "PROP - [RENT]");
+            assertThat(InvoiceCalculationService.startOfRun(runId)).isEqualTo(new LocalDateTime(2014, 1, 1, 10, 0));
+            assertThat(InvoiceCalculationService.parametersOfRun(runId)).isEqualTo("PROP - [RENT]");
+        }
+
+        @Test
+        public void not_a_run_id() throws Exception {
+            assertThat(InvoiceCalculationService.startOfRun("imported")).isNull();
+            assertThat(InvoiceCalculationService.startOfRun("yesterday - PROP")).isNull();
+            assertThat(InvoiceCalculationService.parametersOfRun("imported")).isNull();
+        }
+
+    }
+
+    public static class LastRunId extends InvoiceCalculationService_Test {
+
+        InvoiceCalculationParameters parameters;
+        String runId;
+
+        @Before
+        public void setUp() throws Exception {
+            final Property property = new Property();
+            property.setReference("PROP");
+            parameters = InvoiceCalculationParameters.builder()
+                    .property(property)
+                    .invoiceDueDate(new LocalDate(2014, 1, 1))
+                    .startDueDate(new LocalDate(2014, 1, 1))
+                    .nextDueDate(new LocalDate(2014, 1, 2))
+                    .build();
+            runId = InvoiceCalculationService.runIdFor(new LocalDateTime(2014, 1, 1, 10, 0), parameters.toString());
+        }
+
+        private static InvoiceForLease invoiceOfRun(final String runId) {
+            final InvoiceForLease invoice = new InvoiceForLease();
+            invoice.setRunId(runId);
+            return invoice;
+        }
+
+        @Test
+        public void single_run_with_same_parameters() throws Exception {
+            assertThat(InvoiceCalculationService.lastRunId(Arrays.asList(invoiceOfRun(runId), invoiceOfRun(runId)), parameters)).isEqualTo(runId);
+        }
+
+        @Test
+        public void no_invoices() throws Exception {
+            assertThat(InvoiceCalculationService.lastRunId(Arrays.<InvoiceForLease>asList(), parameters)).isNull();
+        }
+
+        @Test
+        public void several_runs() throws Exception {
+            final String otherRunId = "2013-12-01T10:00:00.000 - " + parameters.toString();
+            assertThat(InvoiceCalculationService.lastRunId(Arrays.asList(invoiceOfRun(runId), invoiceOfRun(otherRunId)), parameters)).isNull();
+        }
+
+        @Test
+        public void other_parameters() throws Exception {
+            final String otherRunId = InvoiceCalculationService.runIdFor(new LocalDateTime(2014, 1, 1, 10, 0), "OTHER");
+            assertThat(InvoiceCalculationService.lastRunId(Arrays.asList(invoiceOfRun(otherRunId)), parameters)).isNull();
+        }
+
+    }
+
+    public static class ItemsChangedSince extends InvoiceCalculationService_Test {
+
+        final Timestamp startOfRun = Timestamp.valueOf("2014-01-01 10:00:00");
+
+        Lease lease;
+        LeaseItem leaseItem;
+        LeaseTermForTesting leaseTerm;
+
+        @Before
+        public void setUp() throws Exception {
+            lease = new Lease();
+            leaseItem = new LeaseItem(lease, InvoicingFrequency.QUARTERLY_IN_ADVANCE);
+            lease.getItems().add(leaseItem);
+            leaseTerm = new LeaseTermForTesting(leaseItem, new LocalDate(2013, 1, 1), null, new BigDecimal("1000.00"));
+            leaseItem.getTerms().add(leaseTerm);
+        }
+
+        @Test
+        public void nothing_changed() throws Exception {
+            leaseItem.setChangedAt(Timestamp.valueOf("2013-12-31 10:00:00"));
+            assertThat(InvoiceCalculationService.itemsChangedSince(lease, startOfRun)).isEmpty();
+        }
+
+        @Test
+        public void never_marked() throws Exception {
+            assertThat(InvoiceCalculationService.itemsChangedSince(lease, startOfRun)).isEmpty();
+        }
+
+        @Test
+        public void item_changed() throws Exception {
+            leaseItem.setChangedAt(Timestamp.valueOf("2014-01-01 11:00:00"));
+            assertThat(InvoiceCalculationService.itemsChangedSince(lease, startOfRun)).containsExactly(leaseItem);
+        }
+
+    }
+
+}
@@ -19,6 +19,7 @@
 package org.estatio.dom.lease.invoicing;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 
 import org.jmock.Expectations;
 import org.jmock.auto.Mock;
@@ -44,6 +45,8 @@ import org.estatio.dom.lease.LeaseTermForTesting;
 import org.estatio.dom.tax.Tax;
 import org.estatio.dom.tax.TaxRate;
 import org.estatio.dom.tax.TaxRateRepository;
+import org.estatio.dom.tax.TaxRateTimeline;
+import org.estatio.dom.tax.TaxRateTimelineCache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -76,6 +79,9 @@ InvoiceItemForLease_Test {
         @Mock
         TaxRateRepository mockTaxRateRepository;
 
+        @Mock
+        TaxRateTimelineCache mockTaxRateTimelineCache;
+
         @Rule
         public JUnitRuleMockery2 context = JUnitRuleMockery2.createFor(JUnitRuleMockery2.Mode.INTERFACES_AND_CLASSES);
 
@@ -84,8 +90,10 @@ InvoiceItemForLease_Test {
             charge = new Charge();
             tax = new Tax();
             tax.taxRateRepository = mockTaxRateRepository;
+            tax.taxRateTimelineCache = mockTaxRateTimelineCache;
 
             rate = new TaxRate();
+            rate.setStartDate(new LocalDate(2011, 1, 1));
             rate.setPercentage(BigDecimal.valueOf(21));
 
             item = new InvoiceItemForLease();
@@ -104,6 +112,8 @@ InvoiceItemForLease_Test {
                 {
                     allowing(mockTaxRateRepository).findTaxRateByTaxAndDate(with(tax), with(new LocalDate(2012, 1, 1)));
                     will(returnValue(rate));
+                    allowing(mockTaxRateTimelineCache).timelineFor(tax);
+                    will(returnValue(TaxRateTimeline.of(Collections.singletonList(rate))));
                 }
             });
             item.setNetAmount(BigDecimal.valueOf(12.34));
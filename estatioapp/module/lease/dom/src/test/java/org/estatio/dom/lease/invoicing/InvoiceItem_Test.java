@@ -191,4 +191,97 @@ public class InvoiceItem_Test {
         }
     }
 
-}
\ No newline at end of file
+    public static class Totals extends InvoiceItem_Test {
+
+        private InvoiceForTesting invoice;
+
+        @Before
+        public void setup() {
+            invoice = new InvoiceForTesting();
+        }
+
+        @Test
+        public void maintained_as_amounts_change() {
+            // given
+            final InvoiceItem item1 = newItem(invoice, "100.00", "21.00", "121.00");
+            final InvoiceItem item2 = newItem(invoice, "10.00", "2.10", "12.10");
+
+            // then
+            assertTotals(invoice, "110.00", "23.10", "133.10");
+
+            // when
+            item2.setNetAmount(new BigDecimal("20.00"));
+            item2.setVatAmount(new BigDecimal("4.20"));
+            item2.setGrossAmount(new BigDecimal("24.20"));
+
+            // then
+            assertTotals(invoice, "120.00", "25.20", "145.20");
+            assertThat(invoice.totalsAreConsistent()).isTrue();
+        }
+
+        @Test
+        public void when_moved_to_another_invoice() {
+            // given
+            final InvoiceItem item = newItem(invoice, "100.00", "21.00", "121.00");
+            final InvoiceForTesting otherInvoice = new InvoiceForTesting();
+
+            // when
+            invoice.getItems().remove(item);
+            item.setInvoice(otherInvoice);
+            otherInvoice.getItems().add(item);
+
+            // then
+            assertTotals(invoice, "0.00", "0.00", "0.00");
+            assertTotals(otherInvoice, "100.00", "21.00", "121.00");
+        }
+
+        @Test
+        public void not_yet_backfilled() {
+            // given
+            newItem(invoice, "100.00", "21.00", "121.00");
+            invoice.setNetAmount(null);
+            invoice.setVatAmount(null);
+            invoice.setGrossAmount(null);
+
+            // then summed from the items
+            assertThat(invoice.hasTotals()).isFalse();
+            assertThat(invoice.totalsAreConsistent()).isFalse();
+            assertTotals(invoice, "100.00", "21.00", "121.00");
+
+            // when
+            invoice.recalculateTotals();
+
+            // then
+            assertThat(invoice.totalsAreConsistent()).isTrue();
+        }
+
+        @Test
+        public void inconsistent() {
+            // given
+            newItem(invoice, "100.00", "21.00", "121.00");
+
+            // when
+            invoice.setNetAmount(new BigDecimal("99.99"));
+
+            // then
+            assertThat(invoice.totalsAreConsistent()).isFalse();
+        }
+
+        private static InvoiceItem newItem(final Invoice invoice, final String net, final String vat, final String gross) {
+            final InvoiceItem item = new InvoiceItemForLease();
+            item.setInvoice(invoice);
+            item.setNetAmount(new BigDecimal(net));
+            item.setVatAmount(new BigDecimal(vat));
+            item.setGrossAmount(new BigDecimal(gross));
+            invoice.getItems().add(item);
+            return item;
+        }
+
+        private static void assertTotals(final Invoice invoice, final String net, final String vat, final String gross) {
+            assertThat(invoice.getNetAmount()).isEqualByComparingTo(net);
+            assertThat(invoice.getVatAmount()).isEqualByComparingTo(vat);
+            assertThat(invoice.getGrossAmount()).isEqualByComparingTo(gross);
+        }
+    }
+
+}
@@ -180,6 +180,30 @@ public class InvoiceRepository_Test {
 
     }
 
+    public static class FindRunInvoicesOfLease extends InvoiceRepository_Test {
+
+        @Test
+        public void happyCase() {
+
+            final InvoiceCalculationParameters parameters = InvoiceCalculationParameters.builder()
+                    .lease(lease)
+                    .invoiceDueDate(dueDate)
+                    .build();
+
+            invoiceForLeaseRepository.findRunInvoicesOfLease(lease, parameters);
+
+            assertThat(finderInteraction.getFinderMethod()).isEqualTo(FinderMethod.ALL_MATCHES);
+            assertThat(finderInteraction.getResultType()).isEqualTo(InvoiceForLease.class);
+            assertThat(finderInteraction.getQueryName()).isEqualTo("findByLeaseAndFixedAssetAndDueDateAndStatus");
+            assertThat(finderInteraction.getArgumentsByParameterName().get("lease")).isEqualTo((Object) lease);
+            assertThat(finderInteraction.getArgumentsByParameterName().get("fixedAsset")).isNull();
+            assertThat(finderInteraction.getArgumentsByParameterName().get("dueDate")).isEqualTo((Object) dueDate);
+            assertThat(finderInteraction.getArgumentsByParameterName().get("status")).isEqualTo((Object) InvoiceStatus.NEW);
+
+            assertThat(finderInteraction.getArgumentsByParameterName()).hasSize(4);
+        }
+    }
+
     public static class AllInvoices extends InvoiceRepository_Test {
 
         @Test
@@ -0,0 +1,96 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.incode.module.base.dom.valuetypes.LocalDateInterval;
+
+import org.estatio.dom.lease.LeaseTermForTesting;
+import org.estatio.dom.lease.LeaseTermValueType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InvoicedValues_Test {
+
+    LeaseTermForTesting leaseTerm;
+    LeaseTermForTesting otherLeaseTerm;
+
+    LocalDateInterval q1 = LocalDateInterval.including(new LocalDate(2012, 1, 1), new LocalDate(2012, 3, 31));
+    LocalDateInterval q2 = LocalDateInterval.including(new LocalDate(2012, 4, 1), new LocalDate(2012, 6, 30));
+
+    @Before
+    public void setUp() throws Exception {
+        leaseTerm = new LeaseTermForTesting();
+        otherLeaseTerm = new LeaseTermForTesting();
+    }
+
+    static InvoiceItemForLease item(final LeaseTermForTesting leaseTerm, final LocalDateInterval interval, final String netAmount) {
+        final InvoiceItemForLease invoiceItem = new InvoiceItemForLease();
+        invoiceItem.setLeaseTerm(leaseTerm);
+        invoiceItem.setStartDate(interval.startDate());
+        invoiceItem.setEndDate(interval.endDate());
+        invoiceItem.setNetAmount(netAmount == null ? null : new BigDecimal(netAmount));
+        return invoiceItem;
+    }
+
+    @Test
+    public void nothing_invoiced() throws Exception {
+        final InvoicedValues invoicedValues = new InvoicedValues(Collections.<InvoiceItemForLease>emptyList());
+        assertThat(invoicedValues.invoicedValue(leaseTerm, q1)).isEqualTo(new BigDecimal(0));
+    }
+
+    @Test
+    public void sums_per_lease_term_and_interval() throws Exception {
+        final InvoicedValues invoicedValues = new InvoicedValues(Arrays.asList(
+                item(leaseTerm, q1, "100.00"),
+                item(leaseTerm, q1, "-20.00"),
+                item(leaseTerm, q2, "50.00"),
+                item(otherLeaseTerm, q1, "1000.00")));
+
+        assertThat(invoicedValues.invoicedValue(leaseTerm, q1)).isEqualTo(new BigDecimal("80.00"));
+        assertThat(invoicedValues.invoicedValue(leaseTerm, q2)).isEqualTo(new BigDecimal("50.00"));
+        assertThat(invoicedValues.invoicedValue(otherLeaseTerm, q2)).isEqualTo(new BigDecimal(0));
+    }
+
+    @Test
+    public void fixed_value_type_sums_all_intervals() throws Exception {
+        leaseTerm.setLeaseTermValueType(LeaseTermValueType.FIXED);
+        final InvoicedValues invoicedValues = new InvoicedValues(Arrays.asList(
+                item(leaseTerm, q1, "100.00"),
+                item(leaseTerm, q2, "50.00")));
+
+        assertThat(invoicedValues.invoicedValue(leaseTerm, q2)).isEqualTo(new BigDecimal("150.00"));
+    }
+
+    @Test
+    public void added_items_are_taken_into_account() throws Exception {
+        final InvoicedValues invoicedValues = new InvoicedValues(Arrays.asList(item(leaseTerm, q1, "100.00")));
+        invoicedValues.add(item(leaseTerm, q1, "25.00"));
+
+        assertThat(invoicedValues.invoicedValue(leaseTerm, q1)).isEqualTo(new BigDecimal("125.00"));
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.dnc;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OutboundEmail_Test {
+
+    OutboundEmail outboundEmail;
+    DateTime now;
+
+    @Before
+    public void setUp() throws Exception {
+        now = new DateTime(2017, 3, 1, 9, 0);
+        outboundEmail = new OutboundEmail();
+        outboundEmail.setState(OutboundEmailState.QUEUED);
+        outboundEmail.setQueuedAt(now);
+        outboundEmail.setNextAttemptAt(now);
+    }
+
+    public static class Failed extends OutboundEmail_Test {
+
+        @Test
+        public void retried_with_exponential_backoff() throws Exception {
+            // when
+            outboundEmail.failed("connection refused", now, 5, 60);
+
+            // then
+            assertThat(outboundEmail.getState()).isEqualTo(OutboundEmailState.QUEUED);
+            assertThat(outboundEmail.getAttempts()).isEqualTo(1);
+            assertThat(outboundEmail.getNextAttemptAt()).isEqualTo(now.plusSeconds(60));
+            assertThat(outboundEmail.getLastError()).isEqualTo("connection refused");
+
+            // and when
+            outboundEmail.failed("connection refused", now, 5, 60);
+            outboundEmail.failed("connection refused", now, 5, 60);
+
+            // then
+            assertThat(outboundEmail.getAttempts()).isEqualTo(3);
+            assertThat(outboundEmail.getNextAttemptAt()).isEqualTo(now.plusSeconds(240));
+        }
+
+        @Test
+        public void given_up_after_max_attempts() throws Exception {
+            // when
+            outboundEmail.failed("connection refused", now, 2, 60);
+            outboundEmail.failed("connection refused", now, 2, 60);
+
+            // then
+            assertThat(outboundEmail.getState()).isEqualTo(OutboundEmailState.FAILED);
+            assertThat(outboundEmail.getNextAttemptAt()).isNull();
+            assertThat(outboundEmail.disableRequeue()).isNull();
+        }
+
+        @Test
+        public void backoff_is_capped() throws Exception {
+            assertThat(OutboundEmail.backoffSecondsFor(1, 60)).isEqualTo(60);
+            assertThat(OutboundEmail.backoffSecondsFor(7, 60)).isEqualTo(OutboundEmail.MAX_BACKOFF_SECONDS);
+            assertThat(OutboundEmail.backoffSecondsFor(100, 60)).isEqualTo(OutboundEmail.MAX_BACKOFF_SECONDS);
+        }
+
+    }
+
+    public static class Dispatched extends OutboundEmail_Test {
+
+        @Test
+        public void happy_case() throws Exception {
+            // given
+            outboundEmail.failed("connection refused", now, 5, 60);
+
+            // when
+            outboundEmail.dispatched(null, now.plusMinutes(1));
+
+            // then
+            assertThat(outboundEmail.getState()).isEqualTo(OutboundEmailState.DISPATCHED);
+            assertThat(outboundEmail.getDispatchedAt()).isEqualTo(now.plusMinutes(1));
+            assertThat(outboundEmail.getNextAttemptAt()).isNull();
+            assertThat(outboundEmail.getLastError()).isNull();
+            assertThat(outboundEmail.disableRequeue()).isNotNull();
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.dnc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PdfSpool_Test {
+
+    static byte[] pdfWithPages(final int numberOfPages) throws IOException {
+        try (PDDocument document = new PDDocument();
+             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            for (int i = 0; i < numberOfPages; i++) {
+                final PDPage page = new PDPage();
+                page.setResources(new PDResources());
+                document.addPage(page);
+            }
+            document.save(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+
+    public static class MergeToFile extends PdfSpool_Test {
+
+        @Test
+        public void merges_in_order_of_appending() throws Exception {
+            // given
+            final PdfSpool pdfSpool = new PdfSpool();
+            pdfSpool.append(pdfWithPages(1));
+            pdfSpool.append(pdfWithPages(2));
+            pdfSpool.append(pdfWithPages(3));
+            assertThat(pdfSpool.size()).isEqualTo(3);
+
+            // when
+            final File merged = pdfSpool.mergeToFile();
+
+            // then
+            try (PDDocument document = PDDocument.load(merged)) {
+                assertThat(document.getNumberOfPages()).isEqualTo(6);
+            }
+
+            // and when
+            pdfSpool.close();
+
+            // then
+            assertThat(merged).doesNotExist();
+            assertThat(merged.getParentFile()).doesNotExist();
+        }
+
+    }
+
+    public static class Close extends PdfSpool_Test {
+
+        @Test
+        public void when_empty() throws Exception {
+            final PdfSpool pdfSpool = new PdfSpool();
+            assertThat(pdfSpool.isEmpty()).isTrue();
+            pdfSpool.close();
+            pdfSpool.close();
+        }
+
+    }
+
+}
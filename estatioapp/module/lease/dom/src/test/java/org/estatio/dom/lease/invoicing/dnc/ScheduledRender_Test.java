@@ -0,0 +1,79 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.dnc;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScheduledRender_Test {
+
+    ScheduledRender scheduledRender;
+
+    @Before
+    public void setUp() throws Exception {
+        scheduledRender = new ScheduledRender();
+        scheduledRender.setState(ScheduledRenderState.PENDING);
+    }
+
+    public static class Failed extends ScheduledRender_Test {
+
+        @Test
+        public void still_pending_until_max_attempts() throws Exception {
+            // when
+            scheduledRender.failed("Connection refused", 3);
+            scheduledRender.failed("Connection refused", 3);
+
+            // then
+            assertThat(scheduledRender.getState()).isEqualTo(ScheduledRenderState.PENDING);
+            assertThat(scheduledRender.getAttempts()).isEqualTo(2);
+            assertThat(scheduledRender.getLastError()).isEqualTo("Connection refused");
+            assertThat(scheduledRender.disableReschedule()).isNotNull();
+
+            // and when
+            scheduledRender.failed("Read timed out", 3);
+
+            // then
+            assertThat(scheduledRender.getState()).isEqualTo(ScheduledRenderState.FAILED);
+            assertThat(scheduledRender.getLastError()).isEqualTo("Read timed out");
+            assertThat(scheduledRender.disableReschedule()).isNull();
+        }
+
+    }
+
+    public static class Reschedule extends ScheduledRender_Test {
+
+        @Test
+        public void resets_attempts() throws Exception {
+            // given
+            scheduledRender.failed("Connection refused", 1);
+            assertThat(scheduledRender.getState()).isEqualTo(ScheduledRenderState.FAILED);
+
+            // when
+            scheduledRender.reschedule();
+
+            // then
+            assertThat(scheduledRender.getState()).isEqualTo(ScheduledRenderState.PENDING);
+            assertThat(scheduledRender.getAttempts()).isEqualTo(0);
+        }
+
+    }
+
+}
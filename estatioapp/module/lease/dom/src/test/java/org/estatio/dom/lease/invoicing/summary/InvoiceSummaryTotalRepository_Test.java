@@ -0,0 +1,89 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.summary;
+
+import java.util.List;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.isis.applib.query.Query;
+
+import org.incode.module.unittestsupport.dom.repo.FinderInteraction;
+import org.incode.module.unittestsupport.dom.repo.FinderInteraction.FinderMethod;
+
+import org.estatio.dom.invoice.InvoiceStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InvoiceSummaryTotalRepository_Test {
+
+    FinderInteraction finderInteraction;
+
+    InvoiceSummaryTotalRepository invoiceSummaryTotalRepository;
+
+    LocalDate dueDate = new LocalDate(2017, 1, 1);
+
+    @Before
+    public void setup() {
+
+        invoiceSummaryTotalRepository = new InvoiceSummaryTotalRepository() {
+            @Override
+            protected <T> T firstMatch(Query<T> query) {
+                finderInteraction = new FinderInteraction(query, FinderMethod.FIRST_MATCH);
+                return null;
+            }
+
+            @Override
+            protected <T> List<T> allMatches(Query<T> query) {
+                finderInteraction = new FinderInteraction(query, FinderMethod.ALL_MATCHES);
+                return null;
+            }
+        };
+
+    }
+
+    public static class FindByKey extends InvoiceSummaryTotalRepository_Test {
+
+        @Test
+        public void with_run() {
+
+            invoiceSummaryTotalRepository.findByKey("/ITA", "HELLOWORLD", dueDate, InvoiceStatus.NEW, "run1");
+
+            assertThat(finderInteraction.getFinderMethod()).isEqualTo(FinderMethod.FIRST_MATCH);
+            assertThat(finderInteraction.getResultType()).isEqualTo(InvoiceSummaryTotal.class);
+            assertThat(finderInteraction.getQueryName()).isEqualTo("findByKey");
+            assertThat(finderInteraction.getArgumentsByParameterName().get("runId")).isEqualTo((Object) "run1");
+            assertThat(finderInteraction.getArgumentsByParameterName()).hasSize(5);
+        }
+
+        @Test
+        public void without_run() {
+
+            invoiceSummaryTotalRepository.findByKey("/ITA", "HELLOWORLD", dueDate, InvoiceStatus.NEW, null);
+
+            assertThat(finderInteraction.getQueryName()).isEqualTo("findByKeyWithoutRunId");
+            assertThat(finderInteraction.getArgumentsByParameterName().get("dueDate")).isEqualTo((Object) dueDate);
+            assertThat(finderInteraction.getArgumentsByParameterName()).hasSize(4);
+        }
+
+    }
+
+}
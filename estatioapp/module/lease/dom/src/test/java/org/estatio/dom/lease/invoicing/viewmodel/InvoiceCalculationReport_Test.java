@@ -0,0 +1,73 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing.viewmodel;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InvoiceCalculationReport_Test {
+
+    @Test
+    public void records_failures() throws Exception {
+        final InvoiceCalculationReport report = new InvoiceCalculationReport("RUN");
+        report.succeeded();
+        report.failed("LEASE-1", new IllegalStateException("No tax rate"));
+
+        assertThat(report.getLeasesCalculated()).isEqualTo(1);
+        assertThat(report.getLeasesFailed()).isEqualTo(1);
+        assertThat(report.getFailures().get(0).getLeaseReference()).isEqualTo("LEASE-1");
+        assertThat(report.getFailures().get(0).getMessage()).isEqualTo("IllegalStateException: No tax rate");
+        assertThat(report.title()).isEqualTo("1 leases calculated, 1 failed");
+    }
+
+    @Test
+    public void concurrent_workers() throws Exception {
+        final InvoiceCalculationReport report = new InvoiceCalculationReport();
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = Lists.newArrayList();
+            for (int i = 0; i < 8; i++) {
+                final String leaseReference = "LEASE-" + i;
+                futures.add(executorService.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        report.succeeded();
+                    }
+                    report.failed(leaseReference, new RuntimeException());
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertThat(report.getLeasesCalculated()).isEqualTo(8000);
+        assertThat(report.getLeasesFailed()).isEqualTo(8);
+    }
+
+}
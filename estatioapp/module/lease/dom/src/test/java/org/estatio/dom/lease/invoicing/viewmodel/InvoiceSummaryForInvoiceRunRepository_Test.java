@@ -28,6 +28,8 @@ import org.apache.isis.applib.query.Query;
 import org.incode.module.unittestsupport.dom.repo.FinderInteraction;
 import org.incode.module.unittestsupport.dom.repo.FinderInteraction.FinderMethod;
 
+import org.estatio.dom.lease.invoicing.summary.InvoiceSummaryStore;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class InvoiceSummaryForInvoiceRunRepository_Test {
@@ -59,6 +61,11 @@ public class InvoiceSummaryForInvoiceRunRepository_Test {
                 return null;
             }
         };
+        invoiceSummaryForInvoiceRunRepository.invoiceSummaryStore = new InvoiceSummaryStore() {
+            @Override
+            public void refresh() {
+            }
+        };
 
     }
 
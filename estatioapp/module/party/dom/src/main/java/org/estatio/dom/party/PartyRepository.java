@@ -20,6 +20,8 @@ package org.estatio.dom.party;
 
 import java.util.List;
 
+import javax.inject.Inject;
+
 import com.google.common.collect.Lists;
 
 import org.apache.isis.applib.annotation.Action;
@@ -41,15 +43,25 @@ public class PartyRepository extends UdoDomainRepositoryAndFactory<Party> {
 
     // //////////////////////////////////////
 
+    /**
+     * Looked up in the {@link PartySearchIndex search index}, unless the pattern has too few literal characters.
+     */
     @Programmatic
     public List<Party> findParties(
             final String referenceOrName) {
+        if (partySearchIndex.canSearch(referenceOrName)) {
+            return partySearchIndex.search(referenceOrName);
+        }
         return allMatches("matchByReferenceOrName",
                 "referenceOrName", StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName));
     }
 
     @Programmatic
     public Party matchPartyByReferenceOrName(final String referenceOrName) {
+        if (partySearchIndex.canSearch(referenceOrName)) {
+            final List<Party> parties = partySearchIndex.search(referenceOrName);
+            return parties.isEmpty() ? null : parties.get(0);
+        }
         return firstMatch("matchByReferenceOrName",
                 "referenceOrName", StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName));
     }
@@ -68,9 +80,12 @@ public class PartyRepository extends UdoDomainRepositoryAndFactory<Party> {
 
     @Action(hidden = Where.EVERYWHERE)
     public List<Party> autoComplete(final String searchPhrase) {
-        return searchPhrase.length() > 2
-                ? findParties("*" + searchPhrase + "*")
-                : Lists.<Party>newArrayList();
+        if (searchPhrase.length() <= 2) {
+            return Lists.<Party>newArrayList();
+        }
+        return partySearchIndex.canSearch("*" + searchPhrase + "*")
+                ? partySearchIndex.searchRanked(searchPhrase)
+                : findParties("*" + searchPhrase + "*");
     }
 
     // //////////////////////////////////////
@@ -87,4 +102,9 @@ public class PartyRepository extends UdoDomainRepositoryAndFactory<Party> {
         return null;
     }
 
+    // //////////////////////////////////////
+
+    @Inject
+    PartySearchIndex partySearchIndex;
+
 }
@@ -20,6 +20,8 @@ package org.estatio.dom.party;
 
 import java.util.List;
 
+import com.google.common.collect.Lists;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -62,6 +64,13 @@ public class PartyRepository_Test {
                 return null;
             }
         };
+        // as if the patterns cannot be searched in the index
+        partyRepository.partySearchIndex = new PartySearchIndex() {
+            @Override
+            public boolean canSearch(final String referenceOrName) {
+                return false;
+            }
+        };
     }
 
     public static class MatchPartyByReferenceOrName extends PartyRepository_Test {
@@ -95,6 +104,65 @@ public class PartyRepository_Test {
         }
     }
 
+    public static class FindPartiesInSearchIndex extends PartyRepository_Test {
+
+        Party party = new Organisation();
+        String searched;
+        String searchedRanked;
+
+        @Before
+        public void setUpSearchIndex() {
+            partyRepository.partySearchIndex = new PartySearchIndex() {
+                @Override
+                public List<Party> search(final String referenceOrName) {
+                    searched = referenceOrName;
+                    return Lists.newArrayList(party);
+                }
+
+                @Override
+                public List<Party> searchRanked(final String searchPhrase) {
+                    searchedRanked = searchPhrase;
+                    return Lists.newArrayList(party);
+                }
+            };
+        }
+
+        @Test
+        public void findParties() {
+
+            assertThat(partyRepository.findParties("*REF?1*")).containsExactly(party);
+
+            assertThat(searched).isEqualTo("*REF?1*");
+            assertThat(finderInteraction).isNull();
+        }
+
+        @Test
+        public void matchPartyByReferenceOrName() {
+
+            assertThat(partyRepository.matchPartyByReferenceOrName("*REF?1*")).isSameAs(party);
+
+            assertThat(finderInteraction).isNull();
+        }
+
+        @Test
+        public void autoComplete() {
+
+            assertThat(partyRepository.autoComplete("REF")).containsExactly(party);
+
+            assertThat(searchedRanked).isEqualTo("REF");
+            assertThat(finderInteraction).isNull();
+        }
+
+        @Test
+        public void too_few_characters_to_search() {
+
+            partyRepository.findParties("*RE?1*");
+
+            assertThat(searched).isNull();
+            assertThat(finderInteraction.getQueryName()).isEqualTo("matchByReferenceOrName");
+        }
+    }
+
     public static class AllParties extends PartyRepository_Test {
 
         @Test
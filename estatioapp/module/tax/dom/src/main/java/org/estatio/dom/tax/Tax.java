@@ -174,13 +174,12 @@ public class Tax
 
     // //////////////////////////////////////
 
+    /**
+     * Resolved from the {@link TaxRateTimelineCache cached} timeline of this tax' rates rather than queried.
+     */
     @Programmatic
     public BigDecimal percentageFor(final LocalDate date) {
-        TaxRate rate = taxRateFor(date);
-        if (rate == null) {
-            return null;
-        }
-        return rate.getPercentage();
+        return taxRateTimelineCache.timelineFor(this).percentageFor(date);
     }
 
     // //////////////////////////////////////
@@ -195,4 +194,7 @@ public class Tax
     @Inject
     public TaxRateRepository taxRateRepository;
 
+    @Inject
+    public TaxRateTimelineCache taxRateTimelineCache;
+
 }
@@ -20,6 +20,7 @@ package org.estatio.dom.tax;
 
 import java.math.BigDecimal;
 
+import javax.inject.Inject;
 import javax.jdo.annotations.IdGeneratorStrategy;
 import javax.jdo.annotations.IdentityType;
 import javax.jdo.annotations.VersionStrategy;
@@ -62,6 +63,12 @@ import lombok.Setter;
         strategy = VersionStrategy.VERSION_NUMBER,
         column = "version")
 @javax.jdo.annotations.Queries({
+        @javax.jdo.annotations.Query(
+                name = "findByTax", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.tax.TaxRate "
+                        + "WHERE tax == :tax "
+                        + "ORDER BY startDate"),
         @javax.jdo.annotations.Query(
                 name = "findByTaxAndDate", language = "JDOQL",
                 value = "SELECT "
@@ -133,7 +140,9 @@ public class TaxRate
     public TaxRate changeDates(
             final @Parameter(optionality = Optionality.OPTIONAL) LocalDate startDate,
             final @Parameter(optionality = Optionality.OPTIONAL) LocalDate endDate) {
-        return getChangeDates().changeDates(startDate, endDate);
+        final TaxRate taxRate = getChangeDates().changeDates(startDate, endDate);
+        taxRateTimelineCache.invalidate(getTax());
+        return taxRate;
     }
 
     public String disableChangeDates() {
@@ -239,9 +248,11 @@ public class TaxRate
             final @Parameter(optionality = Optionality.OPTIONAL) BigDecimal percentage,
             final @Parameter(optionality = Optionality.OPTIONAL) String externalReference) {
 
+        taxRateTimelineCache.invalidate(getTax());
         setTax(tax);
         setPercentage(percentage);
         setExternalReference(externalReference);
+        taxRateTimelineCache.invalidate(tax);
         return this;
     }
 
@@ -257,4 +268,9 @@ public class TaxRate
         return getExternalReference();
     }
 
+    // //////////////////////////////////////
+
+    @Inject
+    TaxRateTimelineCache taxRateTimelineCache;
+
 }
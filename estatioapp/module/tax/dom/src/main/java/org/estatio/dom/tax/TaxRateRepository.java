@@ -19,6 +19,9 @@
 package org.estatio.dom.tax;
 
 import java.math.BigDecimal;
+import java.util.List;
+
+import javax.inject.Inject;
 
 import org.joda.time.LocalDate;
 
@@ -58,12 +61,21 @@ public class TaxRateRepository extends UdoDomainRepositoryAndFactory<TaxRate> {
             currentRate.modifyNext(rate);
             rate.modifyNext(currentNextRate);
         }
+        taxRateTimelineCache.invalidate(tax);
         return rate;
     }
 
+    @Programmatic
+    public List<TaxRate> findByTax(final Tax tax) {
+        return allMatches("findByTax", "tax", tax);
+    }
+
     @Programmatic
     public TaxRate findTaxRateByTaxAndDate(final Tax tax, final LocalDate date) {
         return firstMatch("findByTaxAndDate", "tax", tax, "date", date);
     }
 
+    @Inject
+    TaxRateTimelineCache taxRateTimelineCache;
+
 }
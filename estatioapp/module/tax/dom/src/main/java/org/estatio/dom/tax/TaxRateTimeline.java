@@ -0,0 +1,112 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.tax;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+
+/**
+ * Immutable, in-memory copy of the {@link TaxRate rate}s of a {@link Tax}, ordered by start date, as
+ * {@link TaxRateTimelineCache cached} to resolve {@link Tax#percentageFor(LocalDate) percentages}.
+ *
+ * <p>
+ * A rate applies to a date as in the <tt>findByTaxAndDate</tt> query: it started on or before the date and has not
+ * ended before it. Where several rates apply (a chain of rates is normally left open-ended) the one that started
+ * last wins.
+ * </p>
+ */
+public final class TaxRateTimeline {
+
+    private final LocalDate[] startDates;
+    private final LocalDate[] endDates;
+    private final BigDecimal[] percentages;
+
+    private TaxRateTimeline(
+            final LocalDate[] startDates,
+            final LocalDate[] endDates,
+            final BigDecimal[] percentages) {
+        this.startDates = startDates;
+        this.endDates = endDates;
+        this.percentages = percentages;
+    }
+
+    public static TaxRateTimeline of(final Iterable<TaxRate> rates) {
+        final List<TaxRate> dated = Lists.newArrayList();
+        for (TaxRate rate : rates) {
+            // never found by the query either
+            if (rate.getStartDate() != null) {
+                dated.add(rate);
+            }
+        }
+        Collections.sort(dated, Comparator.comparing(TaxRate::getStartDate));
+        final int numberOfRates = dated.size();
+        final LocalDate[] startDates = new LocalDate[numberOfRates];
+        final LocalDate[] endDates = new LocalDate[numberOfRates];
+        final BigDecimal[] percentages = new BigDecimal[numberOfRates];
+        for (int i = 0; i < numberOfRates; i++) {
+            final TaxRate rate = dated.get(i);
+            startDates[i] = rate.getStartDate();
+            endDates[i] = rate.getEndDate();
+            percentages[i] = rate.getPercentage();
+        }
+        return new TaxRateTimeline(startDates, endDates, percentages);
+    }
+
+    /**
+     * As {@link Tax#percentageFor(LocalDate)}: the percentage of the rate applying to the date, or <tt>null</tt> if
+     * there is none.
+     */
+    public BigDecimal percentageFor(final LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        // the last rate starting on or before the date; only rates that ended before it are walked past
+        for (int i = lastStartingOnOrBefore(date); i >= 0; i--) {
+            if (endDates[i] == null || !endDates[i].isBefore(date)) {
+                return percentages[i];
+            }
+        }
+        return null;
+    }
+
+    public int numberOfRates() {
+        return startDates.length;
+    }
+
+    private int lastStartingOnOrBefore(final LocalDate date) {
+        int low = 0;
+        int high = startDates.length - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (startDates[mid].isAfter(date)) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return high;
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.tax;
+
+import javax.inject.Inject;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.estatio.dom.TransactionalTimelineCache;
+
+/**
+ * Caches the {@link TaxRateTimeline timeline} of each {@link Tax}, keyed by the tax' reference, so that calculating
+ * the VAT of a run of invoice items loads the rates of a tax once rather than querying them once per item.
+ *
+ * <p>
+ * A timeline is loaded on first use and kept until the tax' rates change: creating or updating a rate
+ * ({@link TaxRateRepository#newRate(Tax, org.joda.time.LocalDate, java.math.BigDecimal)}, and hence
+ * {@link Tax#newRate(org.joda.time.LocalDate, java.math.BigDecimal)}), changing its dates
+ * ({@link TaxRate#changeDates(org.joda.time.LocalDate, org.joda.time.LocalDate)}) or changing it
+ * ({@link TaxRate#change(Tax, java.math.BigDecimal, String)}) invalidates it.
+ * </p>
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class TaxRateTimelineCache extends TransactionalTimelineCache<Tax, TaxRateTimeline> {
+
+    @Programmatic
+    public TaxRateTimeline timelineFor(final Tax tax) {
+        return timelineOf(tax);
+    }
+
+    @Override
+    protected String keyOf(final Tax tax) {
+        return tax.getReference();
+    }
+
+    @Override
+    protected TaxRateTimeline load(final Tax tax) {
+        return TaxRateTimeline.of(taxRateRepository.findByTax(tax));
+    }
+
+    @Inject
+    TaxRateRepository taxRateRepository;
+
+}
@@ -85,4 +85,19 @@ public class TaxRateRepository_Test {
         }
     }
 
+    public static class FindByTax extends TaxRateRepository_Test {
+        @Test
+        public void happyCase() {
+
+            taxRateRepository.findByTax(tax);
+
+            assertThat(finderInteraction.getFinderMethod()).isEqualTo(FinderMethod.ALL_MATCHES);
+            assertThat(finderInteraction.getResultType()).isEqualTo(TaxRate.class);
+            assertThat(finderInteraction.getQueryName()).isEqualTo("findByTax");
+            assertThat(finderInteraction.getArgumentsByParameterName().get("tax")).isEqualTo((Object) tax);
+            assertThat(finderInteraction.getArgumentsByParameterName()).hasSize(1);
+
+        }
+    }
+
 }
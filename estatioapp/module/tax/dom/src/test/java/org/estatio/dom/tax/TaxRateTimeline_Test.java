@@ -0,0 +1,84 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.tax;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TaxRateTimeline_Test {
+
+    List<TaxRate> rates;
+
+    TaxRateTimeline timeline;
+
+    @Before
+    public void setUp() throws Exception {
+        rates = Lists.newArrayList();
+        // deliberately out of order
+        rates.add(newRate(new LocalDate(2014, 1, 1), null, "22"));
+        rates.add(newRate(new LocalDate(2000, 1, 1), null, "19"));
+        rates.add(newRate(new LocalDate(2010, 1, 1), new LocalDate(2011, 12, 31), "21"));
+        rates.add(newRate(null, null, "99"));
+
+        timeline = TaxRateTimeline.of(rates);
+    }
+
+    static TaxRate newRate(final LocalDate startDate, final LocalDate endDate, final String percentage) {
+        final TaxRate rate = new TaxRate();
+        rate.setStartDate(startDate);
+        rate.setEndDate(endDate);
+        rate.setPercentage(new BigDecimal(percentage));
+        return rate;
+    }
+
+    public static class PercentageFor extends TaxRateTimeline_Test {
+
+        @Test
+        public void happyCase() throws Exception {
+            assertThat(timeline.percentageFor(new LocalDate(2005, 6, 1))).isEqualTo(new BigDecimal("19"));
+            assertThat(timeline.percentageFor(new LocalDate(2010, 1, 1))).isEqualTo(new BigDecimal("21"));
+            assertThat(timeline.percentageFor(new LocalDate(2011, 12, 31))).isEqualTo(new BigDecimal("21"));
+            assertThat(timeline.percentageFor(new LocalDate(2014, 1, 1))).isEqualTo(new BigDecimal("22"));
+            assertThat(timeline.numberOfRates()).isEqualTo(3);
+        }
+
+        @Test
+        public void after_a_rate_ended() throws Exception {
+            // falls back to the earlier, open-ended rate
+            assertThat(timeline.percentageFor(new LocalDate(2012, 1, 1))).isEqualTo(new BigDecimal("19"));
+        }
+
+        @Test
+        public void no_rate() throws Exception {
+            assertThat(timeline.percentageFor(new LocalDate(1999, 12, 31))).isNull();
+            assertThat(timeline.percentageFor(null)).isNull();
+            assertThat(TaxRateTimeline.of(Lists.<TaxRate>newArrayList()).percentageFor(new LocalDate(2014, 1, 1))).isNull();
+        }
+
+    }
+
+}
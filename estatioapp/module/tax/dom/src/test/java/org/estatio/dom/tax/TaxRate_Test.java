@@ -32,6 +32,8 @@ import org.incode.module.base.dom.with.WithIntervalMutable;
 import org.incode.module.unittestsupport.dom.bean.AbstractBeanPropertiesTest;
 import org.incode.module.unittestsupport.dom.with.WithIntervalMutableContractTestAbstract_changeDates;
 
+import org.estatio.dom.TransactionCompletionService;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class TaxRate_Test {
@@ -58,12 +60,21 @@ public class TaxRate_Test {
         }
 
         protected TaxRate doCreateWithIntervalMutable(final WithIntervalMutable.Helper<TaxRate> mockChangeDates) {
-            return new TaxRate() {
+            final TaxRate taxRate = new TaxRate() {
                 @Override
                 WithIntervalMutable.Helper<TaxRate> getChangeDates() {
                     return mockChangeDates;
                 }
             };
+            taxRate.taxRateTimelineCache = new TaxRateTimelineCache() {{
+                transactionCompletionService = new TransactionCompletionService() {
+                    @Override
+                    public void onCompletion(final Runnable action) {
+                        action.run();
+                    }
+                };
+            }};
+            return taxRate;
         }
 
 
@@ -145,11 +145,9 @@ public class Tax_Test {
         public void gross_from_net_correctly_calculated() throws Exception {
             //given
 
-            TaxRate rate = new TaxRate();
-            rate.setPercentage(new BigDecimal("21"));
             Tax tax = new Tax() {
-                @Override public TaxRate taxRateFor(final LocalDate date) {
-                    return rate;
+                @Override public BigDecimal percentageFor(final LocalDate date) {
+                    return new BigDecimal("21");
                 }
 
                 ;